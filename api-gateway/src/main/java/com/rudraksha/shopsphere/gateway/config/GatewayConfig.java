@@ -82,6 +82,16 @@ public class GatewayConfig {
                                 }))
                         .uri("lb://batch-service"))
 
+                .route("cart-admin", r -> r
+                        .path("/cart/api/v1/admin/**")
+                        .filters(f -> f.stripPrefix(1)
+                                .filter(authenticationFilter.apply(new AuthenticationFilter.Config(List.of("ADMIN"))))
+                                .requestRateLimiter(config -> {
+                                    config.setRateLimiter(defaultRateLimiter);
+                                    config.setKeyResolver(userKeyResolver);
+                                }))
+                        .uri("lb://cart-service"))
+
                 .route("cart-service", r -> r
                         .path("/cart/**")
                         .filters(f -> f.stripPrefix(1)
@@ -41,6 +41,12 @@ public class LocalGatewayConfig {
                                 authenticationFilter.apply(new AuthenticationFilter.Config(java.util.List.of("ADMIN")))))
                         .uri("http://localhost:8089"))
 
+                .route("cart-admin", r -> r
+                        .path("/cart/api/v1/admin/**")
+                        .filters(f -> f.stripPrefix(1)
+                                .filter(authenticationFilter.apply(new AuthenticationFilter.Config(java.util.List.of("ADMIN")))))
+                        .uri("http://localhost:8085"))
+
                 .route("cart-service", r -> r
                         .path("/cart/**")
                         .filters(f -> f.stripPrefix(1)
@@ -1,11 +1,16 @@
 package com.rudraksha.shopsphere.cart.client;
 
+import com.rudraksha.shopsphere.cart.dto.request.BatchAvailabilityRequest;
+import com.rudraksha.shopsphere.cart.dto.response.AvailabilityResponse;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import org.slf4j.LoggerFactory;
+import java.util.List;
 
 @FeignClient(name = "inventory-service", path = "/api/inventory")
 public interface InventoryClient {
@@ -14,6 +19,10 @@ public interface InventoryClient {
     @CircuitBreaker(name = "inventory-service", fallbackMethod = "checkAvailabilityFallback")
     Boolean checkAvailability(@RequestParam("sku") String sku, @RequestParam("quantity") Integer quantity);
 
+    @PostMapping("/availability")
+    @CircuitBreaker(name = "inventory-service", fallbackMethod = "checkAvailabilityBatchFallback")
+    List<AvailabilityResponse> checkAvailability(@RequestBody BatchAvailabilityRequest request);
+
     default Boolean checkAvailabilityFallback(String sku, Integer quantity, Throwable throwable) {
         LoggerFactory.getLogger(InventoryClient.class).error("Inventory Service fallback triggered for checkAvailability for SKU: {}, quantity: {} due to: {}", sku, quantity, throwable.getMessage(), throwable);
         // Fallback to true to allow adding to cart even if inventory is down,
@@ -23,4 +32,16 @@ public interface InventoryClient {
         // Let's return true (optimistic) but log.
         return true;
     }
+
+    default List<AvailabilityResponse> checkAvailabilityBatchFallback(BatchAvailabilityRequest request, Throwable throwable) {
+        LoggerFactory.getLogger(InventoryClient.class).error("Inventory Service fallback triggered for batch checkAvailability of {} items due to: {}", request.getItems().size(), throwable.getMessage(), throwable);
+        // Optimistic like the single check; checkout validates again
+        return request.getItems().stream()
+                .map(item -> AvailabilityResponse.builder()
+                        .sku(item.getSku())
+                        .requestedQuantity(item.getQuantity())
+                        .available(true)
+                        .build())
+                .toList();
+    }
 }
@@ -0,0 +1,47 @@
+package com.rudraksha.shopsphere.cart.controller;
+
+import com.rudraksha.shopsphere.cart.dto.response.IdleCartPageResponse;
+import com.rudraksha.shopsphere.cart.service.CartService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Cross-user cart endpoints for back-office jobs. The gateway only routes here for ADMIN tokens;
+ * the role header it sets is checked again so a call that skips the gateway gets nothing.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/cart")
+@RequiredArgsConstructor
+@Validated
+public class AdminCartController {
+
+    private final CartService cartService;
+
+    /**
+     * Carts idle for at least {@code idleFor} (ISO-8601, e.g. PT24H), for re-engagement and cleanup jobs.
+     */
+    @GetMapping("/idle")
+    public ResponseEntity<IdleCartPageResponse> getIdleCarts(
+            @RequestHeader(value = "X-User-Roles", required = false) String roles,
+            @RequestParam(defaultValue = "PT24H") Duration idleFor,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        if (!isAdmin(roles)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(cartService.getIdleCarts(idleFor, cursor, limit));
+    }
+
+    private static boolean isAdmin(String roles) {
+        return roles != null && Arrays.stream(roles.split(","))
+                .anyMatch(role -> role.trim().equalsIgnoreCase("ADMIN"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.rudraksha.shopsphere.cart.controller;
 
 import com.rudraksha.shopsphere.cart.dto.request.AddToCartRequest;
+import com.rudraksha.shopsphere.cart.dto.request.BulkAddToCartRequest;
+import com.rudraksha.shopsphere.cart.dto.request.MergeCartRequest;
 import com.rudraksha.shopsphere.cart.dto.request.UpdateCartItemRequest;
 import com.rudraksha.shopsphere.cart.dto.response.CartResponse;
 import com.rudraksha.shopsphere.cart.service.CartService;
@@ -28,6 +30,27 @@ public class CartController {
         return ResponseEntity.ok(cartService.addToCart(userId, request));
     }
 
+    @PostMapping("/items/bulk")
+    public ResponseEntity<CartResponse> addItems(
+            @RequestHeader("X-User-Id") String userId,
+            @Valid @RequestBody BulkAddToCartRequest request) {
+        return ResponseEntity.ok(cartService.addItems(userId, request));
+    }
+
+    @PutMapping("/items")
+    public ResponseEntity<CartResponse> replaceItems(
+            @RequestHeader("X-User-Id") String userId,
+            @Valid @RequestBody BulkAddToCartRequest request) {
+        return ResponseEntity.ok(cartService.replaceItems(userId, request));
+    }
+
+    @PostMapping("/merge")
+    public ResponseEntity<CartResponse> mergeCart(
+            @RequestHeader("X-User-Id") String userId,
+            @Valid @RequestBody MergeCartRequest request) {
+        return ResponseEntity.ok(cartService.mergeCart(userId, request.getGuestCartId()));
+    }
+
     @PutMapping("/items/{productId}")
     public ResponseEntity<CartResponse> updateCartItem(
             @RequestHeader("X-User-Id") String userId,
@@ -0,0 +1,15 @@
+package com.rudraksha.shopsphere.cart.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityCheckRequest {
+    private String sku;
+    private Integer quantity;
+}
@@ -0,0 +1,16 @@
+package com.rudraksha.shopsphere.cart.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAvailabilityRequest {
+    private List<AvailabilityCheckRequest> items;
+}
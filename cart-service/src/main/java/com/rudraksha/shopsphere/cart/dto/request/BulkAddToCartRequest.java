@@ -0,0 +1,22 @@
+package com.rudraksha.shopsphere.cart.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAddToCartRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 100, message = "At most 100 items can be added at once")
+    @Valid
+    private List<AddToCartRequest> items;
+}
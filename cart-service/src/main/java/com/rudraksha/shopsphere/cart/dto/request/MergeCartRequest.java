@@ -0,0 +1,16 @@
+package com.rudraksha.shopsphere.cart.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MergeCartRequest {
+    @NotBlank(message = "Guest cart is required")
+    private String guestCartId;
+}
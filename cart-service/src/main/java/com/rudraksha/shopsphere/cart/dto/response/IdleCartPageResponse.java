@@ -0,0 +1,27 @@
+package com.rudraksha.shopsphere.cart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdleCartPageResponse {
+    private List<IdleCart> carts;
+    private String nextCursor;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IdleCart {
+        private String userId;
+        private LocalDateTime lastActivityAt;
+    }
+}
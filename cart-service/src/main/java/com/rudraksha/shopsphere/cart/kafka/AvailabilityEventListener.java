@@ -0,0 +1,52 @@
+package com.rudraksha.shopsphere.cart.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.cart.service.StockAvailabilityCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AvailabilityEventListener implements ConsumerSeekAware {
+
+    private final StockAvailabilityCache stockAvailabilityCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Every cart instance consumes the whole compacted topic from the start under its own group,
+     * so the local copy covers all SKUs after startup. The group is named after the stable instance ID
+     * so a restart rejoins it rather than leaving an orphaned group behind.
+     * Expected message format: {"sku": "ABC", "availableQuantity": 5}; a null value removes the SKU.
+     */
+    @KafkaListener(topics = "inventory.availability",
+            groupId = "cart-service-availability-${kafka.instance-id}")
+    public void handleAvailabilityChanged(ConsumerRecord<String, String> record) {
+        if (record.value() == null) {
+            stockAvailabilityCache.remove(record.key());
+            return;
+        }
+        try {
+            JsonNode event = objectMapper.readTree(record.value());
+            stockAvailabilityCache.update(event.get("sku").asText(), event.get("availableQuantity").asInt());
+        } catch (Exception e) {
+            log.warn("Skipping malformed availability event for key {}: {}", record.key(), record.value(), e);
+        }
+    }
+
+    /**
+     * The local copy starts empty, so replay from the start whatever the group committed last run.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
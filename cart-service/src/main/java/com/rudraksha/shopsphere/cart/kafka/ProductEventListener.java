@@ -0,0 +1,73 @@
+package com.rudraksha.shopsphere.cart.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.cart.service.ProductPriceCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductEventListener implements ConsumerSeekAware {
+
+    private final ProductPriceCache productPriceCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Every cart instance keeps its own price cache, so each consumes under its own group, named after
+     * the stable instance ID so a restart rejoins it rather than leaving an orphaned group behind.
+     * The record timestamp is the entry version.
+     * Expected message format: {"productId": "p1", "name": "Mouse", "price": 25.5, ...}
+     */
+    @KafkaListener(topics = "product.updated", groupId = "cart-service-products-${kafka.instance-id}")
+    public void handleProductUpdated(ConsumerRecord<String, String> record) {
+        try {
+            JsonNode event = objectMapper.readTree(record.value());
+            productPriceCache.applyProductUpdate(event.get("productId").asText(), event.get("name").asText(),
+                    new BigDecimal(event.get("price").asText()), record.timestamp());
+        } catch (Exception e) {
+            // Drop the entry rather than keep serving a price we know has changed
+            if (record.key() != null) {
+                productPriceCache.remove(record.key());
+            }
+            log.warn("Skipping malformed product.updated event for key {}: {}", record.key(), record.value(), e);
+        }
+    }
+
+    /**
+     * Expected message format: {"productId": "p1", "newPrice": 20.0, "oldPrice": 25.5, "timestamp": 1700000000000}
+     */
+    @KafkaListener(topics = "price.updated", groupId = "cart-service-prices-${kafka.instance-id}")
+    public void handlePriceUpdated(ConsumerRecord<String, String> record) {
+        try {
+            JsonNode event = objectMapper.readTree(record.value());
+            JsonNode oldPrice = event.get("oldPrice");
+            productPriceCache.applyPriceUpdate(event.get("productId").asText(),
+                    oldPrice != null && !oldPrice.isNull() ? new BigDecimal(oldPrice.asText()) : null,
+                    new BigDecimal(event.get("newPrice").asText()), record.timestamp());
+        } catch (Exception e) {
+            if (record.key() != null) {
+                productPriceCache.remove(record.key());
+            }
+            log.warn("Skipping malformed price.updated event for key {}: {}", record.key(), record.value(), e);
+        }
+    }
+
+    /**
+     * The cache starts empty and fills from the catalog on first read, so changes made before this
+     * start are skipped rather than replayed from the group's last committed offset.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+}
@@ -0,0 +1,138 @@
+package com.rudraksha.shopsphere.cart.repository;
+
+import com.rudraksha.shopsphere.cart.entity.CartItem;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Schema-based line format with no field names:
+ * <pre>
+ * 0xB1                       format marker and version
+ * varint   name length + 1   0 = null, then UTF-8 bytes
+ * zigzag   price scale
+ * varint   unscaled length   0 = null, then two's-complement bytes
+ * varint   image length + 1  0 = null, then UTF-8 bytes
+ * </pre>
+ * A typical line takes about three quarters of its JSON form. The marker can never start a JSON value,
+ * so both formats can sit side by side in one cart.
+ */
+@Component
+public class BinaryCartLineCodec implements CartLineCodec {
+
+    static final byte VERSION_1 = (byte) 0xB1;
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public byte[] encode(CartItem item) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(VERSION_1);
+        writeString(out, item.getProductName());
+        BigDecimal price = item.getPrice();
+        if (price == null) {
+            writeVarint(out, 0);
+            writeVarint(out, 0);
+        } else {
+            writeVarint(out, (price.scale() << 1) ^ (price.scale() >> 31));
+            byte[] unscaled = price.unscaledValue().toByteArray();
+            writeVarint(out, unscaled.length);
+            out.writeBytes(unscaled);
+        }
+        writeString(out, item.getImageUrl());
+        return out.toByteArray();
+    }
+
+    @Override
+    public boolean canDecode(byte[] value) {
+        return value.length > 0 && value[0] == VERSION_1;
+    }
+
+    @Override
+    public CartItem decode(String productId, int quantity, byte[] value) {
+        Reader in = new Reader(value);
+        if (in.readByte() != VERSION_1) {
+            throw new IllegalStateException("Unknown cart line format for " + productId);
+        }
+        String name = in.readString();
+        int zigzagScale = in.readVarint();
+        int scale = (zigzagScale >>> 1) ^ -(zigzagScale & 1);
+        int unscaledLength = in.readVarint();
+        BigDecimal price = unscaledLength == 0 ? null : new BigDecimal(new BigInteger(in.readBytes(unscaledLength)), scale);
+        String imageUrl = in.readString();
+        return CartItem.builder()
+                .productId(productId)
+                .productName(name)
+                .quantity(quantity)
+                .price(price)
+                .imageUrl(imageUrl)
+                .build();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            if (position >= buffer.length) {
+                throw new IllegalStateException("Truncated cart line");
+            }
+            return buffer[position++];
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint in cart line");
+        }
+
+        byte[] readBytes(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new IllegalStateException("Truncated cart line");
+            }
+            byte[] bytes = new byte[length];
+            System.arraycopy(buffer, position, bytes, 0, length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readVarint();
+            return length == 0 ? null : new String(readBytes(length - 1), StandardCharsets.UTF_8);
+        }
+    }
+}
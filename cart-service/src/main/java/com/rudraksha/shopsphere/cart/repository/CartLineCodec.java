@@ -0,0 +1,24 @@
+package com.rudraksha.shopsphere.cart.repository;
+
+import com.rudraksha.shopsphere.cart.entity.CartItem;
+
+/**
+ * Stored form of a cart line's product snapshot (name, price, image), the {@code p:} field of the
+ * cart hash. Quantity and added-at stay plain numbers so Redis can increment them in place.
+ */
+public interface CartLineCodec {
+
+    /**
+     * Name {@code cart.codec} selects new lines to be written with.
+     */
+    String name();
+
+    byte[] encode(CartItem item);
+
+    /**
+     * Whether the value was written by this codec.
+     */
+    boolean canDecode(byte[] value);
+
+    CartItem decode(String productId, int quantity, byte[] value);
+}
@@ -0,0 +1,420 @@
+package com.rudraksha.shopsphere.cart.repository;
+
+import com.rudraksha.shopsphere.cart.entity.Cart;
+import com.rudraksha.shopsphere.cart.entity.CartItem;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Redis store for carts: one hash per cart under {@code carts:{userId}}.
+ * Each line is spread over three fields, {@code q:{productId}} (quantity), {@code p:{productId}}
+ * (product snapshot) and {@code a:{productId}} (first added, for line order), so a mutation only
+ * writes the fields it changes and concurrent edits of one cart never overwrite each other's lines.
+ * Every mutation is a single pipelined round trip that also refreshes the TTL, records the activity
+ * in the idle-cart index and reads the cart back.
+ * Carts still stored in the old {@code @RedisHash("cart")} layout are moved over on first read.
+ * Product snapshots are written with the {@link CartLineCodec} named by {@code cart.codec} and read
+ * with whichever codec wrote them, so a codec change takes over as lines are rewritten and is
+ * complete once the last older cart expires.
+ * <p>
+ * The idle-cart index is one sorted set per hour, {@code cart-activity:{epochHour}}, holding the users
+ * whose carts changed in that hour scored by the change time. A cart active again later stays in its
+ * older buckets until a page over them finds it there and drops it; buckets expire with the carts.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CartStore {
+    static final String KEY_PREFIX = "carts:";
+    static final String ID = "@id";
+    static final String CREATED = "@created";
+    static final String UPDATED = "@updated";
+    static final String QUANTITY = "q:";
+    static final String PRODUCT = "p:";
+    static final String ADDED = "a:";
+    static final String ACTIVITY_PREFIX = "cart-activity:";
+    static final long BUCKET_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartRepository legacyRepository;
+    private final List<CartLineCodec> codecs;
+
+    @Value("${cart.ttl:P7D}")
+    private Duration ttl;
+
+    @Value("${cart.codec:json}")
+    private String codecName;
+
+    private CartLineCodec writeCodec;
+
+    public record IdleCart(String userId, LocalDateTime lastActivityAt) {}
+
+    /**
+     * One page of idle carts; pass {@code nextCursor} back for the next page, {@code null} when done.
+     */
+    public record IdleCartPage(List<IdleCart> carts, String nextCursor) {}
+
+    @PostConstruct
+    void init() {
+        writeCodec = codecs.stream()
+                .filter(codec -> codec.name().equals(codecName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown cart codec: " + codecName));
+    }
+
+    public Optional<Cart> find(String userId) {
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        Map<String, String> fields = hash.entries(key(userId));
+        if (!fields.isEmpty()) {
+            return Optional.of(toCart(userId, fields));
+        }
+        return legacyRepository.findById(userId).map(this::migrate);
+    }
+
+    /**
+     * Create the cart if it does not exist (a concurrent create keeps the first id) and return it.
+     */
+    public Cart create(String userId) {
+        return mutate(userId, hash -> {});
+    }
+
+    /**
+     * Add to a line's quantity, creating the line if needed, and store the product snapshot.
+     */
+    public Cart addItem(String userId, CartItem item, int quantity) {
+        String key = key(userId);
+        return mutate(userId, hash -> incrementLine(hash, key, item, quantity, nowMillis()));
+    }
+
+    /**
+     * Add several lines in one round trip; each item carries the quantity to add.
+     * New lines keep the order they are given in.
+     */
+    public Cart addItems(String userId, Collection<CartItem> items) {
+        String key = key(userId);
+        return mutate(userId, hash -> incrementLines(hash, key, items));
+    }
+
+    /**
+     * Add the source cart's lines to this cart and delete the source cart, in one round trip.
+     */
+    public Cart mergeInto(String userId, String sourceUserId, Collection<CartItem> items) {
+        String key = key(userId);
+        return mutate(userId, hash -> {
+            incrementLines(hash, key, items);
+            hash.getOperations().delete(key(sourceUserId));
+        });
+    }
+
+    /**
+     * Overwrite a line's quantity and product snapshot.
+     */
+    public Cart setItem(String userId, CartItem item) {
+        String key = key(userId);
+        return mutate(userId, hash -> putLine(hash, key, item, nowMillis()));
+    }
+
+    /**
+     * Overwrite the given lines and drop the lines of {@code removedProductIds}, in one round trip.
+     */
+    public Cart replaceItems(String userId, Collection<CartItem> items, Collection<String> removedProductIds) {
+        String key = key(userId);
+        return mutate(userId, hash -> {
+            for (String productId : removedProductIds) {
+                hash.delete(key, QUANTITY + productId, PRODUCT + productId, ADDED + productId);
+            }
+            long addedAt = nowMillis();
+            for (CartItem item : items) {
+                putLine(hash, key, item, addedAt++);
+            }
+        });
+    }
+
+    public Cart removeItem(String userId, String productId) {
+        String key = key(userId);
+        return mutate(userId, hash -> hash.delete(key, QUANTITY + productId, PRODUCT + productId, ADDED + productId));
+    }
+
+    /**
+     * Rewrite the product snapshots of the given lines only. Does not count as cart activity.
+     */
+    public void updateProducts(String userId, Collection<CartItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        String key = key(userId);
+        Map<String, String> snapshots = new HashMap<>();
+        for (CartItem item : items) {
+            snapshots.put(PRODUCT + item.getProductId(), encode(item));
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForHash().putAll(key, snapshots);
+                ops.expire(key, ttl);
+                return null;
+            }
+        });
+    }
+
+    public void delete(String userId) {
+        redisTemplate.delete(key(userId));
+        // A cart never read since the layout change still sits in the old layout
+        legacyRepository.deleteById(userId);
+    }
+
+    /**
+     * Users whose carts have been idle for at least {@code idleFor}, oldest activity hour first, one
+     * hour bucket per page. The cutoff is rounded down to a whole hour. A page costs one range read
+     * and one pipelined read of the carts' last-change times, so pages can come back short where
+     * stale entries were dropped. An empty result with a cursor just means keep going.
+     */
+    public IdleCartPage findIdleCarts(Duration idleFor, String cursor, int limit) {
+        long now = nowMillis();
+        long lastBucket = Math.floorDiv(now - idleFor.toMillis(), BUCKET_MILLIS) - 1;
+        long bucket = Math.floorDiv(now - ttl.toMillis(), BUCKET_MILLIS);
+        long offset = 0;
+        if (cursor != null) {
+            String[] parts = cursor.split(":");
+            try {
+                bucket = Long.parseLong(parts[0]);
+                offset = Long.parseLong(parts[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // Hours without activity cost one empty range read each, bounded by ttl / 1h
+        for (; bucket <= lastBucket; bucket++, offset = 0) {
+            String bucketKey = activityKey(bucket);
+            Set<String> members = redisTemplate.opsForZSet().range(bucketKey, offset, offset + limit - 1);
+            if (members == null || members.isEmpty()) {
+                continue;
+            }
+            List<String> userIds = new ArrayList<>(members);
+            List<Object> updated = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    HashOperations<String, String, String> hash = ((RedisOperations<String, String>) operations).opsForHash();
+                    userIds.forEach(userId -> hash.get(key(userId), UPDATED));
+                    return null;
+                }
+            });
+
+            List<IdleCart> carts = new ArrayList<>();
+            List<String> stale = new ArrayList<>();
+            for (int i = 0; i < userIds.size(); i++) {
+                String lastChange = (String) updated.get(i);
+                // Gone, or changed again since this bucket
+                if (lastChange == null || Math.floorDiv(Long.parseLong(lastChange), BUCKET_MILLIS) > bucket) {
+                    stale.add(userIds.get(i));
+                } else {
+                    carts.add(new IdleCart(userIds.get(i), toDateTime(lastChange)));
+                }
+            }
+            if (!stale.isEmpty()) {
+                redisTemplate.opsForZSet().remove(bucketKey, stale.toArray());
+            }
+
+            String nextCursor;
+            if (userIds.size() == limit) {
+                nextCursor = bucket + ":" + (offset + userIds.size() - stale.size());
+            } else {
+                nextCursor = bucket < lastBucket ? (bucket + 1) + ":0" : null;
+            }
+            return new IdleCartPage(carts, nextCursor);
+        }
+        return new IdleCartPage(List.of(), null);
+    }
+
+    /**
+     * All idle carts as a lazily paged stream; see {@link #findIdleCarts}.
+     */
+    public Stream<IdleCart> streamIdleCarts(Duration idleFor, int pageSize) {
+        return Stream.iterate(findIdleCarts(idleFor, null, pageSize), Objects::nonNull,
+                        page -> page.nextCursor() != null ? findIdleCarts(idleFor, page.nextCursor(), pageSize) : null)
+                .flatMap(page -> page.carts().stream());
+    }
+
+    private Cart mutate(String userId, Consumer<HashOperations<String, String, String>> writes) {
+        String key = key(userId);
+        long nowMillis = nowMillis();
+        String now = String.valueOf(nowMillis);
+        String activityKey = activityKey(Math.floorDiv(nowMillis, BUCKET_MILLIS));
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                HashOperations<String, String, String> hash = ops.opsForHash();
+                // Recreates the header if the cart is new or expired since it was last read
+                hash.putIfAbsent(key, ID, UUID.randomUUID().toString());
+                hash.putIfAbsent(key, CREATED, now);
+                hash.put(key, UPDATED, now);
+                writes.accept(hash);
+                ops.expire(key, ttl);
+                ops.opsForZSet().add(activityKey, userId, nowMillis);
+                ops.expire(activityKey, ttl.plus(Duration.ofMillis(BUCKET_MILLIS)));
+                hash.entries(key);
+                return null;
+            }
+        });
+        @SuppressWarnings("unchecked")
+        Map<String, String> fields = (Map<String, String>) results.get(results.size() - 1);
+        return toCart(userId, fields);
+    }
+
+    private void incrementLines(HashOperations<String, String, String> hash, String key, Collection<CartItem> items) {
+        long addedAt = nowMillis();
+        for (CartItem item : items) {
+            incrementLine(hash, key, item, item.getQuantity(), addedAt++);
+        }
+    }
+
+    private void incrementLine(HashOperations<String, String, String> hash, String key, CartItem item,
+                               int quantity, long addedAt) {
+        hash.increment(key, QUANTITY + item.getProductId(), quantity);
+        hash.put(key, PRODUCT + item.getProductId(), encode(item));
+        hash.putIfAbsent(key, ADDED + item.getProductId(), String.valueOf(addedAt));
+    }
+
+    private void putLine(HashOperations<String, String, String> hash, String key, CartItem item, long addedAt) {
+        hash.put(key, QUANTITY + item.getProductId(), String.valueOf(item.getQuantity()));
+        hash.put(key, PRODUCT + item.getProductId(), encode(item));
+        hash.putIfAbsent(key, ADDED + item.getProductId(), String.valueOf(addedAt));
+    }
+
+    private Cart migrate(Cart legacy) {
+        String key = key(legacy.getUserId());
+        LocalDateTime created = legacy.getCreatedAt() != null ? legacy.getCreatedAt() : LocalDateTime.now();
+        LocalDateTime updated = legacy.getUpdatedAt() != null ? legacy.getUpdatedAt() : created;
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(ID, legacy.getId() != null ? legacy.getId() : UUID.randomUUID().toString());
+        fields.put(CREATED, String.valueOf(toMillis(created)));
+        fields.put(UPDATED, String.valueOf(toMillis(updated)));
+        String activityKey = activityKey(Math.floorDiv(toMillis(updated), BUCKET_MILLIS));
+        long addedAt = toMillis(created);
+        for (CartItem item : legacy.getItems()) {
+            fields.put(QUANTITY + item.getProductId(), String.valueOf(item.getQuantity()));
+            fields.put(PRODUCT + item.getProductId(), encode(item));
+            fields.put(ADDED + item.getProductId(), String.valueOf(addedAt++));
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForHash().putAll(key, fields);
+                ops.expire(key, ttl);
+                ops.opsForZSet().add(activityKey, legacy.getUserId(), toMillis(updated));
+                ops.expire(activityKey, ttl.plus(Duration.ofMillis(BUCKET_MILLIS)));
+                return null;
+            }
+        });
+        legacyRepository.delete(legacy);
+        log.info("Migrated cart of user {} to the hash layout", legacy.getUserId());
+        return toCart(legacy.getUserId(), fields);
+    }
+
+    Cart toCart(String userId, Map<String, String> fields) {
+        Map<String, Integer> quantities = new HashMap<>();
+        Map<String, String> snapshots = new HashMap<>();
+        Map<String, Long> addedAt = new HashMap<>();
+        fields.forEach((field, value) -> {
+            if (field.startsWith(QUANTITY)) {
+                quantities.put(field.substring(QUANTITY.length()), Integer.parseInt(value));
+            } else if (field.startsWith(PRODUCT)) {
+                snapshots.put(field.substring(PRODUCT.length()), value);
+            } else if (field.startsWith(ADDED)) {
+                addedAt.put(field.substring(ADDED.length()), Long.parseLong(value));
+            }
+        });
+
+        // A line is only complete with both fields; a removal racing a quantity write can leave one
+        List<CartItem> items = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            String snapshot = snapshots.get(productId);
+            if (snapshot != null && quantity > 0) {
+                items.add(decode(productId, quantity, snapshot));
+            }
+        });
+        items.sort(Comparator.comparing(item -> addedAt.getOrDefault(item.getProductId(), 0L)));
+
+        LocalDateTime createdAt = toDateTime(fields.get(CREATED));
+        LocalDateTime updatedAt = toDateTime(fields.get(UPDATED));
+        return Cart.builder()
+                .userId(userId)
+                .id(fields.get(ID))
+                .items(items)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .expiresAt(updatedAt != null ? updatedAt.plus(ttl) : null)
+                .ttl(ttl.toDays())
+                .build();
+    }
+
+    // Hash values are serialized as ISO-8859-1 (see RedisConfig), which maps every byte to one char
+    private String encode(CartItem item) {
+        return new String(writeCodec.encode(item), StandardCharsets.ISO_8859_1);
+    }
+
+    private CartItem decode(String productId, int quantity, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        for (CartLineCodec codec : codecs) {
+            if (codec.canDecode(bytes)) {
+                return codec.decode(productId, quantity, bytes);
+            }
+        }
+        throw new IllegalStateException("Unknown format of cart line " + productId);
+    }
+
+    private static String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static String activityKey(long bucket) {
+        return ACTIVITY_PREFIX + bucket;
+    }
+
+    private static long nowMillis() {
+        return toMillis(LocalDateTime.now());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(String millis) {
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneOffset.UTC) : null;
+    }
+}
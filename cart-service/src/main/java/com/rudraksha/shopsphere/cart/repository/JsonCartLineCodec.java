@@ -0,0 +1,60 @@
+package com.rudraksha.shopsphere.cart.repository;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.cart.entity.CartItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * The original line format: {@code {"n":"Mouse","p":25.50,"i":"mouse.png"}}.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonCartLineCodec implements CartLineCodec {
+
+    private final ObjectMapper objectMapper;
+
+    private record ProductSnapshot(@JsonProperty("n") String name,
+                                   @JsonProperty("p") BigDecimal price,
+                                   @JsonProperty("i") String imageUrl) {}
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(CartItem item) {
+        try {
+            return objectMapper.writeValueAsBytes(
+                    new ProductSnapshot(item.getProductName(), item.getPrice(), item.getImageUrl()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize cart line " + item.getProductId(), e);
+        }
+    }
+
+    @Override
+    public boolean canDecode(byte[] value) {
+        return value.length > 0 && value[0] == '{';
+    }
+
+    @Override
+    public CartItem decode(String productId, int quantity, byte[] value) {
+        try {
+            ProductSnapshot snapshot = objectMapper.readValue(value, ProductSnapshot.class);
+            return CartItem.builder()
+                    .productId(productId)
+                    .productName(snapshot.name())
+                    .quantity(quantity)
+                    .price(snapshot.price())
+                    .imageUrl(snapshot.imageUrl())
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read cart line " + productId, e);
+        }
+    }
+}
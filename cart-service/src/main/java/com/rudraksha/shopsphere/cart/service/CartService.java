@@ -1,13 +1,21 @@
 package com.rudraksha.shopsphere.cart.service;
 
 import com.rudraksha.shopsphere.cart.dto.request.AddToCartRequest;
+import com.rudraksha.shopsphere.cart.dto.request.BulkAddToCartRequest;
 import com.rudraksha.shopsphere.cart.dto.request.UpdateCartItemRequest;
 import com.rudraksha.shopsphere.cart.dto.response.CartResponse;
+import com.rudraksha.shopsphere.cart.dto.response.IdleCartPageResponse;
+
+import java.time.Duration;
 
 public interface CartService {
     CartResponse getCart(String userId);
     CartResponse addToCart(String userId, AddToCartRequest request);
+    CartResponse addItems(String userId, BulkAddToCartRequest request);
+    CartResponse replaceItems(String userId, BulkAddToCartRequest request);
+    CartResponse mergeCart(String userId, String guestCartId);
     CartResponse updateCartItem(String userId, String productId, UpdateCartItemRequest request);
     CartResponse removeFromCart(String userId, String productId);
     void clearCart(String userId);
+    IdleCartPageResponse getIdleCarts(Duration idleFor, String cursor, int limit);
 }
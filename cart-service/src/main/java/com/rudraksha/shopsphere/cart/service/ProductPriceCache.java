@@ -0,0 +1,85 @@
+package com.rudraksha.shopsphere.cart.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Local name and price per product, kept current from catalog's product.updated and pricing's
+ * price.updated topics so cart reads do not call catalog-service.
+ * Entries carry the version (event time) they were written at and are only replaced by newer ones.
+ * A price.updated whose old price does not match the cached price means an update was missed: the
+ * entry is dropped and the next read refetches it. Entries also expire after a maximum age, which
+ * bounds staleness if events are lost altogether.
+ */
+@Component
+public class ProductPriceCache {
+
+    public record Snapshot(String name, BigDecimal price, long version, long loadedAtMs) {}
+
+    private final ConcurrentMap<String, Snapshot> byProductId = new ConcurrentHashMap<>();
+
+    @Value("${cart.price-cache.max-age:PT1H}")
+    private Duration maxAge;
+
+    @Value("${cart.price-cache.max-entries:100000}")
+    private int maxEntries;
+
+    public Optional<Snapshot> get(String productId) {
+        Snapshot snapshot = byProductId.get(productId);
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() - snapshot.loadedAtMs() > maxAge.toMillis()) {
+            byProductId.remove(productId, snapshot);
+            return Optional.empty();
+        }
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Seed a value read from catalog. Never replaces a value that arrived from an event.
+     */
+    public void seed(String productId, String name, BigDecimal price) {
+        if (byProductId.size() >= maxEntries) {
+            return;
+        }
+        byProductId.putIfAbsent(productId, new Snapshot(name, price, 0L, System.currentTimeMillis()));
+    }
+
+    public void applyProductUpdate(String productId, String name, BigDecimal price, long version) {
+        long now = System.currentTimeMillis();
+        byProductId.compute(productId, (id, current) -> {
+            if (current == null) {
+                return byProductId.size() < maxEntries ? new Snapshot(name, price, version, now) : null;
+            }
+            return version >= current.version() ? new Snapshot(name, price, version, now) : current;
+        });
+    }
+
+    /**
+     * Apply a price change to a cached product. Products not cached are ignored: the event has no
+     * name, and the first read fetches the current price anyway.
+     */
+    public void applyPriceUpdate(String productId, BigDecimal oldPrice, BigDecimal newPrice, long version) {
+        long now = System.currentTimeMillis();
+        byProductId.computeIfPresent(productId, (id, current) -> {
+            if (version < current.version()) {
+                return current;
+            }
+            boolean chained = current.price().compareTo(newPrice) == 0
+                    || (oldPrice != null && current.price().compareTo(oldPrice) == 0);
+            // Version gap: this change was made against a price we never saw
+            return chained ? new Snapshot(current.name(), newPrice, version, now) : null;
+        });
+    }
+
+    public void remove(String productId) {
+        byProductId.remove(productId);
+    }
+}
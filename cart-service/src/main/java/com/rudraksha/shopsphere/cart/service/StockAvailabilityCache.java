@@ -0,0 +1,31 @@
+package com.rudraksha.shopsphere.cart.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Read-only local copy of inventory-service's availability snapshot, fed from the compacted
+ * inventory.availability topic. Lets cart stock checks skip the Feign call for SKUs that have been
+ * seen; checkout still reserves against the database, so a slightly stale value is harmless.
+ */
+@Component
+public class StockAvailabilityCache {
+
+    private final ConcurrentMap<String, Integer> availableBySku = new ConcurrentHashMap<>();
+
+    public OptionalInt getAvailableQuantity(String sku) {
+        Integer available = availableBySku.get(sku);
+        return available != null ? OptionalInt.of(available) : OptionalInt.empty();
+    }
+
+    public void update(String sku, int availableQuantity) {
+        availableBySku.put(sku, availableQuantity);
+    }
+
+    public void remove(String sku) {
+        availableBySku.remove(sku);
+    }
+}
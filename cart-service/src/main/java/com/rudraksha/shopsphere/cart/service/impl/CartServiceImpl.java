@@ -3,35 +3,46 @@ package com.rudraksha.shopsphere.cart.service.impl;
 import com.rudraksha.shopsphere.cart.client.CatalogClient;
 import com.rudraksha.shopsphere.cart.client.InventoryClient;
 import com.rudraksha.shopsphere.cart.dto.request.AddToCartRequest;
+import com.rudraksha.shopsphere.cart.dto.request.AvailabilityCheckRequest;
+import com.rudraksha.shopsphere.cart.dto.request.BatchAvailabilityRequest;
+import com.rudraksha.shopsphere.cart.dto.request.BulkAddToCartRequest;
 import com.rudraksha.shopsphere.cart.dto.request.UpdateCartItemRequest;
+import com.rudraksha.shopsphere.cart.dto.response.AvailabilityResponse;
 import com.rudraksha.shopsphere.cart.dto.response.CartItemResponse;
 import com.rudraksha.shopsphere.cart.dto.response.CartResponse;
+import com.rudraksha.shopsphere.cart.dto.response.IdleCartPageResponse;
 import com.rudraksha.shopsphere.cart.dto.response.ProductResponse;
 import com.rudraksha.shopsphere.cart.entity.Cart;
 import com.rudraksha.shopsphere.cart.entity.CartItem;
 import com.rudraksha.shopsphere.cart.exception.InsufficientStockException;
-import com.rudraksha.shopsphere.cart.repository.CartRepository;
+import com.rudraksha.shopsphere.cart.repository.CartStore;
 import com.rudraksha.shopsphere.cart.service.CartService;
+import com.rudraksha.shopsphere.cart.service.ProductPriceCache;
+import com.rudraksha.shopsphere.cart.service.StockAvailabilityCache;
+import com.rudraksha.shopsphere.cart.util.FanOut;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
 
-    private final CartRepository cartRepository;
+    private static final Pattern GUEST_CART_ID =
+            Pattern.compile("guest-[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final CartStore cartStore;
     private final CatalogClient catalogClient;
     private final InventoryClient inventoryClient;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final StockAvailabilityCache stockAvailabilityCache;
+    private final ProductPriceCache productPriceCache;
 
     @Override
     public CartResponse getCart(String userId) {
@@ -42,46 +53,208 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public CartResponse addToCart(String userId, AddToCartRequest request) {
-        // 3.1 & 3.4: Fetch real product data with fallback
-        ProductResponse product = catalogClient.getProductById(request.getProductId());
-        
-        // 3.2: Stock validation
-        if (product.getSku() != null) {
-            Boolean available = inventoryClient.checkAvailability(product.getSku(), request.getQuantity());
-            if (Boolean.FALSE.equals(available)) {
-                throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
-            }
+        ProductResponse product;
+        Map<String, ProductPriceCache.Snapshot> prices;
+        // The product lookup and stock check run alongside pricing the cart's current lines;
+        // a failed stock check cancels the pricing calls
+        try (FanOut scope = new FanOut()) {
+            Future<ProductResponse> productCall = scope.fork(() -> {
+                // 3.1 & 3.4: Fetch real product data with fallback
+                ProductResponse fetched = catalogClient.getProductById(request.getProductId());
+                // 3.2: Stock validation
+                validateStock(fetched, request.getQuantity());
+                return fetched;
+            });
+            Future<Map<String, ProductPriceCache.Snapshot>> pricesCall = scope.fork(() -> cartStore.find(userId)
+                    .map(current -> lookupPrices(productIds(current)))
+                    .orElseGet(HashMap::new));
+            scope.join();
+            product = productCall.resultNow();
+            prices = pricesCall.resultNow();
         }
 
-        Cart cart = getOrCreateCart(userId);
+        // Quantity is incremented in Redis, so concurrent adds to the same line both count
+        CartItem line = CartItem.builder()
+                .productId(request.getProductId())
+                .productName(product.getName())
+                .price(product.getPrice())
+                .imageUrl(product.getImageUrl() != null ? product.getImageUrl() : "")
+                .build();
+        Cart cart = cartStore.addItem(userId, line, request.getQuantity());
+        putFetched(prices, product);
+        applyPrices(cart, prices); // Refresh all items in case others changed
+
+        log.info("Added product {} to cart for user {}", request.getProductId(), userId);
+        return mapToResponse(cart);
+    }
 
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(request.getProductId()))
-                .findFirst();
+    @Override
+    public CartResponse addItems(String userId, BulkAddToCartRequest request) {
+        List<CartItem> lines = resolveLines(sumQuantities(request.getItems()), Map.of(), false);
+        Cart cart = cartStore.addItems(userId, lines);
 
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + request.getQuantity());
-            // Update price and name even if item already exists
-            item.setPrice(product.getPrice());
-            item.setProductName(product.getName());
-        } else {
-            CartItem newItem = CartItem.builder()
-                    .productId(request.getProductId())
+        log.info("Added {} products to cart for user {}", lines.size(), userId);
+        return mapToResponse(cart);
+    }
+
+    @Override
+    public CartResponse replaceItems(String userId, BulkAddToCartRequest request) {
+        Map<String, Integer> quantities = sumQuantities(request.getItems());
+        Map<String, CartItem> current = cartStore.find(userId)
+                .map(CartServiceImpl::linesByProductId)
+                .orElseGet(Map::of);
+        List<CartItem> lines = resolveLines(quantities, current, false);
+        List<String> removed = current.keySet().stream()
+                .filter(productId -> !quantities.containsKey(productId))
+                .toList();
+        Cart cart = cartStore.replaceItems(userId, lines, removed);
+
+        log.info("Replaced cart of user {} with {} products", userId, lines.size());
+        return mapToResponse(cart);
+    }
+
+    @Override
+    public CartResponse mergeCart(String userId, String guestCartId) {
+        // Registered users' carts are keyed by their user ID and must never be a merge source; a guest
+        // cart ID is a random token only the guest's client holds
+        if (!GUEST_CART_ID.matcher(guestCartId).matches()) {
+            throw new IllegalArgumentException("Only guest carts can be merged");
+        }
+        Optional<Cart> source = cartStore.find(guestCartId);
+        if (source.isEmpty() || source.get().getItems().isEmpty()) {
+            source.ifPresent(empty -> cartStore.delete(guestCartId));
+            return getCart(userId);
+        }
+
+        Map<String, CartItem> sourceLines = linesByProductId(source.get());
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        sourceLines.forEach((productId, line) -> quantities.put(productId, line.getQuantity()));
+        // Guest quantities are added to the user's lines, so stock is checked for the sums
+        Map<String, Integer> totals = new LinkedHashMap<>(quantities);
+        cartStore.find(userId).ifPresent(current -> current.getItems().forEach(item -> {
+            if (totals.containsKey(item.getProductId())) {
+                totals.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }));
+        // Products since removed from catalog are dropped rather than failing the whole merge
+        List<CartItem> lines = resolveLines(quantities, totals, sourceLines, true);
+        Cart cart = cartStore.mergeInto(userId, guestCartId, lines);
+
+        log.info("Merged guest cart {} into cart of user {}", guestCartId, userId);
+        return mapToResponse(cart);
+    }
+
+    /**
+     * Build the lines to write for a bulk operation with one catalog call and at most one inventory
+     * call for the whole set. When catalog is unavailable, lines already in {@code storedLines}
+     * keep their stored product snapshot.
+     */
+    private List<CartItem> resolveLines(Map<String, Integer> quantities, Map<String, CartItem> storedLines,
+                                        boolean dropUnknown) {
+        return resolveLines(quantities, quantities, storedLines, dropUnknown);
+    }
+
+    /**
+     * As above, checking stock for {@code totals}, the quantities the cart ends up with, rather than
+     * the quantities written.
+     */
+    private List<CartItem> resolveLines(Map<String, Integer> quantities, Map<String, Integer> totals,
+                                        Map<String, CartItem> storedLines, boolean dropUnknown) {
+        Map<String, ProductResponse> products = new HashMap<>();
+        for (ProductResponse product : catalogClient.getProductsByIds(new ArrayList<>(quantities.keySet()))) {
+            products.put(product.getId(), product);
+        }
+        List<String> unknown = quantities.keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .toList();
+        if (!unknown.isEmpty() && !dropUnknown) {
+            throw new IllegalArgumentException("Products not found: " + unknown);
+        }
+
+        validateStock(products.values(), totals);
+
+        List<CartItem> lines = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            ProductResponse product = products.get(productId);
+            if (product == null) {
+                return;
+            }
+            CartItem stored = storedLines.get(productId);
+            if (product.getSku() == null && stored != null) {
+                lines.add(CartItem.builder()
+                        .productId(productId)
+                        .productName(stored.getProductName())
+                        .quantity(quantity)
+                        .price(stored.getPrice())
+                        .imageUrl(stored.getImageUrl())
+                        .build());
+                return;
+            }
+            if (product.getSku() != null) {
+                productPriceCache.seed(productId, product.getName(), product.getPrice());
+            }
+            lines.add(CartItem.builder()
+                    .productId(productId)
                     .productName(product.getName())
-                    .quantity(request.getQuantity())
+                    .quantity(quantity)
                     .price(product.getPrice())
                     .imageUrl(product.getImageUrl() != null ? product.getImageUrl() : "")
-                    .build();
-            cart.getItems().add(newItem);
+                    .build());
+        });
+        return lines;
+    }
+
+    /**
+     * Stock check for a whole set: SKUs the local availability copy has are checked locally, the rest
+     * in one batch call. Fails with every product that is short.
+     */
+    private void validateStock(Collection<ProductResponse> products, Map<String, Integer> quantities) {
+        List<String> insufficient = new ArrayList<>();
+        Map<String, ProductResponse> unseen = new LinkedHashMap<>();
+        for (ProductResponse product : products) {
+            if (product.getSku() == null) {
+                continue;
+            }
+            int quantity = quantities.get(product.getId());
+            OptionalInt cached = stockAvailabilityCache.getAvailableQuantity(product.getSku());
+            if (cached.isEmpty()) {
+                unseen.put(product.getSku(), product);
+            } else if (cached.getAsInt() < quantity) {
+                insufficient.add(product.getName());
+            }
+        }
+
+        if (!unseen.isEmpty()) {
+            List<AvailabilityCheckRequest> checks = unseen.values().stream()
+                    .map(product -> new AvailabilityCheckRequest(product.getSku(), quantities.get(product.getId())))
+                    .toList();
+            for (AvailabilityResponse availability : inventoryClient.checkAvailability(new BatchAvailabilityRequest(checks))) {
+                ProductResponse product = unseen.get(availability.getSku());
+                if (!availability.isAvailable() && product != null) {
+                    insufficient.add(product.getName());
+                }
+            }
         }
 
-        cart.setUpdatedAt(LocalDateTime.now());
-        refreshCartPrices(cart); // Refresh all items in case others changed
-        saveCart(cart);
+        if (!insufficient.isEmpty()) {
+            throw new InsufficientStockException("Insufficient stock for products: " + String.join(", ", insufficient));
+        }
+    }
 
-        log.info("Added product {} to cart for user {}", request.getProductId(), userId);
-        return mapToResponse(cart);
+    private static Map<String, Integer> sumQuantities(List<AddToCartRequest> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (AddToCartRequest item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static Map<String, CartItem> linesByProductId(Cart cart) {
+        Map<String, CartItem> lines = new LinkedHashMap<>();
+        for (CartItem item : cart.getItems()) {
+            lines.put(item.getProductId(), item);
+        }
+        return lines;
     }
 
     @Override
@@ -93,77 +266,145 @@ public class CartServiceImpl implements CartService {
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("Product not found in cart"));
 
-        // 3.2: Optional stock check on increase
-        if (request.getQuantity() > item.getQuantity()) {
-            ProductResponse product = catalogClient.getProductById(productId);
-            if (product.getSku() != null) {
-                Boolean available = inventoryClient.checkAvailability(product.getSku(), request.getQuantity());
-                if (Boolean.FALSE.equals(available)) {
-                    throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
-                }
+        boolean increase = request.getQuantity() > item.getQuantity();
+        List<String> productIds = productIds(cart);
+        ProductResponse product = null;
+        Map<String, ProductPriceCache.Snapshot> prices;
+        try (FanOut scope = new FanOut()) {
+            // 3.2: Optional stock check on increase, alongside pricing the cart's lines
+            Future<ProductResponse> productCall = increase ? scope.fork(() -> {
+                ProductResponse fetched = catalogClient.getProductById(productId);
+                validateStock(fetched, request.getQuantity());
+                return fetched;
+            }) : null;
+            Future<Map<String, ProductPriceCache.Snapshot>> pricesCall = scope.fork(() -> lookupPrices(productIds));
+            scope.join();
+            if (productCall != null) {
+                product = productCall.resultNow();
             }
+            prices = pricesCall.resultNow();
+        }
+
+        if (product != null) {
             // Update price and name while we're at it
             item.setPrice(product.getPrice());
             item.setProductName(product.getName());
+            putFetched(prices, product);
         }
 
         item.setQuantity(request.getQuantity());
-        cart.setUpdatedAt(LocalDateTime.now());
-        refreshCartPrices(cart);
-        saveCart(cart);
+        cart = cartStore.setItem(userId, item);
+        applyPrices(cart, prices);
 
         log.info("Updated cart item {} for user {}", productId, userId);
         return mapToResponse(cart);
     }
 
+    private void validateStock(ProductResponse product, int quantity) {
+        if (product.getSku() == null) {
+            return;
+        }
+        // Local copy of inventory's availability topic; only SKUs it hasn't seen go to inventory-service
+        OptionalInt cached = stockAvailabilityCache.getAvailableQuantity(product.getSku());
+        boolean available = cached.isPresent()
+                ? cached.getAsInt() >= quantity
+                : !Boolean.FALSE.equals(inventoryClient.checkAvailability(product.getSku(), quantity));
+        if (!available) {
+            throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
+        }
+    }
+
     private void refreshCartPrices(Cart cart) {
         if (cart.getItems().isEmpty()) {
             return;
         }
+        applyPrices(cart, lookupPrices(productIds(cart)));
+    }
 
-        List<String> productIds = cart.getItems().stream()
-                .map(CartItem::getProductId)
-                .toList();
+    /**
+     * Current name and price per product: event-fed cache first, catalog only for products it does
+     * not hold. Products catalog could not price are left out; this never throws.
+     */
+    private Map<String, ProductPriceCache.Snapshot> lookupPrices(List<String> productIds) {
+        Map<String, ProductPriceCache.Snapshot> snapshots = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String productId : productIds) {
+            productPriceCache.get(productId).ifPresentOrElse(
+                    snapshot -> snapshots.put(productId, snapshot),
+                    () -> misses.add(productId));
+        }
 
-        try {
-            List<ProductResponse> products = catalogClient.getProductsByIds(productIds);
-            Map<String, ProductResponse> productMap = products.stream()
-                    .collect(Collectors.toMap(ProductResponse::getId, p -> p));
-
-            boolean changed = false;
-            for (CartItem item : cart.getItems()) {
-                ProductResponse product = productMap.get(item.getProductId());
-                if (product != null) {
-                    if (!product.getPrice().equals(item.getPrice())) {
-                        item.setPrice(product.getPrice());
-                        changed = true;
-                    }
-                    if (!product.getName().equals(item.getProductName())) {
-                        item.setProductName(product.getName());
-                        changed = true;
+        if (!misses.isEmpty()) {
+            try {
+                for (ProductResponse product : catalogClient.getProductsByIds(misses)) {
+                    if (putFetched(snapshots, product)) {
+                        productPriceCache.seed(product.getId(), product.getName(), product.getPrice());
                     }
                 }
+            } catch (Exception e) {
+                log.warn("Failed to fetch prices for products {}: {}", misses, e.getMessage());
             }
-            if (changed) {
-                saveCart(cart);
-                log.info("Refreshed prices for cart of user {}", cart.getUserId());
+        }
+        return snapshots;
+    }
+
+    private boolean putFetched(Map<String, ProductPriceCache.Snapshot> snapshots, ProductResponse product) {
+        // Circuit-breaker fallbacks are placeholders without a SKU; never cache or apply them
+        if (product.getSku() == null) {
+            return false;
+        }
+        snapshots.put(product.getId(), new ProductPriceCache.Snapshot(
+                product.getName(), product.getPrice(), 0L, System.currentTimeMillis()));
+        return true;
+    }
+
+    private void applyPrices(Cart cart, Map<String, ProductPriceCache.Snapshot> snapshots) {
+        List<CartItem> changed = new ArrayList<>();
+        for (CartItem item : cart.getItems()) {
+            ProductPriceCache.Snapshot snapshot = snapshots.get(item.getProductId());
+            if (snapshot != null) {
+                boolean lineChanged = false;
+                if (snapshot.price().compareTo(item.getPrice()) != 0) {
+                    item.setPrice(snapshot.price());
+                    lineChanged = true;
+                }
+                if (!snapshot.name().equals(item.getProductName())) {
+                    item.setProductName(snapshot.name());
+                    lineChanged = true;
+                }
+                if (lineChanged) {
+                    changed.add(item);
+                }
             }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            // Only the changed lines' snapshots are rewritten
+            cartStore.updateProducts(cart.getUserId(), changed);
+            log.info("Refreshed prices for cart of user {}", cart.getUserId());
         } catch (Exception e) {
             log.warn("Failed to refresh cart prices for user {}: {}", cart.getUserId(), e.getMessage());
         }
     }
 
+    private static List<String> productIds(Cart cart) {
+        return cart.getItems().stream()
+                .map(CartItem::getProductId)
+                .toList();
+    }
+
     @Override
     public CartResponse removeFromCart(String userId, String productId) {
         Cart cart = getOrCreateCart(userId);
 
-        boolean removed = cart.getItems().removeIf(item -> item.getProductId().equals(productId));
-        if (!removed) {
+        boolean present = cart.getItems().stream().anyMatch(item -> item.getProductId().equals(productId));
+        if (!present) {
             throw new IllegalArgumentException("Product not found in cart");
         }
 
-        cart.setUpdatedAt(LocalDateTime.now());
-        saveCart(cart);
+        cart = cartStore.removeItem(userId, productId);
 
         log.info("Removed product {} from cart for user {}", productId, userId);
         return mapToResponse(cart);
@@ -171,32 +412,27 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public void clearCart(String userId) {
-        cartRepository.findById(userId).ifPresent(cart -> {
-            cartRepository.delete(cart);
-            log.info("Cleared cart for user {}", userId);
-        });
+        cartStore.delete(userId);
+        log.info("Cleared cart for user {}", userId);
     }
 
-    private void saveCart(Cart cart) {
-        cartRepository.save(cart);
-        // 3.3: Explicit TTL enforcement
-        redisTemplate.expire("cart:" + cart.getUserId(), Duration.ofDays(7));
+    @Override
+    public IdleCartPageResponse getIdleCarts(Duration idleFor, String cursor, int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("Limit must be between 1 and 1000");
+        }
+        CartStore.IdleCartPage page = cartStore.findIdleCarts(idleFor, cursor, limit);
+        return IdleCartPageResponse.builder()
+                .carts(page.carts().stream()
+                        .map(idle -> new IdleCartPageResponse.IdleCart(idle.userId(), idle.lastActivityAt()))
+                        .toList())
+                .nextCursor(page.nextCursor())
+                .build();
     }
 
     private Cart getOrCreateCart(String userId) {
-        return cartRepository.findById(userId)
-                .orElseGet(() -> {
-                    Cart newCart = Cart.builder()
-                            .userId(userId)
-                            .id(UUID.randomUUID().toString())
-                            .items(new ArrayList<>())
-                            .createdAt(LocalDateTime.now())
-                            .updatedAt(LocalDateTime.now())
-                            .expiresAt(LocalDateTime.now().plusDays(7))
-                            .build();
-                    saveCart(newCart);
-                    return newCart;
-                });
+        return cartStore.find(userId)
+                .orElseGet(() -> cartStore.create(userId));
     }
 
     private CartResponse mapToResponse(Cart cart) {
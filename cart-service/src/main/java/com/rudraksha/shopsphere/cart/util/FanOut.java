@@ -0,0 +1,92 @@
+package com.rudraksha.shopsphere.cart.util;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs independent downstream calls concurrently, one virtual thread each, with the semantics of
+ * {@code StructuredTaskScope.ShutdownOnFailure} (still a preview API on Java 21): the first failing
+ * call interrupts the others, {@link #join()} rethrows that failure, and no call outlives the
+ * try-with-resources block that opened the scope.
+ * <pre>
+ * try (FanOut scope = new FanOut()) {
+ *     Future&lt;A&gt; a = scope.fork(() -&gt; clientA.call());
+ *     Future&lt;B&gt; b = scope.fork(() -&gt; clientB.call());
+ *     scope.join();
+ *     return combine(a.resultNow(), b.resultNow());
+ * }
+ * </pre>
+ */
+public final class FanOut implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> forks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = executor.submit(() -> {
+            try {
+                return task.call();
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t)) {
+                    cancelAll();
+                }
+                throw t;
+            }
+        });
+        forks.add(future);
+        if (failure.get() != null) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * Wait for every forked call. Rethrows the first failure as is if it is unchecked.
+     */
+    public void join() {
+        try {
+            for (Future<?> fork : forks) {
+                try {
+                    fork.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // The first failure is recorded by the task itself
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for downstream calls", e);
+        }
+
+        Throwable first = failure.get();
+        if (first instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (first instanceof Error error) {
+            throw error;
+        }
+        if (first != null) {
+            throw new IllegalStateException("Downstream call failed", first);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.close();
+    }
+
+    private void cancelAll() {
+        for (Future<?> fork : forks) {
+            fork.cancel(true);
+        }
+    }
+}
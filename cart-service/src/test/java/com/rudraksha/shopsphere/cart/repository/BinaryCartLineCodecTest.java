@@ -0,0 +1,50 @@
+package com.rudraksha.shopsphere.cart.repository;
+
+import com.rudraksha.shopsphere.cart.entity.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCartLineCodecTest {
+
+    private final BinaryCartLineCodec codec = new BinaryCartLineCodec();
+
+    @Test
+    void roundTrip_KeepsNameScaleAndImage() {
+        CartItem item = CartItem.builder().productId("prod-1").productName("Café crème — 1 kg").price(new BigDecimal("12.50")).imageUrl("https://cdn.example.com/p/1.png").build();
+
+        CartItem decoded = codec.decode("prod-1", 3, codec.encode(item));
+
+        assertEquals("Café crème — 1 kg", decoded.getProductName());
+        assertEquals(new BigDecimal("12.50"), decoded.getPrice());
+        assertEquals(2, decoded.getPrice().scale());
+        assertEquals("https://cdn.example.com/p/1.png", decoded.getImageUrl());
+        assertEquals(3, decoded.getQuantity());
+    }
+
+    @Test
+    void roundTrip_NullsAndUnusualPrices() {
+        for (BigDecimal price : new BigDecimal[]{null, BigDecimal.ZERO, new BigDecimal("-3.2"), new BigDecimal("1E+3"),
+                new BigDecimal("123456789012345678901234567890.123456789")}) {
+            CartItem item = CartItem.builder().productId("prod-1").price(price).build();
+
+            CartItem decoded = codec.decode("prod-1", 1, codec.encode(item));
+
+            assertEquals(price, decoded.getPrice());
+            assertNull(decoded.getProductName());
+            assertNull(decoded.getImageUrl());
+        }
+    }
+
+    @Test
+    void canDecode_NeverClaimsJson() {
+        byte[] encoded = codec.encode(CartItem.builder().productId("p").productName("n").price(BigDecimal.ONE).build());
+
+        assertTrue(codec.canDecode(encoded));
+        assertFalse(codec.canDecode("{\"n\":\"n\"}".getBytes()));
+        assertThrows(IllegalStateException.class, () -> codec.decode("p", 1, Arrays.copyOf(encoded, encoded.length - 1)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.rudraksha.shopsphere.cart.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.cart.entity.Cart;
+import com.rudraksha.shopsphere.cart.entity.CartItem;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes per cart of the line codecs. Cart sizes count field names and values of the whole cart hash;
+ * the legacy size is the same cart as the old {@code @RedisHash} entity.
+ */
+class CartLineCodecBenchmarkTest {
+
+    private final BinaryCartLineCodec binary = new BinaryCartLineCodec();
+    private final JsonCartLineCodec json = new JsonCartLineCodec(new ObjectMapper());
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void binaryLinesAreSmallerThanJson(int lines) {
+        List<CartItem> cart = cart(lines);
+
+        int jsonSnapshots = snapshotBytes(json, cart);
+        int binarySnapshots = snapshotBytes(binary, cart);
+        int legacyCart = legacyCartBytes(cart);
+        int jsonCart = cartBytes(json, cart);
+        int binaryCart = cartBytes(binary, cart);
+
+        // At least 20% off the snapshots themselves
+        assertTrue(binarySnapshots * 5 <= jsonSnapshots * 4,
+                lines + " lines: binary snapshots " + binarySnapshots + " B vs json " + jsonSnapshots + " B");
+        assertTrue(binaryCart < jsonCart, lines + " lines: binary cart " + binaryCart + " B vs json " + jsonCart + " B");
+        assertTrue(jsonCart < legacyCart, lines + " lines: json cart " + jsonCart + " B vs legacy " + legacyCart + " B");
+        // The whole-hash saving is the snapshot saving; field names and numbers are the same in both
+        assertEquals(jsonSnapshots - binarySnapshots, jsonCart - binaryCart);
+    }
+
+    private static List<CartItem> cart(int lines) {
+        List<CartItem> cart = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            cart.add(CartItem.builder()
+                    .productId("65f1c2a9e4b0" + String.format("%012d", i))
+                    .productName("Wireless Ergonomic Mouse " + i)
+                    .quantity(1 + i % 3)
+                    .price(new BigDecimal("24.99").add(BigDecimal.valueOf(i)))
+                    .imageUrl(i % 2 == 0 ? "" : "https://cdn.shopsphere.example/products/" + i + ".jpg")
+                    .build());
+        }
+        return cart;
+    }
+
+    private static int snapshotBytes(CartLineCodec codec, List<CartItem> cart) {
+        return cart.stream().mapToInt(item -> codec.encode(item).length).sum();
+    }
+
+    private static int cartBytes(CartLineCodec codec, List<CartItem> cart) {
+        // @id (uuid), @created and @updated (epoch millis)
+        int bytes = "@id".length() + 36 + "@created".length() + 13 + "@updated".length() + 13;
+        for (CartItem item : cart) {
+            int fieldName = 2 + item.getProductId().length();
+            bytes += fieldName + String.valueOf(item.getQuantity()).length();
+            bytes += fieldName + codec.encode(item).length;
+            bytes += fieldName + 13;
+        }
+        return bytes;
+    }
+
+    // Flattened the way MappingRedisConverter stored the @RedisHash("cart") entity
+    private static int legacyCartBytes(List<CartItem> cart) {
+        String timestamp = "2024-01-01T10:00:00.123456";
+        int bytes = "_class".length() + Cart.class.getName().length()
+                + "userId".length() + 8 + "id".length() + 36 + "ttl".length() + 1
+                + 3 * ("createdAt".length() + timestamp.length());
+        for (int i = 0; i < cart.size(); i++) {
+            CartItem item = cart.get(i);
+            String prefix = "items.[" + i + "].";
+            bytes += prefix.length() + "productId".length() + item.getProductId().length();
+            bytes += prefix.length() + "productName".length() + item.getProductName().length();
+            bytes += prefix.length() + "quantity".length() + String.valueOf(item.getQuantity()).length();
+            bytes += prefix.length() + "price".length() + item.getPrice().toPlainString().length();
+            bytes += prefix.length() + "imageUrl".length() + item.getImageUrl().length();
+        }
+        return bytes;
+    }
+}
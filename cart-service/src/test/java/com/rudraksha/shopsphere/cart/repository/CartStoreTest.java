@@ -0,0 +1,190 @@
+package com.rudraksha.shopsphere.cart.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.cart.entity.Cart;
+import com.rudraksha.shopsphere.cart.entity.CartItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartStoreTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private CartRepository legacyRepository;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private CartStore cartStore;
+    private String userId = "user-123";
+
+    @BeforeEach
+    void setUp() {
+        cartStore = new CartStore(redisTemplate, legacyRepository,
+                List.of(new BinaryCartLineCodec(), new JsonCartLineCodec(new ObjectMapper())));
+        ReflectionTestUtils.setField(cartStore, "ttl", Duration.ofDays(7));
+        ReflectionTestUtils.setField(cartStore, "codecName", "binary");
+        cartStore.init();
+    }
+
+    @Test
+    void find_ReadsLinesInAddedOrderAndSkipsIncompleteLines() {
+        Map<Object, Object> fields = new LinkedHashMap<>();
+        fields.put("@id", "cart-1");
+        fields.put("@created", "1700000000000");
+        fields.put("@updated", "1700000005000");
+        fields.put("q:prod-2", "1");
+        fields.put("p:prod-2", "{\"n\":\"Keyboard\",\"p\":49.99,\"i\":\"\"}");
+        fields.put("a:prod-2", "1700000002000");
+        fields.put("q:prod-1", "3");
+        fields.put("p:prod-1", "{\"n\":\"Mouse\",\"p\":25.50,\"i\":\"mouse.png\"}");
+        fields.put("a:prod-1", "1700000001000");
+        // Left behind by a removal racing a quantity update
+        fields.put("q:prod-3", "2");
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("carts:" + userId)).thenReturn(fields);
+
+        Cart cart = cartStore.find(userId).orElseThrow();
+
+        assertEquals("cart-1", cart.getId());
+        assertEquals(List.of("prod-1", "prod-2"), cart.getItems().stream().map(CartItem::getProductId).toList());
+        assertEquals(3, cart.getItems().get(0).getQuantity());
+        assertEquals(new BigDecimal("25.50"), cart.getItems().get(0).getPrice());
+        assertEquals(cart.getUpdatedAt().plusDays(7), cart.getExpiresAt());
+        verifyNoInteractions(legacyRepository);
+    }
+
+    @Test
+    void find_ReadsBinaryAndJsonLinesSideBySide() {
+        CartItem mouse = CartItem.builder().productId("prod-1").productName("Souris sans fil é").price(new BigDecimal("25.50")).imageUrl("").build();
+        Map<Object, Object> fields = new LinkedHashMap<>();
+        fields.put("@id", "cart-1");
+        fields.put("q:prod-1", "2");
+        fields.put("p:prod-1", new String(new BinaryCartLineCodec().encode(mouse), StandardCharsets.ISO_8859_1));
+        fields.put("a:prod-1", "1700000001000");
+        // Written as UTF-8 before the codec change, read back through the ISO-8859-1 serializer
+        fields.put("q:prod-2", "1");
+        fields.put("p:prod-2", new String("{\"n\":\"Clavier é\",\"p\":49.99,\"i\":\"\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1));
+        fields.put("a:prod-2", "1700000002000");
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("carts:" + userId)).thenReturn(fields);
+
+        Cart cart = cartStore.find(userId).orElseThrow();
+
+        assertEquals("Souris sans fil é", cart.getItems().get(0).getProductName());
+        assertEquals(new BigDecimal("25.50"), cart.getItems().get(0).getPrice());
+        assertEquals("Clavier é", cart.getItems().get(1).getProductName());
+        assertEquals(new BigDecimal("49.99"), cart.getItems().get(1).getPrice());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addItem_ReturnsCartReadBackInSamePipeline() {
+        Map<String, String> after = new LinkedHashMap<>();
+        after.put("@id", "cart-1");
+        after.put("@created", "1700000000000");
+        after.put("@updated", "1700000009000");
+        after.put("q:prod-1", "5");
+        after.put("p:prod-1", "{\"n\":\"Mouse\",\"p\":25.50,\"i\":\"\"}");
+        after.put("a:prod-1", "1700000001000");
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(false, false, true, 5L, true, false, true, after));
+
+        CartItem line = CartItem.builder().productId("prod-1").productName("Mouse").price(new BigDecimal("25.50")).build();
+        Cart cart = cartStore.addItem(userId, line, 2);
+
+        assertEquals(1, cart.getItems().size());
+        assertEquals(5, cart.getItems().get(0).getQuantity());
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void find_LegacyCart_MigratesToHashLayout() {
+        Cart legacy = Cart.builder()
+                .userId(userId)
+                .id("cart-legacy")
+                .items(new ArrayList<>(List.of(
+                        CartItem.builder().productId("prod-1").productName("Mouse").quantity(1).price(BigDecimal.TEN).build(),
+                        CartItem.builder().productId("prod-2").productName("Keyboard").quantity(2).price(BigDecimal.ONE).build())))
+                .createdAt(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .updatedAt(LocalDateTime.of(2024, 1, 2, 10, 0))
+                .build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("carts:" + userId)).thenReturn(Collections.emptyMap());
+        when(legacyRepository.findById(userId)).thenReturn(Optional.of(legacy));
+
+        Cart cart = cartStore.find(userId).orElseThrow();
+
+        assertEquals("cart-legacy", cart.getId());
+        assertEquals(List.of("prod-1", "prod-2"), cart.getItems().stream().map(CartItem::getProductId).toList());
+        assertEquals(legacy.getUpdatedAt(), cart.getUpdatedAt());
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        verify(legacyRepository).delete(legacy);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findIdleCarts_DropsCartsActiveSinceAndContinuesInBucket() {
+        long now = LocalDateTime.now().toInstant(ZoneOffset.UTC).toEpochMilli();
+        long bucket = Math.floorDiv(now, CartStore.BUCKET_MILLIS) - 48;
+        long inBucket = bucket * CartStore.BUCKET_MILLIS + 1_000;
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.range("cart-activity:" + bucket, 5, 7))
+                .thenReturn(new LinkedHashSet<>(List.of("idle-user", "active-again", "expired")));
+        List<Object> lastChanges = new ArrayList<>();
+        lastChanges.add(String.valueOf(inBucket));
+        lastChanges.add(String.valueOf(now));
+        lastChanges.add(null);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(lastChanges);
+
+        CartStore.IdleCartPage page = cartStore.findIdleCarts(Duration.ofHours(24), bucket + ":5", 3);
+
+        assertEquals(List.of("idle-user"), page.carts().stream().map(CartStore.IdleCart::userId).toList());
+        verify(zSetOperations).remove("cart-activity:" + bucket, "active-again", "expired");
+        // Two of the three were removed ahead of the cursor
+        assertEquals(bucket + ":6", page.nextCursor());
+    }
+
+    @Test
+    void findIdleCarts_SkipsEmptyBucketsAndEndsAtCutoff() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        CartStore.IdleCartPage page = cartStore.findIdleCarts(Duration.ofHours(24), null, 100);
+
+        assertTrue(page.carts().isEmpty());
+        assertNull(page.nextCursor());
+        // 7 days of buckets up to the 24h cutoff, one range read each
+        verify(zSetOperations, times(6 * 24)).range(anyString(), eq(0L), eq(99L));
+    }
+}
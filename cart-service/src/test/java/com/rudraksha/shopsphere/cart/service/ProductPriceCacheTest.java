@@ -0,0 +1,73 @@
+package com.rudraksha.shopsphere.cart.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPriceCacheTest {
+
+    private ProductPriceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductPriceCache();
+        ReflectionTestUtils.setField(cache, "maxAge", Duration.ofHours(1));
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+    }
+
+    @Test
+    void applyProductUpdate_IgnoresOlderVersion() {
+        cache.applyProductUpdate("p1", "Mouse", new BigDecimal("20.00"), 200L);
+        cache.applyProductUpdate("p1", "Mouse", new BigDecimal("25.00"), 100L);
+
+        assertEquals(new BigDecimal("20.00"), cache.get("p1").orElseThrow().price());
+    }
+
+    @Test
+    void seed_NeverReplacesEventValue() {
+        cache.applyProductUpdate("p1", "Mouse", new BigDecimal("20.00"), 200L);
+        cache.seed("p1", "Mouse", new BigDecimal("25.00"));
+
+        assertEquals(new BigDecimal("20.00"), cache.get("p1").orElseThrow().price());
+    }
+
+    @Test
+    void applyPriceUpdate_ChainsFromCachedPrice() {
+        cache.seed("p1", "Mouse", new BigDecimal("25.50"));
+        cache.applyPriceUpdate("p1", new BigDecimal("25.5"), new BigDecimal("20.00"), 300L);
+
+        ProductPriceCache.Snapshot snapshot = cache.get("p1").orElseThrow();
+        assertEquals(new BigDecimal("20.00"), snapshot.price());
+        assertEquals("Mouse", snapshot.name());
+        assertEquals(300L, snapshot.version());
+    }
+
+    @Test
+    void applyPriceUpdate_VersionGap_DropsEntry() {
+        cache.seed("p1", "Mouse", new BigDecimal("25.50"));
+        // Changed from a price this instance never saw: an update in between was missed
+        cache.applyPriceUpdate("p1", new BigDecimal("30.00"), new BigDecimal("20.00"), 300L);
+
+        assertTrue(cache.get("p1").isEmpty());
+    }
+
+    @Test
+    void applyPriceUpdate_UncachedProduct_Ignored() {
+        cache.applyPriceUpdate("p1", null, new BigDecimal("20.00"), 300L);
+
+        assertTrue(cache.get("p1").isEmpty());
+    }
+
+    @Test
+    void get_ExpiredEntry_Misses() {
+        ReflectionTestUtils.setField(cache, "maxAge", Duration.ofMillis(-1));
+        cache.applyProductUpdate("p1", "Mouse", new BigDecimal("20.00"), 200L);
+
+        assertTrue(cache.get("p1").isEmpty());
+    }
+}
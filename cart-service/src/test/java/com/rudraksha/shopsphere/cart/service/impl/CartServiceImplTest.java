@@ -3,37 +3,47 @@ package com.rudraksha.shopsphere.cart.service.impl;
 import com.rudraksha.shopsphere.cart.client.CatalogClient;
 import com.rudraksha.shopsphere.cart.client.InventoryClient;
 import com.rudraksha.shopsphere.cart.dto.request.AddToCartRequest;
+import com.rudraksha.shopsphere.cart.dto.request.BatchAvailabilityRequest;
+import com.rudraksha.shopsphere.cart.dto.request.BulkAddToCartRequest;
 import com.rudraksha.shopsphere.cart.dto.request.UpdateCartItemRequest;
+import com.rudraksha.shopsphere.cart.dto.response.AvailabilityResponse;
 import com.rudraksha.shopsphere.cart.dto.response.CartResponse;
 import com.rudraksha.shopsphere.cart.dto.response.ProductResponse;
 import com.rudraksha.shopsphere.cart.entity.Cart;
 import com.rudraksha.shopsphere.cart.entity.CartItem;
 import com.rudraksha.shopsphere.cart.exception.InsufficientStockException;
-import com.rudraksha.shopsphere.cart.repository.CartRepository;
+import com.rudraksha.shopsphere.cart.repository.CartStore;
+import com.rudraksha.shopsphere.cart.service.ProductPriceCache;
+import com.rudraksha.shopsphere.cart.service.StockAvailabilityCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CartServiceImplTest {
 
     @Mock
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Mock
     private CatalogClient catalogClient;
@@ -42,11 +52,16 @@ class CartServiceImplTest {
     private InventoryClient inventoryClient;
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private StockAvailabilityCache stockAvailabilityCache;
+
+    @Mock
+    private ProductPriceCache productPriceCache;
 
     @InjectMocks
     private CartServiceImpl cartService;
 
+    private static final String GUEST_CART_ID = "guest-0b7e6c1d-2f3a-4b5c-9d8e-7f6a5b4c3d2e";
+
     private String userId = "user-123";
     private String productId = "prod-123";
     private String sku = "SKU-123";
@@ -70,13 +85,59 @@ class CartServiceImplTest {
 
     @Test
     void getCart_Success() {
-        when(cartRepository.findById(userId)).thenReturn(Optional.of(cart));
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
 
         CartResponse response = cartService.getCart(userId);
 
         assertNotNull(response);
         assertEquals(userId, response.getUserId());
-        verify(cartRepository).findById(userId);
+        verify(cartStore).find(userId);
+    }
+
+    @Test
+    void getCart_PriceChange_RewritesOnlyChangedLines() {
+        CartItem changed = CartItem.builder().productId(productId).productName("Test Product").quantity(1).price(BigDecimal.TEN).build();
+        CartItem unchanged = CartItem.builder().productId("prod-456").productName("Other").quantity(1).price(BigDecimal.ONE).build();
+        cart.getItems().add(changed);
+        cart.getItems().add(unchanged);
+        ProductResponse other = ProductResponse.builder().id("prod-456").sku("SKU-456").name("Other").price(BigDecimal.ONE).build();
+
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
+        when(catalogClient.getProductsByIds(List.of(productId, "prod-456"))).thenReturn(List.of(productResponse, other));
+
+        CartResponse response = cartService.getCart(userId);
+
+        assertEquals(BigDecimal.valueOf(101.00), response.getTotalPrice());
+        verify(cartStore).updateProducts(userId, List.of(changed));
+        verify(productPriceCache).seed(productId, "Test Product", productResponse.getPrice());
+    }
+
+    @Test
+    void getCart_CachedPrices_MakesNoCatalogCall() {
+        cart.getItems().add(CartItem.builder().productId(productId).productName("Test Product").quantity(2).price(BigDecimal.TEN).build());
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
+        when(productPriceCache.get(productId)).thenReturn(Optional.of(
+                new ProductPriceCache.Snapshot("Test Product", new BigDecimal("9.50"), 42L, System.currentTimeMillis())));
+
+        CartResponse response = cartService.getCart(userId);
+
+        assertEquals(new BigDecimal("19.00"), response.getTotalPrice());
+        verifyNoInteractions(catalogClient);
+        verify(cartStore).updateProducts(eq(userId), argThat(lines -> lines.size() == 1));
+    }
+
+    @Test
+    void getCart_CatalogFallback_KeepsStoredPrices() {
+        cart.getItems().add(CartItem.builder().productId(productId).productName("Test Product").quantity(1).price(BigDecimal.TEN).build());
+        ProductResponse placeholder = ProductResponse.builder().id(productId).name("Product temporarily unavailable").price(BigDecimal.ZERO).build();
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
+        when(catalogClient.getProductsByIds(List.of(productId))).thenReturn(List.of(placeholder));
+
+        CartResponse response = cartService.getCart(userId);
+
+        assertEquals(BigDecimal.TEN, response.getTotalPrice());
+        verify(cartStore, never()).updateProducts(any(), any());
+        verify(productPriceCache, never()).seed(any(), any(), any());
     }
 
     @Test
@@ -87,14 +148,15 @@ class CartServiceImplTest {
 
         when(catalogClient.getProductById(productId)).thenReturn(productResponse);
         when(inventoryClient.checkAvailability(sku, 2)).thenReturn(true);
-        when(cartRepository.findById(userId)).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        when(cartStore.addItem(eq(userId), any(CartItem.class), eq(2))).thenReturn(cartWithLine(2));
 
         CartResponse response = cartService.addToCart(userId, request);
 
         assertNotNull(response);
         assertEquals(1, response.getItems().size());
-        verify(cartRepository).save(any(Cart.class));
+        verify(cartStore).addItem(eq(userId),
+                argThat(line -> productId.equals(line.getProductId()) && productResponse.getPrice().equals(line.getPrice())),
+                eq(2));
     }
 
     @Test
@@ -109,6 +171,169 @@ class CartServiceImplTest {
         assertThrows(InsufficientStockException.class, () -> cartService.addToCart(userId, request));
     }
 
+    @Test
+    void addToCart_CachedAvailability_SkipsInventoryCall() {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(productId);
+        request.setQuantity(2);
+
+        when(catalogClient.getProductById(productId)).thenReturn(productResponse);
+        when(stockAvailabilityCache.getAvailableQuantity(sku)).thenReturn(OptionalInt.of(5));
+        when(cartStore.addItem(eq(userId), any(CartItem.class), eq(2))).thenReturn(cartWithLine(2));
+
+        CartResponse response = cartService.addToCart(userId, request);
+
+        assertEquals(1, response.getItems().size());
+        verifyNoInteractions(inventoryClient);
+    }
+
+    @Test
+    void addToCart_CachedAvailabilityInsufficient_Throws() {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(productId);
+        request.setQuantity(10);
+
+        when(catalogClient.getProductById(productId)).thenReturn(productResponse);
+        when(stockAvailabilityCache.getAvailableQuantity(sku)).thenReturn(OptionalInt.of(3));
+
+        assertThrows(InsufficientStockException.class, () -> cartService.addToCart(userId, request));
+        verifyNoInteractions(inventoryClient);
+        verify(cartStore, never()).addItem(any(), any(), anyInt());
+    }
+
+    @Test
+    void addToCart_ReadsCartWhileCheckingStock() throws Exception {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(productId);
+        request.setQuantity(2);
+        CountDownLatch cartRead = new CountDownLatch(1);
+
+        // The product lookup only completes once the cart read has started, so this deadlocks if they run in sequence
+        when(catalogClient.getProductById(productId)).thenAnswer(invocation -> {
+            assertTrue(cartRead.await(5, TimeUnit.SECONDS));
+            return productResponse;
+        });
+        when(cartStore.find(userId)).thenAnswer(invocation -> {
+            cartRead.countDown();
+            return Optional.empty();
+        });
+        when(stockAvailabilityCache.getAvailableQuantity(sku)).thenReturn(OptionalInt.of(5));
+        when(cartStore.addItem(eq(userId), any(CartItem.class), eq(2))).thenReturn(cartWithLine(2));
+
+        CartResponse response = cartService.addToCart(userId, request);
+
+        assertEquals(1, response.getItems().size());
+        // The new line is priced from the product just fetched
+        verify(catalogClient, never()).getProductsByIds(any());
+        verify(cartStore, never()).updateProducts(any(), any());
+    }
+
+    @Test
+    void addItems_OneCatalogCallOneAvailabilityCheckOneWrite() {
+        ProductResponse other = ProductResponse.builder().id("prod-456").sku("SKU-456").name("Other").price(BigDecimal.ONE).build();
+        BulkAddToCartRequest request = new BulkAddToCartRequest(List.of(
+                new AddToCartRequest(productId, 1), new AddToCartRequest("prod-456", 3), new AddToCartRequest(productId, 2)));
+
+        when(catalogClient.getProductsByIds(List.of(productId, "prod-456"))).thenReturn(List.of(productResponse, other));
+        when(stockAvailabilityCache.getAvailableQuantity("SKU-456")).thenReturn(OptionalInt.of(10));
+        when(inventoryClient.checkAvailability(any(BatchAvailabilityRequest.class)))
+                .thenReturn(List.of(new AvailabilityResponse(sku, 3, 7, true)));
+        when(cartStore.addItems(eq(userId), any())).thenReturn(cart);
+
+        cartService.addItems(userId, request);
+
+        // Only the SKU missing from the local availability copy goes to inventory, with the summed quantity
+        verify(inventoryClient).checkAvailability(argThat((BatchAvailabilityRequest batch) -> batch.getItems().size() == 1
+                && sku.equals(batch.getItems().get(0).getSku()) && batch.getItems().get(0).getQuantity() == 3));
+        verify(cartStore).addItems(eq(userId), argThat(lines -> lines.size() == 2));
+        verify(catalogClient, never()).getProductById(anyString());
+        verify(cartStore, never()).addItem(any(), any(), anyInt());
+    }
+
+    @Test
+    void addItems_InsufficientStock_WritesNothing() {
+        BulkAddToCartRequest request = new BulkAddToCartRequest(List.of(new AddToCartRequest(productId, 5)));
+
+        when(catalogClient.getProductsByIds(List.of(productId))).thenReturn(List.of(productResponse));
+        when(inventoryClient.checkAvailability(any(BatchAvailabilityRequest.class)))
+                .thenReturn(List.of(new AvailabilityResponse(sku, 5, 1, false)));
+
+        InsufficientStockException thrown = assertThrows(InsufficientStockException.class, () -> cartService.addItems(userId, request));
+        assertTrue(thrown.getMessage().contains("Test Product"));
+        verifyNoInteractions(cartStore);
+    }
+
+    @Test
+    void addItems_UnknownProduct_Throws() {
+        BulkAddToCartRequest request = new BulkAddToCartRequest(List.of(new AddToCartRequest("missing", 1)));
+        when(catalogClient.getProductsByIds(List.of("missing"))).thenReturn(List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> cartService.addItems(userId, request));
+        verifyNoInteractions(cartStore);
+    }
+
+    @Test
+    void replaceItems_DropsLinesNotInRequest() {
+        cart.getItems().add(CartItem.builder().productId("prod-old").productName("Old").quantity(1).price(BigDecimal.ONE).build());
+        BulkAddToCartRequest request = new BulkAddToCartRequest(List.of(new AddToCartRequest(productId, 2)));
+
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
+        when(catalogClient.getProductsByIds(List.of(productId))).thenReturn(List.of(productResponse));
+        when(stockAvailabilityCache.getAvailableQuantity(sku)).thenReturn(OptionalInt.of(5));
+        when(cartStore.replaceItems(eq(userId), any(), any())).thenReturn(cart);
+
+        cartService.replaceItems(userId, request);
+
+        verify(cartStore).replaceItems(eq(userId),
+                argThat(lines -> lines.size() == 1 && lines.iterator().next().getQuantity() == 2),
+                eq(List.of("prod-old")));
+        verifyNoInteractions(inventoryClient);
+    }
+
+    @Test
+    void mergeCart_AddsGuestLinesAndDeletesGuestCartInOneWrite() {
+        String guestId = GUEST_CART_ID;
+        CartItem guestLine = CartItem.builder().productId(productId).productName("Test Product").quantity(2).price(BigDecimal.TEN).build();
+        CartItem discontinued = CartItem.builder().productId("prod-gone").productName("Gone").quantity(1).price(BigDecimal.ONE).build();
+        Cart guestCart = Cart.builder().userId(guestId).items(new ArrayList<>(List.of(guestLine, discontinued))).build();
+
+        when(cartStore.find(guestId)).thenReturn(Optional.of(guestCart));
+        when(catalogClient.getProductsByIds(List.of(productId, "prod-gone"))).thenReturn(List.of(productResponse));
+        when(stockAvailabilityCache.getAvailableQuantity(sku)).thenReturn(OptionalInt.of(5));
+        when(cartStore.mergeInto(eq(userId), eq(guestId), any())).thenReturn(cart);
+
+        cartService.mergeCart(userId, guestId);
+
+        verify(cartStore).mergeInto(eq(userId), eq(guestId), argThat(lines -> lines.size() == 1
+                && productId.equals(lines.iterator().next().getProductId())
+                && productResponse.getPrice().equals(lines.iterator().next().getPrice())));
+        verify(cartStore, never()).delete(any());
+    }
+
+    @Test
+    void mergeCart_StockCheckedForGuestAndExistingQuantityTogether() {
+        cart.getItems().add(CartItem.builder().productId(productId).productName("Test Product").quantity(4).price(BigDecimal.TEN).build());
+        CartItem guestLine = CartItem.builder().productId(productId).productName("Test Product").quantity(2).price(BigDecimal.TEN).build();
+        Cart guestCart = Cart.builder().userId(GUEST_CART_ID).items(new ArrayList<>(List.of(guestLine))).build();
+
+        when(cartStore.find(GUEST_CART_ID)).thenReturn(Optional.of(guestCart));
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
+        when(catalogClient.getProductsByIds(List.of(productId))).thenReturn(List.of(productResponse));
+        when(stockAvailabilityCache.getAvailableQuantity(sku)).thenReturn(OptionalInt.of(5));
+
+        assertThrows(InsufficientStockException.class, () -> cartService.mergeCart(userId, GUEST_CART_ID));
+        verify(cartStore, never()).mergeInto(any(), any(), any());
+    }
+
+    @Test
+    void mergeCart_RegisteredUserCart_Throws() {
+        String otherUser = "6f1c2a9e-3b4d-4e5f-8a7b-9c0d1e2f3a4b";
+
+        assertThrows(IllegalArgumentException.class, () -> cartService.mergeCart(userId, otherUser));
+        assertThrows(IllegalArgumentException.class, () -> cartService.mergeCart(userId, userId));
+        verifyNoInteractions(cartStore);
+    }
+
     @Test
     void updateCartItem_Success() {
         CartItem item = CartItem.builder().productId(productId).quantity(1).price(BigDecimal.TEN).build();
@@ -117,14 +342,30 @@ class CartServiceImplTest {
         UpdateCartItemRequest request = new UpdateCartItemRequest();
         request.setQuantity(5);
 
-        when(cartRepository.findById(userId)).thenReturn(Optional.of(cart));
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
         when(catalogClient.getProductById(productId)).thenReturn(productResponse);
         when(inventoryClient.checkAvailability(sku, 5)).thenReturn(true);
+        when(cartStore.setItem(userId, item)).thenReturn(cart);
 
         CartResponse response = cartService.updateCartItem(userId, productId, request);
 
         assertNotNull(response);
         assertEquals(5, response.getItems().get(0).getQuantity());
+        verify(cartStore).setItem(eq(userId), argThat(line -> line.getQuantity() == 5));
+    }
+
+    @Test
+    void updateCartItem_InsufficientStock_DoesNotWrite() {
+        cart.getItems().add(CartItem.builder().productId(productId).quantity(1).price(BigDecimal.TEN).build());
+        UpdateCartItemRequest request = new UpdateCartItemRequest();
+        request.setQuantity(5);
+
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
+        when(catalogClient.getProductById(productId)).thenReturn(productResponse);
+        when(stockAvailabilityCache.getAvailableQuantity(sku)).thenReturn(OptionalInt.of(3));
+
+        assertThrows(InsufficientStockException.class, () -> cartService.updateCartItem(userId, productId, request));
+        verify(cartStore, never()).setItem(any(), any());
     }
 
     @Test
@@ -132,20 +373,28 @@ class CartServiceImplTest {
         CartItem item = CartItem.builder().productId(productId).quantity(1).price(BigDecimal.TEN).build();
         cart.getItems().add(item);
 
-        when(cartRepository.findById(userId)).thenReturn(Optional.of(cart));
+        when(cartStore.find(userId)).thenReturn(Optional.of(cart));
+        when(cartStore.removeItem(userId, productId)).thenReturn(Cart.builder().userId(userId).items(new ArrayList<>()).build());
 
         CartResponse response = cartService.removeFromCart(userId, productId);
 
         assertTrue(response.getItems().isEmpty());
-        verify(cartRepository).save(any(Cart.class));
+        verify(cartStore).removeItem(userId, productId);
     }
 
     @Test
     void clearCart_Success() {
-        when(cartRepository.findById(userId)).thenReturn(Optional.of(cart));
-        doNothing().when(cartRepository).delete(cart);
-
         assertDoesNotThrow(() -> cartService.clearCart(userId));
-        verify(cartRepository).delete(cart);
+        verify(cartStore).delete(userId);
+    }
+
+    private Cart cartWithLine(int quantity) {
+        cart.getItems().add(CartItem.builder()
+                .productId(productId)
+                .productName(productResponse.getName())
+                .quantity(quantity)
+                .price(productResponse.getPrice())
+                .build());
+        return cart;
     }
 }
@@ -0,0 +1,75 @@
+package com.rudraksha.shopsphere.cart.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutTest {
+
+    @Test
+    void join_RunsForksConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (FanOut scope = new FanOut()) {
+            Future<String> a = scope.fork(() -> {
+                bothStarted.countDown();
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+                return "a";
+            });
+            Future<Integer> b = scope.fork(() -> {
+                bothStarted.countDown();
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+                return 2;
+            });
+            scope.join();
+
+            assertEquals("a", a.resultNow());
+            assertEquals(2, b.resultNow());
+        }
+    }
+
+    @Test
+    void join_FailureCancelsSiblingsAndIsRethrown() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (FanOut scope = new FanOut()) {
+            Future<Object> slow = scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                started.await();
+                throw new IllegalArgumentException("boom");
+            });
+
+            IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, scope::join);
+            assertEquals("boom", thrown.getMessage());
+            assertTrue(slow.isCancelled());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void join_WrapsCheckedFailure() {
+        try (FanOut scope = new FanOut()) {
+            scope.fork(() -> {
+                throw new IOException("down");
+            });
+
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, scope::join);
+            assertInstanceOf(IOException.class, thrown.getCause());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.rudraksha.shopsphere.checkout.config;
+
+import com.rudraksha.shopsphere.shared.kafka.EnableIdempotentConsumer;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableIdempotentConsumer
+public class KafkaConfig {
+    // Listener dedupe against the processed_events table
+}
@@ -1,8 +1,10 @@
 package com.rudraksha.shopsphere.checkout.kafka;
 
 import com.rudraksha.shopsphere.checkout.service.impl.CheckoutServiceImpl;
+import com.rudraksha.shopsphere.shared.kafka.IdempotentConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -12,9 +14,14 @@ import org.springframework.stereotype.Component;
 public class PaymentEventListener {
 
     private final CheckoutServiceImpl.CartClient cartClient;
+    private final IdempotentConsumer idempotentConsumer;
 
     @KafkaListener(topics = "payment-events", groupId = "checkout-service-group")
-    public void onPaymentEvent(String message) {
+    public void onPaymentEvent(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processPaymentEvent(record.value()));
+    }
+
+    private void processPaymentEvent(String message) {
         log.info("Received payment event in checkout-service: {}", message);
         try {
             String[] parts = message.split(":");
@@ -25,16 +32,13 @@ public class PaymentEventListener {
 
                 if ("PAYMENT_SUCCESS".equals(eventType) || "PAYMENT_PROCESSED".equals(eventType)) {
                     log.info("Payment successful for order {}. Clearing cart for user {}.", orderNumber, userId);
-                    try {
-                        cartClient.clearCart(userId);
-                        log.info("Cart cleared for user {}.", userId);
-                    } catch (Exception e) {
-                        log.error("Failed to clear cart for user {} after successful payment.", userId, e);
-                    }
+                    cartClient.clearCart(userId);
+                    log.info("Cart cleared for user {}.", userId);
                 }
             }
         } catch (Exception e) {
             log.error("Error in checkout-service payment listener", e);
+            throw new RuntimeException("Failed to process payment event", e);
         }
     }
 }
@@ -0,0 +1,230 @@
+package com.rudraksha.shopsphere.coupon.cache;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.repository.CouponCodeRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponRepository;
+import com.rudraksha.shopsphere.shared.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local lookup layer in front of the coupons table for code validation.
+ * A Bloom filter holds every active, unexpired coupon code and every unredeemed single-use code of an
+ * active campaign, so a code that was never issued (a typo or a guessing bot) is rejected without a
+ * query. Codes that pass the filter are looked up in a short-TTL cache of valid coupons before falling
+ * back to the database.
+ * The filter is rebuilt from the tables periodically, which drops deactivated, expired and redeemed
+ * codes, and topped up in between with codes changed since the last refresh, so a coupon created on
+ * another instance is known here within one refresh interval. If more codes arrive than the filter was
+ * sized for, it is rebuilt early rather than let its false positive rate climb. Cached coupons are
+ * evicted on this instance when they are updated, deactivated, deleted or redeemed; other instances
+ * serve them until the TTL runs out.
+ * Until the first rebuild succeeds every code is let through to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CouponLookupCache {
+
+    private final CouponRepository couponRepository;
+    private final CouponCodeRepository couponCodeRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${coupon.lookup.expected-codes:100000}")
+    private int expectedCodes;
+
+    @Value("${coupon.lookup.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${coupon.lookup.cache-ttl:PT30S}")
+    private Duration cacheTtl;
+
+    @Value("${coupon.lookup.cache-max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${coupon.lookup.refresh-overlap:PT1M}")
+    private Duration refreshOverlap;
+
+    // Cached coupons are detached entities shared between threads and must only be read
+    private record Entry(Coupon coupon, long expiresAtMs) {}
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ConcurrentMap<String, Entry> validByCode = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+    private volatile long filterCapacity;
+    private final AtomicLong filterSize = new AtomicLong();
+    private volatile LocalDateTime lastRefreshedAt;
+    private Counter rejected;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    void init() {
+        rejected = Counter.builder("coupon.lookup")
+                .tag("result", "rejected")
+                .description("Codes the Bloom filter proved unknown without a database lookup")
+                .register(meterRegistry);
+        cacheHits = Counter.builder("coupon.lookup")
+                .tag("result", "cache_hit")
+                .description("Valid coupons served from the local cache")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("coupon.lookup")
+                .tag("result", "cache_miss")
+                .description("Codes passed by the filter that were looked up in the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false only if no active coupon with this code exists
+     */
+    public boolean mightExist(String code) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(code)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * A cached coupon that is still active and within its validity window at {@code now}.
+     */
+    public Optional<Coupon> getValid(String code, LocalDateTime now) {
+        Entry entry = validByCode.get(code);
+        if (entry == null) {
+            cacheMisses.increment();
+            return Optional.empty();
+        }
+        Coupon coupon = entry.coupon();
+        if (System.currentTimeMillis() > entry.expiresAtMs() || now.isBefore(coupon.getValidFrom())
+                || now.isAfter(coupon.getValidUntil())) {
+            validByCode.remove(code, entry);
+            cacheMisses.increment();
+            return Optional.empty();
+        }
+        cacheHits.increment();
+        return Optional.of(coupon);
+    }
+
+    public void putValid(Coupon coupon) {
+        if (validByCode.size() >= cacheMaxEntries) {
+            return;
+        }
+        validByCode.put(coupon.getCode(), new Entry(coupon, System.currentTimeMillis() + cacheTtl.toMillis()));
+    }
+
+    /**
+     * Record a coupon that may have become valid, e.g. one just created or reactivated.
+     */
+    public void add(String code) {
+        BloomFilter current = filter;
+        if (current != null) {
+            addTo(current, code);
+        }
+    }
+
+    /**
+     * Evict a coupon being changed. Called inside the changing transaction, the entry is evicted again
+     * after commit so a lookup racing the change cannot leave the old state cached.
+     */
+    public void invalidate(String code) {
+        validByCode.remove(code);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    validByCode.remove(code);
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${coupon.lookup.rebuild-interval:PT10M}",
+               initialDelayString = "${coupon.lookup.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            // Single-use codes can run into millions: counted to size the filter, then streamed into it
+            BloomFilter rebuilt = readOnly().execute(status -> {
+                List<String> codes = couponRepository.findActiveCodes(startedAt);
+                long singleUse = couponCodeRepository.countActiveCodes(startedAt);
+                long capacity = Math.max(expectedCodes, (codes.size() + singleUse) * 2);
+                BloomFilter next = new BloomFilter((int) Math.min(Integer.MAX_VALUE, capacity), falsePositiveRate);
+                codes.forEach(next::put);
+                couponCodeRepository.forEachActiveCode(startedAt, EPOCH, next::put);
+                filterCapacity = capacity;
+                filterSize.set(codes.size() + singleUse);
+                return next;
+            });
+            filter = rebuilt;
+            lastRefreshedAt = startedAt;
+            log.info("Rebuilt coupon code filter with {} active codes", filterSize.get());
+        } catch (Exception e) {
+            log.warn("Failed to rebuild coupon code filter", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.lookup.refresh-interval:PT10S}")
+    public void refresh() {
+        BloomFilter current = filter;
+        LocalDateTime since = lastRefreshedAt;
+        if (current == null || since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Overlap covers rows stamped at transaction start but committed after the last refresh
+        LocalDateTime from = since.minus(refreshOverlap);
+        try {
+            readOnly().executeWithoutResult(status -> {
+                couponRepository.findActiveCodesUpdatedSince(startedAt, from).forEach(code -> addTo(current, code));
+                couponCodeRepository.forEachActiveCode(startedAt, from, code -> addTo(current, code));
+            });
+            lastRefreshedAt = startedAt;
+        } catch (Exception e) {
+            log.warn("Failed to refresh coupon code filter", e);
+            return;
+        }
+        if (filterSize.get() > filterCapacity) {
+            log.info("Coupon code filter outgrew its capacity of {}, rebuilding", filterCapacity);
+            rebuild();
+        }
+    }
+
+    // Counts codes the filter did not already contain, so overlapping refreshes do not inflate the size
+    private void addTo(BloomFilter target, String code) {
+        if (!target.mightContain(code)) {
+            target.put(code);
+            filterSize.incrementAndGet();
+        }
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
@@ -0,0 +1,43 @@
+package com.rudraksha.shopsphere.coupon.controller;
+
+import com.rudraksha.shopsphere.coupon.dto.request.CreateCampaignRequest;
+import com.rudraksha.shopsphere.coupon.dto.response.CampaignResponse;
+import com.rudraksha.shopsphere.coupon.dto.response.CodeImportResponse;
+import com.rudraksha.shopsphere.coupon.service.CouponCampaignService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/coupons/campaigns")
+@RequiredArgsConstructor
+public class CouponCampaignController {
+
+    private final CouponCampaignService campaignService;
+
+    /**
+     * Create a campaign of single-use codes. Codes are generated in the background; poll the
+     * campaign until its status is READY.
+     */
+    @PostMapping
+    public ResponseEntity<CampaignResponse> createCampaign(@Valid @RequestBody CreateCampaignRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(campaignService.createCampaign(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CampaignResponse> getCampaign(@PathVariable Long id) {
+        return ResponseEntity.ok(campaignService.getCampaign(id));
+    }
+
+    /**
+     * Import codes, one per line, streamed from the request body. Safe to repeat after a failure.
+     */
+    @PostMapping(value = "/{id}/codes", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<CodeImportResponse> importCodes(@PathVariable Long id, InputStream codes) {
+        return ResponseEntity.ok(campaignService.importCodes(id, codes));
+    }
+}
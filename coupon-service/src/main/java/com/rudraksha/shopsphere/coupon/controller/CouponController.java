@@ -39,6 +39,11 @@ public class CouponController {
         return ResponseEntity.ok(couponService.validateCoupon(request));
     }
 
+    @PostMapping("/best")
+    public ResponseEntity<BestCouponResponse> findBestCoupon(@Valid @RequestBody BestCouponRequest request) {
+        return ResponseEntity.ok(couponService.findBestCoupon(request));
+    }
+
     @PostMapping("/apply")
     public ResponseEntity<CouponValidationResponse> applyCoupon(@Valid @RequestBody ApplyCouponRequest request) {
         return ResponseEntity.ok(couponService.applyCoupon(request));
@@ -0,0 +1,19 @@
+package com.rudraksha.shopsphere.coupon.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestCouponRequest {
+    @NotNull(message = "Order amount is required")
+    @DecimalMin(value = "0.01", message = "Order amount must be greater than 0")
+    private BigDecimal orderAmount;
+    
+    // Consider combinations of stackable coupons as well as single coupons
+    @Builder.Default
+    private Boolean allowStacking = true;
+}
@@ -0,0 +1,49 @@
+package com.rudraksha.shopsphere.coupon.dto.request;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateCampaignRequest {
+    @NotBlank(message = "Campaign name is required")
+    @Size(max = 255, message = "Campaign name must not exceed 255 characters")
+    private String name;
+    
+    // Generated codes are the prefix plus 10 characters; required when codes are generated
+    @Pattern(regexp = "[A-Za-z0-9]{1,10}", message = "Prefix must be 1 to 10 letters or digits")
+    private String prefix;
+    
+    @NotNull(message = "Number of codes is required")
+    @Min(value = 0, message = "Number of codes must be non-negative")
+    @Max(value = 100_000_000, message = "Number of codes must not exceed 100000000")
+    private Long codeCount;
+    
+    @NotBlank(message = "Description is required")
+    @Size(max = 255, message = "Description must not exceed 255 characters")
+    private String description;
+    
+    @NotNull(message = "Discount type is required")
+    private Coupon.DiscountType discountType;
+    
+    @NotNull(message = "Discount value is required")
+    @DecimalMin(value = "0.01", message = "Discount value must be greater than 0")
+    private BigDecimal discountValue;
+    
+    @DecimalMin(value = "0.00", message = "Minimum order amount must be non-negative")
+    private BigDecimal minimumOrderAmount;
+    
+    @DecimalMin(value = "0.00", message = "Maximum discount amount must be non-negative")
+    private BigDecimal maximumDiscountAmount;
+    
+    @NotNull(message = "Valid from date is required")
+    private LocalDateTime validFrom;
+    
+    @NotNull(message = "Valid until date is required")
+    private LocalDateTime validUntil;
+}
@@ -41,4 +41,6 @@ public class CreateCouponRequest {
     
     @NotNull(message = "Valid until date is required")
     private LocalDateTime validUntil;
+    
+    private Boolean stackable;
 }
\ No newline at end of file
@@ -29,4 +29,5 @@ public class UpdateCouponRequest {
     private LocalDateTime validFrom;
     private LocalDateTime validUntil;
     private Boolean active;
+    private Boolean stackable;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.rudraksha.shopsphere.coupon.dto.response;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestCouponResponse {
+    private BigDecimal orderAmount;
+    // Codes to apply, in order; empty if no coupon applies
+    private List<String> couponCodes;
+    private Boolean stacked;
+    private BigDecimal discountAmount;
+    private BigDecimal finalAmount;
+}
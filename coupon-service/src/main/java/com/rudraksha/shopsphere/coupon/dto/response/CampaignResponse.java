@@ -0,0 +1,30 @@
+package com.rudraksha.shopsphere.coupon.dto.response;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.entity.CouponCampaign;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignResponse {
+    private Long id;
+    private String name;
+    private String prefix;
+    private String description;
+    private Coupon.DiscountType discountType;
+    private BigDecimal discountValue;
+    private BigDecimal minimumOrderAmount;
+    private BigDecimal maximumDiscountAmount;
+    private LocalDateTime validFrom;
+    private LocalDateTime validUntil;
+    private Boolean active;
+    private CouponCampaign.Status status;
+    private Long requestedCodes;
+    private Long generatedCodes;
+    private Long importedCodes;
+    private LocalDateTime createdAt;
+}
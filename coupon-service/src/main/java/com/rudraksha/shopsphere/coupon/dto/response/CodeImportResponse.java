@@ -0,0 +1,17 @@
+package com.rudraksha.shopsphere.coupon.dto.response;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeImportResponse {
+    private Long campaignId;
+    // Lines read, including blank and invalid ones
+    private Long lines;
+    private Long imported;
+    // Already present (e.g. from an earlier, interrupted import) or clashing with a regular coupon
+    private Long duplicates;
+    private Long invalid;
+}
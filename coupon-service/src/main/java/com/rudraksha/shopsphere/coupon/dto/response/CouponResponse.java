@@ -22,6 +22,7 @@ public class CouponResponse {
     private LocalDateTime validFrom;
     private LocalDateTime validUntil;
     private Boolean active;
+    private Boolean stackable;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
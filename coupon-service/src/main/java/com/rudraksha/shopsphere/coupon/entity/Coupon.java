@@ -38,10 +38,16 @@ public class Coupon {
     @Column(nullable = false)
     private Integer usageLimit;
     
-    @Column(nullable = false)
+    // Reconciled from coupon_redemption_shards by CouponRedemptionCounter; never written through JPA
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer usedCount = 0;
     
+    // Number of redemption counter shards; 0 until the first redemption or limit change creates them
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer redemptionShards = 0;
+    
     @Column(nullable = false)
     private LocalDateTime validFrom;
     
@@ -52,6 +58,11 @@ public class Coupon {
     @Builder.Default
     private Boolean active = true;
     
+    // Whether the coupon may be combined with other stackable coupons on one order
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean stackable = false;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -0,0 +1,124 @@
+package com.rudraksha.shopsphere.coupon.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Discount terms shared by a batch of single-use codes. The codes themselves are stored compactly
+ * in coupon_codes; this row carries everything else a {@link Coupon} would.
+ * Generated codes are a keyed permutation of an index (see CouponCodeGenerator), so nextIndex is all
+ * that is needed to resume generation after a failure.
+ */
+@Entity
+@Table(name = "coupon_campaigns")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponCampaign {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    // Prefix of generated codes; null for campaigns that only import codes
+    @Column(unique = true, length = 10)
+    private String prefix;
+    
+    @Column(nullable = false)
+    private String description;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Coupon.DiscountType discountType;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal discountValue;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal minimumOrderAmount;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal maximumDiscountAmount;
+    
+    @Column(nullable = false)
+    private LocalDateTime validFrom;
+    
+    @Column(nullable = false)
+    private LocalDateTime validUntil;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+    
+    // Codes to generate; imported codes are not counted against it
+    @Column(nullable = false)
+    @Builder.Default
+    private Long requestedCodes = 0L;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Long generatedCodes = 0L;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Long importedCodes = 0L;
+    
+    // Next permutation index to turn into a code
+    @Column(nullable = false)
+    @Builder.Default
+    private Long nextIndex = 0L;
+    
+    // Key of the code permutation; never exposed
+    @Column(nullable = false, updatable = false)
+    private Long seed;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public enum Status {
+        GENERATING, READY
+    }
+    
+    /**
+     * A single-use coupon with this campaign's terms, for validation and discount calculation.
+     * Not persistent.
+     */
+    public Coupon toCoupon(String code) {
+        return Coupon.builder()
+                .code(code)
+                .description(description)
+                .discountType(discountType)
+                .discountValue(discountValue)
+                .minimumOrderAmount(minimumOrderAmount)
+                .maximumDiscountAmount(maximumDiscountAmount)
+                .usageLimit(1)
+                .usedCount(0)
+                .validFrom(validFrom)
+                .validUntil(validUntil)
+                .active(active)
+                .build();
+    }
+}
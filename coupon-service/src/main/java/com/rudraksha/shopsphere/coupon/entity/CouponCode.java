@@ -0,0 +1,32 @@
+package com.rudraksha.shopsphere.coupon.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A single-use code of a {@link CouponCampaign}. Kept to the code, its campaign and its redemption so
+ * that millions of them stay cheap to store and index. Rows are written in bulk through
+ * CouponCodeRepositoryCustom, never one by one.
+ */
+@Entity
+@Table(name = "coupon_codes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponCode {
+    @Id
+    @Column(length = 20)
+    private String code;
+    
+    @Column(name = "campaign_id", nullable = false)
+    private Long campaignId;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime redeemedAt;
+    
+    private String orderId;
+}
@@ -0,0 +1,47 @@
+package com.rudraksha.shopsphere.coupon.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A slice of a coupon's usage limit. Redemptions take one unit from a single shard row, so concurrent
+ * checkouts of the same coupon rarely update the same row. The quotas of a coupon's shards always sum
+ * to its usage limit (or to what is already used, if the limit was lowered below that).
+ */
+@Entity
+@Table(name = "coupon_redemption_shards", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_coupon_redemption_shard", columnNames = {"coupon_id", "shard_index"})
+}, indexes = {
+    @Index(name = "idx_coupon_redemption_shards_updated", columnList = "updated_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponRedemptionShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "coupon_id", nullable = false)
+    private Long couponId;
+    
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+    
+    @Column(nullable = false)
+    private Integer quota;
+    
+    @Column(nullable = false)
+    private Integer used;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,36 @@
+package com.rudraksha.shopsphere.coupon.repository;
+
+import com.rudraksha.shopsphere.coupon.entity.CouponCampaign;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CouponCampaignRepository extends JpaRepository<CouponCampaign, Long> {
+    boolean existsByPrefix(String prefix);
+    
+    @Query("SELECT c.id FROM CouponCampaign c WHERE c.status = com.rudraksha.shopsphere.coupon.entity.CouponCampaign.Status.GENERATING ORDER BY c.id")
+    List<Long> findGeneratingIds();
+    
+    // A campaign another instance is generating is skipped rather than waited for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM CouponCampaign c WHERE c.id = :id")
+    Optional<CouponCampaign> findByIdForGeneration(@Param("id") Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CouponCampaign c WHERE c.id = :id")
+    Optional<CouponCampaign> findByIdWithLock(@Param("id") Long id);
+    
+    @Query("SELECT c FROM CouponCampaign c, CouponCode cc WHERE cc.code = :code AND cc.campaignId = c.id " +
+           "AND cc.redeemedAt IS NULL AND c.active = true AND c.validFrom <= :now AND c.validUntil >= :now")
+    Optional<CouponCampaign> findValidCampaignForCode(@Param("code") String code, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package com.rudraksha.shopsphere.coupon.repository;
+
+import com.rudraksha.shopsphere.coupon.entity.CouponCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface CouponCodeRepository extends JpaRepository<CouponCode, String>, CouponCodeRepositoryCustom {
+    
+    /**
+     * Claim a single-use code. Exactly one concurrent caller gets 1.
+     */
+    @Modifying
+    @Query("UPDATE CouponCode c SET c.redeemedAt = :now, c.orderId = :orderId WHERE c.code = :code AND c.redeemedAt IS NULL")
+    int redeem(@Param("code") String code, @Param("orderId") String orderId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.rudraksha.shopsphere.coupon.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk access to coupon_codes, bypassing the persistence context.
+ */
+public interface CouponCodeRepositoryCustom {
+    
+    /**
+     * Insert codes for a campaign in one statement. Codes that already exist, as single-use codes or as
+     * regular coupons, are skipped.
+     * @return number of codes inserted
+     */
+    int insertBatch(Long campaignId, List<String> codes);
+    
+    /**
+     * Number of unredeemed codes of active campaigns that have not ended at {@code now}.
+     */
+    long countActiveCodes(LocalDateTime now);
+    
+    /**
+     * Stream unredeemed codes of active campaigns that have not ended at {@code now} and were added at
+     * or after {@code since}, without loading them all into memory.
+     */
+    void forEachActiveCode(LocalDateTime now, LocalDateTime since, Consumer<String> action);
+}
@@ -0,0 +1,71 @@
+package com.rudraksha.shopsphere.coupon.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class CouponCodeRepositoryCustomImpl implements CouponCodeRepositoryCustom {
+    private static final int FETCH_SIZE = 10_000;
+
+    // The whole batch travels as one array parameter: one statement and one round trip per batch
+    private static final String INSERT_BATCH_SQL =
+        "INSERT INTO coupon_codes (code, campaign_id) " +
+        "SELECT c, ? FROM unnest(?::varchar[]) AS c " +
+        "WHERE NOT EXISTS (SELECT 1 FROM coupons WHERE coupons.code = c) " +
+        "ON CONFLICT (code) DO NOTHING";
+
+    private static final String ACTIVE_CODES_WHERE =
+        "FROM coupon_codes cc JOIN coupon_campaigns cp ON cp.id = cc.campaign_id " +
+        "WHERE cc.redeemed_at IS NULL AND cp.active = true AND cp.valid_until >= ?";
+
+    private static final String COUNT_ACTIVE_SQL = "SELECT COUNT(*) " + ACTIVE_CODES_WHERE;
+
+    private static final String ACTIVE_SINCE_SQL = "SELECT cc.code " + ACTIVE_CODES_WHERE + " AND cc.created_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertBatch(Long campaignId, List<String> codes) {
+        if (codes.isEmpty()) {
+            return 0;
+        }
+        Integer inserted = jdbcTemplate.execute(INSERT_BATCH_SQL, (PreparedStatement statement) -> {
+            Array array = statement.getConnection().createArrayOf("varchar", codes.toArray());
+            try {
+                statement.setLong(1, campaignId);
+                statement.setArray(2, array);
+                return statement.executeUpdate();
+            } finally {
+                array.free();
+            }
+        });
+        return inserted != null ? inserted : 0;
+    }
+
+    @Override
+    public long countActiveCodes(LocalDateTime now) {
+        Long count = jdbcTemplate.queryForObject(COUNT_ACTIVE_SQL, Long.class, Timestamp.valueOf(now));
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public void forEachActiveCode(LocalDateTime now, LocalDateTime since, Consumer<String> action) {
+        // Postgres only streams with a fetch size inside a transaction; callers run in a read-only one
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ACTIVE_SINCE_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(now));
+            statement.setTimestamp(2, Timestamp.valueOf(since));
+            return statement;
+        }, resultSet -> {
+            action.accept(resultSet.getString(1));
+        });
+    }
+}
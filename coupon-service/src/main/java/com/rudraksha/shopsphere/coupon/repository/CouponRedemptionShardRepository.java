@@ -0,0 +1,46 @@
+package com.rudraksha.shopsphere.coupon.repository;
+
+import com.rudraksha.shopsphere.coupon.entity.CouponRedemptionShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CouponRedemptionShardRepository extends JpaRepository<CouponRedemptionShard, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CouponRedemptionShard s WHERE s.couponId = :couponId ORDER BY s.shardIndex")
+    List<CouponRedemptionShard> findByCouponIdWithLock(@Param("couponId") Long couponId);
+
+    long countByCouponId(Long couponId);
+
+    /**
+     * Atomically take one redemption from a shard if it has quota left.
+     * @return number of rows updated (0 when the shard is missing or used up)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE coupon_redemption_shards SET used = used + 1, updated_at = now() " +
+                   "WHERE coupon_id = :couponId AND shard_index = :shardIndex AND used < quota",
+           nativeQuery = true)
+    int redeemIfAvailable(@Param("couponId") Long couponId, @Param("shardIndex") int shardIndex);
+
+    /**
+     * Copy shard totals to coupons.used_count for every coupon with a shard updated since {@code since}.
+     * @return number of coupons whose count changed
+     */
+    @Modifying
+    @Query(value = "UPDATE coupons c SET used_count = s.total, updated_at = now() " +
+                   "FROM (SELECT coupon_id, SUM(used) AS total FROM coupon_redemption_shards " +
+                   "      WHERE coupon_id IN (SELECT coupon_id FROM coupon_redemption_shards WHERE updated_at >= :since) " +
+                   "      GROUP BY coupon_id) s " +
+                   "WHERE c.id = s.coupon_id AND c.used_count <> s.total",
+           nativeQuery = true)
+    int reconcileUsedCounts(@Param("since") LocalDateTime since);
+}
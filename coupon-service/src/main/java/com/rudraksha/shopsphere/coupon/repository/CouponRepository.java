@@ -1,7 +1,9 @@
 package com.rudraksha.shopsphere.coupon.repository;
 
 import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,12 +16,26 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
     Optional<Coupon> findByCodeAndActiveTrue(String code);
     Optional<Coupon> findByCode(String code);
     
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Coupon c WHERE c.id = :id")
+    Optional<Coupon> findByIdWithLock(@Param("id") Long id);
+    
     @Query("SELECT c FROM Coupon c WHERE c.active = true AND c.validFrom <= :now AND c.validUntil >= :now")
     List<Coupon> findActiveCoupons(@Param("now") LocalDateTime now);
     
     @Query("SELECT c FROM Coupon c WHERE c.code = :code AND c.active = true AND c.validFrom <= :now AND c.validUntil >= :now AND c.usedCount < c.usageLimit")
     Optional<Coupon> findValidCoupon(@Param("code") String code, @Param("now") LocalDateTime now);
     
+    // Includes coupons that have not started yet
+    @Query("SELECT c FROM Coupon c WHERE c.active = true AND c.validUntil >= :now")
+    List<Coupon> findActiveNotExpired(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT c.code FROM Coupon c WHERE c.active = true AND c.validUntil >= :now")
+    List<String> findActiveCodes(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT c.code FROM Coupon c WHERE c.active = true AND c.validUntil >= :now AND c.updatedAt >= :since")
+    List<String> findActiveCodesUpdatedSince(@Param("now") LocalDateTime now, @Param("since") LocalDateTime since);
+    
     @Query("SELECT c FROM Coupon c WHERE c.active = true AND c.validUntil < :now")
     List<Coupon> findExpiredCoupons(@Param("now") LocalDateTime now);
     
@@ -0,0 +1,270 @@
+package com.rudraksha.shopsphere.coupon.service;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Picks the coupon, or combination of stackable coupons, that takes the most off a cart total.
+ * Active regular coupons are held in an immutable snapshot sorted by minimum order amount, with
+ * amounts in cents. A binary search on the cart total cuts the snapshot down to the coupons whose
+ * minimum is met, and a coupon that cannot beat the best found so far is skipped with a multiply and
+ * a compare instead of computing its discount. Very large candidate sets are scanned in parallel
+ * chunks.
+ * Stacking combines the best stackable percentage coupon with the best stackable fixed amount coupon,
+ * the percentage taken off the cart total first and the fixed amount off what is left.
+ * The snapshot is rebuilt shortly after a coupon changes on this instance and at least every
+ * max-age, which also picks up changes made elsewhere and coupons that have run out. Single-use
+ * campaign codes are never suggested: they belong to whoever received them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BestCouponEvaluator {
+
+    private final CouponRepository couponRepository;
+
+    @Value("${coupon.evaluator.max-age:PT1M}")
+    private Duration maxAge;
+
+    @Value("${coupon.evaluator.parallel-threshold:4096}")
+    private int parallelThreshold;
+
+    /**
+     * Active coupons sorted by minimum order, one array per field so a scan reads memory sequentially.
+     * Percentage values are in hundredths of a percent, amounts in cents, times as {@link #timeKey}.
+     */
+    private record Snapshot(String[] codes, long[] minimums, long[] values, long[] caps, boolean[] percentage,
+                            boolean[] stackable, long[] validFrom, long[] validUntil, long builtAtMs) {
+
+        /**
+         * Same result as CouponServiceImpl.calculateDiscount, in cents.
+         */
+        long discountCents(int i, long totalCents) {
+            long discount = percentage[i] ? (totalCents * values[i] + 5_000) / 10_000 : values[i];
+            return Math.min(Math.min(discount, caps[i]), totalCents);
+        }
+
+        /**
+         * Whether discountCents(i, totalCents) can exceed {@code cents}, without dividing.
+         */
+        boolean canExceed(int i, long totalCents, long cents) {
+            if (cents < 0) {
+                return true;
+            }
+            if (caps[i] <= cents || totalCents <= cents) {
+                return false;
+            }
+            return percentage[i] ? totalCents * values[i] + 5_000 >= (cents + 1) * 10_000 : values[i] > cents;
+        }
+    }
+
+    // Best finds of one scan; -1 when none
+    private record Partial(int single, long singleCents, int percentage, long percentageCents, int fixed, long fixedCents) {
+        static final Partial NONE = new Partial(-1, 0, -1, 0, -1, 0);
+
+        Partial merge(Partial other) {
+            return new Partial(
+                    better(single, singleCents, other.single, other.singleCents) ? single : other.single,
+                    Math.max(singleCents, other.singleCents),
+                    better(percentage, percentageCents, other.percentage, other.percentageCents) ? percentage : other.percentage,
+                    Math.max(percentageCents, other.percentageCents),
+                    better(fixed, fixedCents, other.fixed, other.fixedCents) ? fixed : other.fixed,
+                    Math.max(fixedCents, other.fixedCents));
+        }
+
+        // Larger discount wins; on a tie the lower index, for a result independent of chunking
+        private static boolean better(int index, long cents, int otherIndex, long otherCents) {
+            if (otherIndex < 0) {
+                return true;
+            }
+            if (index < 0) {
+                return false;
+            }
+            return cents > otherCents || (cents == otherCents && index < otherIndex);
+        }
+    }
+
+    public record Selection(List<String> couponCodes, BigDecimal discountAmount, boolean stacked) {}
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    /**
+     * The best coupon or stackable combination for the cart total; no codes if none applies.
+     */
+    public Selection evaluate(BigDecimal orderAmount, boolean allowStacking, LocalDateTime now) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        long totalCents = toCents(orderAmount);
+        long nowKey = timeKey(now);
+        int eligible = countEligible(current.minimums(), totalCents);
+        Snapshot index = current;
+
+        Partial best;
+        if (eligible >= parallelThreshold) {
+            int chunk = Math.max(parallelThreshold / 4, 1);
+            int chunks = (eligible + chunk - 1) / chunk;
+            best = IntStream.range(0, chunks).parallel()
+                    .mapToObj(i -> scan(index, i * chunk, Math.min(eligible, (i + 1) * chunk), totalCents, nowKey))
+                    .reduce(Partial.NONE, Partial::merge);
+        } else {
+            best = scan(index, 0, eligible, totalCents, nowKey);
+        }
+
+        if (allowStacking && best.percentage() >= 0 && best.fixed() >= 0) {
+            long afterPercentage = totalCents - best.percentageCents();
+            long stackedCents = best.percentageCents() + Math.min(best.fixedCents(), afterPercentage);
+            if (stackedCents > best.singleCents()) {
+                return new Selection(List.of(index.codes()[best.percentage()], index.codes()[best.fixed()]),
+                        BigDecimal.valueOf(stackedCents, 2), true);
+            }
+        }
+        if (best.single() < 0) {
+            return new Selection(List.of(), BigDecimal.ZERO.setScale(2), false);
+        }
+        return new Selection(List.of(index.codes()[best.single()]), BigDecimal.valueOf(best.singleCents(), 2), false);
+    }
+
+    /**
+     * Rebuild the snapshot soon, once the current transaction (if any) has committed.
+     */
+    public void markStale() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stale = true;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stale = true;
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.evaluator.refresh-interval:PT1S}")
+    public void refreshIfDue() {
+        Snapshot current = snapshot;
+        if (stale || current == null || System.currentTimeMillis() - current.builtAtMs() >= maxAge.toMillis()) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("Failed to rebuild best coupon index", e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        stale = false;
+        long builtAtMs = System.currentTimeMillis();
+        List<Coupon> coupons = couponRepository.findActiveNotExpired(LocalDateTime.now()).stream()
+                .filter(coupon -> coupon.getUsedCount() < coupon.getUsageLimit())
+                .sorted(Comparator.comparingLong(BestCouponEvaluator::minimumCents))
+                .toList();
+        int size = coupons.size();
+        Snapshot built = new Snapshot(new String[size], new long[size], new long[size], new long[size],
+                new boolean[size], new boolean[size], new long[size], new long[size], builtAtMs);
+        for (int i = 0; i < size; i++) {
+            Coupon coupon = coupons.get(i);
+            built.codes()[i] = coupon.getCode();
+            built.minimums()[i] = minimumCents(coupon);
+            built.values()[i] = toCents(coupon.getDiscountValue());
+            built.caps()[i] = coupon.getMaximumDiscountAmount() != null
+                    ? toCents(coupon.getMaximumDiscountAmount()) : Long.MAX_VALUE;
+            built.percentage()[i] = coupon.getDiscountType() == Coupon.DiscountType.PERCENTAGE;
+            built.stackable()[i] = Boolean.TRUE.equals(coupon.getStackable());
+            built.validFrom()[i] = timeKey(coupon.getValidFrom());
+            built.validUntil()[i] = timeKey(coupon.getValidUntil());
+        }
+        snapshot = built;
+        log.debug("Rebuilt best coupon index with {} coupons", size);
+    }
+
+    private static Partial scan(Snapshot index, int from, int to, long totalCents, long nowKey) {
+        int single = -1;
+        long singleCents = 0;
+        int percentage = -1;
+        long percentageCents = 0;
+        int fixed = -1;
+        long fixedCents = 0;
+        for (int i = from; i < to; i++) {
+            // Pruned unless it could beat the best single coupon or, if stackable, the best of its type
+            long needed = single < 0 ? -1 : singleCents;
+            if (index.stackable()[i]) {
+                long typeBest = index.percentage()[i]
+                        ? (percentage < 0 ? -1 : percentageCents)
+                        : (fixed < 0 ? -1 : fixedCents);
+                needed = Math.min(needed, typeBest);
+            }
+            if (!index.canExceed(i, totalCents, needed) || nowKey < index.validFrom()[i] || nowKey > index.validUntil()[i]) {
+                continue;
+            }
+            long cents = index.discountCents(i, totalCents);
+            if (cents > singleCents || single < 0) {
+                single = i;
+                singleCents = cents;
+            }
+            if (index.stackable()[i]) {
+                if (index.percentage()[i]) {
+                    if (cents > percentageCents || percentage < 0) {
+                        percentage = i;
+                        percentageCents = cents;
+                    }
+                } else if (cents > fixedCents || fixed < 0) {
+                    fixed = i;
+                    fixedCents = cents;
+                }
+            }
+        }
+        return new Partial(single, singleCents, percentage, percentageCents, fixed, fixedCents);
+    }
+
+    // Number of candidates whose minimum order is at most the total
+    private static int countEligible(long[] minimums, long totalCents) {
+        int low = 0;
+        int high = minimums.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (minimums[mid] <= totalCents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long minimumCents(Coupon coupon) {
+        return coupon.getMinimumOrderAmount() != null ? toCents(coupon.getMinimumOrderAmount()) : 0;
+    }
+
+    // Orders like the LocalDateTime; only ever compared with other keys
+    private static long timeKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
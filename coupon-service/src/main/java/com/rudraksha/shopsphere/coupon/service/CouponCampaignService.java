@@ -0,0 +1,12 @@
+package com.rudraksha.shopsphere.coupon.service;
+
+import com.rudraksha.shopsphere.coupon.dto.request.CreateCampaignRequest;
+import com.rudraksha.shopsphere.coupon.dto.response.CampaignResponse;
+import com.rudraksha.shopsphere.coupon.dto.response.CodeImportResponse;
+import java.io.InputStream;
+
+public interface CouponCampaignService {
+    CampaignResponse createCampaign(CreateCampaignRequest request);
+    CampaignResponse getCampaign(Long id);
+    CodeImportResponse importCodes(Long id, InputStream codes);
+}
@@ -0,0 +1,134 @@
+package com.rudraksha.shopsphere.coupon.service;
+
+import com.rudraksha.shopsphere.coupon.entity.CouponCampaign;
+import com.rudraksha.shopsphere.coupon.repository.CouponCampaignRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponCodeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the single-use codes of campaigns in the GENERATING state.
+ * Code i of a campaign is its prefix followed by a keyed permutation of i over 50 bits, written as 10
+ * Crockford base32 characters. Distinct indexes always give distinct codes, so a campaign's codes are
+ * collision-free without remembering the ones already issued, and hard to guess from one another.
+ * Codes are inserted in batches, each in its own transaction together with the campaign's progress,
+ * so a crash or failed batch resumes from the last committed index on the next run, on any instance.
+ * Codes that clash with existing ones are skipped and made up for with further indexes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CouponCodeGenerator {
+    static final int CODE_LENGTH = 10;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int HALF_BITS = CODE_LENGTH * 5 / 2;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+    private static final long INDEX_LIMIT = 1L << (2 * HALF_BITS);
+
+    private final CouponCampaignRepository campaignRepository;
+    private final CouponCodeRepository codeRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${coupon.campaign.batch-size:5000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${coupon.campaign.generate-interval:PT5S}")
+    public void generatePending() {
+        for (Long campaignId : campaignRepository.findGeneratingIds()) {
+            try {
+                generate(campaignId);
+            } catch (Exception e) {
+                // Progress up to the last committed batch is kept; the next run carries on from there
+                log.warn("Code generation for campaign {} failed, will resume", campaignId, e);
+            }
+        }
+    }
+
+    /**
+     * Generate the campaign's remaining codes, one committed batch at a time. Returns at once if
+     * another instance holds the campaign.
+     */
+    public void generate(Long campaignId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        boolean more = true;
+        while (more) {
+            more = Boolean.TRUE.equals(transactionTemplate.execute(status -> generateBatch(campaignId)));
+        }
+    }
+
+    private boolean generateBatch(Long campaignId) {
+        CouponCampaign campaign = campaignRepository.findByIdForGeneration(campaignId).orElse(null);
+        if (campaign == null || campaign.getStatus() != CouponCampaign.Status.GENERATING) {
+            return false;
+        }
+
+        long remaining = campaign.getRequestedCodes() - campaign.getGeneratedCodes();
+        if (remaining > 0) {
+            long from = campaign.getNextIndex();
+            int size = (int) Math.min(batchSize, Math.min(remaining, INDEX_LIMIT - from));
+            List<String> codes = new ArrayList<>(size);
+            for (long i = from; i < from + size; i++) {
+                codes.add(code(campaign.getPrefix(), campaign.getSeed(), i));
+            }
+            int inserted = codeRepository.insertBatch(campaign.getId(), codes);
+            campaign.setNextIndex(from + size);
+            campaign.setGeneratedCodes(campaign.getGeneratedCodes() + inserted);
+            remaining -= inserted;
+        }
+
+        boolean exhausted = campaign.getNextIndex() >= INDEX_LIMIT;
+        if (remaining <= 0 || exhausted) {
+            if (exhausted && remaining > 0) {
+                log.warn("Campaign {} ran out of codes with {} still requested", campaign.getId(), remaining);
+            }
+            campaign.setStatus(CouponCampaign.Status.READY);
+            log.info("Campaign {} has {} generated codes", campaign.getId(), campaign.getGeneratedCodes());
+        }
+        campaignRepository.save(campaign);
+        return campaign.getStatus() == CouponCampaign.Status.GENERATING;
+    }
+
+    /**
+     * Code number {@code index} of a campaign.
+     */
+    static String code(String prefix, long seed, long index) {
+        long permuted = permute(seed, index);
+        char[] chars = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (permuted & 31)];
+            permuted >>>= 5;
+        }
+        return prefix + new String(chars);
+    }
+
+    // Balanced Feistel network: a bijection on [0, 2^50) for any seed
+    static long permute(long seed, long index) {
+        long left = (index >>> HALF_BITS) & HALF_MASK;
+        long right = index & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right ^ seed ^ (round * 0x9e3779b97f4a7c15L)) & HALF_MASK);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,175 @@
+package com.rudraksha.shopsphere.coupon.service;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.entity.CouponRedemptionShard;
+import com.rudraksha.shopsphere.coupon.exception.CouponException;
+import com.rudraksha.shopsphere.coupon.repository.CouponRedemptionShardRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Redemption counters for coupons.
+ * A coupon's usage limit is split into quotas across N coupon_redemption_shards rows. A redemption is
+ * one conditional UPDATE on a random shard ({@code used < quota}), falling back to the other shards,
+ * so concurrent checkouts rarely wait on the same row and the limit can never be exceeded: the last
+ * unit of quota is taken by exactly one transaction. Each redemption takes a single unit, so when no
+ * shard has quota left the whole limit is used up. coupons.used_count is brought up to date with the
+ * shard totals in the background.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CouponRedemptionCounter {
+    private final CouponRepository couponRepository;
+    private final CouponRedemptionShardRepository shardRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${coupon.redemption.shards:8}")
+    private int maxShards;
+
+    @Value("${coupon.redemption.reconcile-overlap:PT1M}")
+    private Duration reconcileOverlap;
+
+    // Start of the previous reconcile run; null until the first run, which reconciles everything
+    private volatile LocalDateTime lastReconciledAt;
+
+    /**
+     * Take one redemption of the coupon. Must be called inside a transaction; rolling it back returns
+     * the unit to its shard.
+     * @return the shard index redeemed from
+     * @throws CouponException if the usage limit is reached
+     */
+    public int redeem(Coupon coupon) {
+        int count = coupon.getRedemptionShards() != null && coupon.getRedemptionShards() > 0
+                ? coupon.getRedemptionShards()
+                : initialize(coupon);
+        int start = ThreadLocalRandom.current().nextInt(count);
+        for (int i = 0; i < count; i++) {
+            int shardIndex = (start + i) % count;
+            if (shardRepository.redeemIfAvailable(coupon.getId(), shardIndex) > 0) {
+                log.debug("Redeemed coupon {} from shard {}", coupon.getCode(), shardIndex);
+                return shardIndex;
+            }
+        }
+        // A coupon read before a resize added shards does not know about them; try those before giving up
+        long current = shardRepository.countByCouponId(coupon.getId());
+        for (int shardIndex = count; shardIndex < current; shardIndex++) {
+            if (shardRepository.redeemIfAvailable(coupon.getId(), shardIndex) > 0) {
+                log.debug("Redeemed coupon {} from shard {}", coupon.getCode(), shardIndex);
+                return shardIndex;
+            }
+        }
+        throw new CouponException("Coupon usage limit reached: " + coupon.getCode());
+    }
+
+    /**
+     * Create the coupon's shards if it has none, carrying over redemptions already counted on the
+     * coupon row. Must be called inside a transaction.
+     * @return the coupon's shard count
+     */
+    public int initialize(Coupon coupon) {
+        // Serializes concurrent first redemptions; the shard table, not the possibly stale entity, decides
+        couponRepository.findByIdWithLock(coupon.getId())
+                .orElseThrow(() -> new CouponException("Coupon not found: " + coupon.getCode()));
+        long existing = shardRepository.countByCouponId(coupon.getId());
+        if (existing > 0) {
+            coupon.setRedemptionShards((int) existing);
+            return (int) existing;
+        }
+
+        int count = shardCount(coupon.getUsageLimit());
+        List<CouponRedemptionShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(newShard(coupon, i, i == 0 ? coupon.getUsedCount() : 0));
+        }
+        distribute(coupon.getUsageLimit(), shards);
+        shardRepository.saveAll(shards);
+
+        coupon.setRedemptionShards(count);
+        couponRepository.save(coupon);
+        log.info("Coupon {} now has {} redemption shards", coupon.getCode(), count);
+        return count;
+    }
+
+    /**
+     * Re-split the coupon's limit after it changed, first adding shards up to what the new limit allows.
+     * Shards are never removed, since their used counts are part of the total. Must be called inside a
+     * transaction.
+     */
+    public void resize(Coupon coupon) {
+        List<CouponRedemptionShard> shards = new ArrayList<>(shardRepository.findByCouponIdWithLock(coupon.getId()));
+        if (shards.isEmpty()) {
+            initialize(coupon);
+            return;
+        }
+        int existing = shards.size();
+        for (int i = existing; i < shardCount(coupon.getUsageLimit()); i++) {
+            shards.add(newShard(coupon, i, 0));
+        }
+        distribute(coupon.getUsageLimit(), shards);
+        shardRepository.saveAll(shards);
+
+        if (!Integer.valueOf(shards.size()).equals(coupon.getRedemptionShards())) {
+            coupon.setRedemptionShards(shards.size());
+            couponRepository.save(coupon);
+            log.info("Coupon {} now has {} redemption shards", coupon.getCode(), shards.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.redemption.reconcile-interval:PT5S}")
+    public void reconcileUsedCounts() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Overlap covers shard updates stamped at transaction start but committed after the last run
+        LocalDateTime since = lastReconciledAt != null ? lastReconciledAt.minus(reconcileOverlap) : LocalDateTime.of(1970, 1, 1, 0, 0);
+        try {
+            Integer updated = new TransactionTemplate(transactionManager)
+                    .execute(status -> shardRepository.reconcileUsedCounts(since));
+            lastReconciledAt = startedAt;
+            if (updated != null && updated > 0) {
+                log.debug("Reconciled used count of {} coupons", updated);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reconcile coupon used counts", e);
+        }
+    }
+
+    private int shardCount(int usageLimit) {
+        return Math.max(1, Math.min(maxShards, usageLimit));
+    }
+
+    private static CouponRedemptionShard newShard(Coupon coupon, int shardIndex, int used) {
+        return CouponRedemptionShard.builder()
+                .couponId(coupon.getId())
+                .shardIndex(shardIndex)
+                .quota(0)
+                .used(used)
+                .build();
+    }
+
+    /**
+     * Split whatever is left of the limit evenly on top of each shard's used count. A limit below what
+     * is already used leaves every shard full.
+     */
+    static void distribute(int usageLimit, List<CouponRedemptionShard> shards) {
+        long used = shards.stream().mapToLong(CouponRedemptionShard::getUsed).sum();
+        long free = Math.max(0, usageLimit - used);
+        long share = free / shards.size();
+        long extra = free % shards.size();
+        for (int i = 0; i < shards.size(); i++) {
+            CouponRedemptionShard shard = shards.get(i);
+            shard.setQuota((int) (shard.getUsed() + share + (i < extra ? 1 : 0)));
+        }
+    }
+}
@@ -14,6 +14,7 @@ public interface CouponService {
     Page<CouponResponse> getAllCoupons(Pageable pageable);
     CouponValidationResponse validateCoupon(ValidateCouponRequest request);
     CouponValidationResponse applyCoupon(ApplyCouponRequest request);
+    BestCouponResponse findBestCoupon(BestCouponRequest request);
     CouponResponse deactivateCoupon(String code);
     List<CouponUsageResponse> getUserCouponHistory(String userId);
     List<CouponUsageResponse> getCouponUsageHistory(String couponCode);
@@ -0,0 +1,169 @@
+package com.rudraksha.shopsphere.coupon.service.impl;
+
+import com.rudraksha.shopsphere.coupon.dto.request.CreateCampaignRequest;
+import com.rudraksha.shopsphere.coupon.dto.response.CampaignResponse;
+import com.rudraksha.shopsphere.coupon.dto.response.CodeImportResponse;
+import com.rudraksha.shopsphere.coupon.entity.CouponCampaign;
+import com.rudraksha.shopsphere.coupon.exception.CouponException;
+import com.rudraksha.shopsphere.coupon.repository.CouponCampaignRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponCodeRepository;
+import com.rudraksha.shopsphere.coupon.service.CouponCampaignService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CouponCampaignServiceImpl implements CouponCampaignService {
+    private static final Pattern CODE = Pattern.compile("[A-Z0-9_-]{3,20}");
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private final CouponCampaignRepository campaignRepository;
+    private final CouponCodeRepository codeRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${coupon.campaign.batch-size:5000}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public CampaignResponse createCampaign(CreateCampaignRequest request) {
+        if (!request.getValidUntil().isAfter(request.getValidFrom())) {
+            throw new CouponException("Valid until must be after valid from");
+        }
+        String prefix = request.getPrefix() != null ? request.getPrefix().toUpperCase() : null;
+        if (request.getCodeCount() > 0 && prefix == null) {
+            throw new CouponException("A prefix is required to generate codes");
+        }
+        if (prefix != null && campaignRepository.existsByPrefix(prefix)) {
+            throw new CouponException("Campaign prefix already in use: " + prefix);
+        }
+
+        CouponCampaign campaign = CouponCampaign.builder()
+                .name(request.getName())
+                .prefix(prefix)
+                .description(request.getDescription())
+                .discountType(request.getDiscountType())
+                .discountValue(request.getDiscountValue())
+                .minimumOrderAmount(request.getMinimumOrderAmount())
+                .maximumDiscountAmount(request.getMaximumDiscountAmount())
+                .validFrom(request.getValidFrom())
+                .validUntil(request.getValidUntil())
+                .requestedCodes(request.getCodeCount())
+                // CouponCodeGenerator picks up GENERATING campaigns
+                .status(request.getCodeCount() > 0 ? CouponCampaign.Status.GENERATING : CouponCampaign.Status.READY)
+                .seed(SEEDS.nextLong())
+                .build();
+        campaign = campaignRepository.save(campaign);
+        log.info("Created campaign {} for {} codes", campaign.getId(), campaign.getRequestedCodes());
+        return mapToResponse(campaign);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CampaignResponse getCampaign(Long id) {
+        return mapToResponse(campaignRepository.findById(id)
+                .orElseThrow(() -> new CouponException("Campaign not found: " + id)));
+    }
+
+    /**
+     * Stream codes, one per line, into the campaign. Each batch commits on its own, so an import cut
+     * short keeps what it inserted; sending the same file again imports only the rest.
+     */
+    @Override
+    public CodeImportResponse importCodes(Long id, InputStream codes) {
+        if (!campaignRepository.existsById(id)) {
+            throw new CouponException("Campaign not found: " + id);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long lines = 0;
+        long accepted = 0;
+        long imported = 0;
+        long invalid = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(codes, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                String code = line.strip().toUpperCase();
+                if (code.isEmpty()) {
+                    continue;
+                }
+                if (!CODE.matcher(code).matches()) {
+                    invalid++;
+                    continue;
+                }
+                accepted++;
+                batch.add(code);
+                if (batch.size() == batchSize) {
+                    imported += importBatch(transactionTemplate, id, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            imported += importBatch(transactionTemplate, id, batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read codes for campaign " + id, e);
+        }
+
+        log.info("Imported {} codes into campaign {}", imported, id);
+        return CodeImportResponse.builder()
+                .campaignId(id)
+                .lines(lines)
+                .imported(imported)
+                .duplicates(accepted - imported)
+                .invalid(invalid)
+                .build();
+    }
+
+    private int importBatch(TransactionTemplate transactionTemplate, Long id, List<String> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Integer inserted = transactionTemplate.execute(status -> {
+            CouponCampaign campaign = campaignRepository.findByIdWithLock(id)
+                    .orElseThrow(() -> new CouponException("Campaign not found: " + id));
+            int count = codeRepository.insertBatch(id, batch);
+            campaign.setImportedCodes(campaign.getImportedCodes() + count);
+            campaignRepository.save(campaign);
+            return count;
+        });
+        return inserted != null ? inserted : 0;
+    }
+
+    private CampaignResponse mapToResponse(CouponCampaign campaign) {
+        return CampaignResponse.builder()
+                .id(campaign.getId())
+                .name(campaign.getName())
+                .prefix(campaign.getPrefix())
+                .description(campaign.getDescription())
+                .discountType(campaign.getDiscountType())
+                .discountValue(campaign.getDiscountValue())
+                .minimumOrderAmount(campaign.getMinimumOrderAmount())
+                .maximumDiscountAmount(campaign.getMaximumDiscountAmount())
+                .validFrom(campaign.getValidFrom())
+                .validUntil(campaign.getValidUntil())
+                .active(campaign.getActive())
+                .status(campaign.getStatus())
+                .requestedCodes(campaign.getRequestedCodes())
+                .generatedCodes(campaign.getGeneratedCodes())
+                .importedCodes(campaign.getImportedCodes())
+                .createdAt(campaign.getCreatedAt())
+                .build();
+    }
+}
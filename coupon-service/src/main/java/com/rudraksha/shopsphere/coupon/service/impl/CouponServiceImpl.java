@@ -1,9 +1,12 @@
 package com.rudraksha.shopsphere.coupon.service.impl;
 
+import com.rudraksha.shopsphere.coupon.cache.CouponLookupCache;
 import com.rudraksha.shopsphere.coupon.dto.request.*;
 import com.rudraksha.shopsphere.coupon.dto.response.*;
 import com.rudraksha.shopsphere.coupon.entity.*;
 import com.rudraksha.shopsphere.coupon.repository.*;
+import com.rudraksha.shopsphere.coupon.service.BestCouponEvaluator;
+import com.rudraksha.shopsphere.coupon.service.CouponRedemptionCounter;
 import com.rudraksha.shopsphere.coupon.service.CouponService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,10 +29,16 @@ public class CouponServiceImpl implements CouponService {
     
     private final CouponRepository couponRepository;
     private final CouponUsageRepository couponUsageRepository;
+    private final CouponRedemptionCounter redemptionCounter;
+    private final CouponLookupCache couponLookupCache;
+    private final CouponCampaignRepository couponCampaignRepository;
+    private final CouponCodeRepository couponCodeRepository;
+    private final BestCouponEvaluator bestCouponEvaluator;
     
     @Override
     public CouponResponse createCoupon(CreateCouponRequest request) {
-        if (couponRepository.findByCodeAndActiveTrue(request.getCode()).isPresent()) {
+        if (couponRepository.findByCodeAndActiveTrue(request.getCode()).isPresent()
+                || couponCodeRepository.existsById(request.getCode().toUpperCase())) {
             throw new RuntimeException("Coupon with code " + request.getCode() + " already exists");
         }
         
@@ -43,9 +52,13 @@ public class CouponServiceImpl implements CouponService {
                 .usageLimit(request.getUsageLimit())
                 .validFrom(request.getValidFrom())
                 .validUntil(request.getValidUntil())
+                .stackable(Boolean.TRUE.equals(request.getStackable()))
                 .build();
         
         coupon = couponRepository.save(coupon);
+        redemptionCounter.initialize(coupon);
+        couponLookupCache.add(coupon.getCode());
+        bestCouponEvaluator.markStale();
         log.info("Created coupon with code: {}", coupon.getCode());
         
         return mapToResponse(coupon);
@@ -72,9 +85,20 @@ public class CouponServiceImpl implements CouponService {
     @Transactional(readOnly = true)
     public CouponValidationResponse validateCoupon(ValidateCouponRequest request) {
         String code = request.getCouponCode().toUpperCase();
+        LocalDateTime now = LocalDateTime.now();
         
-        Coupon coupon = couponRepository.findValidCoupon(code, LocalDateTime.now())
-                .orElse(null);
+        Coupon coupon = null;
+        if (couponLookupCache.mightExist(code)) {
+            coupon = couponLookupCache.getValid(code, now).orElse(null);
+            if (coupon == null) {
+                coupon = couponRepository.findValidCoupon(code, now)
+                        .or(() -> couponCampaignRepository.findValidCampaignForCode(code, now).map(c -> c.toCoupon(code)))
+                        .orElse(null);
+                if (coupon != null) {
+                    couponLookupCache.putValid(coupon);
+                }
+            }
+        }
         
         if (coupon == null) {
             return CouponValidationResponse.builder()
@@ -108,9 +132,16 @@ public class CouponServiceImpl implements CouponService {
     @Override
     public CouponValidationResponse applyCoupon(ApplyCouponRequest request) {
         String code = request.getCouponCode().toUpperCase();
+        LocalDateTime now = LocalDateTime.now();
         
-        Coupon coupon = couponRepository.findValidCoupon(code, LocalDateTime.now())
-                .orElseThrow(() -> new RuntimeException("Invalid or expired coupon"));
+        // Regular coupon, or else a single-use code of a campaign
+        Coupon coupon = couponRepository.findValidCoupon(code, now).orElse(null);
+        boolean singleUse = coupon == null;
+        if (singleUse) {
+            coupon = couponCampaignRepository.findValidCampaignForCode(code, now)
+                    .map(campaign -> campaign.toCoupon(code))
+                    .orElseThrow(() -> new RuntimeException("Invalid or expired coupon"));
+        }
         
         if (coupon.getMinimumOrderAmount() != null && 
             request.getOrderAmount().compareTo(coupon.getMinimumOrderAmount()) < 0) {
@@ -119,6 +150,16 @@ public class CouponServiceImpl implements CouponService {
         
         BigDecimal discountAmount = calculateDiscount(coupon, request.getOrderAmount());
         
+        if (singleUse) {
+            if (couponCodeRepository.redeem(code, request.getOrderId(), now) == 0) {
+                throw new CouponException("Coupon already used: " + code);
+            }
+            couponLookupCache.invalidate(code);
+        } else {
+            // The limit is enforced here; used_count on the coupon row catches up asynchronously
+            redemptionCounter.redeem(coupon);
+        }
+        
         CouponUsage usage = CouponUsage.builder()
                 .couponCode(code)
                 .userId(request.getUserId())
@@ -128,9 +169,6 @@ public class CouponServiceImpl implements CouponService {
         
         couponUsageRepository.save(usage);
         
-        coupon.setUsedCount(coupon.getUsedCount() + 1);
-        couponRepository.save(coupon);
-        
         BigDecimal finalAmount = request.getOrderAmount().subtract(discountAmount);
         
         log.info("Applied coupon {} for user {} on order {}, discount: {}", 
@@ -145,6 +183,20 @@ public class CouponServiceImpl implements CouponService {
                 .build();
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public BestCouponResponse findBestCoupon(BestCouponRequest request) {
+        BestCouponEvaluator.Selection selection = bestCouponEvaluator.evaluate(
+                request.getOrderAmount(), !Boolean.FALSE.equals(request.getAllowStacking()), LocalDateTime.now());
+        return BestCouponResponse.builder()
+                .orderAmount(request.getOrderAmount())
+                .couponCodes(selection.couponCodes())
+                .stacked(selection.stacked())
+                .discountAmount(selection.discountAmount())
+                .finalAmount(request.getOrderAmount().subtract(selection.discountAmount()))
+                .build();
+    }
+    
     @Override
     public CouponResponse deactivateCoupon(String code) {
         Coupon coupon = couponRepository.findByCodeAndActiveTrue(code.toUpperCase())
@@ -152,6 +204,8 @@ public class CouponServiceImpl implements CouponService {
         
         coupon.setActive(false);
         coupon = couponRepository.save(coupon);
+        couponLookupCache.invalidate(coupon.getCode());
+        bestCouponEvaluator.markStale();
         
         log.info("Deactivated coupon: {}", code);
         return mapToResponse(coupon);
@@ -166,12 +220,22 @@ public class CouponServiceImpl implements CouponService {
         if (request.getDiscountValue() != null) coupon.setDiscountValue(request.getDiscountValue());
         if (request.getMinimumOrderAmount() != null) coupon.setMinimumOrderAmount(request.getMinimumOrderAmount());
         if (request.getMaximumDiscountAmount() != null) coupon.setMaximumDiscountAmount(request.getMaximumDiscountAmount());
+        boolean limitChanged = request.getUsageLimit() != null && !request.getUsageLimit().equals(coupon.getUsageLimit());
         if (request.getUsageLimit() != null) coupon.setUsageLimit(request.getUsageLimit());
         if (request.getValidFrom() != null) coupon.setValidFrom(request.getValidFrom());
         if (request.getValidUntil() != null) coupon.setValidUntil(request.getValidUntil());
         if (request.getActive() != null) coupon.setActive(request.getActive());
+        if (request.getStackable() != null) coupon.setStackable(request.getStackable());
         
         coupon = couponRepository.save(coupon);
+        if (limitChanged) {
+            redemptionCounter.resize(coupon);
+        }
+        couponLookupCache.invalidate(coupon.getCode());
+        if (coupon.getActive()) {
+            couponLookupCache.add(coupon.getCode());
+        }
+        bestCouponEvaluator.markStale();
         log.info("Updated coupon: {}", code);
         return mapToResponse(coupon);
     }
@@ -206,6 +270,8 @@ public class CouponServiceImpl implements CouponService {
         Coupon coupon = couponRepository.findByCode(code.toUpperCase())
                 .orElseThrow(() -> new RuntimeException("Coupon not found: " + code));
         couponRepository.delete(coupon);
+        couponLookupCache.invalidate(coupon.getCode());
+        bestCouponEvaluator.markStale();
         log.info("Deleted coupon: {}", code);
     }
     
@@ -261,6 +327,7 @@ public class CouponServiceImpl implements CouponService {
                 .validFrom(coupon.getValidFrom())
                 .validUntil(coupon.getValidUntil())
                 .active(coupon.getActive())
+                .stackable(coupon.getStackable())
                 .createdAt(coupon.getCreatedAt())
                 .updatedAt(coupon.getUpdatedAt())
                 .build();
@@ -0,0 +1,17 @@
+-- Sharded redemption counters; coupons.used_count becomes an asynchronously reconciled total
+ALTER TABLE coupons ADD COLUMN IF NOT EXISTS redemption_shards INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS coupon_redemption_shards (
+    id BIGSERIAL PRIMARY KEY,
+    coupon_id BIGINT NOT NULL,
+    shard_index INTEGER NOT NULL,
+    quota INTEGER NOT NULL CHECK (quota >= 0),
+    used INTEGER NOT NULL DEFAULT 0 CHECK (used >= 0),
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_coupon_redemption_shard UNIQUE (coupon_id, shard_index),
+    -- The usage limit is enforced by the database, not only by the application
+    CONSTRAINT redemption_within_quota CHECK (used <= quota),
+    FOREIGN KEY (coupon_id) REFERENCES coupons(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_coupon_redemption_shards_updated ON coupon_redemption_shards(updated_at);
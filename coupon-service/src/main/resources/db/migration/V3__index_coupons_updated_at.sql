@@ -0,0 +1,2 @@
+-- Incremental refresh of the coupon code filter reads coupons changed since the last refresh
+CREATE INDEX idx_coupons_updated_at ON coupons(updated_at);
@@ -0,0 +1,37 @@
+-- Campaigns of single-use codes: the discount terms live once on the campaign
+CREATE TABLE coupon_campaigns (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    prefix VARCHAR(10) UNIQUE,
+    description VARCHAR(255) NOT NULL,
+    discount_type VARCHAR(20) NOT NULL CHECK (discount_type IN ('PERCENTAGE', 'FIXED_AMOUNT')),
+    discount_value DECIMAL(10,2) NOT NULL CHECK (discount_value > 0),
+    minimum_order_amount DECIMAL(10,2),
+    maximum_discount_amount DECIMAL(10,2),
+    valid_from TIMESTAMP NOT NULL,
+    valid_until TIMESTAMP NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT true,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('GENERATING', 'READY')),
+    requested_codes BIGINT NOT NULL DEFAULT 0 CHECK (requested_codes >= 0),
+    generated_codes BIGINT NOT NULL DEFAULT 0,
+    imported_codes BIGINT NOT NULL DEFAULT 0,
+    next_index BIGINT NOT NULL DEFAULT 0,
+    seed BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT campaign_valid_date_range CHECK (valid_until > valid_from)
+);
+
+CREATE INDEX idx_coupon_campaigns_status ON coupon_campaigns(status);
+
+-- One narrow row per single-use code; the primary key is the only B-tree
+CREATE TABLE coupon_codes (
+    code VARCHAR(20) PRIMARY KEY,
+    campaign_id BIGINT NOT NULL REFERENCES coupon_campaigns(id) ON DELETE CASCADE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    redeemed_at TIMESTAMP,
+    order_id VARCHAR(255)
+) WITH (fillfactor = 90);
+
+-- Rows arrive in created_at order, so a BRIN index serves "codes added since" scans at a tiny size
+CREATE INDEX idx_coupon_codes_created_at ON coupon_codes USING BRIN (created_at);
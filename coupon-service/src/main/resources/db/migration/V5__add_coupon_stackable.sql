@@ -0,0 +1,2 @@
+-- Coupons that may be combined with other stackable coupons on one order
+ALTER TABLE coupons ADD COLUMN stackable BOOLEAN NOT NULL DEFAULT false;
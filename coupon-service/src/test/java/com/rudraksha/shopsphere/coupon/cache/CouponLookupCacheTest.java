@@ -0,0 +1,229 @@
+package com.rudraksha.shopsphere.coupon.cache;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.repository.CouponCodeRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponLookupCacheTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+    @Mock
+    private CouponCodeRepository couponCodeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CouponLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CouponLookupCache(couponRepository, couponCodeRepository, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "expectedCodes", 1000);
+        ReflectionTestUtils.setField(cache, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(cache, "cacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cache, "cacheMaxEntries", 10000);
+        ReflectionTestUtils.setField(cache, "refreshOverlap", Duration.ofMinutes(1));
+        cache.init();
+    }
+
+    @Test
+    void mightExist_BeforeFirstRebuild_LetsEverythingThrough() {
+        assertTrue(cache.mightExist("ANYTHING"));
+    }
+
+    @Test
+    void mightExist_AfterRebuild_RejectsUnknownCodes() {
+        when(couponRepository.findActiveCodes(any())).thenReturn(List.of("WELCOME10", "SAVE20"));
+
+        cache.rebuild();
+
+        assertTrue(cache.mightExist("WELCOME10"));
+        assertTrue(cache.mightExist("SAVE20"));
+        assertFalse(cache.mightExist("NOPE"));
+    }
+
+    @Test
+    void refresh_AddsCouponsChangedSinceLastRefresh() {
+        when(couponRepository.findActiveCodes(any())).thenReturn(List.of("WELCOME10"));
+        when(couponRepository.findActiveCodesUpdatedSince(any(), any())).thenReturn(List.of("NEWYEAR"));
+        cache.rebuild();
+        assertFalse(cache.mightExist("NEWYEAR"));
+
+        cache.refresh();
+
+        assertTrue(cache.mightExist("NEWYEAR"));
+    }
+
+    @Test
+    void rebuild_IncludesSingleUseCodes() {
+        when(couponRepository.findActiveCodes(any())).thenReturn(List.of("WELCOME10"));
+        streamCodes(List.of("SPRINGK3M9Q2ZT7A", "SPRINGV8W1C6NP0D"));
+
+        cache.rebuild();
+
+        assertTrue(cache.mightExist("SPRINGK3M9Q2ZT7A"));
+        assertTrue(cache.mightExist("SPRINGV8W1C6NP0D"));
+        assertFalse(cache.mightExist("SPRING0000000000"));
+    }
+
+    @Test
+    void refresh_MoreCodesThanCapacity_RebuildsLarger() {
+        ReflectionTestUtils.setField(cache, "expectedCodes", 10);
+        when(couponRepository.findActiveCodes(any())).thenReturn(List.of());
+        cache.rebuild();
+        List<String> generated = IntStream.range(0, 50).mapToObj(i -> "BULK" + i).toList();
+        streamCodes(generated);
+
+        cache.refresh();
+
+        // Rebuilt from the tables with room for twice what they now hold
+        verify(couponRepository, times(2)).findActiveCodes(any());
+        assertEquals(100L, ReflectionTestUtils.getField(cache, "filterCapacity"));
+        generated.forEach(code -> assertTrue(cache.mightExist(code)));
+    }
+
+    @Test
+    void getValid_ExpiredOrOutsideValidity_ReturnsEmpty() {
+        Coupon live = coupon("LIVE", LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        Coupon ended = coupon("ENDED", LocalDateTime.now().minusDays(2), LocalDateTime.now().minusMinutes(1));
+        cache.putValid(live);
+        cache.putValid(ended);
+
+        assertEquals(live, cache.getValid("LIVE", LocalDateTime.now()).orElseThrow());
+        assertTrue(cache.getValid("ENDED", LocalDateTime.now()).isEmpty());
+
+        ReflectionTestUtils.setField(cache, "cacheTtl", Duration.ofMillis(-1));
+        cache.putValid(live);
+        assertTrue(cache.getValid("LIVE", LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    void invalidate_EvictsCachedCoupon() {
+        cache.putValid(coupon("LIVE", LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)));
+
+        cache.invalidate("LIVE");
+
+        assertTrue(cache.getValid("LIVE", LocalDateTime.now()).isEmpty());
+    }
+
+    /**
+     * Shoppers and bots hammering validation with a mix of real codes and random guesses: guesses
+     * should almost never reach the database and each real code only about once per TTL.
+     */
+    @Test
+    void loadTest_MixedValidAndGarbageCodes() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> validCodes = IntStream.range(0, 200).mapToObj(i -> "PROMO" + i).toList();
+        Map<String, Coupon> table = validCodes.stream()
+                .collect(Collectors.toMap(Function.identity(), c -> coupon(c, now.minusDays(1), now.plusDays(1))));
+        when(couponRepository.findActiveCodes(any())).thenReturn(validCodes);
+        cache.rebuild();
+
+        AtomicInteger garbageQueries = new AtomicInteger();
+        AtomicInteger validQueries = new AtomicInteger();
+        AtomicInteger garbageLookups = new AtomicInteger();
+        AtomicInteger validAccepted = new AtomicInteger();
+        int threads = 16;
+        int lookupsPerThread = 10_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < lookupsPerThread; i++) {
+                    boolean valid = random.nextInt(10) < 3;
+                    String code = valid
+                            ? validCodes.get(random.nextInt(validCodes.size()))
+                            : UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                    if (!valid) {
+                        garbageLookups.incrementAndGet();
+                    }
+                    // Same lookup path as CouponServiceImpl.validateCoupon, with the table as the database
+                    Coupon found = null;
+                    if (cache.mightExist(code)) {
+                        found = cache.getValid(code, now).orElse(null);
+                        if (found == null) {
+                            (valid ? validQueries : garbageQueries).incrementAndGet();
+                            found = table.get(code);
+                            if (found != null) {
+                                cache.putValid(found);
+                            }
+                        }
+                    }
+                    if (found != null) {
+                        validAccepted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        int validLookups = threads * lookupsPerThread - garbageLookups.get();
+        assertEquals(validLookups, validAccepted.get());
+        // 0.1% configured false positive rate; allow ample slack
+        assertTrue(garbageQueries.get() < garbageLookups.get() / 200,
+                "Garbage codes reaching the database: " + garbageQueries.get() + " of " + garbageLookups.get());
+        // At most one miss per code per thread racing the first load
+        assertTrue(validQueries.get() <= validCodes.size() * threads,
+                "Valid codes reaching the database: " + validQueries.get() + " of " + validLookups);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamCodes(List<String> codes) {
+        lenient().when(couponCodeRepository.countActiveCodes(any())).thenReturn((long) codes.size());
+        doAnswer(inv -> {
+            codes.forEach(inv.getArgument(2, Consumer.class));
+            return null;
+        }).when(couponCodeRepository).forEachActiveCode(any(), any(), any());
+    }
+
+    private static Coupon coupon(String code, LocalDateTime validFrom, LocalDateTime validUntil) {
+        return Coupon.builder()
+                .code(code)
+                .discountType(Coupon.DiscountType.PERCENTAGE)
+                .discountValue(BigDecimal.TEN)
+                .usageLimit(100)
+                .validFrom(validFrom)
+                .validUntil(validUntil)
+                .build();
+    }
+}
@@ -0,0 +1,208 @@
+package com.rudraksha.shopsphere.coupon.service;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BestCouponEvaluatorTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @InjectMocks
+    private BestCouponEvaluator evaluator;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(evaluator, "maxAge", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(evaluator, "parallelThreshold", 4096);
+    }
+
+    @Test
+    void evaluate_PicksLargestDiscountWhoseMinimumIsMet() {
+        index(percentage("TEN", "10", null, null, false),
+              fixed("SAVE20", "20", "100", false),
+              fixed("SAVE50", "50", "300", false));
+
+        BestCouponEvaluator.Selection selection = evaluator.evaluate(new BigDecimal("150.00"), true, now);
+
+        assertEquals(List.of("SAVE20"), selection.couponCodes());
+        assertEquals(new BigDecimal("20.00"), selection.discountAmount());
+        assertFalse(selection.stacked());
+    }
+
+    @Test
+    void evaluate_RespectsCapAndCartTotal() {
+        index(percentage("HALF", "50", null, "30", false),
+              fixed("FLAT40", "40", null, false));
+
+        assertEquals(List.of("FLAT40"), evaluator.evaluate(new BigDecimal("100.00"), true, now).couponCodes());
+        // A fixed discount never exceeds the cart
+        assertEquals(new BigDecimal("25.00"), evaluator.evaluate(new BigDecimal("25.00"), true, now).discountAmount());
+    }
+
+    @Test
+    void evaluate_StacksBestPercentageThenFixed() {
+        index(percentage("TEN", "10", null, null, true),
+              percentage("FIVE", "5", null, null, true),
+              fixed("SAVE15", "15", null, true),
+              fixed("SOLO22", "22", null, false));
+
+        BestCouponEvaluator.Selection stacked = evaluator.evaluate(new BigDecimal("100.00"), true, now);
+        assertEquals(List.of("TEN", "SAVE15"), stacked.couponCodes());
+        assertEquals(new BigDecimal("25.00"), stacked.discountAmount());
+        assertTrue(stacked.stacked());
+
+        BestCouponEvaluator.Selection single = evaluator.evaluate(new BigDecimal("100.00"), false, now);
+        assertEquals(List.of("SOLO22"), single.couponCodes());
+    }
+
+    @Test
+    void evaluate_SkipsCouponsNotStartedOrUsedUp() {
+        Coupon later = fixed("LATER", "30", null, false);
+        later.setValidFrom(now.plusDays(1));
+        Coupon usedUp = fixed("GONE", "40", null, false);
+        usedUp.setUsedCount(usedUp.getUsageLimit());
+        index(later, usedUp, fixed("NOW5", "5", null, false));
+
+        assertEquals(List.of("NOW5"), evaluator.evaluate(new BigDecimal("100.00"), true, now).couponCodes());
+    }
+
+    @Test
+    void evaluate_NoCouponApplies_ReturnsNoCodes() {
+        index(fixed("BIG", "50", "500", false));
+
+        BestCouponEvaluator.Selection selection = evaluator.evaluate(new BigDecimal("100.00"), true, now);
+
+        assertTrue(selection.couponCodes().isEmpty());
+        assertEquals(new BigDecimal("0.00"), selection.discountAmount());
+    }
+
+    @Test
+    void evaluate_MatchesValidateDiscountOnRandomCarts() {
+        List<Coupon> coupons = randomCoupons(20_000, new Random(7));
+        Coupon[] sample = coupons.toArray(Coupon[]::new);
+        index(sample);
+        Random random = new Random(11);
+
+        for (int i = 0; i < 200; i++) {
+            BigDecimal total = BigDecimal.valueOf(random.nextInt(100_000) + 1, 2);
+            long expected = coupons.stream()
+                    .filter(c -> c.getMinimumOrderAmount() == null || total.compareTo(c.getMinimumOrderAmount()) >= 0)
+                    .mapToLong(c -> referenceDiscount(c, total).movePointRight(2).longValueExact())
+                    .max().orElse(0);
+
+            // Sequential scan and parallel chunks must agree with the brute force
+            ReflectionTestUtils.setField(evaluator, "parallelThreshold", Integer.MAX_VALUE);
+            BestCouponEvaluator.Selection sequential = evaluator.evaluate(total, false, now);
+            ReflectionTestUtils.setField(evaluator, "parallelThreshold", 64);
+            BestCouponEvaluator.Selection parallel = evaluator.evaluate(total, false, now);
+
+            assertEquals(expected, sequential.discountAmount().movePointRight(2).longValueExact(), "total " + total);
+            assertEquals(sequential, parallel);
+        }
+    }
+
+    @Test
+    void evaluate_TenThousandCoupons_WellUnderAMillisecond() {
+        index(randomCoupons(10_000, new Random(3)).toArray(Coupon[]::new));
+        Random random = new Random(5);
+        for (int i = 0; i < 2_000; i++) {
+            evaluator.evaluate(BigDecimal.valueOf(random.nextInt(100_000) + 1, 2), true, now);
+        }
+
+        int runs = 10_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            evaluator.evaluate(BigDecimal.valueOf(random.nextInt(100_000) + 1, 2), true, now);
+        }
+        long averageNanos = (System.nanoTime() - started) / runs;
+
+        assertTrue(averageNanos < 1_000_000, "Average evaluation took " + averageNanos + "ns");
+    }
+
+    @Test
+    void markStale_OutsideTransaction_RebuildsOnNextRefresh() {
+        index(fixed("OLD", "5", null, false));
+        when(couponRepository.findActiveNotExpired(any())).thenReturn(List.of(fixed("NEW", "9", null, false)));
+
+        evaluator.markStale();
+        evaluator.refreshIfDue();
+
+        assertEquals(List.of("NEW"), evaluator.evaluate(new BigDecimal("100.00"), true, now).couponCodes());
+    }
+
+    // CouponServiceImpl.calculateDiscount
+    private static BigDecimal referenceDiscount(Coupon coupon, BigDecimal orderAmount) {
+        BigDecimal discount = coupon.getDiscountType() == Coupon.DiscountType.PERCENTAGE
+                ? orderAmount.multiply(coupon.getDiscountValue()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP)
+                : coupon.getDiscountValue();
+        if (coupon.getMaximumDiscountAmount() != null && discount.compareTo(coupon.getMaximumDiscountAmount()) > 0) {
+            discount = coupon.getMaximumDiscountAmount();
+        }
+        return discount.min(orderAmount).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private List<Coupon> randomCoupons(int count, Random random) {
+        List<Coupon> coupons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String minimum = random.nextBoolean() ? null : BigDecimal.valueOf(random.nextInt(50_000), 2).toPlainString();
+            if (random.nextBoolean()) {
+                String cap = random.nextBoolean() ? null : BigDecimal.valueOf(random.nextInt(20_000) + 100, 2).toPlainString();
+                coupons.add(percentage("P" + i, BigDecimal.valueOf(random.nextInt(5_000) + 1, 2).toPlainString(), minimum, cap,
+                        random.nextBoolean()));
+            } else {
+                coupons.add(fixed("F" + i, BigDecimal.valueOf(random.nextInt(10_000) + 1, 2).toPlainString(), minimum,
+                        random.nextBoolean()));
+            }
+        }
+        return coupons;
+    }
+
+    private void index(Coupon... coupons) {
+        when(couponRepository.findActiveNotExpired(any())).thenReturn(List.of(coupons));
+        evaluator.rebuild();
+    }
+
+    private Coupon percentage(String code, String percent, String minimum, String cap, boolean stackable) {
+        Coupon coupon = fixed(code, percent, minimum, stackable);
+        coupon.setDiscountType(Coupon.DiscountType.PERCENTAGE);
+        coupon.setMaximumDiscountAmount(cap != null ? new BigDecimal(cap) : null);
+        return coupon;
+    }
+
+    private Coupon fixed(String code, String amount, String minimum, boolean stackable) {
+        return Coupon.builder()
+                .code(code)
+                .discountType(Coupon.DiscountType.FIXED_AMOUNT)
+                .discountValue(new BigDecimal(amount))
+                .minimumOrderAmount(minimum != null ? new BigDecimal(minimum) : null)
+                .usageLimit(100)
+                .usedCount(0)
+                .stackable(stackable)
+                .validFrom(now.minusDays(1))
+                .validUntil(now.plusDays(1))
+                .build();
+    }
+}
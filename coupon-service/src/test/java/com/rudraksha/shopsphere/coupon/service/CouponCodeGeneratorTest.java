@@ -0,0 +1,138 @@
+package com.rudraksha.shopsphere.coupon.service;
+
+import com.rudraksha.shopsphere.coupon.entity.CouponCampaign;
+import com.rudraksha.shopsphere.coupon.repository.CouponCampaignRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponCodeGeneratorTest {
+
+    @Mock
+    private CouponCampaignRepository campaignRepository;
+    @Mock
+    private CouponCodeRepository codeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CouponCodeGenerator generator;
+
+    private CouponCampaign campaign;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(generator, "batchSize", 4);
+        campaign = CouponCampaign.builder()
+                .id(7L)
+                .prefix("SPRING")
+                .status(CouponCampaign.Status.GENERATING)
+                .requestedCodes(10L)
+                .seed(42L)
+                .build();
+    }
+
+    @Test
+    void code_DistinctIndexesGiveDistinctCodes() {
+        Set<String> codes = new HashSet<>();
+        for (long i = 0; i < 200_000; i++) {
+            String code = CouponCodeGenerator.code("SPRING", 42L, i);
+            assertTrue(code.matches("SPRING[0-9A-HJKMNP-TV-Z]{10}"), code);
+            assertTrue(codes.add(code), "Duplicate code at index " + i);
+        }
+    }
+
+    @Test
+    void code_DependsOnSeed() {
+        assertEquals(CouponCodeGenerator.code("SPRING", 42L, 5), CouponCodeGenerator.code("SPRING", 42L, 5));
+        assertNotEquals(CouponCodeGenerator.code("SPRING", 42L, 5), CouponCodeGenerator.code("SPRING", 43L, 5));
+    }
+
+    @Test
+    void generate_InsertsInBatchesUntilReady() {
+        when(campaignRepository.findByIdForGeneration(7L)).thenReturn(Optional.of(campaign));
+        when(codeRepository.insertBatch(eq(7L), anyList())).thenAnswer(inv -> inv.getArgument(1, List.class).size());
+
+        generator.generate(7L);
+
+        List<Integer> sizes = insertedBatches().stream().map(List::size).toList();
+        assertEquals(List.of(4, 4, 2), sizes);
+        assertEquals(10L, campaign.getGeneratedCodes());
+        assertEquals(10L, campaign.getNextIndex());
+        assertEquals(CouponCampaign.Status.READY, campaign.getStatus());
+    }
+
+    @Test
+    void generate_ResumesFromNextIndexAndMakesUpSkippedCodes() {
+        // A previous run committed 4 codes before failing
+        campaign.setNextIndex(4L);
+        campaign.setGeneratedCodes(4L);
+        when(campaignRepository.findByIdForGeneration(7L)).thenReturn(Optional.of(campaign));
+        // One code of the first batch already exists
+        when(codeRepository.insertBatch(eq(7L), anyList())).thenReturn(3, 3);
+
+        generator.generate(7L);
+
+        List<List<String>> batches = insertedBatches();
+        assertEquals(CouponCodeGenerator.code("SPRING", 42L, 4), batches.get(0).get(0));
+        // The second batch only asks for the 3 codes still missing
+        assertEquals(List.of(4, 3), batches.stream().map(List::size).toList());
+        assertEquals(10L, campaign.getGeneratedCodes());
+        assertEquals(11L, campaign.getNextIndex());
+        assertEquals(CouponCampaign.Status.READY, campaign.getStatus());
+    }
+
+    @Test
+    void generate_HeldByAnotherInstance_DoesNothing() {
+        when(campaignRepository.findByIdForGeneration(7L)).thenReturn(Optional.empty());
+
+        generator.generate(7L);
+
+        verifyNoInteractions(codeRepository);
+    }
+
+    @Test
+    void generatePending_FailedCampaignDoesNotStopOthers() {
+        CouponCampaign other = CouponCampaign.builder().id(8L).prefix("SUMMER").status(CouponCampaign.Status.GENERATING)
+                .requestedCodes(2L).seed(1L).build();
+        when(campaignRepository.findGeneratingIds()).thenReturn(List.of(7L, 8L));
+        when(campaignRepository.findByIdForGeneration(7L)).thenReturn(Optional.of(campaign));
+        when(campaignRepository.findByIdForGeneration(8L)).thenReturn(Optional.of(other));
+        when(codeRepository.insertBatch(eq(7L), anyList())).thenThrow(new IllegalStateException("connection reset"));
+        when(codeRepository.insertBatch(eq(8L), anyList())).thenReturn(2);
+
+        generator.generatePending();
+
+        assertEquals(CouponCampaign.Status.GENERATING, campaign.getStatus());
+        assertEquals(0L, campaign.getNextIndex());
+        assertEquals(CouponCampaign.Status.READY, other.getStatus());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> insertedBatches() {
+        ArgumentCaptor<List<String>> captor = ArgumentCaptor.forClass(List.class);
+        verify(codeRepository, atLeastOnce()).insertBatch(eq(7L), captor.capture());
+        // The generator builds a fresh list per batch
+        return new ArrayList<>(captor.getAllValues());
+    }
+}
@@ -0,0 +1,209 @@
+package com.rudraksha.shopsphere.coupon.service;
+
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.entity.CouponRedemptionShard;
+import com.rudraksha.shopsphere.coupon.exception.CouponException;
+import com.rudraksha.shopsphere.coupon.repository.CouponRedemptionShardRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponRedemptionCounterTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+    @Mock
+    private CouponRedemptionShardRepository shardRepository;
+
+    @InjectMocks
+    private CouponRedemptionCounter counter;
+
+    private Coupon coupon;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(counter, "maxShards", 4);
+        coupon = Coupon.builder().id(1L).code("FLASH50").usageLimit(10).usedCount(3).redemptionShards(0).build();
+    }
+
+    @Test
+    void initialize_SplitsRemainingLimitAndKeepsPriorUses() {
+        when(couponRepository.findByIdWithLock(1L)).thenReturn(Optional.of(coupon));
+        when(shardRepository.countByCouponId(1L)).thenReturn(0L);
+
+        assertEquals(4, counter.initialize(coupon));
+
+        List<CouponRedemptionShard> shards = savedShards();
+        assertEquals(List.of(3, 0, 0, 0), shards.stream().map(CouponRedemptionShard::getUsed).toList());
+        // 7 left: 2, 2, 2, 1 on top of what each shard has used
+        assertEquals(List.of(5, 2, 2, 1), shards.stream().map(CouponRedemptionShard::getQuota).toList());
+        assertEquals(4, coupon.getRedemptionShards());
+    }
+
+    @Test
+    void initialize_AlreadyShardedByAnotherTransaction_CreatesNothing() {
+        when(couponRepository.findByIdWithLock(1L)).thenReturn(Optional.of(coupon));
+        when(shardRepository.countByCouponId(1L)).thenReturn(4L);
+
+        assertEquals(4, counter.initialize(coupon));
+
+        verify(shardRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void initialize_SmallLimit_CapsShardCount() {
+        coupon.setUsageLimit(1);
+        coupon.setUsedCount(0);
+        when(couponRepository.findByIdWithLock(1L)).thenReturn(Optional.of(coupon));
+
+        assertEquals(1, counter.initialize(coupon));
+        assertEquals(1, savedShards().get(0).getQuota());
+    }
+
+    @Test
+    void redeem_FallsBackToShardsWithQuota() {
+        coupon.setRedemptionShards(4);
+        when(shardRepository.redeemIfAvailable(eq(1L), anyInt())).thenAnswer(inv -> inv.getArgument(1, Integer.class) == 2 ? 1 : 0);
+
+        assertEquals(2, counter.redeem(coupon));
+    }
+
+    @Test
+    void redeem_AllShardsUsedUp_Throws() {
+        coupon.setRedemptionShards(4);
+        when(shardRepository.redeemIfAvailable(eq(1L), anyInt())).thenReturn(0);
+
+        assertThrows(CouponException.class, () -> counter.redeem(coupon));
+        verify(shardRepository, times(4)).redeemIfAvailable(eq(1L), anyInt());
+    }
+
+    @Test
+    void redeem_ConcurrentCheckouts_NeverExceedLimit() throws Exception {
+        // Shards modelled as the database does it: a conditional increment per row
+        coupon.setRedemptionShards(4);
+        ConcurrentMap<Integer, AtomicInteger> used = new ConcurrentHashMap<>();
+        int[] quotas = {3, 3, 2, 2};
+        when(shardRepository.redeemIfAvailable(eq(1L), anyInt())).thenAnswer(inv -> {
+            int shard = inv.getArgument(1, Integer.class);
+            AtomicInteger count = used.computeIfAbsent(shard, s -> new AtomicInteger());
+            return count.getAndUpdate(c -> c < quotas[shard] ? c + 1 : c) < quotas[shard] ? 1 : 0;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger redeemed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    counter.redeem(coupon);
+                    redeemed.incrementAndGet();
+                } catch (CouponException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(10, redeemed.get());
+        assertEquals(190, rejected.get());
+    }
+
+    @Test
+    void redeem_StaleShardCount_TriesShardsAddedSince() {
+        coupon.setRedemptionShards(1);
+        when(shardRepository.redeemIfAvailable(1L, 0)).thenReturn(0);
+        when(shardRepository.countByCouponId(1L)).thenReturn(4L);
+        when(shardRepository.redeemIfAvailable(1L, 1)).thenReturn(1);
+
+        assertEquals(1, counter.redeem(coupon));
+    }
+
+    @Test
+    void resize_RaisedLimit_AddsShardsUpToMax() {
+        coupon.setUsageLimit(2);
+        coupon.setRedemptionShards(2);
+        when(shardRepository.findByCouponIdWithLock(1L)).thenReturn(List.of(
+                CouponRedemptionShard.builder().couponId(1L).shardIndex(0).used(1).quota(1).build(),
+                CouponRedemptionShard.builder().couponId(1L).shardIndex(1).used(1).quota(1).build()));
+
+        coupon.setUsageLimit(10);
+        counter.resize(coupon);
+
+        List<CouponRedemptionShard> shards = savedShards();
+        assertEquals(List.of(0, 1, 2, 3), shards.stream().map(CouponRedemptionShard::getShardIndex).toList());
+        assertEquals(List.of(1, 1, 0, 0), shards.stream().map(CouponRedemptionShard::getUsed).toList());
+        // 8 left: 2 each on top of what each shard has used
+        assertEquals(List.of(3, 3, 2, 2), shards.stream().map(CouponRedemptionShard::getQuota).toList());
+        assertEquals(4, coupon.getRedemptionShards());
+        verify(couponRepository).save(coupon);
+    }
+
+    @Test
+    void resize_LoweredLimit_KeepsShards() {
+        coupon.setRedemptionShards(4);
+        coupon.setUsageLimit(2);
+        List<CouponRedemptionShard> existing = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            existing.add(CouponRedemptionShard.builder().couponId(1L).shardIndex(i).used(i == 0 ? 1 : 0).quota(3).build());
+        }
+        when(shardRepository.findByCouponIdWithLock(1L)).thenReturn(existing);
+
+        counter.resize(coupon);
+
+        // Shard 0 keeps its redemption; the one unit left goes to it, the rest are full at zero
+        assertEquals(List.of(2, 0, 0, 0), savedShards().stream().map(CouponRedemptionShard::getQuota).toList());
+        assertEquals(4, coupon.getRedemptionShards());
+        verify(couponRepository, never()).save(any());
+    }
+
+    @Test
+    void distribute_LimitBelowUsed_LeavesShardsFull() {
+        List<CouponRedemptionShard> shards = List.of(
+                CouponRedemptionShard.builder().shardIndex(0).used(4).quota(5).build(),
+                CouponRedemptionShard.builder().shardIndex(1).used(3).quota(5).build());
+
+        CouponRedemptionCounter.distribute(5, shards);
+
+        assertEquals(4, shards.get(0).getQuota());
+        assertEquals(3, shards.get(1).getQuota());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CouponRedemptionShard> savedShards() {
+        ArgumentCaptor<List<CouponRedemptionShard>> captor = ArgumentCaptor.forClass(List.class);
+        verify(shardRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,115 @@
+package com.rudraksha.shopsphere.coupon.service.impl;
+
+import com.rudraksha.shopsphere.coupon.dto.request.CreateCampaignRequest;
+import com.rudraksha.shopsphere.coupon.dto.response.CampaignResponse;
+import com.rudraksha.shopsphere.coupon.dto.response.CodeImportResponse;
+import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.entity.CouponCampaign;
+import com.rudraksha.shopsphere.coupon.exception.CouponException;
+import com.rudraksha.shopsphere.coupon.repository.CouponCampaignRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponCampaignServiceImplTest {
+
+    @Mock
+    private CouponCampaignRepository campaignRepository;
+    @Mock
+    private CouponCodeRepository codeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CouponCampaignServiceImpl campaignService;
+
+    private CouponCampaign campaign;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(campaignService, "batchSize", 3);
+        campaign = CouponCampaign.builder().id(7L).name("Partner").status(CouponCampaign.Status.READY).seed(1L).build();
+    }
+
+    @Test
+    void createCampaign_WithCodes_StartsGenerating() {
+        when(campaignRepository.existsByPrefix("SPRING")).thenReturn(false);
+        when(campaignRepository.save(any(CouponCampaign.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CampaignResponse response = campaignService.createCampaign(request("spring", 1_000_000L));
+
+        assertEquals("SPRING", response.getPrefix());
+        assertEquals(CouponCampaign.Status.GENERATING, response.getStatus());
+        assertEquals(1_000_000L, response.getRequestedCodes());
+    }
+
+    @Test
+    void createCampaign_CodesWithoutPrefix_Throws() {
+        assertThrows(CouponException.class, () -> campaignService.createCampaign(request(null, 10L)));
+        verify(campaignRepository, never()).save(any());
+    }
+
+    @Test
+    void importCodes_StreamsInBatchesAndCountsSkippedCodes() {
+        String body = "alpha-001\nALPHA-002\n\nnot a code!\nALPHA-003\nALPHA-004\nALPHA-001\n";
+        when(campaignRepository.existsById(7L)).thenReturn(true);
+        when(campaignRepository.findByIdWithLock(7L)).thenReturn(Optional.of(campaign));
+        // Second batch: ALPHA-001 was already imported
+        when(codeRepository.insertBatch(eq(7L), anyList())).thenReturn(3, 1);
+
+        CodeImportResponse response = campaignService.importCodes(7L,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(7L, response.getLines());
+        assertEquals(4L, response.getImported());
+        assertEquals(1L, response.getDuplicates());
+        assertEquals(1L, response.getInvalid());
+        assertEquals(4L, campaign.getImportedCodes());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> batches = ArgumentCaptor.forClass(List.class);
+        verify(codeRepository, times(2)).insertBatch(eq(7L), batches.capture());
+        assertEquals(List.of("ALPHA-004", "ALPHA-001"), batches.getAllValues().get(1));
+    }
+
+    @Test
+    void importCodes_UnknownCampaign_Throws() {
+        when(campaignRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(CouponException.class, () -> campaignService.importCodes(9L, new ByteArrayInputStream(new byte[0])));
+    }
+
+    private CreateCampaignRequest request(String prefix, Long codeCount) {
+        return CreateCampaignRequest.builder()
+                .name("Spring")
+                .prefix(prefix)
+                .codeCount(codeCount)
+                .description("15% off")
+                .discountType(Coupon.DiscountType.PERCENTAGE)
+                .discountValue(BigDecimal.valueOf(15))
+                .validFrom(LocalDateTime.now())
+                .validUntil(LocalDateTime.now().plusDays(30))
+                .build();
+    }
+}
@@ -1,13 +1,22 @@
 package com.rudraksha.shopsphere.coupon.service.impl;
 
+import com.rudraksha.shopsphere.coupon.cache.CouponLookupCache;
 import com.rudraksha.shopsphere.coupon.dto.request.ApplyCouponRequest;
+import com.rudraksha.shopsphere.coupon.dto.request.BestCouponRequest;
 import com.rudraksha.shopsphere.coupon.dto.request.CreateCouponRequest;
 import com.rudraksha.shopsphere.coupon.dto.request.ValidateCouponRequest;
+import com.rudraksha.shopsphere.coupon.dto.response.BestCouponResponse;
 import com.rudraksha.shopsphere.coupon.dto.response.CouponResponse;
 import com.rudraksha.shopsphere.coupon.dto.response.CouponValidationResponse;
 import com.rudraksha.shopsphere.coupon.entity.Coupon;
+import com.rudraksha.shopsphere.coupon.entity.CouponCampaign;
+import com.rudraksha.shopsphere.coupon.exception.CouponException;
+import com.rudraksha.shopsphere.coupon.repository.CouponCampaignRepository;
+import com.rudraksha.shopsphere.coupon.repository.CouponCodeRepository;
 import com.rudraksha.shopsphere.coupon.repository.CouponRepository;
 import com.rudraksha.shopsphere.coupon.repository.CouponUsageRepository;
+import com.rudraksha.shopsphere.coupon.service.BestCouponEvaluator;
+import com.rudraksha.shopsphere.coupon.service.CouponRedemptionCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +26,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +40,16 @@ class CouponServiceImplTest {
     private CouponRepository couponRepository;
     @Mock
     private CouponUsageRepository couponUsageRepository;
+    @Mock
+    private CouponRedemptionCounter redemptionCounter;
+    @Mock
+    private CouponLookupCache couponLookupCache;
+    @Mock
+    private CouponCampaignRepository couponCampaignRepository;
+    @Mock
+    private CouponCodeRepository couponCodeRepository;
+    @Mock
+    private BestCouponEvaluator bestCouponEvaluator;
 
     @InjectMocks
     private CouponServiceImpl couponService;
@@ -75,12 +95,73 @@ class CouponServiceImplTest {
         request.setCouponCode(couponCode);
         request.setOrderAmount(BigDecimal.valueOf(100));
 
+        when(couponLookupCache.mightExist(couponCode)).thenReturn(true);
         when(couponRepository.findValidCoupon(eq(couponCode), any())).thenReturn(Optional.of(coupon));
 
         CouponValidationResponse response = couponService.validateCoupon(request);
 
         assertTrue(response.getValid());
         assertEquals(BigDecimal.valueOf(10.00).setScale(2), response.getDiscountAmount());
+        verify(couponLookupCache).putValid(coupon);
+    }
+
+    @Test
+    void validateCoupon_UnknownCode_SkipsDatabase() {
+        ValidateCouponRequest request = new ValidateCouponRequest();
+        request.setCouponCode("guess123");
+        request.setOrderAmount(BigDecimal.valueOf(100));
+
+        when(couponLookupCache.mightExist("GUESS123")).thenReturn(false);
+
+        CouponValidationResponse response = couponService.validateCoupon(request);
+
+        assertFalse(response.getValid());
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    void validateCoupon_Cached_SkipsDatabase() {
+        ValidateCouponRequest request = new ValidateCouponRequest();
+        request.setCouponCode(couponCode);
+        request.setOrderAmount(BigDecimal.valueOf(100));
+
+        when(couponLookupCache.mightExist(couponCode)).thenReturn(true);
+        when(couponLookupCache.getValid(eq(couponCode), any())).thenReturn(Optional.of(coupon));
+
+        CouponValidationResponse response = couponService.validateCoupon(request);
+
+        assertTrue(response.getValid());
+        verifyNoInteractions(couponRepository);
+        // A hit must not extend the entry's TTL
+        verify(couponLookupCache, never()).putValid(any());
+    }
+
+    @Test
+    void deactivateCoupon_InvalidatesCachedCoupon() {
+        when(couponRepository.findByCodeAndActiveTrue(couponCode)).thenReturn(Optional.of(coupon));
+        when(couponRepository.save(coupon)).thenReturn(coupon);
+
+        couponService.deactivateCoupon(couponCode);
+
+        verify(couponLookupCache).invalidate(couponCode);
+    }
+
+    @Test
+    void findBestCoupon_ReturnsFinalAmount() {
+        BestCouponRequest request = BestCouponRequest.builder()
+                .orderAmount(new BigDecimal("120.00"))
+                .allowStacking(false)
+                .build();
+
+        when(bestCouponEvaluator.evaluate(eq(new BigDecimal("120.00")), eq(false), any()))
+                .thenReturn(new BestCouponEvaluator.Selection(List.of(couponCode), new BigDecimal("12.00"), false));
+
+        BestCouponResponse response = couponService.findBestCoupon(request);
+
+        assertEquals(List.of(couponCode), response.getCouponCodes());
+        assertEquals(new BigDecimal("12.00"), response.getDiscountAmount());
+        assertEquals(new BigDecimal("108.00"), response.getFinalAmount());
+        assertFalse(response.getStacked());
     }
 
     @Test
@@ -96,7 +177,79 @@ class CouponServiceImplTest {
         CouponValidationResponse response = couponService.applyCoupon(request);
 
         assertTrue(response.getValid());
+        verify(redemptionCounter).redeem(coupon);
         verify(couponUsageRepository).save(any());
-        verify(couponRepository).save(coupon);
+        // The hot coupon row is not written per redemption
+        verify(couponRepository, never()).save(any());
+    }
+
+    @Test
+    void applyCoupon_LimitReached_RecordsNoUsage() {
+        ApplyCouponRequest request = new ApplyCouponRequest();
+        request.setCouponCode(couponCode);
+        request.setUserId("user-1");
+        request.setOrderId("order-1");
+        request.setOrderAmount(BigDecimal.valueOf(100));
+
+        when(couponRepository.findValidCoupon(eq(couponCode), any())).thenReturn(Optional.of(coupon));
+        when(redemptionCounter.redeem(coupon)).thenThrow(new CouponException("Coupon usage limit reached: " + couponCode));
+
+        assertThrows(CouponException.class, () -> couponService.applyCoupon(request));
+        verify(couponUsageRepository, never()).save(any());
+    }
+
+    @Test
+    void applyCoupon_SingleUseCode_RedeemsCode() {
+        String singleUse = "SPRINGK3M9Q2ZT7A";
+        ApplyCouponRequest request = new ApplyCouponRequest();
+        request.setCouponCode(singleUse);
+        request.setUserId("user-1");
+        request.setOrderId("order-1");
+        request.setOrderAmount(BigDecimal.valueOf(100));
+
+        when(couponRepository.findValidCoupon(eq(singleUse), any())).thenReturn(Optional.empty());
+        when(couponCampaignRepository.findValidCampaignForCode(eq(singleUse), any())).thenReturn(Optional.of(campaign()));
+        when(couponCodeRepository.redeem(eq(singleUse), eq("order-1"), any())).thenReturn(1);
+
+        CouponValidationResponse response = couponService.applyCoupon(request);
+
+        assertTrue(response.getValid());
+        assertEquals(BigDecimal.valueOf(15.00).setScale(2), response.getDiscountAmount());
+        verify(couponLookupCache).invalidate(singleUse);
+        verify(couponUsageRepository).save(any());
+        verifyNoInteractions(redemptionCounter);
+    }
+
+    @Test
+    void applyCoupon_SingleUseCodeAlreadyRedeemed_Throws() {
+        String singleUse = "SPRINGK3M9Q2ZT7A";
+        ApplyCouponRequest request = new ApplyCouponRequest();
+        request.setCouponCode(singleUse);
+        request.setUserId("user-2");
+        request.setOrderId("order-2");
+        request.setOrderAmount(BigDecimal.valueOf(100));
+
+        when(couponRepository.findValidCoupon(eq(singleUse), any())).thenReturn(Optional.empty());
+        when(couponCampaignRepository.findValidCampaignForCode(eq(singleUse), any())).thenReturn(Optional.of(campaign()));
+        // Redeemed by a concurrent checkout after the lookup
+        when(couponCodeRepository.redeem(eq(singleUse), eq("order-2"), any())).thenReturn(0);
+
+        assertThrows(CouponException.class, () -> couponService.applyCoupon(request));
+        verify(couponUsageRepository, never()).save(any());
+    }
+
+    private CouponCampaign campaign() {
+        return CouponCampaign.builder()
+                .id(7L)
+                .name("Spring")
+                .prefix("SPRING")
+                .description("15% off")
+                .discountType(Coupon.DiscountType.PERCENTAGE)
+                .discountValue(BigDecimal.valueOf(15))
+                .validFrom(LocalDateTime.now().minusDays(1))
+                .validUntil(LocalDateTime.now().plusDays(1))
+                .status(CouponCampaign.Status.READY)
+                .seed(42L)
+                .build();
     }
 }
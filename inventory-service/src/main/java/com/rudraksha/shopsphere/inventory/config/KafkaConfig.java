@@ -1,13 +1,24 @@
 package com.rudraksha.shopsphere.inventory.config;
 
+import com.rudraksha.shopsphere.inventory.entity.OutboxEvent;
+import com.rudraksha.shopsphere.inventory.repository.OutboxEventRepository;
+import com.rudraksha.shopsphere.inventory.service.AvailabilitySnapshot;
+import com.rudraksha.shopsphere.shared.kafka.EnableIdempotentConsumer;
+import com.rudraksha.shopsphere.shared.outbox.OutboxRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @Configuration
 @EnableKafka
+@EnableIdempotentConsumer
 public class KafkaConfig {
     
     @Bean
@@ -16,4 +27,24 @@ public class KafkaConfig {
         template.setConnectionFactory(connectionFactory);
         return template;
     }
+
+    /**
+     * Latest free stock per SKU. Compacted so the log only retains the newest record per key.
+     */
+    @Bean
+    public NewTopic inventoryAvailabilityTopic() {
+        return TopicBuilder.name(AvailabilitySnapshot.TOPIC)
+            .partitions(3)
+            .replicas(1)
+            .compact()
+            .build();
+    }
+
+    @Bean
+    public OutboxRelay<OutboxEvent> outboxRelay(OutboxEventRepository outboxRepository,
+                                                KafkaTemplate<String, String> kafkaTemplate,
+                                                PlatformTransactionManager transactionManager,
+                                                MeterRegistry meterRegistry) {
+        return new OutboxRelay<>(outboxRepository, kafkaTemplate, transactionManager, meterRegistry);
+    }
 }
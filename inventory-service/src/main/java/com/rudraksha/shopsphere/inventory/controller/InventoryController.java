@@ -1,6 +1,7 @@
 package com.rudraksha.shopsphere.inventory.controller;
 
 import com.rudraksha.shopsphere.inventory.dto.request.*;
+import com.rudraksha.shopsphere.inventory.dto.response.AvailabilityResponse;
 import com.rudraksha.shopsphere.inventory.dto.response.InventoryResponse;
 import com.rudraksha.shopsphere.inventory.dto.response.StockMovementResponse;
 import com.rudraksha.shopsphere.inventory.service.InventoryService;
@@ -58,6 +59,13 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.adjustInventory(id, request));
     }
 
+    @PutMapping("/{id}/shards")
+    public ResponseEntity<InventoryResponse> configureSharding(
+            @PathVariable Long id,
+            @Valid @RequestBody ConfigureShardingRequest request) {
+        return ResponseEntity.ok(inventoryService.configureSharding(id, request.getShardCount()));
+    }
+
     @GetMapping("/low-stock")
     public ResponseEntity<List<InventoryResponse>> getLowStockItems() {
         return ResponseEntity.ok(inventoryService.getLowStockItems());
@@ -79,4 +87,10 @@ public class InventoryController {
             @RequestParam Integer quantity) {
         return ResponseEntity.ok(inventoryService.checkAvailability(sku, quantity));
     }
+
+    @PostMapping("/availability")
+    public ResponseEntity<List<AvailabilityResponse>> checkAvailability(
+            @Valid @RequestBody BatchAvailabilityRequest request) {
+        return ResponseEntity.ok(inventoryService.checkAvailability(request.getItems()));
+    }
 }
@@ -0,0 +1,22 @@
+package com.rudraksha.shopsphere.inventory.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchAvailabilityRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 200, message = "At most 200 items can be checked at once")
+    @Valid
+    private List<AvailabilityCheckRequest> items;
+}
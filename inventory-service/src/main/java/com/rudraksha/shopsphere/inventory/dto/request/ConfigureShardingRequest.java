@@ -0,0 +1,20 @@
+package com.rudraksha.shopsphere.inventory.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConfigureShardingRequest {
+    @NotNull(message = "Shard count is required")
+    @Min(value = 0, message = "Shard count cannot be negative")
+    @Max(value = 64, message = "Shard count cannot exceed 64")
+    private Integer shardCount;
+}
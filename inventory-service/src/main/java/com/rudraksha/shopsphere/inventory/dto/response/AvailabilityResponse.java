@@ -0,0 +1,17 @@
+package com.rudraksha.shopsphere.inventory.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityResponse {
+    private String sku;
+    private Integer requestedQuantity;
+    private Integer availableQuantity;
+    private boolean available;
+}
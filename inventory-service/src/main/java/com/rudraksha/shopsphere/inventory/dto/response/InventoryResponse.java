@@ -22,6 +22,7 @@ public class InventoryResponse {
     private Integer reorderLevel;
     private String status;
     private String warehouseLocation;
+    private Integer shardCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -41,6 +42,7 @@ public class InventoryResponse {
             .reorderLevel(item.getReorderLevel())
             .status(item.getStatus().name())
             .warehouseLocation(item.getWarehouseLocation())
+            .shardCount(item.getShardCount())
             .createdAt(item.getCreatedAt())
             .updatedAt(item.getUpdatedAt())
             .build();
@@ -48,6 +48,10 @@ public class InventoryItem {
     @Column
     private String warehouseLocation;
 
+    /** Number of stock shards for hot SKUs; 0 means the item row holds all stock. */
+    @Column(nullable = false)
+    private Integer shardCount;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -60,6 +64,9 @@ public class InventoryItem {
         updatedAt = LocalDateTime.now();
         status = InventoryStatus.AVAILABLE;
         reservedQuantity = 0;
+        if (shardCount == null) {
+            shardCount = 0;
+        }
     }
 
     @PreUpdate
@@ -67,7 +74,20 @@ public class InventoryItem {
         updatedAt = LocalDateTime.now();
     }
 
+    public boolean isSharded() {
+        return shardCount != null && shardCount > 0;
+    }
+
     public enum InventoryStatus {
-        AVAILABLE, LOW_STOCK, OUT_OF_STOCK, DISCONTINUED
+        AVAILABLE, LOW_STOCK, OUT_OF_STOCK, DISCONTINUED;
+
+        public static InventoryStatus forQuantity(int quantity, int reorderLevel) {
+            if (quantity <= 0) {
+                return OUT_OF_STOCK;
+            } else if (quantity <= reorderLevel) {
+                return LOW_STOCK;
+            }
+            return AVAILABLE;
+        }
     }
 }
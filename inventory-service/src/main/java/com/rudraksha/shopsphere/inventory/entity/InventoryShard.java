@@ -0,0 +1,57 @@
+package com.rudraksha.shopsphere.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A slice of a hot SKU's stock. Reservations against a sharded SKU update one shard row instead of
+ * the single inventory_items row, spreading row-lock contention across shards.
+ */
+@Entity
+@Table(name = "inventory_shards", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_inventory_shard", columnNames = {"sku", "shard_index"})
+}, indexes = {
+    @Index(name = "idx_inventory_shard_item", columnList = "inventory_item_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_item_id", nullable = false)
+    private Long inventoryItemId;
+
+    @Column(nullable = false)
+    private String sku;
+
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Integer reservedQuantity;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public int getFreeQuantity() {
+        return quantity - reservedQuantity;
+    }
+}
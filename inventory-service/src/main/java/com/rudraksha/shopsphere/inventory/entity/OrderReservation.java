@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "order_reservations", indexes = {
     @Index(name = "idx_order_number", columnList = "order_number"),
-    @Index(name = "idx_inventory_item_id", columnList = "inventory_item_id")
+    @Index(name = "idx_inventory_item_id", columnList = "inventory_item_id"),
+    @Index(name = "idx_order_reservation_expires_at", columnList = "expires_at")
 })
 @Data
 @NoArgsConstructor
@@ -31,9 +32,17 @@ public class OrderReservation {
     @Column(nullable = false)
     private Integer quantityReserved;
 
+    /** Shard the quantity was reserved from, or null when reserved from the item row itself. */
+    @Column
+    private Integer shardIndex;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    /** When the reservation is released if the order has not been paid; null never expires. */
+    @Column
+    private LocalDateTime expiresAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -1,5 +1,6 @@
 package com.rudraksha.shopsphere.inventory.entity;
 
+import com.rudraksha.shopsphere.shared.outbox.OutboxRecord;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class OutboxEvent {
+public class OutboxEvent implements OutboxRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
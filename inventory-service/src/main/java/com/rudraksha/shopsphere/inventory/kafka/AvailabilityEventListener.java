@@ -0,0 +1,52 @@
+package com.rudraksha.shopsphere.inventory.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.inventory.service.AvailabilitySnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityEventListener implements ConsumerSeekAware {
+    private final AvailabilitySnapshot availabilitySnapshot;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Replay the compacted availability topic into this instance's snapshot.
+     * Each instance uses its own consumer group so every instance sees every SKU. The group is named
+     * after the stable instance ID so a restart rejoins it rather than leaving an orphaned group behind.
+     * Expected message format: {"sku": "ABC", "availableQuantity": 5}; a null value removes the SKU.
+     */
+    @KafkaListener(topics = AvailabilitySnapshot.TOPIC,
+                   groupId = "inventory-service-availability-${kafka.instance-id}")
+    public void handleAvailabilityChanged(ConsumerRecord<String, String> record) {
+        if (record.value() == null) {
+            availabilitySnapshot.remove(record.key());
+            return;
+        }
+        try {
+            JsonNode event = objectMapper.readTree(record.value());
+            availabilitySnapshot.apply(event.get("sku").asText(), event.get("availableQuantity").asInt());
+        } catch (Exception e) {
+            // A bad record only leaves one SKU to the database path; never block the snapshot on it
+            log.warn("Skipping malformed availability event for key {}: {}", record.key(), record.value(), e);
+        }
+    }
+
+    /**
+     * The snapshot is in memory, so replay the compacted log from the start whatever the group committed.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
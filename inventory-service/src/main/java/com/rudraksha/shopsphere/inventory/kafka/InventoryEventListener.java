@@ -1,8 +1,11 @@
 package com.rudraksha.shopsphere.inventory.kafka;
 
+import com.rudraksha.shopsphere.inventory.dto.request.ReserveOrderItemRequest;
 import com.rudraksha.shopsphere.inventory.service.InventoryService;
+import com.rudraksha.shopsphere.shared.kafka.IdempotentConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
@@ -13,13 +16,18 @@ import java.util.Map;
 @Slf4j
 public class InventoryEventListener {
     private final InventoryService inventoryService;
+    private final IdempotentConsumer idempotentConsumer;
 
     /**
      * Listen to order.placed event and auto-reserve inventory
      * Expected message format: {"orderId": 123, "items": [{"sku": "ABC", "quantity": 5}]}
      */
     @KafkaListener(topics = "order.placed", groupId = "inventory-service")
-    public void handleOrderPlaced(String message) {
+    public void handleOrderPlaced(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processOrderPlaced(record.value()));
+    }
+
+    private void processOrderPlaced(String message) {
          log.info("Received order.placed event: {}", message);
          try {
              // Parse JSON message
@@ -37,21 +45,21 @@ public class InventoryEventListener {
                  return;
              }
 
-             // Reserve inventory for each item
-             for (Map<String, Object> item : items) {
-                 String sku = item.get("sku").toString();
-                 Integer quantity = ((Number) item.get("quantity")).intValue();
-
-                 try {
-                     // Pass extra info for SAGA propagation in event
-                     inventoryService.reserveInventoryForOrderWithContext(sku, quantity, orderId, userId, totalAmount);
-                     log.info("Inventory reserved for order {}: {} x {}", orderId, sku, quantity);
-                 } catch (Exception e) {
-                    log.error("Failed to reserve inventory for order {}: {} x {}", orderId, sku, quantity, e);
-                    // Emit inventory.reservation.failed event for saga compensation
-                    throw new RuntimeException("Inventory reservation failed for order: " + orderId, e);
-                }
-            }
+             java.util.List<ReserveOrderItemRequest> lines = items.stream()
+                 .map(item -> ReserveOrderItemRequest.builder()
+                     .sku(item.get("sku").toString())
+                     .quantity(((Number) item.get("quantity")).intValue())
+                     .build())
+                 .collect(java.util.stream.Collectors.toList());
+
+             try {
+                 // All-or-nothing: every line is reserved in one transaction, with SAGA context in the event
+                 inventoryService.reserveOrderWithContext(orderId, lines, userId, totalAmount);
+                 log.info("Inventory reserved for order {}: {} lines", orderId, lines.size());
+             } catch (Exception e) {
+                 log.error("Failed to reserve inventory for order {}", orderId, e);
+                 throw new RuntimeException("Inventory reservation failed for order: " + orderId, e);
+             }
         } catch (Exception e) {
             log.error("Error processing order.placed event: {}", message, e);
             throw new RuntimeException("Failed to process order.placed event", e);
@@ -62,7 +70,11 @@ public class InventoryEventListener {
      * Listen to order.cancelled event and auto-release reserved inventory
      */
     @KafkaListener(topics = "order.cancelled", groupId = "inventory-service")
-    public void handleOrderCancelled(String message) {
+    public void handleOrderCancelled(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processOrderCancelled(record.value()));
+    }
+
+    private void processOrderCancelled(String message) {
         log.info("Received order.cancelled event: {}", message);
         try {
             Map<String, Object> event = parseJsonMessage(message);
@@ -72,7 +84,8 @@ public class InventoryEventListener {
             log.info("Inventory released for cancelled order: {}", orderId);
         } catch (Exception e) {
             log.error("Error processing order.cancelled event: {}", message, e);
-            // Don't throw - log and move on (best effort compensation)
+            // Rethrown so the event is released and redelivered rather than the release being lost
+            throw new RuntimeException("Failed to process order.cancelled event", e);
         }
     }
 
@@ -80,7 +93,11 @@ public class InventoryEventListener {
      * Listen to checkout.failed event and auto-release reserved inventory
      */
     @KafkaListener(topics = "checkout.failed", groupId = "inventory-service")
-    public void handleCheckoutFailed(String message) {
+    public void handleCheckoutFailed(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processCheckoutFailed(record.value()));
+    }
+
+    private void processCheckoutFailed(String message) {
         log.info("Received checkout.failed event: {}", message);
         try {
             Map<String, Object> event = parseJsonMessage(message);
@@ -90,6 +107,7 @@ public class InventoryEventListener {
             log.info("Inventory released for failed checkout: {}", orderId);
         } catch (Exception e) {
             log.error("Error processing checkout.failed event: {}", message, e);
+            throw new RuntimeException("Failed to process checkout.failed event", e);
         }
     }
 
@@ -97,7 +115,11 @@ public class InventoryEventListener {
      * Listen to payment.failed event and auto-release reserved inventory
      */
     @KafkaListener(topics = "payment.failed", groupId = "inventory-service")
-    public void handlePaymentFailed(String message) {
+    public void handlePaymentFailed(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processPaymentFailed(record.value()));
+    }
+
+    private void processPaymentFailed(String message) {
         log.info("Received payment.failed event: {}", message);
         try {
             Map<String, Object> event = parseJsonMessage(message);
@@ -107,6 +129,36 @@ public class InventoryEventListener {
             log.info("Inventory released for failed payment: {}", orderId);
         } catch (Exception e) {
             log.error("Error processing payment.failed event: {}", message, e);
+            throw new RuntimeException("Failed to process payment.failed event", e);
+        }
+    }
+
+    /**
+     * Listen to payment-events and stop the reservation expiry clock once an order is paid
+     * Expected message format: PAYMENT_SUCCESS:transactionId:orderNumber:userId:timestamp
+     */
+    @KafkaListener(topics = "payment-events", groupId = "inventory-service")
+    public void handlePaymentEvent(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processPaymentEvent(record.value()));
+    }
+
+    private void processPaymentEvent(String message) {
+        log.info("Received payment event: {}", message);
+        try {
+            String[] parts = message.split(":");
+            if (parts.length < 3) {
+                log.warn("Ignoring malformed payment event: {}", message);
+                return;
+            }
+            String eventType = parts[0];
+            String orderNumber = parts[2];
+
+            if ("PAYMENT_SUCCESS".equals(eventType) || "PAYMENT_PROCESSED".equals(eventType)) {
+                inventoryService.confirmReservationsByOrder(orderNumber);
+            }
+        } catch (Exception e) {
+            log.error("Error processing payment event: {}", message, e);
+            throw new RuntimeException("Failed to process payment event", e);
         }
     }
 
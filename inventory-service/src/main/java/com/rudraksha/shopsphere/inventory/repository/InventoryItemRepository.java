@@ -4,9 +4,13 @@ import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,13 +18,52 @@ import java.util.Optional;
 public interface InventoryItemRepository extends JpaRepository<InventoryItem, Long> {
     Optional<InventoryItem> findBySku(String sku);
     Optional<InventoryItem> findByProductId(String productId);
+    List<InventoryItem> findAllBySkuIn(Collection<String> skus);
     
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT i FROM InventoryItem i WHERE i.sku = :sku")
     Optional<InventoryItem> findBySkuWithLock(String sku);
+
+    /**
+     * Lock all rows for the given SKUs in one statement. Rows are locked in SKU order so concurrent
+     * multi-SKU reservations cannot deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.sku IN :skus ORDER BY i.sku")
+    List<InventoryItem> findAllBySkuInWithLock(@Param("skus") Collection<String> skus);
+
+    /**
+     * Same as {@link #findAllBySkuInWithLock} but by id, locking in the same SKU order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.id IN :ids ORDER BY i.sku")
+    List<InventoryItem> findAllByIdInWithLock(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Atomically reserve stock: the availability check and the increment happen in a single
+     * conditional UPDATE, so no distributed lock or SELECT ... FOR UPDATE is needed.
+     * @return number of rows updated (0 when the SKU is missing or stock is insufficient)
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.reservedQuantity = i.reservedQuantity + :quantity, i.updatedAt = :now " +
+           "WHERE i.sku = :sku AND i.quantity - i.reservedQuantity >= :quantity")
+    int reserveIfAvailable(@Param("sku") String sku, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
     
-    @Query("SELECT i FROM InventoryItem i WHERE i.quantity <= i.reorderLevel")
-    List<InventoryItem> findLowStockItems();
+    List<InventoryItem> findByShardCountGreaterThan(Integer shardCount);
+
+    /**
+     * Item plus shard stock read in one statement, so the totals come from a single snapshot
+     * even while shards are being rebalanced.
+     */
+    @Query(value = "SELECT i.quantity + COALESCE(SUM(s.quantity), 0) AS quantity, " +
+                   "i.reserved_quantity + COALESCE(SUM(s.reserved_quantity), 0) AS reservedQuantity " +
+                   "FROM inventory_items i LEFT JOIN inventory_shards s ON s.inventory_item_id = i.id " +
+                   "WHERE i.id = :id GROUP BY i.id, i.quantity, i.reserved_quantity",
+           nativeQuery = true)
+    StockTotals findStockTotals(@Param("id") Long id);
     
     List<InventoryItem> findByStatus(InventoryItem.InventoryStatus status);
+
+    @Query("SELECT i.id FROM InventoryItem i WHERE i.status IN :statuses")
+    List<Long> findIdsByStatusIn(@Param("statuses") Collection<InventoryItem.InventoryStatus> statuses);
 }
@@ -0,0 +1,43 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import com.rudraksha.shopsphere.inventory.entity.InventoryShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryShard s WHERE s.sku = :sku ORDER BY s.shardIndex")
+    List<InventoryShard> findBySkuWithLock(@Param("sku") String sku);
+
+    /**
+     * Atomically reserve from one shard if it alone has enough free stock.
+     * @return number of rows updated (0 when the shard is missing or too small)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE inventory_shards SET reserved_quantity = reserved_quantity + :quantity, updated_at = now() " +
+                   "WHERE sku = :sku AND shard_index = :shardIndex AND quantity - reserved_quantity >= :quantity",
+           nativeQuery = true)
+    int reserveIfAvailable(@Param("sku") String sku, @Param("shardIndex") int shardIndex, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE inventory_shards SET reserved_quantity = GREATEST(reserved_quantity - :quantity, 0), updated_at = now() " +
+                   "WHERE sku = :sku AND shard_index = :shardIndex",
+           nativeQuery = true)
+    int release(@Param("sku") String sku, @Param("shardIndex") int shardIndex, @Param("quantity") int quantity);
+
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM InventoryShard s WHERE s.sku = :sku")
+    long sumQuantityBySku(@Param("sku") String sku);
+
+    @Modifying
+    @Query("DELETE FROM InventoryShard s WHERE s.sku = :sku")
+    int deleteBySku(@Param("sku") String sku);
+}
@@ -1,13 +1,32 @@
 package com.rudraksha.shopsphere.inventory.repository;
 
 import com.rudraksha.shopsphere.inventory.entity.OrderReservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface OrderReservationRepository extends JpaRepository<OrderReservation, Long> {
+public interface OrderReservationRepository extends JpaRepository<OrderReservation, Long>, OrderReservationRepositoryCustom {
     List<OrderReservation> findByOrderNumber(String orderNumber);
     void deleteByOrderNumber(String orderNumber);
+
+    /**
+     * Stop the expiry clock for an order, e.g. once it has been paid.
+     */
+    @Modifying
+    @Query("UPDATE OrderReservation r SET r.expiresAt = null WHERE r.orderNumber = :orderNumber")
+    int clearExpiry(@Param("orderNumber") String orderNumber);
+
+    @Query("SELECT DISTINCT r.orderNumber FROM OrderReservation r WHERE r.expiresAt < :before")
+    List<String> findOrderNumbersExpiredBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OrderReservation r SET r.shardIndex = null WHERE r.inventoryItemId = :inventoryItemId")
+    int clearShardIndexes(@Param("inventoryItemId") Long inventoryItemId);
 }
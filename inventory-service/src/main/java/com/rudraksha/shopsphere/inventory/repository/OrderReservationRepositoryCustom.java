@@ -0,0 +1,19 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import com.rudraksha.shopsphere.inventory.entity.OrderReservation;
+
+import java.util.List;
+
+public interface OrderReservationRepositoryCustom {
+    /**
+     * Insert reservations with a single JDBC batch. IDENTITY ids disable Hibernate insert batching,
+     * so saveAll would issue one INSERT per row.
+     */
+    void batchInsert(List<OrderReservation> reservations);
+
+    /**
+     * Earliest deadline per order with an unexpired reservation, keyset-paged by order number so the
+     * full set can be streamed on startup without holding it in one result.
+     */
+    List<PendingExpiry> findPendingExpiries(String afterOrderNumber, int limit);
+}
@@ -0,0 +1,46 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import com.rudraksha.shopsphere.inventory.entity.OrderReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrderReservationRepositoryCustomImpl implements OrderReservationRepositoryCustom {
+    private static final String INSERT_SQL =
+        "INSERT INTO order_reservations (order_number, inventory_item_id, quantity_reserved, shard_index, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String PENDING_EXPIRIES_SQL =
+        "SELECT order_number, MIN(expires_at) FROM order_reservations " +
+        "WHERE expires_at IS NOT NULL AND order_number > ? " +
+        "GROUP BY order_number ORDER BY order_number LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<OrderReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setString(1, reservation.getOrderNumber());
+            ps.setLong(2, reservation.getInventoryItemId());
+            ps.setInt(3, reservation.getQuantityReserved());
+            ps.setObject(4, reservation.getShardIndex(), Types.INTEGER);
+            ps.setTimestamp(5, reservation.getCreatedAt() != null ? Timestamp.valueOf(reservation.getCreatedAt()) : now);
+            ps.setTimestamp(6, reservation.getExpiresAt() != null ? Timestamp.valueOf(reservation.getExpiresAt()) : null);
+        });
+    }
+
+    @Override
+    public List<PendingExpiry> findPendingExpiries(String afterOrderNumber, int limit) {
+        return jdbcTemplate.query(PENDING_EXPIRIES_SQL,
+            (rs, rowNum) -> new PendingExpiry(rs.getString(1), rs.getTimestamp(2).toLocalDateTime()),
+            afterOrderNumber, limit);
+    }
+}
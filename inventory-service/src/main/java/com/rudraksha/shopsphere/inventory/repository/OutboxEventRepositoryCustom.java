@@ -0,0 +1,13 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import com.rudraksha.shopsphere.inventory.entity.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventRepositoryCustom {
+    /**
+     * Insert events with a single JDBC batch. IDENTITY ids disable Hibernate insert batching,
+     * so saveAll would issue one INSERT per row.
+     */
+    void batchInsert(List<OutboxEvent> events);
+}
@@ -0,0 +1,32 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import com.rudraksha.shopsphere.inventory.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+    private static final String INSERT_SQL =
+        "INSERT INTO outbox_events (topic, key, payload, processed, retry_count, created_at) VALUES (?, ?, ?, false, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // One timestamp keeps the batch in insertion order for the relay's lag metric
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getTopic());
+            ps.setString(2, event.getKey());
+            ps.setString(3, event.getPayload());
+            ps.setTimestamp(4, now);
+        });
+    }
+}
@@ -0,0 +1,5 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import java.time.LocalDateTime;
+
+public record PendingExpiry(String orderNumber, LocalDateTime expiresAt) {}
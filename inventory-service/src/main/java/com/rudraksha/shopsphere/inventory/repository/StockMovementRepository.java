@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, StockMovementRepositoryCustom {
     List<StockMovement> findByInventoryItemId(Long inventoryItemId);
     
     List<StockMovement> findByMovementType(StockMovement.MovementType movementType);
@@ -0,0 +1,12 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import com.rudraksha.shopsphere.inventory.entity.StockMovement;
+
+import java.util.List;
+
+public interface StockMovementRepositoryCustom {
+    /**
+     * Append movements with a single JDBC batch instead of one IDENTITY insert per row.
+     */
+    void batchInsert(List<StockMovement> movements);
+}
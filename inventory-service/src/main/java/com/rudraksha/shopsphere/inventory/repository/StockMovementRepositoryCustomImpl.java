@@ -0,0 +1,34 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+import com.rudraksha.shopsphere.inventory.entity.StockMovement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class StockMovementRepositoryCustomImpl implements StockMovementRepositoryCustom {
+    private static final String INSERT_SQL =
+        "INSERT INTO stock_movements (inventory_item_id, movement_type, quantity, reference, notes, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, movements, movements.size(), (ps, movement) -> {
+            ps.setLong(1, movement.getInventoryItemId());
+            ps.setString(2, movement.getMovementType().name());
+            ps.setInt(3, movement.getQuantity());
+            ps.setString(4, movement.getReference());
+            ps.setString(5, movement.getNotes());
+            ps.setTimestamp(6, movement.getCreatedAt() != null ? Timestamp.valueOf(movement.getCreatedAt()) : now);
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.rudraksha.shopsphere.inventory.repository;
+
+/**
+ * Projection of an item's stock summed across the item row and all of its shards.
+ */
+public interface StockTotals {
+    Long getQuantity();
+
+    Long getReservedQuantity();
+}
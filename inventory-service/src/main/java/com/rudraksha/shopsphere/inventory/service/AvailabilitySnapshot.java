@@ -0,0 +1,73 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.entity.OutboxEvent;
+import com.rudraksha.shopsphere.inventory.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory SKU -> free stock map used to answer availability checks without a database read.
+ * Every stock change queues the SKU's new free quantity on the compacted {@value #TOPIC} topic
+ * through the outbox; each instance (and cart-service) replays that topic into its own copy.
+ * Values are absolute, so the latest record per SKU is the full state and compaction is safe.
+ * Reads are advisory: reservations always re-check stock in the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilitySnapshot {
+    public static final String TOPIC = "inventory.availability";
+
+    private final OutboxEventRepository outboxRepository;
+
+    private final ConcurrentMap<String, Integer> availableBySku = new ConcurrentHashMap<>();
+
+    public OptionalInt get(String sku) {
+        Integer available = availableBySku.get(sku);
+        return available != null ? OptionalInt.of(available) : OptionalInt.empty();
+    }
+
+    /**
+     * Apply a value read from the topic.
+     */
+    public void apply(String sku, int availableQuantity) {
+        availableBySku.put(sku, availableQuantity);
+    }
+
+    /**
+     * Seed a value read from the database. Never overwrites a value that arrived from the topic.
+     */
+    public void seed(String sku, int availableQuantity) {
+        availableBySku.putIfAbsent(sku, availableQuantity);
+    }
+
+    public void remove(String sku) {
+        availableBySku.remove(sku);
+    }
+
+    /**
+     * Queue the SKU's new free stock. Must be called inside the transaction that changed it, after
+     * the change, so the record commits (and is relayed in key order) with the stock update.
+     */
+    public void publish(String sku, int availableQuantity) {
+        outboxRepository.save(event(sku, availableQuantity));
+        log.debug("Availability of SKU {} queued: {}", sku, availableQuantity);
+    }
+
+    /**
+     * Build the outbox row without saving it, for callers that insert their events in one batch.
+     */
+    public OutboxEvent event(String sku, int availableQuantity) {
+        String message = String.format("{\"sku\":\"%s\",\"availableQuantity\":%d}", sku, availableQuantity);
+        return OutboxEvent.builder()
+            .topic(TOPIC)
+            .key(sku)
+            .payload(message)
+            .build();
+    }
+}
@@ -1,9 +1,11 @@
 package com.rudraksha.shopsphere.inventory.service;
 
 import com.rudraksha.shopsphere.inventory.dto.request.*;
+import com.rudraksha.shopsphere.inventory.dto.response.AvailabilityResponse;
 import com.rudraksha.shopsphere.inventory.dto.response.InventoryResponse;
 import com.rudraksha.shopsphere.inventory.dto.response.StockMovementResponse;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface InventoryService {
@@ -22,6 +24,8 @@ public interface InventoryService {
     InventoryResponse releaseReservation(String sku, Integer quantity, String reference);
     
     InventoryResponse adjustInventory(Long id, AdjustInventoryRequest request);
+
+    InventoryResponse configureSharding(Long id, Integer shardCount);
     
     List<InventoryResponse> getLowStockItems();
     
@@ -30,10 +34,32 @@ public interface InventoryService {
     List<StockMovementResponse> getStockMovementHistory(Long inventoryItemId);
     
     boolean checkAvailability(String sku, Integer requiredQuantity);
+
+    /**
+     * Check several SKUs at once. Answered from the in-memory availability snapshot where possible,
+     * with a single query for the SKUs it does not hold yet.
+     */
+    List<AvailabilityResponse> checkAvailability(List<AvailabilityCheckRequest> items);
     
     InventoryResponse reserveInventoryForOrder(String sku, Integer quantity, String orderNumber);
 
     InventoryResponse reserveInventoryForOrderWithContext(String sku, Integer quantity, String orderNumber, String userId, String totalAmount);
     
+    List<InventoryResponse> reserveOrder(String orderNumber, List<ReserveOrderItemRequest> items);
+
+    List<InventoryResponse> reserveOrderWithContext(String orderNumber, List<ReserveOrderItemRequest> items, String userId, String totalAmount);
+    
     void releaseReservationByOrder(String orderNumber);
+
+    /**
+     * Release the reservations of these orders that have passed their expiry. Each order is released
+     * in its own transaction; orders that were paid or already released in the meantime are skipped.
+     * @return number of orders that had reservations released
+     */
+    int releaseExpiredReservations(Collection<String> orderNumbers);
+
+    /**
+     * Stop the order's reservations from expiring, e.g. once payment has succeeded.
+     */
+    void confirmReservationsByOrder(String orderNumber);
 }
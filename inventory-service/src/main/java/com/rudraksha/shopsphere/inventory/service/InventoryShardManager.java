@@ -0,0 +1,242 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
+import com.rudraksha.shopsphere.inventory.entity.InventoryShard;
+import com.rudraksha.shopsphere.inventory.repository.InventoryItemRepository;
+import com.rudraksha.shopsphere.inventory.repository.InventoryShardRepository;
+import com.rudraksha.shopsphere.inventory.repository.OrderReservationRepository;
+import com.rudraksha.shopsphere.inventory.repository.StockTotals;
+import com.rudraksha.shopsphere.inventory.util.DistributedLockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Stock sharding for hot SKUs.
+ * A sharded SKU's stock is split between its inventory_items row and N inventory_shards rows; the
+ * totals are always the sum of all of them. Reservations pick a random shard and fall back to its
+ * neighbours and then to the item row, so concurrent checkouts rarely touch the same row and never
+ * take the SKU's distributed lock. A background job spreads free stock evenly across the shards.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryShardManager {
+    private final InventoryItemRepository inventoryRepository;
+    private final InventoryShardRepository shardRepository;
+    private final OrderReservationRepository orderReservationRepository;
+    private final DistributedLockUtil distributedLockUtil;
+    private final PlatformTransactionManager transactionManager;
+    private final AvailabilitySnapshot availabilitySnapshot;
+
+    // Routing cache of SKU -> shard count. A stale entry only costs contention, never correctness:
+    // reserve() always falls back to the item row and reads totals from the database.
+    private volatile Map<String, Integer> shardCounts = Map.of();
+
+    public boolean isSharded(String sku) {
+        return shardCounts.containsKey(sku);
+    }
+
+    /**
+     * Reserve stock for a sharded SKU. Must be called inside a transaction.
+     * @return the shard index reserved from, or null if reserved from the item row
+     * @throws IllegalArgumentException if the SKU does not exist or total free stock is insufficient
+     */
+    public Integer reserve(String sku, int quantity) {
+        int count = shardCounts.getOrDefault(sku, 0);
+        if (count > 0) {
+            int start = ThreadLocalRandom.current().nextInt(count);
+            for (int i = 0; i < count; i++) {
+                int shardIndex = (start + i) % count;
+                if (shardRepository.reserveIfAvailable(sku, shardIndex, quantity) > 0) {
+                    log.debug("Reserved {} of SKU {} from shard {}", quantity, sku, shardIndex);
+                    return shardIndex;
+                }
+            }
+        }
+        if (inventoryRepository.reserveIfAvailable(sku, quantity, LocalDateTime.now()) > 0) {
+            return null;
+        }
+
+        // No single row can cover the request, but the free stock may be spread across shards
+        InventoryItem item = inventoryRepository.findBySkuWithLock(sku)
+            .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + sku));
+        List<InventoryShard> shards = shardRepository.findBySkuWithLock(sku);
+        long free = (long) item.getQuantity() - item.getReservedQuantity()
+            + shards.stream().mapToLong(InventoryShard::getFreeQuantity).sum();
+        if (free < quantity) {
+            log.warn("Insufficient inventory for sharded SKU: {}", sku);
+            throw new IllegalArgumentException("Insufficient inventory available for SKU: " + sku);
+        }
+
+        for (InventoryShard shard : shards) {
+            int shardFree = shard.getFreeQuantity();
+            if (shardFree > 0) {
+                shard.setQuantity(shard.getQuantity() - shardFree);
+                item.setQuantity(item.getQuantity() + shardFree);
+            }
+        }
+        item.setReservedQuantity(item.getReservedQuantity() + quantity);
+        shardRepository.saveAll(shards);
+        inventoryRepository.save(item);
+        log.debug("Consolidated shards of SKU {} to reserve {}", sku, quantity);
+        return null;
+    }
+
+    /**
+     * Release stock that was reserved from a specific shard.
+     */
+    public void release(String sku, int shardIndex, int quantity) {
+        shardRepository.release(sku, shardIndex, quantity);
+    }
+
+    /**
+     * Release stock whose shard is unknown: the item row first, then any shard holding reservations.
+     * The item must already be locked by the caller's transaction.
+     */
+    public void releaseUnassigned(InventoryItem item, int quantity) {
+        int fromItem = Math.min(item.getReservedQuantity(), quantity);
+        item.setReservedQuantity(item.getReservedQuantity() - fromItem);
+        int remaining = quantity - fromItem;
+        if (remaining == 0 || !item.isSharded()) {
+            return;
+        }
+        for (InventoryShard shard : shardRepository.findBySkuWithLock(item.getSku())) {
+            int fromShard = Math.min(shard.getReservedQuantity(), remaining);
+            shard.setReservedQuantity(shard.getReservedQuantity() - fromShard);
+            remaining -= fromShard;
+            if (remaining == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Total quantity held by the item's shards, excluding the item row.
+     */
+    public long getShardQuantity(String sku) {
+        return shardRepository.sumQuantityBySku(sku);
+    }
+
+    /**
+     * Change the number of shards for an item. All shard stock and reservations are folded back into
+     * the item row first, then redistributed across the new shards. The item must already be locked.
+     */
+    public void reshard(InventoryItem item, int shardCount) {
+        List<InventoryShard> existing = shardRepository.findBySkuWithLock(item.getSku());
+        for (InventoryShard shard : existing) {
+            item.setQuantity(item.getQuantity() + shard.getQuantity());
+            item.setReservedQuantity(item.getReservedQuantity() + shard.getReservedQuantity());
+        }
+        if (!existing.isEmpty()) {
+            shardRepository.deleteAll(existing);
+            shardRepository.flush();
+            orderReservationRepository.clearShardIndexes(item.getId());
+        }
+
+        item.setShardCount(shardCount);
+        if (shardCount > 0) {
+            List<InventoryShard> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(InventoryShard.builder()
+                    .inventoryItemId(item.getId())
+                    .sku(item.getSku())
+                    .shardIndex(i)
+                    .quantity(0)
+                    .reservedQuantity(0)
+                    .build());
+            }
+            distribute(item, shards);
+            shardRepository.saveAll(shards);
+        }
+        inventoryRepository.save(item);
+
+        Map<String, Integer> counts = new HashMap<>(shardCounts);
+        if (shardCount > 0) {
+            counts.put(item.getSku(), shardCount);
+        } else {
+            counts.remove(item.getSku());
+        }
+        shardCounts = Map.copyOf(counts);
+        log.info("SKU {} now has {} shards", item.getSku(), shardCount);
+    }
+
+    /**
+     * Refresh the routing cache and spread free stock evenly across each hot SKU's shards.
+     * Also corrects the SKU's availability snapshot: concurrent shard reservations each publish totals
+     * computed without the other's uncommitted change, so the last published value can drift.
+     */
+    @Scheduled(fixedDelayString = "${inventory.sharding.rebalance-interval-ms:5000}")
+    public void rebalanceShards() {
+        Map<String, Integer> counts = inventoryRepository.findByShardCountGreaterThan(0).stream()
+            .collect(Collectors.toMap(InventoryItem::getSku, InventoryItem::getShardCount));
+        shardCounts = Map.copyOf(counts);
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (String sku : counts.keySet()) {
+            try {
+                distributedLockUtil.executeWithLock(sku, () -> template.execute(status -> {
+                    InventoryItem item = inventoryRepository.findBySkuWithLock(sku).orElse(null);
+                    if (item == null || !item.isSharded()) {
+                        return null;
+                    }
+                    List<InventoryShard> shards = shardRepository.findBySkuWithLock(sku);
+                    if (distribute(item, shards)) {
+                        shardRepository.saveAll(shards);
+                        inventoryRepository.save(item);
+                        log.debug("Rebalanced {} shards for SKU: {}", shards.size(), sku);
+                    }
+                    StockTotals totals = inventoryRepository.findStockTotals(item.getId());
+                    int available = (int) (totals.getQuantity() - totals.getReservedQuantity());
+                    if (availabilitySnapshot.get(sku).orElse(Integer.MIN_VALUE) != available) {
+                        availabilitySnapshot.publish(sku, available);
+                    }
+                    return null;
+                }));
+            } catch (Exception e) {
+                log.warn("Failed to rebalance shards for SKU: {}", sku, e);
+            }
+        }
+    }
+
+    /**
+     * Move all free stock out of the item row and split it evenly across the shards, leaving each
+     * row's reservations untouched. Total quantity is unchanged.
+     * @return true if any row changed
+     */
+    private boolean distribute(InventoryItem item, List<InventoryShard> shards) {
+        if (shards.isEmpty()) {
+            return false;
+        }
+        long free = (long) item.getQuantity() - item.getReservedQuantity()
+            + shards.stream().mapToLong(InventoryShard::getFreeQuantity).sum();
+        // Negative free stock (oversold after an adjustment) stays on the item row
+        long itemFree = Math.min(free, 0);
+        long distributable = free - itemFree;
+        long share = distributable / shards.size();
+        long extra = distributable % shards.size();
+
+        boolean changed = item.getQuantity() != item.getReservedQuantity() + itemFree;
+        item.setQuantity((int) (item.getReservedQuantity() + itemFree));
+        for (int i = 0; i < shards.size(); i++) {
+            InventoryShard shard = shards.get(i);
+            int target = (int) (shard.getReservedQuantity() + share + (i < extra ? 1 : 0));
+            if (shard.getQuantity() != target) {
+                shard.setQuantity(target);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,76 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.repository.OrderReservationRepository;
+import com.rudraksha.shopsphere.inventory.repository.PendingExpiry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Releases reservations whose TTL has passed.
+ * Deadlines live in a {@link ReservationExpiryWheel}, so each tick only touches the orders that are
+ * actually due rather than scanning order_reservations. The wheel is rebuilt from the database on
+ * startup. A slow indexed sweep picks up orders that are overdue by more than the grace period, e.g.
+ * reserved on an instance that died before their deadline or whose release failed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationExpiryScheduler {
+    private final ReservationExpiryWheel expiryWheel;
+    private final InventoryService inventoryService;
+    private final OrderReservationRepository orderReservationRepository;
+
+    @Value("${inventory.reservation.expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.reservation.expiry.sweep-grace:PT5M}")
+    private Duration sweepGrace;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadPendingExpiries() {
+        int loaded = 0;
+        String after = "";
+        List<PendingExpiry> page;
+        do {
+            page = orderReservationRepository.findPendingExpiries(after, batchSize);
+            for (PendingExpiry pending : page) {
+                expiryWheel.schedule(pending.orderNumber(), pending.expiresAt());
+            }
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).orderNumber();
+            }
+        } while (page.size() == batchSize);
+        log.info("Loaded {} pending reservation expiries", loaded);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry.tick-ms:1000}")
+    public void releaseExpired() {
+        List<String> expired = expiryWheel.pollExpired();
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<String> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            int released = inventoryService.releaseExpiredReservations(batch);
+            log.info("Released expired reservations for {} of {} orders", released, batch.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry.sweep-interval-ms:60000}")
+    public void sweepOverdue() {
+        List<String> overdue = orderReservationRepository.findOrderNumbersExpiredBefore(
+            LocalDateTime.now().minus(sweepGrace), PageRequest.of(0, batchSize));
+        if (!overdue.isEmpty()) {
+            int released = inventoryService.releaseExpiredReservations(overdue);
+            log.warn("Sweep released overdue reservations for {} of {} orders", released, overdue.size());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * In-memory deadlines of orders whose reservations can still expire, one timer per order.
+ * The wheel is only an index: the database stays the source of truth and every release re-checks
+ * the reservation's expires_at, so a stale or duplicate timer never releases paid stock.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationExpiryWheel {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.reservation.expiry.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${inventory.reservation.expiry.wheel-size:60}")
+    private int wheelSize;
+
+    private HierarchicalTimingWheel<String> wheel;
+
+    @PostConstruct
+    void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        Gauge.builder("inventory.reservations.pending_expiry", this, ReservationExpiryWheel::size)
+            .description("Orders with reservations waiting to expire")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Track the order's deadline. Inside a transaction the timer is only added once it commits.
+     */
+    public void schedule(String orderNumber, LocalDateTime expiresAt) {
+        long deadlineMs = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(orderNumber, deadlineMs);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(orderNumber, deadlineMs);
+            }
+        });
+    }
+
+    public synchronized void cancel(String orderNumber) {
+        wheel.cancel(orderNumber);
+    }
+
+    /**
+     * Advance to the current time.
+     * @return orders whose deadline has passed; their timers are removed
+     */
+    public synchronized List<String> pollExpired() {
+        return wheel.advance(System.currentTimeMillis());
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    private synchronized void add(String orderNumber, long deadlineMs) {
+        wheel.schedule(orderNumber, deadlineMs);
+    }
+}
@@ -0,0 +1,11 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+/**
+ * Strategy used to reserve stock, selected per deployment via {@code inventory.reservation.mode}.
+ */
+public enum ReservationMode {
+    /** Redisson lock on the SKU followed by a PESSIMISTIC_WRITE row lock (default). */
+    LOCKED,
+    /** Single conditional UPDATE that checks and increments reserved stock in one round trip. */
+    ATOMIC
+}
@@ -0,0 +1,162 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
+import com.rudraksha.shopsphere.inventory.entity.InventoryItem.InventoryStatus;
+import com.rudraksha.shopsphere.inventory.entity.OutboxEvent;
+import com.rudraksha.shopsphere.inventory.repository.InventoryItemRepository;
+import com.rudraksha.shopsphere.inventory.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Low-stock and out-of-stock item ids kept in Redis sets, shared by all instances.
+ * Status transitions computed by the service are applied to the sets after their transaction
+ * commits and published as inventory.low-stock events through the outbox, so reads cost O(result)
+ * instead of a table scan. A periodic rebuild from the status column corrects any drift, e.g. a
+ * Redis write lost after commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockLevelIndex {
+    public static final String TOPIC = "inventory.low-stock";
+    static final String LOW_STOCK_KEY = "inventory:index:low-stock";
+    static final String OUT_OF_STOCK_KEY = "inventory:index:out-of-stock";
+
+    private final StringRedisTemplate redisTemplate;
+    private final InventoryItemRepository inventoryRepository;
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Record a status transition. Must be called inside the transaction that changed the item.
+     * @param quantity total quantity the new status was computed from
+     */
+    public void onStatusChange(InventoryItem item, InventoryStatus previous, long quantity) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("sku", item.getSku());
+        message.put("productId", item.getProductId());
+        message.put("previousStatus", previous != null ? previous.name() : null);
+        message.put("status", item.getStatus().name());
+        message.put("quantity", quantity);
+        message.put("reorderLevel", item.getReorderLevel());
+        try {
+            outboxRepository.save(OutboxEvent.builder()
+                .topic(TOPIC)
+                .key(item.getSku())
+                .payload(objectMapper.writeValueAsString(message))
+                .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize stock level event for SKU: " + item.getSku(), e);
+        }
+
+        Long id = item.getId();
+        InventoryStatus status = item.getStatus();
+        afterCommit(() -> apply(id, status));
+        log.debug("SKU {} moved from {} to {}", item.getSku(), previous, status);
+    }
+
+    public void remove(Long itemId) {
+        afterCommit(() -> {
+            redisTemplate.opsForSet().remove(LOW_STOCK_KEY, itemId.toString());
+            redisTemplate.opsForSet().remove(OUT_OF_STOCK_KEY, itemId.toString());
+        });
+    }
+
+    /**
+     * Items at or below their reorder level, including those out of stock.
+     */
+    public Set<Long> getLowStockIds() {
+        return members(LOW_STOCK_KEY);
+    }
+
+    public Set<Long> getOutOfStockIds() {
+        return members(OUT_OF_STOCK_KEY);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stock-index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        try {
+            List<Long> lowStock = inventoryRepository.findIdsByStatusIn(
+                List.of(InventoryStatus.LOW_STOCK, InventoryStatus.OUT_OF_STOCK));
+            List<Long> outOfStock = inventoryRepository.findIdsByStatusIn(List.of(InventoryStatus.OUT_OF_STOCK));
+            replace(LOW_STOCK_KEY, lowStock);
+            replace(OUT_OF_STOCK_KEY, outOfStock);
+            log.info("Rebuilt stock level index: {} low stock, {} out of stock", lowStock.size(), outOfStock.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild stock level index", e);
+        }
+    }
+
+    private void apply(Long id, InventoryStatus status) {
+        SetOperations<String, String> sets = redisTemplate.opsForSet();
+        String member = id.toString();
+        if (status == InventoryStatus.LOW_STOCK || status == InventoryStatus.OUT_OF_STOCK) {
+            sets.add(LOW_STOCK_KEY, member);
+        } else {
+            sets.remove(LOW_STOCK_KEY, member);
+        }
+        if (status == InventoryStatus.OUT_OF_STOCK) {
+            sets.add(OUT_OF_STOCK_KEY, member);
+        } else {
+            sets.remove(OUT_OF_STOCK_KEY, member);
+        }
+    }
+
+    /**
+     * Swap in a new set with RENAME so readers never see a partially built index.
+     */
+    private void replace(String key, List<Long> ids) {
+        if (ids.isEmpty()) {
+            redisTemplate.delete(key);
+            return;
+        }
+        String staging = key + ":rebuild:" + UUID.randomUUID();
+        redisTemplate.opsForSet().add(staging, ids.stream().map(String::valueOf).toArray(String[]::new));
+        redisTemplate.rename(staging, key);
+    }
+
+    private Set<Long> members(String key) {
+        Set<String> members = redisTemplate.opsForSet().members(key);
+        if (members == null) {
+            return Set.of();
+        }
+        return members.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    private void afterCommit(Runnable update) {
+        Runnable safeUpdate = () -> {
+            try {
+                update.run();
+            } catch (Exception e) {
+                // The next rebuild picks the change up from the status column
+                log.warn("Failed to update stock level index", e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            safeUpdate.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                safeUpdate.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.entity.StockMovement;
+import com.rudraksha.shopsphere.inventory.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only writer for the stock movement ledger.
+ * Movements are never read on the reservation path, so instead of one INSERT per movement they are
+ * buffered for the current transaction and written with a JDBC batch just before it commits (or
+ * earlier once the buffer reaches the batch size). Rows commit or roll back together with the stock
+ * change and outbox event that produced them.
+ * The buffer never spans transactions: rows held past their commit would be lost on a crash. The
+ * saving is therefore per operation. A multi-line reservation or release writes all its movements in
+ * one statement instead of one per line, while a single-line operation still writes one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockMovementLedger {
+    private final StockMovementRepository movementRepository;
+
+    @Value("${inventory.ledger.batch-size:500}")
+    private int batchSize;
+
+    public void append(StockMovement movement) {
+        if (movement.getCreatedAt() == null) {
+            movement.setCreatedAt(LocalDateTime.now());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            movementRepository.batchInsert(List.of(movement));
+            return;
+        }
+
+        List<StockMovement> buffer = currentBuffer();
+        buffer.add(movement);
+        if (buffer.size() >= batchSize) {
+            writeBatch(buffer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockMovement> currentBuffer() {
+        List<StockMovement> buffer = (List<StockMovement>) TransactionSynchronizationManager.getResource(this);
+        if (buffer != null) {
+            return buffer;
+        }
+
+        List<StockMovement> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                writeBatch(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StockMovementLedger.this);
+            }
+        });
+        return created;
+    }
+
+    private void writeBatch(List<StockMovement> buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        movementRepository.batchInsert(new ArrayList<>(buffer));
+        log.debug("Flushed {} stock movements", buffer.size());
+        buffer.clear();
+    }
+}
@@ -1,6 +1,9 @@
 package com.rudraksha.shopsphere.inventory.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rudraksha.shopsphere.inventory.dto.request.*;
+import com.rudraksha.shopsphere.inventory.dto.response.AvailabilityResponse;
 import com.rudraksha.shopsphere.inventory.dto.response.InventoryResponse;
 import com.rudraksha.shopsphere.inventory.dto.response.StockMovementResponse;
 import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
@@ -11,16 +14,36 @@ import com.rudraksha.shopsphere.inventory.repository.InventoryItemRepository;
 import com.rudraksha.shopsphere.inventory.repository.OrderReservationRepository;
 import com.rudraksha.shopsphere.inventory.repository.OutboxEventRepository;
 import com.rudraksha.shopsphere.inventory.repository.StockMovementRepository;
+import com.rudraksha.shopsphere.inventory.repository.StockTotals;
+import com.rudraksha.shopsphere.inventory.service.AvailabilitySnapshot;
 import com.rudraksha.shopsphere.inventory.service.InventoryService;
+import com.rudraksha.shopsphere.inventory.service.InventoryShardManager;
+import com.rudraksha.shopsphere.inventory.service.ReservationExpiryWheel;
+import com.rudraksha.shopsphere.inventory.service.ReservationMode;
+import com.rudraksha.shopsphere.inventory.service.StockLevelIndex;
+import com.rudraksha.shopsphere.inventory.service.StockMovementLedger;
 import com.rudraksha.shopsphere.inventory.util.DistributedLockUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,12 +56,128 @@ public class InventoryServiceImpl implements InventoryService {
     private final OutboxEventRepository outboxRepository;
     private final DistributedLockUtil distributedLockUtil;
     private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final InventoryShardManager shardManager;
+    private final StockMovementLedger movementLedger;
+    private final AvailabilitySnapshot availabilitySnapshot;
+    private final ReservationExpiryWheel expiryWheel;
+    private final StockLevelIndex stockLevelIndex;
+
+    @Value("${inventory.reservation.mode:LOCKED}")
+    private ReservationMode reservationMode;
+
+    @Value("${inventory.reservation.ttl:PT30M}")
+    private Duration reservationTtl;
 
     private <T> T executeInTransaction(org.springframework.transaction.support.TransactionCallback<T> action) {
         TransactionTemplate template = new TransactionTemplate(transactionManager);
         return template.execute(action);
     }
 
+    private boolean isAtomicReservation() {
+        return reservationMode == ReservationMode.ATOMIC;
+    }
+
+    /**
+     * Runs a reservation under the SKU's distributed lock in LOCKED mode. In ATOMIC mode, and for
+     * sharded SKUs, the conditional UPDATEs in {@link #reserveStock} are the only serialization point,
+     * so the lock is skipped.
+     */
+    private <T> T executeReservation(String sku, DistributedLockUtil.LockCallback<T> operation) {
+        if (isAtomicReservation() || shardManager.isSharded(sku)) {
+            return operation.execute();
+        }
+        return distributedLockUtil.executeWithLock(sku, operation);
+    }
+
+    private <T> T executeReservation(List<String> skus, DistributedLockUtil.LockCallback<T> operation) {
+        if (isAtomicReservation()) {
+            return operation.execute();
+        }
+        return distributedLockUtil.executeWithLocks(skus, operation);
+    }
+
+    /**
+     * Checks availability and increments the reserved quantity. Must be called inside a transaction.
+     * @return the updated inventory item and the shard the stock came from, if any
+     * @throws IllegalArgumentException if the SKU does not exist or stock is insufficient
+     */
+    private StockReservation reserveStock(String sku, Integer quantity) {
+        if (shardManager.isSharded(sku)) {
+            return reserveFromShards(sku, quantity);
+        }
+
+        if (isAtomicReservation()) {
+            int updated = inventoryRepository.reserveIfAvailable(sku, quantity, LocalDateTime.now());
+            InventoryItem item = inventoryRepository.findBySku(sku)
+                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + sku));
+            if (updated == 0) {
+                if (item.isSharded()) {
+                    return reserveFromShards(sku, quantity);
+                }
+                log.warn("Insufficient inventory for SKU: {}", sku);
+                throw new IllegalArgumentException("Insufficient inventory available for SKU: " + sku);
+            }
+            return new StockReservation(item, null);
+        }
+
+        InventoryItem item = inventoryRepository.findBySkuWithLock(sku)
+            .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + sku));
+        if (item.isSharded()) {
+            return reserveFromShards(sku, quantity);
+        }
+
+        if (item.getAvailableQuantity() < quantity) {
+            log.warn("Insufficient inventory for SKU: {}", sku);
+            throw new IllegalArgumentException("Insufficient inventory available for SKU: " + sku);
+        }
+
+        item.setReservedQuantity(item.getReservedQuantity() + quantity);
+        updateStatus(item);
+        return new StockReservation(inventoryRepository.save(item), null);
+    }
+
+    private StockReservation reserveFromShards(String sku, Integer quantity) {
+        Integer shardIndex = shardManager.reserve(sku, quantity);
+        InventoryItem item = inventoryRepository.findBySku(sku)
+            .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + sku));
+        return new StockReservation(item, shardIndex);
+    }
+
+    /**
+     * Builds the response, summing stock across shards for sharded items.
+     */
+    private InventoryResponse toResponse(InventoryItem item) {
+        InventoryResponse response = InventoryResponse.fromEntity(item);
+        if (item.isSharded()) {
+            StockTotals totals = inventoryRepository.findStockTotals(item.getId());
+            int quantity = totals.getQuantity().intValue();
+            int reserved = totals.getReservedQuantity().intValue();
+            response.setQuantity(quantity);
+            response.setReservedQuantity(reserved);
+            response.setAvailableQuantity(quantity - reserved);
+        }
+        return response;
+    }
+
+    /**
+     * Free stock of the item as currently held in the persistence context, summed across shards for
+     * sharded items. Unlike the {@code availableQuantity} formula this reflects unflushed changes.
+     */
+    private int freeQuantity(InventoryItem item) {
+        if (item.isSharded()) {
+            StockTotals totals = inventoryRepository.findStockTotals(item.getId());
+            return (int) (totals.getQuantity() - totals.getReservedQuantity());
+        }
+        return item.getQuantity() - item.getReservedQuantity();
+    }
+
+    private void publishAvailability(InventoryItem item) {
+        availabilitySnapshot.publish(item.getSku(), freeQuantity(item));
+    }
+
+    private record StockReservation(InventoryItem item, Integer shardIndex) {}
+
     @Override
     @Transactional
     public InventoryResponse createInventory(CreateInventoryRequest request) {
@@ -53,9 +192,11 @@ public class InventoryServiceImpl implements InventoryService {
             .build();
         
         InventoryItem saved = inventoryRepository.save(item);
+        updateStatus(saved);
         
         recordMovement(saved.getId(), StockMovement.MovementType.INBOUND, 
             request.getQuantity(), "Initial inventory", null);
+        publishAvailability(saved);
         
         log.info("Inventory created successfully for SKU: {}", request.getSku());
         return InventoryResponse.fromEntity(saved);
@@ -66,7 +207,7 @@ public class InventoryServiceImpl implements InventoryService {
         log.info("Fetching inventory for SKU: {}", sku);
         InventoryItem item = inventoryRepository.findBySku(sku)
             .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + sku));
-        return InventoryResponse.fromEntity(item);
+        return toResponse(item);
     }
 
     @Override
@@ -74,7 +215,7 @@ public class InventoryServiceImpl implements InventoryService {
         log.info("Fetching inventory for Product ID: {}", productId);
         InventoryItem item = inventoryRepository.findByProductId(productId)
             .orElseThrow(() -> new IllegalArgumentException("Inventory not found for Product ID: " + productId));
-        return InventoryResponse.fromEntity(item);
+        return toResponse(item);
     }
 
     @Override
@@ -85,7 +226,9 @@ public class InventoryServiceImpl implements InventoryService {
             .orElseThrow(() -> new IllegalArgumentException("Inventory not found"));
         
         if (request.getQuantity() != null) {
-            item.setQuantity(request.getQuantity());
+            // For sharded items the requested quantity is the total; the item row holds what the shards don't
+            int shardQuantity = item.isSharded() ? (int) shardManager.getShardQuantity(item.getSku()) : 0;
+            item.setQuantity(request.getQuantity() - shardQuantity);
         }
         if (request.getReorderLevel() != null) {
             item.setReorderLevel(request.getReorderLevel());
@@ -93,17 +236,27 @@ public class InventoryServiceImpl implements InventoryService {
         if (request.getWarehouseLocation() != null) {
             item.setWarehouseLocation(request.getWarehouseLocation());
         }
+        if (request.getQuantity() != null || request.getReorderLevel() != null) {
+            updateStatus(item);
+        }
         
         InventoryItem updated = inventoryRepository.save(item);
+        if (request.getQuantity() != null) {
+            publishAvailability(updated);
+        }
         log.info("Inventory updated successfully");
-        return InventoryResponse.fromEntity(updated);
+        return toResponse(updated);
     }
 
     @Override
     @Transactional
     public void deleteInventory(Long id) {
         log.info("Deleting inventory with ID: {}", id);
-        inventoryRepository.deleteById(id);
+        inventoryRepository.findById(id).ifPresent(item -> {
+            inventoryRepository.delete(item);
+            availabilitySnapshot.publish(item.getSku(), 0);
+            stockLevelIndex.remove(item.getId());
+        });
     }
 
     @Override
@@ -111,27 +264,17 @@ public class InventoryServiceImpl implements InventoryService {
         log.info("Reserving inventory for SKU: {} with quantity: {}", 
             request.getSku(), request.getQuantity());
         
-        return distributedLockUtil.executeWithLock(request.getSku(), () -> {
+        return executeReservation(request.getSku(), () -> {
             return executeInTransaction(status -> {
-                InventoryItem item = inventoryRepository.findBySkuWithLock(request.getSku())
-                    .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + request.getSku()));
-                
-                if (item.getAvailableQuantity() < request.getQuantity()) {
-                    log.warn("Insufficient inventory for SKU: {}", request.getSku());
-                    throw new IllegalArgumentException("Insufficient inventory available");
-                }
-                
-                item.setReservedQuantity(item.getReservedQuantity() + request.getQuantity());
-                updateStatus(item);
-                
-                InventoryItem updated = inventoryRepository.save(item);
-                recordMovement(item.getId(), StockMovement.MovementType.RESERVATION, 
+                InventoryItem updated = reserveStock(request.getSku(), request.getQuantity()).item();
+                recordMovement(updated.getId(), StockMovement.MovementType.RESERVATION, 
                     request.getQuantity(), request.getReference(), null);
+                publishAvailability(updated);
                 
                 publishEvent("inventory.reserved", request.getSku(), request.getQuantity(), request.getReference());
                 log.info("Inventory reserved successfully for SKU: {}", request.getSku());
                 
-                return InventoryResponse.fromEntity(updated);
+                return toResponse(updated);
             });
         });
     }
@@ -145,18 +288,23 @@ public class InventoryServiceImpl implements InventoryService {
                 InventoryItem item = inventoryRepository.findBySkuWithLock(sku)
                     .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + sku));
                 
-                int newReserved = Math.max(0, item.getReservedQuantity() - quantity);
-                item.setReservedQuantity(newReserved);
+                if (item.isSharded()) {
+                    shardManager.releaseUnassigned(item, quantity);
+                } else {
+                    int newReserved = Math.max(0, item.getReservedQuantity() - quantity);
+                    item.setReservedQuantity(newReserved);
+                }
                 updateStatus(item);
                 
                 InventoryItem updated = inventoryRepository.save(item);
                 recordMovement(item.getId(), StockMovement.MovementType.RESERVATION_RELEASE, 
                     quantity, reference, null);
+                publishAvailability(updated);
                 
                 publishEvent("inventory.reservation.released", sku, quantity, reference);
                 log.info("Reservation released successfully for SKU: {}", sku);
                 
-                return InventoryResponse.fromEntity(updated);
+                return toResponse(updated);
             });
         });
     }
@@ -179,9 +327,28 @@ public class InventoryServiceImpl implements InventoryService {
                 InventoryItem updated = inventoryRepository.save(currentItem);
                 recordMovement(id, StockMovement.MovementType.ADJUSTMENT, 
                     request.getAdjustmentQuantity(), request.getReason(), request.getNotes());
+                publishAvailability(updated);
                 
                 log.info("Inventory adjusted successfully");
-                return InventoryResponse.fromEntity(updated);
+                return toResponse(updated);
+            });
+        });
+    }
+
+    @Override
+    public InventoryResponse configureSharding(Long id, Integer shardCount) {
+        log.info("Configuring {} shards for inventory with ID: {}", shardCount, id);
+
+        InventoryItem item = inventoryRepository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Inventory not found"));
+
+        return distributedLockUtil.executeWithLock(item.getSku(), () -> {
+            return executeInTransaction(status -> {
+                InventoryItem currentItem = inventoryRepository.findBySkuWithLock(item.getSku())
+                    .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + item.getSku()));
+
+                shardManager.reshard(currentItem, shardCount);
+                return toResponse(currentItem);
             });
         });
     }
@@ -189,16 +356,16 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     public List<InventoryResponse> getLowStockItems() {
         log.info("Fetching low stock items");
-        return inventoryRepository.findLowStockItems().stream()
-            .map(InventoryResponse::fromEntity)
+        return inventoryRepository.findAllById(stockLevelIndex.getLowStockIds()).stream()
+            .map(this::toResponse)
             .collect(Collectors.toList());
     }
 
     @Override
     public List<InventoryResponse> getOutOfStockItems() {
         log.info("Fetching out of stock items");
-        return inventoryRepository.findByStatus(InventoryItem.InventoryStatus.OUT_OF_STOCK).stream()
-            .map(InventoryResponse::fromEntity)
+        return inventoryRepository.findAllById(stockLevelIndex.getOutOfStockIds()).stream()
+            .map(this::toResponse)
             .collect(Collectors.toList());
     }
 
@@ -213,10 +380,46 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     public boolean checkAvailability(String sku, Integer requiredQuantity) {
         return inventoryRepository.findBySku(sku)
-            .map(item -> item.getAvailableQuantity() >= requiredQuantity)
+            .map(item -> toResponse(item).getAvailableQuantity() >= requiredQuantity)
             .orElse(false);
     }
 
+    @Override
+    public List<AvailabilityResponse> checkAvailability(List<AvailabilityCheckRequest> items) {
+        Map<String, Integer> availableBySku = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (AvailabilityCheckRequest item : items) {
+            OptionalInt cached = availabilitySnapshot.get(item.getSku());
+            if (cached.isPresent()) {
+                availableBySku.put(item.getSku(), cached.getAsInt());
+            } else {
+                misses.add(item.getSku());
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            log.debug("Availability snapshot missed {} of {} SKUs", misses.size(), items.size());
+            for (InventoryItem item : inventoryRepository.findAllBySkuIn(misses)) {
+                int available = freeQuantity(item);
+                availableBySku.put(item.getSku(), available);
+                availabilitySnapshot.seed(item.getSku(), available);
+            }
+        }
+
+        // Each line is checked on its own; unknown SKUs have no stock
+        return items.stream()
+            .map(item -> {
+                int available = availableBySku.getOrDefault(item.getSku(), 0);
+                return AvailabilityResponse.builder()
+                    .sku(item.getSku())
+                    .requestedQuantity(item.getQuantity())
+                    .availableQuantity(available)
+                    .available(available >= item.getQuantity())
+                    .build();
+            })
+            .collect(Collectors.toList());
+    }
+
     private void recordMovement(Long inventoryItemId, StockMovement.MovementType type, 
                                Integer quantity, String reference, String notes) {
         StockMovement movement = StockMovement.builder()
@@ -226,29 +429,34 @@ public class InventoryServiceImpl implements InventoryService {
             .reference(reference)
             .notes(notes)
             .build();
-        movementRepository.save(movement);
+        movementLedger.append(movement);
         log.debug("Stock movement recorded: {} for inventory item: {}", type, inventoryItemId);
     }
 
     private void updateStatus(InventoryItem item) {
-        if (item.getQuantity() <= 0) {
-            item.setStatus(InventoryItem.InventoryStatus.OUT_OF_STOCK);
-        } else if (item.getQuantity() <= item.getReorderLevel()) {
-            item.setStatus(InventoryItem.InventoryStatus.LOW_STOCK);
-        } else {
-            item.setStatus(InventoryItem.InventoryStatus.AVAILABLE);
+        long quantity = item.getQuantity();
+        if (item.isSharded()) {
+            quantity += shardManager.getShardQuantity(item.getSku());
+        }
+        InventoryItem.InventoryStatus previous = item.getStatus();
+        item.setStatus(InventoryItem.InventoryStatus.forQuantity((int) quantity, item.getReorderLevel()));
+        if (item.getStatus() != previous) {
+            stockLevelIndex.onStatusChange(item, previous, quantity);
         }
     }
 
     private void publishEvent(String topic, String sku, Integer quantity, String reference) {
+        outboxRepository.save(stockEvent(topic, sku, quantity, reference));
+        log.debug("Outbox event saved: {} for SKU: {} (Order: {})", topic, sku, reference);
+    }
+
+    private OutboxEvent stockEvent(String topic, String sku, Integer quantity, String reference) {
         String message = String.format("{\"sku\":\"%s\",\"quantity\":%d,\"orderNumber\":\"%s\"}", sku, quantity, reference);
-        OutboxEvent event = OutboxEvent.builder()
+        return OutboxEvent.builder()
             .topic(topic)
             .key(sku)
             .payload(message)
             .build();
-        outboxRepository.save(event);
-        log.debug("Outbox event saved: {} for SKU: {} (Order: {})", topic, sku, reference);
     }
 
     @Override
@@ -260,30 +468,25 @@ public class InventoryServiceImpl implements InventoryService {
     public InventoryResponse reserveInventoryForOrderWithContext(String sku, Integer quantity, String orderNumber, String userId, String totalAmount) {
         log.info("Reserving inventory for order {} with SKU: {} and quantity: {}", orderNumber, sku, quantity);
         
-        return distributedLockUtil.executeWithLock(sku, () -> {
+        return executeReservation(sku, () -> {
             return executeInTransaction(status -> {
-                InventoryItem item = inventoryRepository.findBySkuWithLock(sku)
-                    .orElseThrow(() -> new IllegalArgumentException("Inventory not found for SKU: " + sku));
-                
-                if (item.getAvailableQuantity() < quantity) {
-                    log.warn("Insufficient inventory for order {}: SKU {}", orderNumber, sku);
-                    throw new IllegalArgumentException("Insufficient inventory available for SKU: " + sku);
-                }
-                
-                item.setReservedQuantity(item.getReservedQuantity() + quantity);
-                updateStatus(item);
-                
-                InventoryItem updated = inventoryRepository.save(item);
+                StockReservation reserved = reserveStock(sku, quantity);
+                InventoryItem updated = reserved.item();
+                LocalDateTime expiresAt = LocalDateTime.now().plus(reservationTtl);
                 
                 OrderReservation reservation = OrderReservation.builder()
                     .orderNumber(orderNumber)
-                    .inventoryItemId(item.getId())
+                    .inventoryItemId(updated.getId())
                     .quantityReserved(quantity)
+                    .shardIndex(reserved.shardIndex())
+                    .expiresAt(expiresAt)
                     .build();
                 orderReservationRepository.save(reservation);
+                expiryWheel.schedule(orderNumber, expiresAt);
                 
-                recordMovement(item.getId(), StockMovement.MovementType.RESERVATION, 
+                recordMovement(updated.getId(), StockMovement.MovementType.RESERVATION, 
                     quantity, "Order: " + orderNumber, null);
+                publishAvailability(updated);
                 
                 // Publish event with full context for SAGA
                 String message = String.format("{\"sku\":\"%s\",\"quantity\":%d,\"orderNumber\":\"%s\",\"userId\":\"%s\",\"totalAmount\":\"%s\"}", 
@@ -298,62 +501,264 @@ public class InventoryServiceImpl implements InventoryService {
                 
                 log.info("Inventory reserved for order {}: SKU {} x {}", orderNumber, sku, quantity);
                 
-                return InventoryResponse.fromEntity(updated);
+                return toResponse(updated);
             });
         });
     }
 
+    @Override
+    public List<InventoryResponse> reserveOrder(String orderNumber, List<ReserveOrderItemRequest> items) {
+        return reserveOrderWithContext(orderNumber, items, null, null);
+    }
+
+    @Override
+    public List<InventoryResponse> reserveOrderWithContext(String orderNumber, List<ReserveOrderItemRequest> items,
+                                                           String userId, String totalAmount) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No items to reserve for order: " + orderNumber);
+        }
+
+        // Merge duplicate lines; TreeMap keeps SKUs sorted for deterministic lock ordering
+        Map<String, Integer> quantitiesBySku = items.stream()
+            .collect(Collectors.toMap(ReserveOrderItemRequest::getSku, ReserveOrderItemRequest::getQuantity,
+                Integer::sum, TreeMap::new));
+        List<String> skus = new ArrayList<>(quantitiesBySku.keySet());
+        // Hot SKUs reserve through their shards and never take the SKU lock or the item row lock
+        List<String> lockedSkus = skus.stream()
+            .filter(sku -> !shardManager.isSharded(sku))
+            .collect(Collectors.toList());
+        log.info("Reserving inventory for order {} with {} SKUs", orderNumber, skus.size());
+
+        return executeReservation(lockedSkus, () -> {
+            return executeInTransaction(status -> {
+                // Sharded SKUs go first: their conditional UPDATEs clear the persistence context
+                Map<String, StockReservation> reservedBySku = new HashMap<>();
+                for (String sku : skus) {
+                    if (!lockedSkus.contains(sku)) {
+                        reservedBySku.put(sku, reserveFromShards(sku, quantitiesBySku.get(sku)));
+                    }
+                }
+
+                Map<String, InventoryItem> itemsBySku = lockedSkus.isEmpty() ? Map.of()
+                    : inventoryRepository.findAllBySkuInWithLock(lockedSkus).stream()
+                        .collect(Collectors.toMap(InventoryItem::getSku, Function.identity()));
+
+                List<String> missing = lockedSkus.stream()
+                    .filter(sku -> !itemsBySku.containsKey(sku))
+                    .collect(Collectors.toList());
+                if (!missing.isEmpty()) {
+                    throw new IllegalArgumentException("Inventory not found for SKUs: " + missing);
+                }
+
+                List<String> insufficient = lockedSkus.stream()
+                    .filter(sku -> !itemsBySku.get(sku).isSharded())
+                    .filter(sku -> itemsBySku.get(sku).getAvailableQuantity() < quantitiesBySku.get(sku))
+                    .collect(Collectors.toList());
+                if (!insufficient.isEmpty()) {
+                    log.warn("Insufficient inventory for order {}: SKUs {}", orderNumber, insufficient);
+                    throw new IllegalArgumentException("Insufficient inventory available for SKUs: " + insufficient);
+                }
+
+                List<InventoryItem> lockedItems = new ArrayList<>(lockedSkus.size());
+                for (String sku : lockedSkus) {
+                    InventoryItem item = itemsBySku.get(sku);
+                    if (item.isSharded()) {
+                        // Sharded since the routing cache was last refreshed
+                        reservedBySku.put(sku, reserveFromShards(sku, quantitiesBySku.get(sku)));
+                        continue;
+                    }
+                    item.setReservedQuantity(item.getReservedQuantity() + quantitiesBySku.get(sku));
+                    updateStatus(item);
+                    lockedItems.add(item);
+                    reservedBySku.put(sku, new StockReservation(item, null));
+                }
+                inventoryRepository.saveAll(lockedItems);
+
+                LocalDateTime expiresAt = LocalDateTime.now().plus(reservationTtl);
+                List<OrderReservation> reservations = new ArrayList<>(skus.size());
+                List<InventoryResponse> responses = new ArrayList<>(skus.size());
+                for (String sku : skus) {
+                    StockReservation reserved = reservedBySku.get(sku);
+                    int quantity = quantitiesBySku.get(sku);
+
+                    reservations.add(OrderReservation.builder()
+                        .orderNumber(orderNumber)
+                        .inventoryItemId(reserved.item().getId())
+                        .quantityReserved(quantity)
+                        .shardIndex(reserved.shardIndex())
+                        .expiresAt(expiresAt)
+                        .build());
+                    recordMovement(reserved.item().getId(), StockMovement.MovementType.RESERVATION,
+                        quantity, "Order: " + orderNumber, null);
+                    publishAvailability(reserved.item());
+                    responses.add(toResponse(reserved.item()));
+                }
+                orderReservationRepository.batchInsert(reservations);
+                expiryWheel.schedule(orderNumber, expiresAt);
+
+                publishOrderReservedEvent(orderNumber, quantitiesBySku, userId, totalAmount);
+                log.info("Inventory reserved for order {}: {} SKUs", orderNumber, skus.size());
+
+                return responses;
+            });
+        });
+    }
+
+    /**
+     * One inventory.reserved event per order, keyed by order number. Carries the same SAGA context
+     * fields as the per-SKU event plus the reserved lines.
+     */
+    private void publishOrderReservedEvent(String orderNumber, Map<String, Integer> quantitiesBySku,
+                                           String userId, String totalAmount) {
+        List<Map<String, Object>> lines = quantitiesBySku.entrySet().stream()
+            .map(entry -> {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("sku", entry.getKey());
+                line.put("quantity", entry.getValue());
+                return line;
+            })
+            .collect(Collectors.toList());
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("orderNumber", orderNumber);
+        message.put("userId", userId != null ? userId : "");
+        message.put("totalAmount", totalAmount != null ? totalAmount : "0.0");
+        message.put("items", lines);
+
+        try {
+            OutboxEvent event = OutboxEvent.builder()
+                .topic("inventory.reserved")
+                .key(orderNumber)
+                .payload(objectMapper.writeValueAsString(message))
+                .build();
+            outboxRepository.save(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize inventory.reserved event for order: " + orderNumber, e);
+        }
+    }
+
     @Override
     public void releaseReservationByOrder(String orderNumber) {
         log.info("Releasing all reservations for order: {}", orderNumber);
-        
+        expiryWheel.cancel(orderNumber);
+        if (!releaseOrder(orderNumber, null, "Order cancelled: ")) {
+            log.info("No reservations found to release for order: {}", orderNumber);
+        }
+    }
+
+    @Override
+    public int releaseExpiredReservations(Collection<String> orderNumbers) {
+        LocalDateTime now = LocalDateTime.now();
+        int released = 0;
+        for (String orderNumber : orderNumbers) {
+            try {
+                if (releaseOrder(orderNumber, now, "Reservation expired: ")) {
+                    released++;
+                }
+            } catch (Exception e) {
+                // Left in place; the overdue sweep retries it
+                log.warn("Failed to release expired reservations for order: {}", orderNumber, e);
+            }
+        }
+        return released;
+    }
+
+    @Override
+    @Transactional
+    public void confirmReservationsByOrder(String orderNumber) {
+        int confirmed = orderReservationRepository.clearExpiry(orderNumber);
+        expiryWheel.cancel(orderNumber);
+        log.info("Confirmed {} reservations for order: {}", confirmed, orderNumber);
+    }
+
+    /**
+     * Release an order's reservations. Reservations are re-read inside the locks so a concurrent
+     * release (another instance's expiry timer, a duplicate cancel event) finds nothing left to do.
+     * The work is set-based so the number of statements does not grow with the order's line count:
+     * the items are read and locked with one query each, reserved quantities are flushed as one
+     * JDBC batch, and movements and outbox rows are batch-inserted.
+     * @param expiredBefore when set, only reservations that expired by then are released
+     * @return true if anything was released
+     */
+    private boolean releaseOrder(String orderNumber, LocalDateTime expiredBefore, String reason) {
         List<OrderReservation> reservations = orderReservationRepository.findByOrderNumber(orderNumber);
         if (reservations.isEmpty()) {
-            log.info("No reservations found to release for order: {}", orderNumber);
-            return;
+            return false;
         }
-        
+
+        Set<Long> itemIds = reservations.stream()
+            .map(OrderReservation::getInventoryItemId)
+            .collect(Collectors.toSet());
+
         // Extract all SKUs and sort them to prevent deadlocks
-        List<String> skus = reservations.stream()
-            .map(r -> {
-                InventoryItem item = inventoryRepository.findById(r.getInventoryItemId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                        "Inventory item not found: " + r.getInventoryItemId()));
-                return item.getSku();
-            })
+        List<String> skus = inventoryRepository.findAllById(itemIds).stream()
+            .map(InventoryItem::getSku)
             .distinct()
             .sorted()
             .collect(Collectors.toList());
-        
-        distributedLockUtil.executeWithLocks(skus, () -> {
+
+        return distributedLockUtil.executeWithLocks(skus, () -> {
             return executeInTransaction(status -> {
-                for (OrderReservation reservation : reservations) {
-                    InventoryItem item = inventoryRepository.findById(reservation.getInventoryItemId())
-                        .orElseThrow(() -> new IllegalArgumentException(
-                            "Inventory item not found: " + reservation.getInventoryItemId()));
-                    
-                    InventoryItem currentItem = inventoryRepository.findBySkuWithLock(item.getSku())
-                        .orElseThrow();
-                    
-                    int newReserved = Math.max(0, 
-                        currentItem.getReservedQuantity() - reservation.getQuantityReserved());
-                    currentItem.setReservedQuantity(newReserved);
-                    updateStatus(currentItem);
-                    
-                    inventoryRepository.save(currentItem);
-                    
-                    recordMovement(item.getId(), StockMovement.MovementType.RESERVATION_RELEASE, 
-                        reservation.getQuantityReserved(), "Order cancelled: " + orderNumber, null);
-                    
-                    publishEvent("inventory.reservation.released", item.getSku(), 
-                        reservation.getQuantityReserved(), orderNumber);
-                    
-                    log.info("Inventory released for order {}: {} x {}", orderNumber, item.getSku(), 
-                        reservation.getQuantityReserved());
+                List<OrderReservation> releasable = orderReservationRepository.findByOrderNumber(orderNumber).stream()
+                    .filter(r -> expiredBefore == null
+                        || (r.getExpiresAt() != null && !r.getExpiresAt().isAfter(expiredBefore)))
+                    .collect(Collectors.toList());
+                if (releasable.isEmpty()) {
+                    return false;
                 }
-                
-                orderReservationRepository.deleteByOrderNumber(orderNumber);
-                return null;
+
+                Map<Long, InventoryItem> itemsById = inventoryRepository.findAllByIdInWithLock(
+                        releasable.stream().map(OrderReservation::getInventoryItemId).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(InventoryItem::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+
+                // Several lines of one order can hit the same row or shard; release each once
+                Map<Long, Integer> releasedByItem = new LinkedHashMap<>();
+                Map<Long, Map<Integer, Integer>> releasedByShard = new LinkedHashMap<>();
+                for (OrderReservation reservation : releasable) {
+                    InventoryItem item = itemsById.get(reservation.getInventoryItemId());
+                    if (item == null) {
+                        throw new IllegalArgumentException("Inventory item not found: " + reservation.getInventoryItemId());
+                    }
+                    if (reservation.getShardIndex() != null && item.isSharded()) {
+                        releasedByShard.computeIfAbsent(item.getId(), k -> new TreeMap<>())
+                            .merge(reservation.getShardIndex(), reservation.getQuantityReserved(), Integer::sum);
+                    } else {
+                        releasedByItem.merge(item.getId(), reservation.getQuantityReserved(), Integer::sum);
+                    }
+                }
+
+                releasedByShard.forEach((itemId, byShard) -> {
+                    String sku = itemsById.get(itemId).getSku();
+                    byShard.forEach((shardIndex, quantity) -> shardManager.release(sku, shardIndex, quantity));
+                });
+
+                List<InventoryItem> updated = new ArrayList<>(releasedByItem.size());
+                releasedByItem.forEach((itemId, quantity) -> {
+                    InventoryItem item = itemsById.get(itemId);
+                    item.setReservedQuantity(Math.max(0, item.getReservedQuantity() - quantity));
+                    updateStatus(item);
+                    updated.add(item);
+                });
+                inventoryRepository.saveAll(updated);
+
+                List<OutboxEvent> events = new ArrayList<>(releasable.size() + itemsById.size());
+                for (OrderReservation reservation : releasable) {
+                    InventoryItem item = itemsById.get(reservation.getInventoryItemId());
+                    recordMovement(item.getId(), StockMovement.MovementType.RESERVATION_RELEASE,
+                        reservation.getQuantityReserved(), reason + orderNumber, null);
+                    events.add(stockEvent("inventory.reservation.released", item.getSku(),
+                        reservation.getQuantityReserved(), orderNumber));
+                }
+                for (InventoryItem item : itemsById.values()) {
+                    events.add(availabilitySnapshot.event(item.getSku(), freeQuantity(item)));
+                }
+                outboxRepository.batchInsert(events);
+
+                orderReservationRepository.deleteAllInBatch(releasable);
+                log.info("Released {} reservations across {} SKUs for order {}", releasable.size(),
+                    itemsById.size(), orderNumber);
+                return true;
             });
         });
     }
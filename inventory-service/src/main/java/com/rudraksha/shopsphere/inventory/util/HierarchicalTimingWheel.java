@@ -0,0 +1,146 @@
+package com.rudraksha.shopsphere.inventory.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel: O(1) schedule and cancel, and advancing the clock only touches the
+ * buckets whose tick has come, so cost is independent of how many timers are outstanding.
+ * Level 0 has {@code wheelSize} buckets of {@code tickMs}; each higher level's tick is the full span
+ * of the level below and is created on demand. When a higher-level bucket comes due its timers are
+ * re-inserted and cascade down to finer levels until they expire.
+ * Each key has at most one timer; scheduling a key again replaces its deadline.
+ * Not thread-safe: callers must synchronize.
+ */
+public class HierarchicalTimingWheel<K> {
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level> levels = new ArrayList<>();
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private final List<Timer<K>> expired = new ArrayList<>();
+    private long currentTime;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize at least 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        levels.add(new Level(tickMs));
+    }
+
+    /**
+     * Schedule or reschedule the key. Deadlines are rounded up to the next tick, so a key is never
+     * returned before its deadline; one already due is returned by the next {@link #advance} call.
+     */
+    public void schedule(K key, long deadlineMs) {
+        Timer<K> previous = timers.get(key);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        long dueMs = Math.floorDiv(deadlineMs + tickMs - 1, tickMs) * tickMs;
+        Timer<K> timer = new Timer<>(key, dueMs);
+        timers.put(key, timer);
+        insert(timer);
+    }
+
+    /**
+     * @return true if the key had a pending timer
+     */
+    public boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.cancelled = true;
+        return true;
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Move the clock forward to {@code nowMs} one tick at a time.
+     * @return keys whose deadline has passed, in no particular order
+     */
+    public List<K> advance(long nowMs) {
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // Coarse levels first so their timers cascade into buckets flushed later in this tick
+            for (int i = levels.size() - 1; i >= 0; i--) {
+                Level level = levels.get(i);
+                if (currentTime % level.tickMs == 0) {
+                    int index = (int) ((currentTime / level.tickMs) % wheelSize);
+                    ArrayDeque<Timer<K>> bucket = level.buckets[index];
+                    if (!bucket.isEmpty()) {
+                        level.buckets[index] = new ArrayDeque<>();
+                        for (Timer<K> timer : bucket) {
+                            if (!timer.cancelled) {
+                                insert(timer);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        List<K> due = new ArrayList<>(expired.size());
+        for (Timer<K> timer : expired) {
+            // Cancelled or rescheduled after it expired but before this call
+            if (!timer.cancelled) {
+                timers.remove(timer.key);
+                due.add(timer.key);
+            }
+        }
+        expired.clear();
+        return due;
+    }
+
+    private void insert(Timer<K> timer) {
+        if (timer.dueMs <= currentTime) {
+            expired.add(timer);
+            return;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                levels.add(new Level(levels.get(i - 1).tickMs * wheelSize));
+            }
+            Level level = levels.get(i);
+            long levelStart = currentTime - (currentTime % level.tickMs);
+            if (timer.dueMs < levelStart + level.tickMs * wheelSize) {
+                int index = (int) ((timer.dueMs / level.tickMs) % wheelSize);
+                level.buckets[index].add(timer);
+                return;
+            }
+        }
+    }
+
+    private final class Level {
+        private final long tickMs;
+        private final ArrayDeque<Timer<K>>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMs) {
+            this.tickMs = tickMs;
+            this.buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    private static final class Timer<K> {
+        private final K key;
+        private final long dueMs;
+        private boolean cancelled;
+
+        private Timer(K key, long dueMs) {
+            this.key = key;
+            this.dueMs = dueMs;
+        }
+    }
+}
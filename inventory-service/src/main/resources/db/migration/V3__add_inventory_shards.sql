@@ -0,0 +1,19 @@
+-- Optional stock sharding for hot SKUs
+ALTER TABLE inventory_items ADD COLUMN IF NOT EXISTS shard_count INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS inventory_shards (
+    id BIGSERIAL PRIMARY KEY,
+    inventory_item_id BIGINT NOT NULL,
+    sku VARCHAR(255) NOT NULL,
+    shard_index INTEGER NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    reserved_quantity INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_inventory_shard UNIQUE (sku, shard_index),
+    FOREIGN KEY (inventory_item_id) REFERENCES inventory_items(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_shard_item ON inventory_shards(inventory_item_id);
+
+-- Remember which shard a reservation came from so it can be released to the same shard
+ALTER TABLE order_reservations ADD COLUMN IF NOT EXISTS shard_index INTEGER;
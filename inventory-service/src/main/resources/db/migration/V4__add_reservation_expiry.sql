@@ -0,0 +1,5 @@
+-- Reservations expire unless the order's payment succeeds first; NULL never expires
+ALTER TABLE order_reservations ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_order_reservation_expires_at
+    ON order_reservations(expires_at) WHERE expires_at IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Rebuilds of the low-stock / out-of-stock index only read the few rows in those states
+CREATE INDEX IF NOT EXISTS idx_inventory_items_low_status
+    ON inventory_items(status) WHERE status IN ('LOW_STOCK', 'OUT_OF_STOCK');
@@ -0,0 +1,128 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
+import com.rudraksha.shopsphere.inventory.entity.InventoryShard;
+import com.rudraksha.shopsphere.inventory.repository.InventoryItemRepository;
+import com.rudraksha.shopsphere.inventory.repository.InventoryShardRepository;
+import com.rudraksha.shopsphere.inventory.repository.OrderReservationRepository;
+import com.rudraksha.shopsphere.inventory.util.DistributedLockUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryShardManagerTest {
+
+    @Mock
+    private InventoryItemRepository inventoryRepository;
+    @Mock
+    private InventoryShardRepository shardRepository;
+    @Mock
+    private OrderReservationRepository orderReservationRepository;
+    @Mock
+    private DistributedLockUtil distributedLockUtil;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private AvailabilitySnapshot availabilitySnapshot;
+    @Captor
+    private ArgumentCaptor<List<InventoryShard>> shardsCaptor;
+
+    @InjectMocks
+    private InventoryShardManager shardManager;
+
+    private InventoryItem item;
+    private String sku = "SKU-HOT";
+
+    @BeforeEach
+    void setUp() {
+        item = InventoryItem.builder()
+                .id(1L)
+                .sku(sku)
+                .productId("PROD-HOT")
+                .quantity(103)
+                .reservedQuantity(3)
+                .reorderLevel(10)
+                .shardCount(0)
+                .status(InventoryItem.InventoryStatus.AVAILABLE)
+                .build();
+    }
+
+    @Test
+    void reshard_SpreadsFreeStockEvenly() {
+        when(shardRepository.findBySkuWithLock(sku)).thenReturn(List.of());
+
+        shardManager.reshard(item, 4);
+
+        verify(shardRepository).saveAll(shardsCaptor.capture());
+        List<InventoryShard> shards = shardsCaptor.getValue();
+        assertEquals(4, shards.size());
+        shards.forEach(shard -> assertEquals(25, shard.getQuantity()));
+        assertEquals(3, item.getQuantity());
+        assertEquals(3, item.getReservedQuantity());
+        assertTrue(shardManager.isSharded(sku));
+    }
+
+    @Test
+    void reserve_FragmentedStock_ConsolidatesIntoItemRow() {
+        ReflectionTestUtils.setField(shardManager, "shardCounts", Map.of(sku, 2));
+        item.setQuantity(0);
+        item.setReservedQuantity(0);
+        InventoryShard first = shard(0, 10, 8);
+        InventoryShard second = shard(1, 10, 7);
+
+        when(shardRepository.reserveIfAvailable(eq(sku), anyInt(), eq(4))).thenReturn(0);
+        when(inventoryRepository.reserveIfAvailable(eq(sku), eq(4), any())).thenReturn(0);
+        when(inventoryRepository.findBySkuWithLock(sku)).thenReturn(Optional.of(item));
+        when(shardRepository.findBySkuWithLock(sku)).thenReturn(List.of(first, second));
+
+        assertNull(shardManager.reserve(sku, 4));
+
+        assertEquals(5, item.getQuantity());
+        assertEquals(4, item.getReservedQuantity());
+        assertEquals(8, first.getQuantity());
+        assertEquals(7, second.getQuantity());
+    }
+
+    @Test
+    void reserve_InsufficientAcrossAllShards_Throws() {
+        ReflectionTestUtils.setField(shardManager, "shardCounts", Map.of(sku, 2));
+        item.setQuantity(0);
+        item.setReservedQuantity(0);
+
+        when(shardRepository.reserveIfAvailable(eq(sku), anyInt(), eq(6))).thenReturn(0);
+        when(inventoryRepository.reserveIfAvailable(eq(sku), eq(6), any())).thenReturn(0);
+        when(inventoryRepository.findBySkuWithLock(sku)).thenReturn(Optional.of(item));
+        when(shardRepository.findBySkuWithLock(sku)).thenReturn(List.of(shard(0, 10, 8), shard(1, 10, 7)));
+
+        assertThrows(IllegalArgumentException.class, () -> shardManager.reserve(sku, 6));
+        verify(inventoryRepository, never()).save(any());
+    }
+
+    private InventoryShard shard(int index, int quantity, int reserved) {
+        return InventoryShard.builder()
+                .inventoryItemId(1L)
+                .sku(sku)
+                .shardIndex(index)
+                .quantity(quantity)
+                .reservedQuantity(reserved)
+                .build();
+    }
+}
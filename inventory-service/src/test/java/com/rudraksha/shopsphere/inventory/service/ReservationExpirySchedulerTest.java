@@ -0,0 +1,73 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.repository.OrderReservationRepository;
+import com.rudraksha.shopsphere.inventory.repository.PendingExpiry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpirySchedulerTest {
+
+    @Mock
+    private ReservationExpiryWheel expiryWheel;
+    @Mock
+    private InventoryService inventoryService;
+    @Mock
+    private OrderReservationRepository orderReservationRepository;
+
+    @InjectMocks
+    private ReservationExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "batchSize", 2);
+        ReflectionTestUtils.setField(scheduler, "sweepGrace", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void reloadPendingExpiries_PagesThroughAllOrders() {
+        LocalDateTime deadline = LocalDateTime.now().plusMinutes(10);
+        when(orderReservationRepository.findPendingExpiries("", 2))
+                .thenReturn(List.of(new PendingExpiry("ORD-1", deadline), new PendingExpiry("ORD-2", deadline)));
+        when(orderReservationRepository.findPendingExpiries("ORD-2", 2))
+                .thenReturn(List.of(new PendingExpiry("ORD-3", deadline)));
+
+        scheduler.reloadPendingExpiries();
+
+        verify(expiryWheel).schedule("ORD-1", deadline);
+        verify(expiryWheel).schedule("ORD-2", deadline);
+        verify(expiryWheel).schedule("ORD-3", deadline);
+        verify(orderReservationRepository, times(2)).findPendingExpiries(any(), anyInt());
+    }
+
+    @Test
+    void releaseExpired_ReleasesDueOrdersInBatches() {
+        when(expiryWheel.pollExpired()).thenReturn(List.of("ORD-1", "ORD-2", "ORD-3"));
+
+        scheduler.releaseExpired();
+
+        verify(inventoryService).releaseExpiredReservations(List.of("ORD-1", "ORD-2"));
+        verify(inventoryService).releaseExpiredReservations(List.of("ORD-3"));
+    }
+
+    @Test
+    void releaseExpired_NothingDue_DoesNotTouchInventory() {
+        when(expiryWheel.pollExpired()).thenReturn(List.of());
+
+        scheduler.releaseExpired();
+
+        verifyNoInteractions(inventoryService);
+    }
+}
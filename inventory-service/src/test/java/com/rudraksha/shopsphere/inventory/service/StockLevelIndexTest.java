@@ -0,0 +1,109 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
+import com.rudraksha.shopsphere.inventory.entity.OutboxEvent;
+import com.rudraksha.shopsphere.inventory.repository.InventoryItemRepository;
+import com.rudraksha.shopsphere.inventory.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLevelIndexTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private SetOperations<String, String> setOperations;
+    @Mock
+    private InventoryItemRepository inventoryRepository;
+    @Mock
+    private OutboxEventRepository outboxRepository;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private StockLevelIndex stockLevelIndex;
+
+    private InventoryItem item;
+
+    @BeforeEach
+    void setUp() {
+        item = InventoryItem.builder()
+                .id(7L)
+                .sku("SKU-7")
+                .productId("PROD-7")
+                .quantity(0)
+                .reservedQuantity(0)
+                .reorderLevel(10)
+                .status(InventoryItem.InventoryStatus.OUT_OF_STOCK)
+                .build();
+    }
+
+    @Test
+    void onStatusChange_OutOfStock_AddsToBothSetsAndPublishesEvent() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        stockLevelIndex.onStatusChange(item, InventoryItem.InventoryStatus.LOW_STOCK, 0);
+
+        verify(setOperations).add(StockLevelIndex.LOW_STOCK_KEY, "7");
+        verify(setOperations).add(StockLevelIndex.OUT_OF_STOCK_KEY, "7");
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(event.capture());
+        assertEquals(StockLevelIndex.TOPIC, event.getValue().getTopic());
+        assertEquals("SKU-7", event.getValue().getKey());
+        assertTrue(event.getValue().getPayload().contains("\"previousStatus\":\"LOW_STOCK\""));
+    }
+
+    @Test
+    void onStatusChange_Replenished_RemovesFromBothSets() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        item.setQuantity(50);
+        item.setStatus(InventoryItem.InventoryStatus.AVAILABLE);
+
+        stockLevelIndex.onStatusChange(item, InventoryItem.InventoryStatus.OUT_OF_STOCK, 50);
+
+        verify(setOperations).remove(StockLevelIndex.LOW_STOCK_KEY, "7");
+        verify(setOperations).remove(StockLevelIndex.OUT_OF_STOCK_KEY, "7");
+        verifyNoMoreInteractions(setOperations);
+    }
+
+    @Test
+    void rebuild_SwapsInSetsFromStatusColumn() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(inventoryRepository.findIdsByStatusIn(List.of(
+                InventoryItem.InventoryStatus.LOW_STOCK, InventoryItem.InventoryStatus.OUT_OF_STOCK)))
+                .thenReturn(List.of(1L, 2L));
+        when(inventoryRepository.findIdsByStatusIn(List.of(InventoryItem.InventoryStatus.OUT_OF_STOCK)))
+                .thenReturn(List.of());
+
+        stockLevelIndex.rebuild();
+
+        verify(setOperations).add(startsWith(StockLevelIndex.LOW_STOCK_KEY + ":rebuild:"), eq("1"), eq("2"));
+        verify(redisTemplate).rename(startsWith(StockLevelIndex.LOW_STOCK_KEY + ":rebuild:"), eq(StockLevelIndex.LOW_STOCK_KEY));
+        verify(redisTemplate).delete(StockLevelIndex.OUT_OF_STOCK_KEY);
+    }
+
+    @Test
+    void getLowStockIds_ParsesMembers() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members(StockLevelIndex.LOW_STOCK_KEY)).thenReturn(Set.of("1", "2"));
+
+        assertEquals(Set.of(1L, 2L), stockLevelIndex.getLowStockIds());
+    }
+}
@@ -0,0 +1,111 @@
+package com.rudraksha.shopsphere.inventory.service;
+
+import com.rudraksha.shopsphere.inventory.entity.StockMovement;
+import com.rudraksha.shopsphere.inventory.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockMovementLedgerTest {
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    @InjectMocks
+    private StockMovementLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledger, "batchSize", 3);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void append_BuffersUntilCommit() {
+        ledger.append(movement(1L));
+        ledger.append(movement(2L));
+
+        verify(movementRepository, never()).batchInsert(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        verify(movementRepository).batchInsert(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    void append_FlushesWhenBatchSizeReached() {
+        for (long i = 1; i <= 4; i++) {
+            ledger.append(movement(i));
+        }
+        verify(movementRepository).batchInsert(argThat(list -> list.size() == 3));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        verify(movementRepository).batchInsert(argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    void append_SingleLineOperation_WritesOneStatement() {
+        ledger.append(movement(1L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        // Same count as the per-row save it replaced: buffering only pays off across lines
+        verify(movementRepository, times(1)).batchInsert(argThat(list -> list.size() == 1));
+        verify(movementRepository, never()).save(any());
+    }
+
+    @Test
+    void append_MultiLineOperation_WritesOneStatementInsteadOfOnePerLine() {
+        ReflectionTestUtils.setField(ledger, "batchSize", 500);
+        int lines = 50;
+        for (long i = 1; i <= lines; i++) {
+            ledger.append(movement(i));
+        }
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        verify(movementRepository, times(1)).batchInsert(argThat(list -> list.size() == lines));
+        verify(movementRepository, never()).save(any());
+    }
+
+    @Test
+    void append_RolledBackTransactionWritesNothing() {
+        ledger.append(movement(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(movementRepository);
+    }
+
+    private StockMovement movement(Long itemId) {
+        return StockMovement.builder()
+                .inventoryItemId(itemId)
+                .movementType(StockMovement.MovementType.RESERVATION)
+                .quantity(1)
+                .reference("REF")
+                .build();
+    }
+}
@@ -1,28 +1,50 @@
 package com.rudraksha.shopsphere.inventory.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.inventory.dto.request.AdjustInventoryRequest;
+import com.rudraksha.shopsphere.inventory.dto.request.AvailabilityCheckRequest;
 import com.rudraksha.shopsphere.inventory.dto.request.CreateInventoryRequest;
 import com.rudraksha.shopsphere.inventory.dto.request.ReserveInventoryRequest;
+import com.rudraksha.shopsphere.inventory.dto.request.ReserveOrderItemRequest;
+import com.rudraksha.shopsphere.inventory.dto.response.AvailabilityResponse;
 import com.rudraksha.shopsphere.inventory.dto.response.InventoryResponse;
 import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
+import com.rudraksha.shopsphere.inventory.entity.OrderReservation;
 import com.rudraksha.shopsphere.inventory.repository.InventoryItemRepository;
 import com.rudraksha.shopsphere.inventory.repository.OrderReservationRepository;
 import com.rudraksha.shopsphere.inventory.repository.OutboxEventRepository;
 import com.rudraksha.shopsphere.inventory.repository.StockMovementRepository;
+import com.rudraksha.shopsphere.inventory.repository.StockTotals;
+import com.rudraksha.shopsphere.inventory.service.AvailabilitySnapshot;
+import com.rudraksha.shopsphere.inventory.service.InventoryShardManager;
+import com.rudraksha.shopsphere.inventory.service.ReservationExpiryWheel;
+import com.rudraksha.shopsphere.inventory.service.ReservationMode;
+import com.rudraksha.shopsphere.inventory.service.StockLevelIndex;
+import com.rudraksha.shopsphere.inventory.service.StockMovementLedger;
 import com.rudraksha.shopsphere.inventory.util.DistributedLockUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.support.TransactionCallback;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +62,18 @@ class InventoryServiceImplTest {
     private DistributedLockUtil distributedLockUtil;
     @Mock
     private PlatformTransactionManager transactionManager;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock
+    private InventoryShardManager shardManager;
+    @Mock
+    private StockMovementLedger movementLedger;
+    @Mock
+    private AvailabilitySnapshot availabilitySnapshot;
+    @Mock
+    private ReservationExpiryWheel expiryWheel;
+    @Mock
+    private StockLevelIndex stockLevelIndex;
 
     @InjectMocks
     private InventoryServiceImpl inventoryService;
@@ -49,6 +83,7 @@ class InventoryServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(inventoryService, "reservationTtl", Duration.ofMinutes(30));
         inventoryItem = InventoryItem.builder()
                 .id(1L)
                 .sku(sku)
@@ -75,7 +110,7 @@ class InventoryServiceImplTest {
         assertNotNull(response);
         assertEquals(sku, response.getSku());
         verify(inventoryRepository).save(any(InventoryItem.class));
-        verify(movementRepository).save(any());
+        verify(movementLedger).append(any());
     }
 
     @Test
@@ -101,4 +136,222 @@ class InventoryServiceImplTest {
 
         assertFalse(inventoryService.checkAvailability(sku, 150));
     }
+
+    @Test
+    void reserveInventory_AtomicMode_SkipsLocks() {
+        ReflectionTestUtils.setField(inventoryService, "reservationMode", ReservationMode.ATOMIC);
+        ReserveInventoryRequest request = new ReserveInventoryRequest(sku, 5, "REF-1");
+
+        when(inventoryRepository.reserveIfAvailable(eq(sku), eq(5), any())).thenReturn(1);
+        when(inventoryRepository.findBySku(sku)).thenReturn(Optional.of(inventoryItem));
+
+        InventoryResponse response = inventoryService.reserveInventory(request);
+
+        assertEquals(sku, response.getSku());
+        verifyNoInteractions(distributedLockUtil);
+        verify(inventoryRepository, never()).findBySkuWithLock(any());
+        verify(movementLedger).append(any());
+        verify(outboxRepository).save(any());
+    }
+
+    @Test
+    void reserveInventory_AtomicMode_InsufficientStock() {
+        ReflectionTestUtils.setField(inventoryService, "reservationMode", ReservationMode.ATOMIC);
+        ReserveInventoryRequest request = new ReserveInventoryRequest(sku, 500, "REF-1");
+
+        when(inventoryRepository.reserveIfAvailable(eq(sku), eq(500), any())).thenReturn(0);
+        when(inventoryRepository.findBySku(sku)).thenReturn(Optional.of(inventoryItem));
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveInventory(request));
+        verifyNoInteractions(movementLedger, outboxRepository);
+    }
+
+    @Test
+    void reserveOrder_ReservesAllSkusInOneTransaction() {
+        InventoryItem other = InventoryItem.builder()
+                .id(2L)
+                .sku("SKU-456")
+                .productId("PROD-456")
+                .quantity(20)
+                .reservedQuantity(0)
+                .availableQuantity(20)
+                .reorderLevel(5)
+                .status(InventoryItem.InventoryStatus.AVAILABLE)
+                .build();
+        List<ReserveOrderItemRequest> items = List.of(
+                new ReserveOrderItemRequest("SKU-456", 2),
+                new ReserveOrderItemRequest(sku, 3),
+                new ReserveOrderItemRequest(sku, 4));
+
+        when(distributedLockUtil.executeWithLocks(any(), any()))
+                .thenAnswer(inv -> ((DistributedLockUtil.LockCallback<?>) inv.getArgument(1)).execute());
+        when(inventoryRepository.findAllBySkuInWithLock(List.of(sku, "SKU-456")))
+                .thenReturn(List.of(inventoryItem, other));
+
+        List<InventoryResponse> responses = inventoryService.reserveOrder("ORD-1", items);
+
+        assertEquals(2, responses.size());
+        assertEquals(7, inventoryItem.getReservedQuantity());
+        assertEquals(2, other.getReservedQuantity());
+        verify(distributedLockUtil).executeWithLocks(eq(List.of(sku, "SKU-456")), any());
+        verify(orderReservationRepository).batchInsert(argThat(list -> list.size() == 2));
+        verify(outboxRepository, times(1)).save(any());
+        verify(availabilitySnapshot).publish(sku, 93);
+        verify(orderReservationRepository).batchInsert(argThat(list -> list.stream().allMatch(r -> r.getExpiresAt() != null)));
+        verify(expiryWheel).schedule(eq("ORD-1"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void reserveOrder_InsufficientStock_ReservesNothing() {
+        List<ReserveOrderItemRequest> items = List.of(new ReserveOrderItemRequest(sku, 500));
+
+        when(distributedLockUtil.executeWithLocks(any(), any()))
+                .thenAnswer(inv -> ((DistributedLockUtil.LockCallback<?>) inv.getArgument(1)).execute());
+        when(inventoryRepository.findAllBySkuInWithLock(List.of(sku))).thenReturn(List.of(inventoryItem));
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveOrder("ORD-1", items));
+        assertEquals(0, inventoryItem.getReservedQuantity());
+        verify(orderReservationRepository, never()).batchInsert(any());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void reserveInventory_ShardedSku_ReservesFromShardWithoutLock() {
+        inventoryItem.setShardCount(4);
+        ReserveInventoryRequest request = new ReserveInventoryRequest(sku, 5, "REF-1");
+
+        when(shardManager.isSharded(sku)).thenReturn(true);
+        when(shardManager.reserve(sku, 5)).thenReturn(2);
+        when(inventoryRepository.findBySku(sku)).thenReturn(Optional.of(inventoryItem));
+        when(inventoryRepository.findStockTotals(1L)).thenReturn(stockTotals(100L, 5L));
+
+        InventoryResponse response = inventoryService.reserveInventory(request);
+
+        assertEquals(100, response.getQuantity());
+        assertEquals(95, response.getAvailableQuantity());
+        verifyNoInteractions(distributedLockUtil);
+        verify(inventoryRepository, never()).findBySkuWithLock(any());
+    }
+
+    @Test
+    void checkAvailability_ShardedSku_UsesTotalsAcrossShards() {
+        inventoryItem.setShardCount(4);
+        inventoryItem.setQuantity(0);
+        when(inventoryRepository.findBySku(sku)).thenReturn(Optional.of(inventoryItem));
+        when(inventoryRepository.findStockTotals(1L)).thenReturn(stockTotals(80L, 20L));
+
+        assertTrue(inventoryService.checkAvailability(sku, 60));
+        assertFalse(inventoryService.checkAvailability(sku, 61));
+    }
+
+    @Test
+    void releaseExpiredReservations_ReleasesOnlyExpiredReservations() {
+        inventoryItem.setReservedQuantity(10);
+        OrderReservation expired = OrderReservation.builder()
+                .orderNumber("ORD-1")
+                .inventoryItemId(1L)
+                .quantityReserved(4)
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+        OrderReservation paid = OrderReservation.builder()
+                .orderNumber("ORD-2")
+                .inventoryItemId(1L)
+                .quantityReserved(6)
+                .build();
+
+        when(orderReservationRepository.findByOrderNumber("ORD-1")).thenReturn(List.of(expired));
+        when(orderReservationRepository.findByOrderNumber("ORD-2")).thenReturn(List.of(paid));
+        when(inventoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(inventoryItem));
+        when(inventoryRepository.findAllByIdInWithLock(Set.of(1L))).thenReturn(List.of(inventoryItem));
+        when(distributedLockUtil.executeWithLocks(any(), any()))
+                .thenAnswer(inv -> ((DistributedLockUtil.LockCallback<?>) inv.getArgument(1)).execute());
+
+        int released = inventoryService.releaseExpiredReservations(List.of("ORD-1", "ORD-2"));
+
+        assertEquals(1, released);
+        assertEquals(6, inventoryItem.getReservedQuantity());
+        verify(orderReservationRepository).deleteAllInBatch(List.of(expired));
+        verify(orderReservationRepository, never()).deleteAllInBatch(List.of(paid));
+        verify(outboxRepository).batchInsert(argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void confirmReservationsByOrder_StopsExpiry() {
+        when(orderReservationRepository.clearExpiry("ORD-1")).thenReturn(2);
+
+        inventoryService.confirmReservationsByOrder("ORD-1");
+
+        verify(orderReservationRepository).clearExpiry("ORD-1");
+        verify(expiryWheel).cancel("ORD-1");
+    }
+
+    @Test
+    void adjustInventory_BelowReorderLevel_RecordsTransition() {
+        AdjustInventoryRequest request = new AdjustInventoryRequest(-95, "Damaged", null);
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(inventoryItem));
+        when(distributedLockUtil.executeWithLock(eq(sku), any()))
+                .thenAnswer(inv -> ((DistributedLockUtil.LockCallback<?>) inv.getArgument(1)).execute());
+        when(inventoryRepository.findBySkuWithLock(sku)).thenReturn(Optional.of(inventoryItem));
+        when(inventoryRepository.save(inventoryItem)).thenReturn(inventoryItem);
+
+        inventoryService.adjustInventory(1L, request);
+
+        assertEquals(InventoryItem.InventoryStatus.LOW_STOCK, inventoryItem.getStatus());
+        verify(stockLevelIndex).onStatusChange(inventoryItem, InventoryItem.InventoryStatus.AVAILABLE, 5L);
+    }
+
+    @Test
+    void getLowStockItems_ServedFromIndex() {
+        when(stockLevelIndex.getLowStockIds()).thenReturn(Set.of(1L));
+        when(inventoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(inventoryItem));
+
+        List<InventoryResponse> responses = inventoryService.getLowStockItems();
+
+        assertEquals(1, responses.size());
+        assertEquals(sku, responses.get(0).getSku());
+    }
+
+    @Test
+    void checkAvailabilityBatch_QueriesOnlySnapshotMisses() {
+        InventoryItem other = InventoryItem.builder()
+                .id(2L)
+                .sku("SKU-456")
+                .quantity(10)
+                .reservedQuantity(8)
+                .reorderLevel(5)
+                .status(InventoryItem.InventoryStatus.AVAILABLE)
+                .build();
+        List<AvailabilityCheckRequest> items = List.of(
+                new AvailabilityCheckRequest(sku, 40),
+                new AvailabilityCheckRequest("SKU-456", 3),
+                new AvailabilityCheckRequest("SKU-999", 1));
+
+        when(availabilitySnapshot.get(sku)).thenReturn(OptionalInt.of(50));
+        when(inventoryRepository.findAllBySkuIn(Set.of("SKU-456", "SKU-999"))).thenReturn(List.of(other));
+
+        List<AvailabilityResponse> responses = inventoryService.checkAvailability(items);
+
+        assertTrue(responses.get(0).isAvailable());
+        assertEquals(50, responses.get(0).getAvailableQuantity());
+        assertFalse(responses.get(1).isAvailable());
+        assertEquals(2, responses.get(1).getAvailableQuantity());
+        assertFalse(responses.get(2).isAvailable());
+        verify(availabilitySnapshot).seed("SKU-456", 2);
+        verify(inventoryRepository, never()).findBySku(any());
+    }
+
+    private StockTotals stockTotals(Long quantity, Long reserved) {
+        return new StockTotals() {
+            @Override
+            public Long getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Long getReservedQuantity() {
+                return reserved;
+            }
+        };
+    }
 }
@@ -0,0 +1,120 @@
+package com.rudraksha.shopsphere.inventory.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.inventory.entity.InventoryItem;
+import com.rudraksha.shopsphere.inventory.entity.OrderReservation;
+import com.rudraksha.shopsphere.inventory.repository.InventoryItemRepository;
+import com.rudraksha.shopsphere.inventory.repository.OrderReservationRepository;
+import com.rudraksha.shopsphere.inventory.repository.OutboxEventRepository;
+import com.rudraksha.shopsphere.inventory.repository.StockMovementRepository;
+import com.rudraksha.shopsphere.inventory.service.AvailabilitySnapshot;
+import com.rudraksha.shopsphere.inventory.service.InventoryShardManager;
+import com.rudraksha.shopsphere.inventory.service.ReservationExpiryWheel;
+import com.rudraksha.shopsphere.inventory.service.StockLevelIndex;
+import com.rudraksha.shopsphere.inventory.service.StockMovementLedger;
+import com.rudraksha.shopsphere.inventory.util.DistributedLockUtil;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Round-trip benchmark for releasing an order's reservations. The statement count against each
+ * repository must stay flat as the order grows; only the batch sizes scale with the line count.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReleaseReservationBenchmarkTest {
+
+    @Mock
+    private InventoryItemRepository inventoryRepository;
+    @Mock
+    private StockMovementRepository movementRepository;
+    @Mock
+    private OrderReservationRepository orderReservationRepository;
+    @Mock
+    private OutboxEventRepository outboxRepository;
+    @Mock
+    private DistributedLockUtil distributedLockUtil;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock
+    private InventoryShardManager shardManager;
+    @Mock
+    private StockMovementLedger movementLedger;
+    @Mock
+    private AvailabilitySnapshot availabilitySnapshot;
+    @Mock
+    private ReservationExpiryWheel expiryWheel;
+    @Mock
+    private StockLevelIndex stockLevelIndex;
+
+    @InjectMocks
+    private InventoryServiceImpl inventoryService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 500})
+    void releaseReservationByOrder_ConstantRoundTrips(int lines) {
+        String orderNumber = "ORD-BENCH-" + lines;
+        List<InventoryItem> items = new ArrayList<>(lines);
+        List<OrderReservation> reservations = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            long id = i + 1;
+            items.add(InventoryItem.builder()
+                    .id(id)
+                    .sku(String.format("SKU-%04d", i))
+                    .quantity(100)
+                    .reservedQuantity(10)
+                    .reorderLevel(5)
+                    .status(InventoryItem.InventoryStatus.AVAILABLE)
+                    .build());
+            reservations.add(OrderReservation.builder()
+                    .orderNumber(orderNumber)
+                    .inventoryItemId(id)
+                    .quantityReserved(3)
+                    .build());
+        }
+
+        when(orderReservationRepository.findByOrderNumber(orderNumber)).thenReturn(reservations);
+        when(inventoryRepository.findAllById(anyCollection())).thenReturn(items);
+        when(inventoryRepository.findAllByIdInWithLock(anyCollection())).thenReturn(items);
+        when(distributedLockUtil.executeWithLocks(any(), any()))
+                .thenAnswer(inv -> ((DistributedLockUtil.LockCallback<?>) inv.getArgument(1)).execute());
+
+        inventoryService.releaseReservationByOrder(orderNumber);
+
+        assertTrue(items.stream().allMatch(item -> item.getReservedQuantity() == 7));
+        verify(distributedLockUtil).executeWithLocks(argThat(skus -> skus.size() == lines), any());
+
+        // Two reads (unlocked SKU lookup, locked re-read) and one batched update, whatever the size
+        verify(inventoryRepository).findAllById(anyCollection());
+        verify(inventoryRepository).findAllByIdInWithLock(anyCollection());
+        verify(inventoryRepository).saveAll(argThat(saved -> ((List<?>) saved).size() == lines));
+        assertEquals(3, mockingDetails(inventoryRepository).getInvocations().size());
+
+        // One released event per line plus one availability event per SKU, in a single batch
+        verify(outboxRepository).batchInsert(argThat(events -> events.size() == 2 * lines));
+        verify(outboxRepository, never()).save(any());
+        assertEquals(1, mockingDetails(outboxRepository).getInvocations().size());
+        // Read before locking, re-read under the lock, one batched delete
+        verify(orderReservationRepository, times(2)).findByOrderNumber(orderNumber);
+        verify(orderReservationRepository).deleteAllInBatch(reservations);
+        assertEquals(3, mockingDetails(orderReservationRepository).getInvocations().size());
+        verify(movementLedger, times(lines)).append(any());
+    }
+}
@@ -0,0 +1,55 @@
+package com.rudraksha.shopsphere.inventory.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void advance_ReturnsKeysOnlyOnceTheirDeadlinePasses() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, START);
+        wheel.schedule("ORD-1", START + 2500);
+
+        assertTrue(wheel.advance(START + 2000).isEmpty());
+        assertEquals(List.of("ORD-1"), wheel.advance(START + 3000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_CascadesTimersFromOverflowLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 4, START);
+        // Beyond level 0 (4s) and level 1 (16s)
+        wheel.schedule("ORD-FAR", START + 40_000);
+        wheel.schedule("ORD-NEAR", START + 5_000);
+
+        assertEquals(List.of("ORD-NEAR"), wheel.advance(START + 20_000));
+        assertTrue(wheel.advance(START + 39_000).isEmpty());
+        assertEquals(List.of("ORD-FAR"), wheel.advance(START + 40_000));
+    }
+
+    @Test
+    void schedule_PastDeadline_ExpiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, START);
+        wheel.schedule("ORD-LATE", START - 60_000);
+
+        assertEquals(List.of("ORD-LATE"), wheel.advance(START));
+    }
+
+    @Test
+    void cancelAndReschedule_ReplacePendingTimer() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, START);
+        wheel.schedule("ORD-1", START + 2000);
+        wheel.schedule("ORD-2", START + 2000);
+        wheel.schedule("ORD-2", START + 9000);
+
+        assertTrue(wheel.cancel("ORD-1"));
+        assertFalse(wheel.cancel("ORD-1"));
+        assertTrue(wheel.advance(START + 5000).isEmpty());
+        assertEquals(List.of("ORD-2"), wheel.advance(START + 9000));
+    }
+}
@@ -2,6 +2,7 @@ package com.rudraksha.shopsphere.order.controller;
 
 import com.rudraksha.shopsphere.order.dto.request.CreateOrderRequest;
 import com.rudraksha.shopsphere.order.dto.response.OrderResponse;
+import com.rudraksha.shopsphere.order.dto.response.OrderSummaryResponse;
 import com.rudraksha.shopsphere.order.entity.Order;
 import com.rudraksha.shopsphere.order.service.OrderService;
 import jakarta.validation.Valid;
@@ -49,6 +50,16 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByStatus(status, pageable));
     }
 
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<Page<OrderSummaryResponse>> getOrderSummariesByUserId(@PathVariable String userId, Pageable pageable) {
+        return ResponseEntity.ok(orderService.getOrderSummariesByUserId(userId, pageable));
+    }
+
+    @GetMapping("/status/{status}/summary")
+    public ResponseEntity<Page<OrderSummaryResponse>> getOrderSummariesByStatus(@PathVariable Order.OrderStatus status, Pageable pageable) {
+        return ResponseEntity.ok(orderService.getOrderSummariesByStatus(status, pageable));
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<OrderResponse> updateOrderStatus(
             @PathVariable Long id,
@@ -67,4 +78,9 @@ public class OrderController {
     public ResponseEntity<Page<OrderResponse>> getAllOrders(Pageable pageable) {
         return ResponseEntity.ok(orderService.getAllOrders(pageable));
     }
+
+    @GetMapping("/summary")
+    public ResponseEntity<Page<OrderSummaryResponse>> getAllOrderSummaries(Pageable pageable) {
+        return ResponseEntity.ok(orderService.getAllOrderSummaries(pageable));
+    }
 }
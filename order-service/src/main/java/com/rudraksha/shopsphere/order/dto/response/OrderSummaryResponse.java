@@ -0,0 +1,28 @@
+package com.rudraksha.shopsphere.order.dto.response;
+
+import com.rudraksha.shopsphere.order.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An order without its lines, selected directly by OrderRepository; the field order is the
+ * constructor used by its queries.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummaryResponse {
+    private Long id;
+    private String orderNumber;
+    private String userId;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+}
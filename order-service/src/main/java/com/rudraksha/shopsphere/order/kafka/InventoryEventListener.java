@@ -2,8 +2,10 @@ package com.rudraksha.shopsphere.order.kafka;
 
 import com.rudraksha.shopsphere.order.entity.Order;
 import com.rudraksha.shopsphere.order.repository.OrderRepository;
+import com.rudraksha.shopsphere.shared.kafka.IdempotentConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -17,9 +19,14 @@ public class InventoryEventListener {
 
     private final OrderRepository orderRepository;
     private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
 
     @KafkaListener(topics = "inventory.reserved", groupId = "order-service-group")
-    public void onInventoryReserved(String message) {
+    public void onInventoryReserved(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processInventoryReserved(record.value()));
+    }
+
+    private void processInventoryReserved(String message) {
         log.info("Received inventory.reserved event: {}", message);
         try {
             JsonNode node = objectMapper.readTree(message);
@@ -35,6 +42,7 @@ public class InventoryEventListener {
             }
         } catch (Exception e) {
             log.error("Error processing inventory.reserved event", e);
+            throw new RuntimeException("Failed to process inventory.reserved event", e);
         }
     }
 }
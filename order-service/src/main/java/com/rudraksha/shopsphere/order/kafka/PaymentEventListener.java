@@ -2,8 +2,10 @@ package com.rudraksha.shopsphere.order.kafka;
 
 import com.rudraksha.shopsphere.order.entity.Order;
 import com.rudraksha.shopsphere.order.repository.OrderRepository;
+import com.rudraksha.shopsphere.shared.kafka.IdempotentConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -13,9 +15,14 @@ import org.springframework.stereotype.Component;
 public class PaymentEventListener {
 
     private final OrderRepository orderRepository;
+    private final IdempotentConsumer idempotentConsumer;
 
     @KafkaListener(topics = "payment-events", groupId = "order-service-group")
-    public void onPaymentEvent(String message) {
+    public void onPaymentEvent(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processPaymentEvent(record.value()));
+    }
+
+    private void processPaymentEvent(String message) {
         log.info("Received payment event: {}", message);
         try {
             String[] parts = message.split(":");
@@ -38,6 +45,7 @@ public class PaymentEventListener {
             }
         } catch (Exception e) {
             log.error("Error processing payment event", e);
+            throw new RuntimeException("Failed to process payment event", e);
         }
     }
 }
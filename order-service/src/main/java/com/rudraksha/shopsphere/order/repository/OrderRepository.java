@@ -1,9 +1,13 @@
 package com.rudraksha.shopsphere.order.repository;
 
+import com.rudraksha.shopsphere.order.dto.response.OrderSummaryResponse;
 import com.rudraksha.shopsphere.order.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,8 +15,31 @@ import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    String SUMMARY = "select new com.rudraksha.shopsphere.order.dto.response.OrderSummaryResponse("
+            + "o.id, o.orderNumber, o.userId, o.status, o.totalAmount, size(o.items), o.createdAt) from Order o";
+
+    // Single orders and unpaged lists read for a response join their items in; pages rely on the batch
+    // fetch on Order.items, since a fetch join would make Hibernate paginate in memory
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "items")
     Optional<Order> findByOrderNumber(String orderNumber);
+
+    @EntityGraph(attributePaths = "items")
     List<Order> findByUserId(String userId);
+
     Page<Order> findByUserId(String userId, Pageable pageable);
     Page<Order> findByStatus(Order.OrderStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY + " where o.userId = :userId",
+           countQuery = "select count(o) from Order o where o.userId = :userId")
+    Page<OrderSummaryResponse> findSummariesByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query(value = SUMMARY + " where o.status = :status",
+           countQuery = "select count(o) from Order o where o.status = :status")
+    Page<OrderSummaryResponse> findSummariesByStatus(@Param("status") Order.OrderStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY, countQuery = "select count(o) from Order o")
+    Page<OrderSummaryResponse> findAllSummaries(Pageable pageable);
 }
@@ -2,6 +2,7 @@ package com.rudraksha.shopsphere.order.service;
 
 import com.rudraksha.shopsphere.order.dto.request.CreateOrderRequest;
 import com.rudraksha.shopsphere.order.dto.response.OrderResponse;
+import com.rudraksha.shopsphere.order.dto.response.OrderSummaryResponse;
 import com.rudraksha.shopsphere.order.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,4 +19,7 @@ public interface OrderService {
     OrderResponse updateOrderStatus(Long id, Order.OrderStatus newStatus);
     void deleteOrder(Long id);
     Page<OrderResponse> getAllOrders(Pageable pageable);
+    Page<OrderSummaryResponse> getOrderSummariesByUserId(String userId, Pageable pageable);
+    Page<OrderSummaryResponse> getOrderSummariesByStatus(Order.OrderStatus status, Pageable pageable);
+    Page<OrderSummaryResponse> getAllOrderSummaries(Pageable pageable);
 }
@@ -4,6 +4,7 @@ import com.rudraksha.shopsphere.order.dto.request.CreateOrderRequest;
 import com.rudraksha.shopsphere.order.dto.request.OrderItemRequest;
 import com.rudraksha.shopsphere.order.dto.response.OrderItemResponse;
 import com.rudraksha.shopsphere.order.dto.response.OrderResponse;
+import com.rudraksha.shopsphere.order.dto.response.OrderSummaryResponse;
 import com.rudraksha.shopsphere.order.entity.Order;
 import com.rudraksha.shopsphere.order.entity.OrderItem;
 import com.rudraksha.shopsphere.order.exception.OrderException;
@@ -72,7 +73,7 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new OrderException("Order not found with id: " + id));
         return mapToResponse(order);
     }
@@ -137,6 +138,24 @@ public class OrderServiceImpl implements OrderService {
                 .map(this::mapToResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryResponse> getOrderSummariesByUserId(String userId, Pageable pageable) {
+        return orderRepository.findSummariesByUserId(userId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryResponse> getOrderSummariesByStatus(Order.OrderStatus status, Pageable pageable) {
+        return orderRepository.findSummariesByStatus(status, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryResponse> getAllOrderSummaries(Pageable pageable) {
+        return orderRepository.findAllSummaries(pageable);
+    }
+
     private String generateOrderNumber() {
         return "ORD-" + UUID.randomUUID().toString().replace("-", "").toUpperCase().substring(0, 16);
     }
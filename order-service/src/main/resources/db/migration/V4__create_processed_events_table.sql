@@ -0,0 +1,10 @@
+-- Kafka event IDs claimed or processed by this service's consumers, shared by all instances
+CREATE TABLE IF NOT EXISTS processed_events (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    claimed_at TIMESTAMP NOT NULL,
+    -- NULL while a consumer is still running the event
+    processed_at TIMESTAMP
+);
+
+-- TTL cleanup
+CREATE INDEX IF NOT EXISTS idx_processed_events_claimed_at ON processed_events(claimed_at);
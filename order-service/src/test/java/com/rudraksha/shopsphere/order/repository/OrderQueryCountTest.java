@@ -0,0 +1,143 @@
+package com.rudraksha.shopsphere.order.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rudraksha.shopsphere.order.dto.response.OrderResponse;
+import com.rudraksha.shopsphere.order.dto.response.OrderSummaryResponse;
+import com.rudraksha.shopsphere.order.entity.Order;
+import com.rudraksha.shopsphere.order.entity.OrderItem;
+import com.rudraksha.shopsphere.order.service.impl.OrderServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements behind a page of orders: it must not grow with the page size.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(OrderServiceImpl.class)
+class OrderQueryCountTest {
+
+    private static final String USER_ID = "user-1";
+    private static final int ORDERS = 30;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .orderNumber("ORD-" + i)
+                    .userId(USER_ID)
+                    .status(i % 2 == 0 ? Order.OrderStatus.PENDING : Order.OrderStatus.SHIPPED)
+                    .totalAmount(BigDecimal.valueOf(30))
+                    .taxAmount(BigDecimal.ZERO)
+                    .items(new ArrayList<>())
+                    .build();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                order.getItems().add(OrderItem.builder()
+                        .order(order)
+                        .productId("p" + j)
+                        .productName("Product " + j)
+                        .quantity(1)
+                        .unitPrice(BigDecimal.TEN)
+                        .totalPrice(BigDecimal.TEN)
+                        .build());
+            }
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageOfOrders_LoadsItemsInOneQuery() {
+        // Page, count and one batch of items, however many orders are on the page
+        long small = statementsFor(() -> orderService.getOrdersByUserId(USER_ID, PageRequest.of(0, 5)));
+        long large = statementsFor(() -> orderService.getOrdersByUserId(USER_ID, PageRequest.of(0, 25)));
+
+        assertEquals(3, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void pageOfOrders_MapsEveryItem() {
+        Page<OrderResponse> page = orderService.getOrdersByStatus(Order.OrderStatus.PENDING,
+                PageRequest.of(0, 10, Sort.by("orderNumber")));
+
+        assertEquals(ORDERS / 2, page.getTotalElements());
+        page.forEach(order -> assertEquals(ITEMS_PER_ORDER, order.getItems().size()));
+    }
+
+    @Test
+    void allOrdersPage_LoadsItemsInOneQuery() {
+        long statements = statementsFor(() -> orderService.getAllOrders(PageRequest.of(0, 20)));
+
+        assertEquals(3, statements);
+    }
+
+    @Test
+    void summaries_NeverLoadItems() {
+        List<Page<OrderSummaryResponse>> pages = new ArrayList<>();
+        long statements = statementsFor(() -> pages.add(
+                orderService.getOrderSummariesByUserId(USER_ID, PageRequest.of(0, 25, Sort.by("orderNumber")))));
+
+        // Page and count; item counts come from a subquery
+        assertEquals(2, statements);
+        Page<OrderSummaryResponse> page = pages.get(0);
+        assertEquals(ORDERS, page.getTotalElements());
+        assertEquals(25, page.getNumberOfElements());
+        page.forEach(summary -> assertEquals(ITEMS_PER_ORDER, summary.getItemCount()));
+    }
+
+    @Test
+    void singleOrder_JoinsItems() {
+        Long id = orderService.getOrderByOrderNumber("ORD-0").getId();
+        entityManager.clear();
+
+        long statements = statementsFor(() -> orderService.getOrderById(id));
+
+        assertEquals(1, statements);
+    }
+
+    private long statementsFor(Runnable read) {
+        entityManager.clear();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
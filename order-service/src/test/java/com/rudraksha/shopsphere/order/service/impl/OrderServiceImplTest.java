@@ -84,7 +84,7 @@ class OrderServiceImplTest {
 
     @Test
     void getOrderById_Success() {
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(orderId)).thenReturn(Optional.of(order));
 
         OrderResponse response = orderService.getOrderById(orderId);
 
@@ -94,7 +94,7 @@ class OrderServiceImplTest {
 
     @Test
     void getOrderById_NotFound() {
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findWithItemsById(orderId)).thenReturn(Optional.empty());
 
         assertThrows(OrderException.class, () -> orderService.getOrderById(orderId));
     }
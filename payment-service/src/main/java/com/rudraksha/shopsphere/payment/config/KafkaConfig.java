@@ -0,0 +1,24 @@
+package com.rudraksha.shopsphere.payment.config;
+
+import com.rudraksha.shopsphere.payment.entity.OutboxEvent;
+import com.rudraksha.shopsphere.payment.repository.OutboxEventRepository;
+import com.rudraksha.shopsphere.shared.kafka.EnableIdempotentConsumer;
+import com.rudraksha.shopsphere.shared.outbox.OutboxRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableIdempotentConsumer // Listener dedupe against the processed_events table
+public class KafkaConfig {
+
+    @Bean
+    public OutboxRelay<OutboxEvent> outboxRelay(OutboxEventRepository outboxRepository,
+                                                KafkaTemplate<String, String> kafkaTemplate,
+                                                PlatformTransactionManager transactionManager,
+                                                MeterRegistry meterRegistry) {
+        return new OutboxRelay<>(outboxRepository, kafkaTemplate, transactionManager, meterRegistry);
+    }
+}
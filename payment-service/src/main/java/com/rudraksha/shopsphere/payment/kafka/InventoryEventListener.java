@@ -3,8 +3,10 @@ package com.rudraksha.shopsphere.payment.kafka;
 import com.rudraksha.shopsphere.payment.dto.request.ProcessPaymentRequest;
 import com.rudraksha.shopsphere.payment.service.PaymentService;
 import com.rudraksha.shopsphere.payment.entity.Payment;
+import com.rudraksha.shopsphere.shared.kafka.IdempotentConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -19,9 +21,14 @@ public class InventoryEventListener {
 
     private final PaymentService paymentService;
     private final ObjectMapper objectMapper;
+    private final IdempotentConsumer idempotentConsumer;
 
     @KafkaListener(topics = "inventory.reserved", groupId = "payment-service-group")
-    public void onInventoryReserved(String message) {
+    public void onInventoryReserved(ConsumerRecord<String, String> record) {
+        idempotentConsumer.process(record, () -> processInventoryReserved(record.value()));
+    }
+
+    private void processInventoryReserved(String message) {
         log.info("Received inventory.reserved event in payment-service: {}", message);
         try {
             JsonNode node = objectMapper.readTree(message);
@@ -48,6 +55,7 @@ public class InventoryEventListener {
             }
         } catch (Exception e) {
             log.error("Failed to process inventory.reserved event in payment-service", e);
+            throw new RuntimeException("Failed to process inventory.reserved event", e);
         }
     }
 }
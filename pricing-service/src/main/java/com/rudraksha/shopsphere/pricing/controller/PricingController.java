@@ -5,9 +5,11 @@ import com.rudraksha.shopsphere.pricing.dto.response.*;
 import com.rudraksha.shopsphere.pricing.service.PricingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -46,11 +48,42 @@ public class PricingController {
         return ResponseEntity.noContent().build();
     }
     
+    // Price History Endpoints
+    @GetMapping("/history/{productId}/as-of")
+    public ResponseEntity<PriceAsOfResponse> getPriceAsOf(
+            @PathVariable String productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(pricingService.getPriceAsOf(productId, at));
+    }
+    
+    @PostMapping("/history/query")
+    public ResponseEntity<PriceHistorySeriesResponse> getPriceHistory(@Valid @RequestBody PriceHistoryQueryRequest request) {
+        return ResponseEntity.ok(pricingService.getPriceHistory(request));
+    }
+    
     // Price Calculation Endpoint
     @PostMapping("/calculate")
     public ResponseEntity<PriceCalculationResponse> calculatePrice(@Valid @RequestBody CalculatePriceRequest request) {
         return ResponseEntity.ok(pricingService.calculatePrice(request));
     }
+
+    @PostMapping("/calculate/batch")
+    public ResponseEntity<BatchPriceCalculationResponse> calculatePrices(@Valid @RequestBody BatchCalculatePriceRequest request) {
+        return ResponseEntity.ok(pricingService.calculatePrices(request));
+    }
+
+    // Effective Price Endpoints (materialized, no calculation on read)
+    @GetMapping("/effective/{productId}")
+    public ResponseEntity<EffectivePriceResponse> getEffectivePrice(
+            @PathVariable String productId,
+            @RequestParam(defaultValue = "1") Integer quantity) {
+        return ResponseEntity.ok(pricingService.getEffectivePrice(productId, quantity));
+    }
+
+    @GetMapping("/effective/{productId}/bands")
+    public ResponseEntity<List<EffectivePriceResponse>> getEffectivePriceBands(@PathVariable String productId) {
+        return ResponseEntity.ok(pricingService.getEffectivePriceBands(productId));
+    }
     
     // Pricing Rules Endpoints
     @PostMapping("/rules")
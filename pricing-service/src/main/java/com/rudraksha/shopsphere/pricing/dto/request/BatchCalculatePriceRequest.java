@@ -0,0 +1,17 @@
+package com.rudraksha.shopsphere.pricing.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCalculatePriceRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "At most 500 items can be priced at once")
+    @Valid
+    private List<CalculatePriceRequest> items;
+}
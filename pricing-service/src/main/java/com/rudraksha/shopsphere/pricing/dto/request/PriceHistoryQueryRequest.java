@@ -0,0 +1,22 @@
+package com.rudraksha.shopsphere.pricing.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistoryQueryRequest {
+    @NotEmpty(message = "At least one product ID is required")
+    @Size(max = 1000, message = "At most 1000 products can be queried at once")
+    private List<String> productIds;
+    
+    @NotNull(message = "From is required")
+    private LocalDateTime from;
+    
+    @NotNull(message = "To is required")
+    private LocalDateTime to;
+}
@@ -0,0 +1,17 @@
+package com.rudraksha.shopsphere.pricing.dto.response;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPriceCalculationResponse {
+    private List<PriceCalculationResponse> items;
+    private Integer totalQuantity;
+    private BigDecimal baseTotal;
+    private BigDecimal totalPrice;
+    private BigDecimal discountAmount;
+}
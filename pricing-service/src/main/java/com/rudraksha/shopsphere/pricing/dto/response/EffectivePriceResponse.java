@@ -0,0 +1,21 @@
+package com.rudraksha.shopsphere.pricing.dto.response;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EffectivePriceResponse {
+    private String productId;
+    private Integer minQuantity;
+    private Integer maxQuantity;
+    private BigDecimal basePrice;
+    private BigDecimal unitPrice;
+    private String currency;
+    private String appliedTier;
+    private String appliedRule;
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,18 @@
+package com.rudraksha.shopsphere.pricing.dto.response;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAsOfResponse {
+    private String productId;
+    private LocalDateTime asOf;
+    private BigDecimal basePrice;
+    private String currency;
+    // When that price took effect; null if it predates the retained history
+    private LocalDateTime effectiveFrom;
+}
@@ -0,0 +1,17 @@
+package com.rudraksha.shopsphere.pricing.dto.response;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceChangeResponse {
+    private BigDecimal oldPrice;
+    private BigDecimal newPrice;
+    private String changedBy;
+    private String changeReason;
+    private LocalDateTime changedAt;
+}
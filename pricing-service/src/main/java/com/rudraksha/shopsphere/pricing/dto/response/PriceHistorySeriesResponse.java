@@ -0,0 +1,17 @@
+package com.rudraksha.shopsphere.pricing.dto.response;
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistorySeriesResponse {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // Every requested product, in time order; empty when it did not change in the range
+    private Map<String, List<PriceChangeResponse>> series;
+}
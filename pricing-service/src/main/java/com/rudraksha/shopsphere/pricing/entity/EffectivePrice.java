@@ -0,0 +1,62 @@
+package com.rudraksha.shopsphere.pricing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized selling price of a product over one quantity band, with tier and rule discounts applied.
+ * Rows are replaced, never updated, when the price changes; only the publication columns of the
+ * band starting at quantity 1 (the list price) are updated in place.
+ */
+@Entity
+@Table(name = "effective_prices",
+        uniqueConstraints = @UniqueConstraint(name = "uk_effective_prices_band", columnNames = {"product_id", "min_quantity"}),
+        indexes = @Index(name = "idx_effective_prices_pending", columnList = "publish_pending"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EffectivePrice {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String productId;
+    
+    @Column(nullable = false)
+    private Integer minQuantity;
+    
+    private Integer maxQuantity;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal basePrice;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+    
+    @Column(nullable = false)
+    private String currency;
+    
+    @Column(nullable = false)
+    private String appliedTier;
+    
+    @Column(nullable = false)
+    private String appliedRule;
+    
+    // List price last acknowledged by Kafka, and whether the current one still has to be sent
+    @Column(precision = 10, scale = 2)
+    private BigDecimal publishedPrice;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean publishPending = false;
+    
+    // Set while an instance is sending the list price; a claim older than the lease is taken over
+    private LocalDateTime publishClaimedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
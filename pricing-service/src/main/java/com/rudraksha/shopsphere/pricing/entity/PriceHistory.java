@@ -2,11 +2,18 @@ package com.rudraksha.shopsphere.pricing.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * One price change. Rows are append-only: the series is never updated by the application, only
+ * compacted and expired by {@link com.rudraksha.shopsphere.pricing.service.PriceHistoryPartitionManager}.
+ */
 @Entity
-@Table(name = "price_history")
+@Immutable
+@Table(name = "price_history",
+        indexes = @Index(name = "idx_price_history_product_time", columnList = "product_id, changed_at"))
 @Data
 @Builder
 @NoArgsConstructor
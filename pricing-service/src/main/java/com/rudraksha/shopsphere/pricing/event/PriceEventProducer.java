@@ -1,13 +1,16 @@
 package com.rudraksha.shopsphere.pricing.event;
 
+import com.rudraksha.shopsphere.pricing.entity.EffectivePrice;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
@@ -26,4 +29,21 @@ public class PriceEventProducer {
         log.info("Publishing price.updated event for product: {}", productId);
         kafkaTemplate.send("price.updated", productId, event);
     }
+
+    /**
+     * Publish a product's materialized list price. oldPrice is the list price last published, so
+     * consumers can tell whether they missed a change; originalPrice is the undiscounted base price.
+     */
+    public CompletableFuture<SendResult<String, Object>> sendEffectivePriceEvent(EffectivePrice listPrice) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("productId", listPrice.getProductId());
+        event.put("newPrice", listPrice.getUnitPrice());
+        event.put("oldPrice", listPrice.getPublishedPrice());
+        event.put("originalPrice", listPrice.getBasePrice());
+        event.put("currency", listPrice.getCurrency());
+        event.put("timestamp", System.currentTimeMillis());
+
+        log.debug("Publishing price.updated event for product: {}", listPrice.getProductId());
+        return kafkaTemplate.send("price.updated", listPrice.getProductId(), event);
+    }
 }
@@ -0,0 +1,54 @@
+package com.rudraksha.shopsphere.pricing.repository;
+
+import com.rudraksha.shopsphere.pricing.entity.EffectivePrice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EffectivePriceRepository extends JpaRepository<EffectivePrice, Long>, EffectivePriceRepositoryCustom {
+    List<EffectivePrice> findAllByProductIdIn(Collection<String> productIds);
+    List<EffectivePrice> findByProductIdOrderByMinQuantityAsc(String productId);
+    
+    // Unique index on (product_id, min_quantity): one index probe per lookup
+    @Query("SELECT e FROM EffectivePrice e WHERE e.productId = :productId AND e.minQuantity <= :quantity " +
+           "AND (e.maxQuantity IS NULL OR e.maxQuantity >= :quantity)")
+    Optional<EffectivePrice> findBand(@Param("productId") String productId, @Param("quantity") Integer quantity);
+    
+    @Modifying
+    @Query("DELETE FROM EffectivePrice e WHERE e.productId IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<String> productIds);
+    
+    // Rows another instance is claiming are skipped rather than waited for, as are live claims
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EffectivePrice e WHERE e.publishPending = true " +
+           "AND (e.publishClaimedAt IS NULL OR e.publishClaimedAt < :staleBefore) ORDER BY e.id")
+    List<EffectivePrice> findPendingPublication(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE EffectivePrice e SET e.publishClaimedAt = :claimedAt WHERE e.id IN :ids")
+    int claimPublication(@Param("ids") Collection<Long> ids, @Param("claimedAt") LocalDateTime claimedAt);
+    
+    @Modifying
+    @Query("UPDATE EffectivePrice e SET e.publishedPrice = e.unitPrice, e.publishPending = false, " +
+           "e.publishClaimedAt = NULL WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids);
+    
+    // By product: a list-price row rewritten while its send was in flight inherited the claim
+    @Modifying
+    @Query("UPDATE EffectivePrice e SET e.publishClaimedAt = NULL WHERE e.productId IN :productIds AND e.minQuantity = 1")
+    int releasePublication(@Param("productIds") Collection<String> productIds);
+}
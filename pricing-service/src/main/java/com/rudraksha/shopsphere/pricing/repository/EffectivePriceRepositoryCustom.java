@@ -0,0 +1,9 @@
+package com.rudraksha.shopsphere.pricing.repository;
+
+public interface EffectivePriceRepositoryCustom {
+    /**
+     * Transaction-scoped advisory lock so only one instance reconciles effective_prices at a time.
+     * Always granted on H2, where each instance has its own in-memory database.
+     */
+    boolean tryLockReconcile();
+}
@@ -0,0 +1,23 @@
+package com.rudraksha.shopsphere.pricing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class EffectivePriceRepositoryCustomImpl implements EffectivePriceRepositoryCustom {
+    private static final String TRY_LOCK_RECONCILE_SQL =
+        "SELECT pg_try_advisory_xact_lock(hashtext('effective_prices'), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryLockReconcile() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return true;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_RECONCILE_SQL, Boolean.class));
+    }
+}
@@ -1,13 +1,31 @@
 package com.rudraksha.shopsphere.pricing.repository;
 
 import com.rudraksha.shopsphere.pricing.entity.PriceHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long>, PriceHistoryRepositoryCustom {
     List<PriceHistory> findByProductId(String productId);
     List<PriceHistory> findByProductIdOrderByChangedAtDesc(String productId);
+    
+    // As-of lookups: one backward or forward probe of (product_id, changed_at)
+    Optional<PriceHistory> findFirstByProductIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(String productId, LocalDateTime at);
+    Optional<PriceHistory> findFirstByProductIdAndChangedAtAfterOrderByChangedAtAscIdAsc(String productId, LocalDateTime at);
+    
+    // Bounded by changed_at, so only the partitions overlapping [from, to) are read
+    @Query("SELECT h FROM PriceHistory h WHERE h.productId IN :productIds " +
+           "AND h.changedAt >= :from AND h.changedAt < :to ORDER BY h.productId, h.changedAt, h.id")
+    List<PriceHistory> findChanges(@Param("productIds") Collection<String> productIds,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   Pageable pageable);
 }
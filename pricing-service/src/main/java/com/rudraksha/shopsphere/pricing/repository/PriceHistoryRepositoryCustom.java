@@ -0,0 +1,31 @@
+package com.rudraksha.shopsphere.pricing.repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public interface PriceHistoryRepositoryCustom {
+    /**
+     * Whether price_history is a PostgreSQL range-partitioned table. False on H2, where the series is a
+     * plain indexed table and only row-level compaction and expiry apply.
+     */
+    boolean isPartitioned();
+
+    List<YearMonth> findMonthlyPartitions();
+
+    void createMonthlyPartition(YearMonth month);
+
+    void dropMonthlyPartition(YearMonth month);
+
+    /**
+     * Collapse the changes in [from, to) to the last change per product and day. The survivor keeps
+     * the day's opening old price, so the series still chains.
+     * @return number of rows removed
+     */
+    int compact(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * @return number of rows removed
+     */
+    int deleteBefore(LocalDateTime horizon);
+}
@@ -0,0 +1,99 @@
+package com.rudraksha.shopsphere.pricing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class PriceHistoryRepositoryCustomImpl implements PriceHistoryRepositoryCustom {
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("price_history_(\\d{6})");
+
+    private static final String PARTITIONED_SQL =
+        "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+        "WHERE c.relname = 'price_history'";
+
+    private static final String PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = 'price_history'";
+
+    // Survivor of a product-day: no later change by the same product on the same day
+    private static final String LAST_OF_DAY =
+        "NOT EXISTS (SELECT 1 FROM price_history later WHERE later.product_id = h.product_id " +
+        "AND later.changed_at >= ? AND later.changed_at < ? " +
+        "AND CAST(later.changed_at AS DATE) = CAST(h.changed_at AS DATE) " +
+        "AND (later.changed_at > h.changed_at OR (later.changed_at = h.changed_at AND later.id > h.id)))";
+
+    private static final String CARRY_OPENING_PRICE_SQL =
+        "UPDATE price_history h SET old_price = (SELECT f.old_price FROM price_history f " +
+        "WHERE f.product_id = h.product_id AND f.changed_at >= ? AND f.changed_at < ? " +
+        "AND CAST(f.changed_at AS DATE) = CAST(h.changed_at AS DATE) ORDER BY f.changed_at, f.id LIMIT 1) " +
+        "WHERE h.changed_at >= ? AND h.changed_at < ? AND " + LAST_OF_DAY;
+
+    private static final String DELETE_SUPERSEDED_SQL =
+        "DELETE FROM price_history h WHERE h.changed_at >= ? AND h.changed_at < ? AND NOT " + LAST_OF_DAY;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean isPartitioned() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(PARTITIONED_SQL, Integer.class);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public List<YearMonth> findMonthlyPartitions() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class).stream()
+                .map(name -> {
+                    Matcher matcher = PARTITION_NAME.matcher(name);
+                    return matcher.matches() ? YearMonth.parse(matcher.group(1), SUFFIX) : null;
+                })
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public void createMonthlyPartition(YearMonth month) {
+        // Names and bounds come from YearMonth, never from input
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                " PARTITION OF price_history FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" +
+                month.plusMonths(1).atDay(1) + "')");
+    }
+
+    @Override
+    public void dropMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    @Override
+    public int compact(LocalDateTime from, LocalDateTime to) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        jdbcTemplate.update(CARRY_OPENING_PRICE_SQL, start, end, start, end, start, end);
+        return jdbcTemplate.update(DELETE_SUPERSEDED_SQL, start, end, start, end);
+    }
+
+    @Override
+    public int deleteBefore(LocalDateTime horizon) {
+        return jdbcTemplate.update("DELETE FROM price_history WHERE changed_at < ?", Timestamp.valueOf(horizon));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "price_history_" + month.format(SUFFIX);
+    }
+}
@@ -1,11 +1,15 @@
 package com.rudraksha.shopsphere.pricing.repository;
 
 import com.rudraksha.shopsphere.pricing.entity.ProductPrice;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,8 +17,15 @@ import java.util.Optional;
 public interface ProductPriceRepository extends JpaRepository<ProductPrice, Long> {
     Optional<ProductPrice> findByProductId(String productId);
     Optional<ProductPrice> findByProductIdAndActiveTrue(String productId);
+    List<ProductPrice> findAllByProductIdInAndActiveTrue(Collection<String> productIds);
+    List<ProductPrice> findAllByProductIdIn(Collection<String> productIds);
     List<ProductPrice> findAllByActiveTrue();
     
     @Query("SELECT p FROM ProductPrice p WHERE p.active = true ORDER BY p.productId")
     List<ProductPrice> findActiveProducts();
+    
+    // Keyset page, locked so a concurrent price update waits instead of racing the recompute
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ProductPrice p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductPrice> findPageForUpdate(@Param("afterId") Long afterId, Pageable pageable);
 }
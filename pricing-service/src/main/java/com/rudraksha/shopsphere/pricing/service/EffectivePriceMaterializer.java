@@ -0,0 +1,224 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.entity.EffectivePrice;
+import com.rudraksha.shopsphere.pricing.entity.ProductPrice;
+import com.rudraksha.shopsphere.pricing.repository.EffectivePriceRepository;
+import com.rudraksha.shopsphere.pricing.repository.ProductPriceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the effective_prices table equal to what {@link PricingSnapshot#bands} gives for every product.
+ * A price change recomputes its own product inside the writing transaction. A rule or tier change, or a
+ * rule window opening or closing, affects every product and is reconciled in keyset batches by the
+ * next scheduled pass, run by one instance at a time. Only products whose bands differ are rewritten,
+ * and a changed list price (the band starting at quantity 1) is flagged for
+ * {@link EffectivePricePublisher}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EffectivePriceMaterializer {
+
+    private record Batch(Long lastId, int size, int changed) {}
+
+    private final ProductPriceRepository productPriceRepository;
+    private final EffectivePriceRepository effectivePriceRepository;
+    private final PricingRuleEngine pricingRuleEngine;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${pricing.effective.batch-size:500}")
+    private int batchSize;
+
+    // Starts stale so the first pass reconciles the table with the rules this instance compiled
+    private volatile boolean stale = true;
+    private volatile LocalDateTime materializedAt;
+
+    @EventListener
+    public void onSnapshotChanged(PricingSnapshotChangedEvent event) {
+        stale = true;
+    }
+
+    @Scheduled(fixedDelayString = "${pricing.effective.reconcile-interval:PT5S}")
+    public void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = materializedAt;
+        boolean windowPassed = since != null && pricingRuleEngine.current().nextTransitionAfter(since)
+                .filter(transition -> !transition.isAfter(now))
+                .isPresent();
+        if (!stale && !windowPassed) {
+            return;
+        }
+
+        // Cleared before reading the snapshot: the engine swaps before it publishes, so a change
+        // that arrives after this point is either in the snapshot read below or marks stale again
+        stale = false;
+        try {
+            Integer changed = recomputeAll(pricingRuleEngine.current(), now);
+            if (changed == null) {
+                // Retried next interval: the other pass may have compiled an older snapshot than ours
+                stale = true;
+                log.debug("Effective prices are being reconciled by another instance");
+                return;
+            }
+            materializedAt = now;
+            log.info("Reconciled effective prices, {} products changed", changed);
+        } catch (Exception e) {
+            stale = true;
+            log.error("Failed to reconcile effective prices", e);
+        }
+    }
+
+    /**
+     * Recompute the given products against the current snapshot. Joins the caller's transaction, so the
+     * table commits together with the price change that caused it.
+     */
+    public void recompute(Collection<String> productIds) {
+        recompute(productPriceRepository.findAllByProductIdIn(productIds), pricingRuleEngine.current(), LocalDateTime.now());
+    }
+
+    /**
+     * Each batch takes the reconcile lock in its own transaction, so a pass that loses it to another
+     * instance between batches stops rather than interleaving with it.
+     * @return number of products whose rows were rewritten, or null if another instance holds the lock
+     */
+    Integer recomputeAll(PricingSnapshot snapshot, LocalDateTime now) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int changed = 0;
+        long afterId = 0L;
+        while (true) {
+            long from = afterId;
+            Batch batch = template.execute(status -> {
+                if (!effectivePriceRepository.tryLockReconcile()) {
+                    return null;
+                }
+                List<ProductPrice> products = productPriceRepository.findPageForUpdate(from, PageRequest.of(0, batchSize));
+                Long lastId = products.isEmpty() ? null : products.get(products.size() - 1).getId();
+                return new Batch(lastId, products.size(), recompute(products, snapshot, now));
+            });
+            if (batch == null) {
+                return null;
+            }
+            if (batch.size() == 0) {
+                return changed;
+            }
+            changed += batch.changed();
+            if (batch.size() < batchSize) {
+                return changed;
+            }
+            afterId = batch.lastId();
+        }
+    }
+
+    int recompute(List<ProductPrice> products, PricingSnapshot snapshot, LocalDateTime now) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        List<String> productIds = products.stream().map(ProductPrice::getProductId).toList();
+        Map<String, List<EffectivePrice>> existing = effectivePriceRepository.findAllByProductIdIn(productIds)
+                .stream()
+                .collect(Collectors.groupingBy(EffectivePrice::getProductId));
+
+        List<String> replaced = new ArrayList<>();
+        List<EffectivePrice> rows = new ArrayList<>();
+        for (ProductPrice product : products) {
+            List<EffectivePrice> current = existing.getOrDefault(product.getProductId(), List.of());
+            // An inactive product has no selling price
+            List<EffectivePrice> computed = Boolean.TRUE.equals(product.getActive())
+                    ? toRows(product, snapshot.bands(product.getBasePrice(), now), now)
+                    : List.of();
+            if (sameBands(current, computed)) {
+                continue;
+            }
+            carryPublication(current, computed);
+            replaced.add(product.getProductId());
+            rows.addAll(computed);
+        }
+
+        if (!replaced.isEmpty()) {
+            effectivePriceRepository.deleteByProductIdIn(replaced);
+            effectivePriceRepository.saveAll(rows);
+            log.debug("Rewrote effective prices for {} products", replaced.size());
+        }
+        return replaced.size();
+    }
+
+    private List<EffectivePrice> toRows(ProductPrice product, List<PricingSnapshot.Band> bands, LocalDateTime now) {
+        List<EffectivePrice> rows = new ArrayList<>(bands.size());
+        for (PricingSnapshot.Band band : bands) {
+            rows.add(EffectivePrice.builder()
+                    .productId(product.getProductId())
+                    .minQuantity(band.minQuantity())
+                    .maxQuantity(band.maxQuantity())
+                    .basePrice(product.getBasePrice())
+                    .unitPrice(band.unitPrice().max(BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP))
+                    .currency(product.getCurrency())
+                    .appliedTier(band.appliedTier())
+                    .appliedRule(band.appliedRule())
+                    .computedAt(now)
+                    .build());
+        }
+        return rows;
+    }
+
+    private boolean sameBands(List<EffectivePrice> current, List<EffectivePrice> computed) {
+        if (current.size() != computed.size()) {
+            return false;
+        }
+        List<EffectivePrice> sorted = current.stream()
+                .sorted(Comparator.comparing(EffectivePrice::getMinQuantity))
+                .toList();
+        for (int i = 0; i < sorted.size(); i++) {
+            EffectivePrice a = sorted.get(i);
+            EffectivePrice b = computed.get(i);
+            if (!a.getMinQuantity().equals(b.getMinQuantity())
+                    || !Objects.equals(a.getMaxQuantity(), b.getMaxQuantity())
+                    || a.getBasePrice().compareTo(b.getBasePrice()) != 0
+                    || a.getUnitPrice().compareTo(b.getUnitPrice()) != 0
+                    || !a.getCurrency().equals(b.getCurrency())
+                    || !a.getAppliedTier().equals(b.getAppliedTier())
+                    || !a.getAppliedRule().equals(b.getAppliedRule())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Carry the last published list price over to the new list-price row, and flag it if downstream
+     * has not seen this price yet. An in-flight claim is carried too, so the new price is not sent
+     * until the publisher has finished with the old one.
+     */
+    private void carryPublication(List<EffectivePrice> current, List<EffectivePrice> computed) {
+        if (computed.isEmpty()) {
+            return;
+        }
+        EffectivePrice listPrice = computed.get(0);
+        EffectivePrice previous = current.stream()
+                .filter(row -> row.getMinQuantity() == 1)
+                .findFirst()
+                .orElse(null);
+        BigDecimal published = previous != null ? previous.getPublishedPrice() : null;
+        listPrice.setPublishedPrice(published);
+        listPrice.setPublishClaimedAt(previous != null ? previous.getPublishClaimedAt() : null);
+        listPrice.setPublishPending(published == null || published.compareTo(listPrice.getUnitPrice()) != 0);
+    }
+}
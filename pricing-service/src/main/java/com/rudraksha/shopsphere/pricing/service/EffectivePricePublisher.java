@@ -0,0 +1,106 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.entity.EffectivePrice;
+import com.rudraksha.shopsphere.pricing.event.PriceEventProducer;
+import com.rudraksha.shopsphere.pricing.repository.EffectivePriceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays changed list prices from the effective_prices table to price.updated, where catalog and cart
+ * pick them up. A batch is claimed and committed first, so no row lock is held while waiting for the
+ * broker; each batch is then sent without waiting between records and the acknowledgements are
+ * collected afterwards. Only acknowledged rows are marked published and the claims are released in a
+ * second transaction, so the rest are retried on the next run. A claim left by an instance that died
+ * is taken over once it is older than the lease. Several changes to one product between runs go out
+ * as a single event with the latest price.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EffectivePricePublisher {
+
+    private final EffectivePriceRepository effectivePriceRepository;
+    private final PriceEventProducer priceEventProducer;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${pricing.effective.batch-size:500}")
+    private int batchSize;
+
+    @Value("${pricing.effective.send-timeout:PT10S}")
+    private Duration sendTimeout;
+
+    // Must exceed the send timeout, or a slow batch is claimed and sent again by another instance
+    @Value("${pricing.effective.claim-lease:PT1M}")
+    private Duration claimLease;
+
+    @Scheduled(fixedDelayString = "${pricing.effective.publish-interval:PT1S}")
+    public void publishPending() {
+        int published;
+        do {
+            published = publishBatch();
+        } while (published == batchSize);
+    }
+
+    /**
+     * @return number of rows acknowledged and marked published
+     */
+    int publishBatch() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        List<EffectivePrice> pending = template.execute(status -> {
+            List<EffectivePrice> claimed = effectivePriceRepository.findPendingPublication(
+                    now.minus(claimLease), PageRequest.of(0, batchSize));
+            if (!claimed.isEmpty()) {
+                effectivePriceRepository.claimPublication(claimed.stream().map(EffectivePrice::getId).toList(), now);
+            }
+            return claimed;
+        });
+        if (pending == null || pending.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(pending.size());
+        for (EffectivePrice listPrice : pending) {
+            sends.add(priceEventProducer.sendEffectivePriceEvent(listPrice));
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> acknowledged = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acknowledged.add(pending.get(i).getId());
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                log.warn("Failed to publish effective price for product {}: {}",
+                        pending.get(i).getProductId(), e.getMessage());
+            }
+        }
+
+        List<String> productIds = pending.stream().map(EffectivePrice::getProductId).toList();
+        template.executeWithoutResult(status -> {
+            if (!acknowledged.isEmpty()) {
+                effectivePriceRepository.markPublished(acknowledged);
+            }
+            effectivePriceRepository.releasePublication(productIds);
+        });
+        log.debug("Published {} of {} pending effective prices", acknowledged.size(), pending.size());
+        return acknowledged.size();
+    }
+}
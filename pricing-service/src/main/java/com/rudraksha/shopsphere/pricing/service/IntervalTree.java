@@ -0,0 +1,84 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable interval tree over closed integer ranges. Intervals are kept sorted by lower bound in an
+ * array that is read as a balanced binary tree, each node holding the largest upper bound below it,
+ * so a stabbing query costs O(log n + matches).
+ */
+public final class IntervalTree<T> {
+
+    public record Interval<T>(int low, int high, T value) {}
+
+    private final int[] lows;
+    private final int[] highs;
+    private final int[] maxHighs;
+    private final List<T> values;
+
+    private IntervalTree(List<Interval<T>> sorted) {
+        int size = sorted.size();
+        lows = new int[size];
+        highs = new int[size];
+        maxHighs = new int[size];
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Interval<T> interval = sorted.get(i);
+            lows[i] = interval.low();
+            highs[i] = interval.high();
+            values.add(interval.value());
+        }
+        computeMaxHighs(0, size - 1);
+    }
+
+    public static <T> IntervalTree<T> of(List<Interval<T>> intervals) {
+        List<Interval<T>> sorted = new ArrayList<>(intervals);
+        sorted.sort(Comparator.comparingInt(Interval::low));
+        return new IntervalTree<>(sorted);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Every value whose interval contains {@code point}, in no particular order.
+     */
+    public List<T> containing(int point) {
+        List<T> matches = new ArrayList<>();
+        visit(0, values.size() - 1, point, matches::add);
+        return matches;
+    }
+
+    private int computeMaxHighs(int from, int to) {
+        if (from > to) {
+            return Integer.MIN_VALUE;
+        }
+        int mid = (from + to) >>> 1;
+        int max = Math.max(highs[mid], Math.max(computeMaxHighs(from, mid - 1), computeMaxHighs(mid + 1, to)));
+        maxHighs[mid] = max;
+        return max;
+    }
+
+    private void visit(int from, int to, int point, Consumer<T> sink) {
+        if (from > to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (maxHighs[mid] < point) {
+            return;
+        }
+        visit(from, mid - 1, point, sink);
+        if (lows[mid] > point) {
+            // Everything to the right starts even later
+            return;
+        }
+        if (highs[mid] >= point) {
+            sink.accept(values.get(mid));
+        }
+        visit(mid + 1, to, point, sink);
+    }
+}
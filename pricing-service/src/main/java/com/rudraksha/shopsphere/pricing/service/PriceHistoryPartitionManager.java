@@ -0,0 +1,110 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.repository.PriceHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maintains the price_history series. On PostgreSQL the table is range-partitioned by month: partitions
+ * are created ahead of the writes that need them and whole partitions past retention are dropped,
+ * which costs nothing per row. Changes older than the compaction age are collapsed to the last one per
+ * product and day. On H2 only the row-level compaction and expiry run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PriceHistoryPartitionManager {
+
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${pricing.history.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    @Value("${pricing.history.compact-after:P90D}")
+    private Duration compactAfter;
+
+    @Value("${pricing.history.retention:P730D}")
+    private Duration retention;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            ensurePartitions(LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("Failed to create price history partitions", e);
+        }
+    }
+
+    @Scheduled(cron = "${pricing.history.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            ensurePartitions(now);
+            int compacted = compact(now);
+            int expired = expire(now);
+            log.info("Price history maintenance: {} changes compacted, {} expired", compacted, expired);
+        } catch (Exception e) {
+            log.error("Price history maintenance failed", e);
+        }
+    }
+
+    void ensurePartitions(LocalDateTime now) {
+        if (!priceHistoryRepository.isPartitioned()) {
+            return;
+        }
+        Set<YearMonth> existing = new HashSet<>(priceHistoryRepository.findMonthlyPartitions());
+        YearMonth current = YearMonth.from(now);
+        for (int i = 0; i <= partitionsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                priceHistoryRepository.createMonthlyPartition(month);
+                log.info("Created price history partition for {}", month);
+            }
+        }
+    }
+
+    /**
+     * Compact the month of whole days that most recently passed the compaction age. Idempotent, so a
+     * missed run is caught up by the next one as long as it is less than a month late.
+     */
+    int compact(LocalDateTime now) {
+        LocalDateTime to = now.minus(compactAfter).toLocalDate().atStartOfDay();
+        LocalDateTime from = to.minusMonths(1);
+        Integer removed = new TransactionTemplate(transactionManager)
+                .execute(status -> priceHistoryRepository.compact(from, to));
+        return removed != null ? removed : 0;
+    }
+
+    /**
+     * Drop monthly partitions entirely past retention, then delete what is left before the horizon:
+     * rows in the default partition, or every expired row when the table is not partitioned.
+     */
+    int expire(LocalDateTime now) {
+        LocalDateTime horizon = now.minus(retention);
+        if (priceHistoryRepository.isPartitioned()) {
+            List<YearMonth> partitions = priceHistoryRepository.findMonthlyPartitions();
+            for (YearMonth month : partitions) {
+                if (!month.plusMonths(1).atDay(1).atStartOfDay().isAfter(horizon)) {
+                    priceHistoryRepository.dropMonthlyPartition(month);
+                    log.info("Dropped price history partition for {}", month);
+                }
+            }
+        }
+        return priceHistoryRepository.deleteBefore(horizon);
+    }
+}
@@ -0,0 +1,76 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.repository.PricingRuleRepository;
+import com.rudraksha.shopsphere.pricing.repository.PricingTierRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Holds the current {@link PricingSnapshot}. Readers take the reference once per calculation and never
+ * block; a rebuild compiles a complete new snapshot and swaps it in. Rebuilds run after a local rule
+ * change commits and periodically, which picks up changes made by other instances or directly in
+ * the database. A rebuild that changes the rules or tiers publishes a {@link PricingSnapshotChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PricingRuleEngine {
+
+    private final PricingRuleRepository pricingRuleRepository;
+    private final PricingTierRepository pricingTierRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile PricingSnapshot snapshot = PricingSnapshot.EMPTY;
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    public PricingSnapshot current() {
+        return snapshot;
+    }
+
+    // Serialized so an older compile can never replace a newer one
+    @Scheduled(fixedDelayString = "${pricing.engine.refresh-interval:PT1M}",
+            initialDelayString = "${pricing.engine.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        PricingSnapshot compiled = PricingSnapshot.compile(pricingRuleRepository.findByIsActiveTrue(),
+                pricingTierRepository.findAllOrderByQuantity(), LocalDateTime.now());
+        PricingSnapshot previous = snapshot;
+        snapshot = compiled;
+        if (!compiled.sameDefinitionAs(previous)) {
+            eventPublisher.publishEvent(new PricingSnapshotChangedEvent(compiled));
+        }
+        log.debug("Compiled pricing snapshot with {} rules and {} tiers", compiled.ruleCount(), compiled.tierCount());
+    }
+
+    /**
+     * Rebuild once the current transaction commits, so the snapshot never holds rolled-back rules.
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    // The periodic rebuild picks the change up
+                    log.warn("Failed to rebuild pricing snapshot", e);
+                }
+            }
+        });
+    }
+}
@@ -2,6 +2,7 @@ package com.rudraksha.shopsphere.pricing.service;
 
 import com.rudraksha.shopsphere.pricing.dto.request.*;
 import com.rudraksha.shopsphere.pricing.dto.response.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PricingService {
@@ -12,8 +13,15 @@ public interface PricingService {
     ProductPriceResponse updateProductPrice(String productId, CreateProductPriceRequest request);
     void deleteProductPrice(String productId);
     
+    // Price History
+    PriceAsOfResponse getPriceAsOf(String productId, LocalDateTime at);
+    PriceHistorySeriesResponse getPriceHistory(PriceHistoryQueryRequest request);
+    
     // Price Calculation
     PriceCalculationResponse calculatePrice(CalculatePriceRequest request);
+    BatchPriceCalculationResponse calculatePrices(BatchCalculatePriceRequest request);
+    EffectivePriceResponse getEffectivePrice(String productId, Integer quantity);
+    List<EffectivePriceResponse> getEffectivePriceBands(String productId);
     
     // Pricing Rules
     PricingRuleResponse createPricingRule(CreatePricingRuleRequest request);
@@ -0,0 +1,217 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.entity.PricingRule;
+import com.rudraksha.shopsphere.pricing.entity.PricingTier;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Active pricing rules and tiers compiled into an immutable structure. Quantity ranges are indexed by
+ * interval trees and each rule's validity window is resolved to fixed bounds, so evaluating a line
+ * touches neither the database nor any shared mutable state.
+ */
+public final class PricingSnapshot {
+
+    public static final PricingSnapshot EMPTY = compile(List.of(), List.of(), LocalDateTime.MIN);
+
+    public record CompiledRule(long id, String name, BigDecimal discountPercentage, BigDecimal discountFixed,
+                               LocalDateTime validFrom, LocalDateTime validUntil) {
+
+        boolean isValidAt(LocalDateTime at) {
+            return !at.isBefore(validFrom) && !at.isAfter(validUntil);
+        }
+    }
+
+    public record CompiledTier(long id, String name, int minQuantity, BigDecimal discountPercentage) {}
+
+    /**
+     * Unit price after tier and rule discounts, and what was applied.
+     */
+    public record Quote(BigDecimal unitPrice, String appliedTier, String appliedRule) {}
+
+    /**
+     * A quantity range over which the quote does not change; {@code maxQuantity} is null when open-ended.
+     */
+    public record Band(int minQuantity, Integer maxQuantity, BigDecimal unitPrice, String appliedTier, String appliedRule) {}
+
+    private static final Comparator<CompiledRule> RULE_ORDER = Comparator.comparingLong(CompiledRule::id);
+    private static final Comparator<CompiledTier> TIER_ORDER =
+            Comparator.comparingInt(CompiledTier::minQuantity).reversed().thenComparingLong(CompiledTier::id);
+
+    private final IntervalTree<CompiledRule> rules;
+    private final IntervalTree<CompiledTier> tiers;
+    private final List<IntervalTree.Interval<CompiledRule>> ruleDefinitions;
+    private final List<IntervalTree.Interval<CompiledTier>> tierDefinitions;
+    // Every quantity where some rule or tier range starts or ends, from 1 upwards
+    private final int[] boundaries;
+    private final LocalDateTime compiledAt;
+
+    private PricingSnapshot(List<IntervalTree.Interval<CompiledRule>> ruleIntervals,
+                            List<IntervalTree.Interval<CompiledTier>> tierIntervals, LocalDateTime compiledAt) {
+        this.rules = IntervalTree.of(ruleIntervals);
+        this.tiers = IntervalTree.of(tierIntervals);
+        this.ruleDefinitions = ruleIntervals.stream()
+                .sorted(Comparator.comparingLong(interval -> interval.value().id()))
+                .toList();
+        this.tierDefinitions = tierIntervals.stream()
+                .sorted(Comparator.comparingLong(interval -> interval.value().id()))
+                .toList();
+        this.boundaries = boundaries(ruleIntervals, tierIntervals);
+        this.compiledAt = compiledAt;
+    }
+
+    private static int[] boundaries(List<IntervalTree.Interval<CompiledRule>> ruleIntervals,
+                                    List<IntervalTree.Interval<CompiledTier>> tierIntervals) {
+        TreeSet<Integer> starts = new TreeSet<>();
+        starts.add(1);
+        List<IntervalTree.Interval<?>> all = new ArrayList<>(ruleIntervals);
+        all.addAll(tierIntervals);
+        for (IntervalTree.Interval<?> interval : all) {
+            if (interval.low() > 1) {
+                starts.add(interval.low());
+            }
+            if (interval.high() >= 1 && interval.high() < Integer.MAX_VALUE) {
+                starts.add(interval.high() + 1);
+            }
+        }
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Compile active rules and all tiers. Rules whose window closed before {@code now} are left out.
+     */
+    public static PricingSnapshot compile(List<PricingRule> pricingRules, List<PricingTier> pricingTiers, LocalDateTime now) {
+        List<IntervalTree.Interval<CompiledRule>> ruleIntervals = new ArrayList<>();
+        for (PricingRule rule : pricingRules) {
+            if (!Boolean.TRUE.equals(rule.getIsActive()) || (rule.getValidUntil() != null && rule.getValidUntil().isBefore(now))) {
+                continue;
+            }
+            CompiledRule compiled = new CompiledRule(rule.getId(), rule.getRuleName(),
+                    rule.getDiscountPercentage(), rule.getDiscountFixed(),
+                    rule.getValidFrom() != null ? rule.getValidFrom() : LocalDateTime.MIN,
+                    rule.getValidUntil() != null ? rule.getValidUntil() : LocalDateTime.MAX);
+            ruleIntervals.add(new IntervalTree.Interval<>(
+                    rule.getMinQuantity() != null ? rule.getMinQuantity() : Integer.MIN_VALUE,
+                    rule.getMaxQuantity() != null ? rule.getMaxQuantity() : Integer.MAX_VALUE,
+                    compiled));
+        }
+
+        List<IntervalTree.Interval<CompiledTier>> tierIntervals = new ArrayList<>();
+        for (PricingTier tier : pricingTiers) {
+            tierIntervals.add(new IntervalTree.Interval<>(tier.getMinQuantity(),
+                    tier.getMaxQuantity() != null ? tier.getMaxQuantity() : Integer.MAX_VALUE,
+                    new CompiledTier(tier.getId(), tier.getTierName(), tier.getMinQuantity(), tier.getDiscountPercentage())));
+        }
+        return new PricingSnapshot(ruleIntervals, tierIntervals, now);
+    }
+
+    /**
+     * The tier for a quantity; where tiers overlap, the one starting highest.
+     */
+    public Optional<CompiledTier> tierFor(int quantity) {
+        return tiers.containing(quantity).stream().min(TIER_ORDER);
+    }
+
+    /**
+     * The rule applied to a quantity at a time: the oldest valid rule whose range contains it.
+     */
+    public Optional<CompiledRule> ruleFor(int quantity, LocalDateTime at) {
+        return rules.containing(quantity).stream()
+                .filter(rule -> rule.isValidAt(at))
+                .min(RULE_ORDER);
+    }
+
+    public Quote quote(BigDecimal basePrice, int quantity, LocalDateTime at) {
+        BigDecimal unitPrice = basePrice;
+        String appliedTier = "No tier";
+
+        Optional<CompiledTier> tier = tierFor(quantity);
+        if (tier.isPresent()) {
+            BigDecimal tierDiscount = basePrice.multiply(tier.get().discountPercentage())
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+            unitPrice = basePrice.subtract(tierDiscount);
+            appliedTier = tier.get().name();
+        }
+
+        String appliedRule = "None";
+        Optional<CompiledRule> rule = ruleFor(quantity, at);
+        if (rule.isPresent()) {
+            BigDecimal ruleDiscount = BigDecimal.ZERO;
+            if (rule.get().discountPercentage() != null) {
+                ruleDiscount = unitPrice.multiply(rule.get().discountPercentage())
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+            } else if (rule.get().discountFixed() != null) {
+                ruleDiscount = rule.get().discountFixed();
+            }
+            unitPrice = unitPrice.subtract(ruleDiscount);
+            appliedRule = rule.get().name();
+        }
+        return new Quote(unitPrice, appliedTier, appliedRule);
+    }
+
+    /**
+     * The quote for every quantity from 1 up, as consecutive bands. Within a band the same tier and rules
+     * apply, so quoting its first quantity prices all of it; neighbours that end up identical are merged.
+     */
+    public List<Band> bands(BigDecimal basePrice, LocalDateTime at) {
+        List<Band> bands = new ArrayList<>();
+        for (int i = 0; i < boundaries.length; i++) {
+            Integer maxQuantity = i + 1 < boundaries.length ? boundaries[i + 1] - 1 : null;
+            Quote quote = quote(basePrice, boundaries[i], at);
+            Band previous = bands.isEmpty() ? null : bands.get(bands.size() - 1);
+            if (previous != null && previous.unitPrice().compareTo(quote.unitPrice()) == 0
+                    && previous.appliedTier().equals(quote.appliedTier())
+                    && previous.appliedRule().equals(quote.appliedRule())) {
+                bands.set(bands.size() - 1, new Band(previous.minQuantity(), maxQuantity,
+                        previous.unitPrice(), previous.appliedTier(), previous.appliedRule()));
+            } else {
+                bands.add(new Band(boundaries[i], maxQuantity, quote.unitPrice(), quote.appliedTier(), quote.appliedRule()));
+            }
+        }
+        return bands;
+    }
+
+    /**
+     * The first moment after {@code after} at which a rule's validity window opens or closes, i.e. at
+     * which quotes computed at {@code after} may stop being current.
+     */
+    public Optional<LocalDateTime> nextTransitionAfter(LocalDateTime after) {
+        LocalDateTime next = null;
+        for (IntervalTree.Interval<CompiledRule> interval : ruleDefinitions) {
+            CompiledRule rule = interval.value();
+            LocalDateTime closes = rule.validUntil().equals(LocalDateTime.MAX) ? null : rule.validUntil().plusNanos(1);
+            for (LocalDateTime transition : new LocalDateTime[] {rule.validFrom(), closes}) {
+                if (transition != null && transition.isAfter(after) && (next == null || transition.isBefore(next))) {
+                    next = transition;
+                }
+            }
+        }
+        return Optional.ofNullable(next);
+    }
+
+    /**
+     * Whether both snapshots hold the same rules and tiers, regardless of when they were compiled.
+     */
+    public boolean sameDefinitionAs(PricingSnapshot other) {
+        return ruleDefinitions.equals(other.ruleDefinitions) && tierDefinitions.equals(other.tierDefinitions);
+    }
+
+    public int ruleCount() {
+        return rules.size();
+    }
+
+    public int tierCount() {
+        return tiers.size();
+    }
+
+    public LocalDateTime compiledAt() {
+        return compiledAt;
+    }
+}
@@ -0,0 +1,7 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+/**
+ * Published by {@link PricingRuleEngine} when a rebuild yields different rules or tiers than the
+ * snapshot it replaces.
+ */
+public record PricingSnapshotChangedEvent(PricingSnapshot snapshot) {}
@@ -5,16 +5,28 @@ import com.rudraksha.shopsphere.pricing.dto.response.*;
 import com.rudraksha.shopsphere.pricing.entity.*;
 import com.rudraksha.shopsphere.pricing.exception.PricingException;
 import com.rudraksha.shopsphere.pricing.repository.*;
+import com.rudraksha.shopsphere.pricing.service.EffectivePriceMaterializer;
+import com.rudraksha.shopsphere.pricing.service.PricingRuleEngine;
 import com.rudraksha.shopsphere.pricing.service.PricingService;
+import com.rudraksha.shopsphere.pricing.service.PricingSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +39,12 @@ public class PricingServiceImpl implements PricingService {
     private final PricingRuleRepository pricingRuleRepository;
     private final PricingTierRepository pricingTierRepository;
     private final PriceHistoryRepository priceHistoryRepository;
+    private final PricingRuleEngine pricingRuleEngine;
+    private final EffectivePriceRepository effectivePriceRepository;
+    private final EffectivePriceMaterializer effectivePriceMaterializer;
+    
+    @Value("${pricing.history.max-query-rows:10000}")
+    private int maxHistoryRows;
     
     @Override
     public ProductPriceResponse createProductPrice(CreateProductPriceRequest request) {
@@ -41,6 +59,14 @@ public class PricingServiceImpl implements PricingService {
                 .build();
         
         price = productPriceRepository.save(price);
+        // Opening entry, so the series alone answers as-of queries from creation on
+        priceHistoryRepository.save(PriceHistory.builder()
+                .productId(request.getProductId())
+                .oldPrice(request.getBasePrice())
+                .newPrice(request.getBasePrice())
+                .changeReason("Initial price")
+                .build());
+        effectivePriceMaterializer.recompute(List.of(price.getProductId()));
         log.info("Created product price for product: {}", request.getProductId());
         return mapToResponse(price);
     }
@@ -80,6 +106,7 @@ public class PricingServiceImpl implements PricingService {
                 .changeReason("Manual update")
                 .build();
         priceHistoryRepository.save(history);
+        effectivePriceMaterializer.recompute(List.of(productId));
         
         log.info("Updated product price for product: {} from {} to {}", 
                 productId, oldPrice, request.getBasePrice());
@@ -92,55 +119,153 @@ public class PricingServiceImpl implements PricingService {
                 .orElseThrow(() -> new PricingException("Product not found: " + productId));
         price.setActive(false);
         productPriceRepository.save(price);
+        effectivePriceMaterializer.recompute(List.of(productId));
         log.info("Deleted product price for product: {}", productId);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public PriceAsOfResponse getPriceAsOf(String productId, LocalDateTime at) {
+        ProductPrice product = productPriceRepository.findByProductId(productId)
+                .orElseThrow(() -> new PricingException("Product not found: " + productId));
+        if (product.getCreatedAt() != null && at.isBefore(product.getCreatedAt())) {
+            throw new PricingException("Product " + productId + " had no price at " + at);
+        }
+        PriceAsOfResponse.PriceAsOfResponseBuilder response = PriceAsOfResponse.builder()
+                .productId(productId)
+                .asOf(at)
+                .currency(product.getCurrency());
+        
+        Optional<PriceHistory> latest = priceHistoryRepository
+                .findFirstByProductIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(productId, at);
+        if (latest.isPresent()) {
+            return response.basePrice(latest.get().getNewPrice())
+                    .effectiveFrom(latest.get().getChangedAt())
+                    .build();
+        }
+        
+        // Earlier than the retained history: the price the first later change started from
+        Optional<PriceHistory> next = priceHistoryRepository
+                .findFirstByProductIdAndChangedAtAfterOrderByChangedAtAscIdAsc(productId, at);
+        if (next.isPresent()) {
+            return response.basePrice(next.get().getOldPrice()).build();
+        }
+        // Never changed
+        return response.basePrice(product.getBasePrice())
+                .effectiveFrom(product.getCreatedAt())
+                .build();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PriceHistorySeriesResponse getPriceHistory(PriceHistoryQueryRequest request) {
+        if (!request.getFrom().isBefore(request.getTo())) {
+            throw new PricingException("From must be before to");
+        }
+        Set<String> productIds = new LinkedHashSet<>(request.getProductIds());
+        List<PriceHistory> changes = priceHistoryRepository.findChanges(productIds, request.getFrom(), request.getTo(),
+                PageRequest.of(0, maxHistoryRows + 1));
+        if (changes.size() > maxHistoryRows) {
+            throw new PricingException("More than " + maxHistoryRows
+                    + " price changes match; narrow the time range or the product list");
+        }
+        
+        Map<String, List<PriceChangeResponse>> series = new LinkedHashMap<>();
+        productIds.forEach(productId -> series.put(productId, new ArrayList<>()));
+        for (PriceHistory change : changes) {
+            series.get(change.getProductId()).add(mapToChangeResponse(change));
+        }
+        return PriceHistorySeriesResponse.builder()
+                .from(request.getFrom())
+                .to(request.getTo())
+                .series(series)
+                .build();
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public PriceCalculationResponse calculatePrice(CalculatePriceRequest request) {
         ProductPrice product = productPriceRepository.findByProductIdAndActiveTrue(request.getProductId())
                 .orElseThrow(() -> new PricingException("Product not found: " + request.getProductId()));
         
-        BigDecimal basePrice = product.getBasePrice();
-        BigDecimal unitPrice = basePrice;
-        BigDecimal discountAmount = BigDecimal.ZERO;
-        String appliedTier = "No tier";
+        // Tier and rule from the compiled snapshot; no queries beyond the product row
+        return calculateLine(product, request, pricingRuleEngine.current(), LocalDateTime.now());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public BatchPriceCalculationResponse calculatePrices(BatchCalculatePriceRequest request) {
+        Set<String> productIds = request.getItems().stream()
+                .map(CalculatePriceRequest::getProductId)
+                .collect(Collectors.toSet());
+        Map<String, ProductPrice> products = productPriceRepository.findAllByProductIdInAndActiveTrue(productIds)
+                .stream()
+                .collect(Collectors.toMap(ProductPrice::getProductId, Function.identity()));
         
-        // Apply tier-based discount
-        var tier = pricingTierRepository.findTierByQuantity(request.getQuantity());
-        if (tier.isPresent()) {
-            PricingTier pricingTier = tier.get();
-            BigDecimal tierDiscount = basePrice.multiply(pricingTier.getDiscountPercentage())
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            unitPrice = basePrice.subtract(tierDiscount);
-            discountAmount = tierDiscount;
-            appliedTier = pricingTier.getTierName();
+        List<String> missing = productIds.stream()
+                .filter(productId -> !products.containsKey(productId))
+                .sorted()
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new PricingException("Products not found: " + missing);
         }
         
-        // Apply rules
-        List<PricingRule> activeRules = pricingRuleRepository.findAllActiveRules(LocalDateTime.now());
-        String appliedRules = "None";
-        BigDecimal ruleDiscount = BigDecimal.ZERO;
+        // Every line sees the same rules and the same moment
+        PricingSnapshot snapshot = pricingRuleEngine.current();
+        LocalDateTime now = LocalDateTime.now();
+        List<PriceCalculationResponse> lines = new ArrayList<>(request.getItems().size());
+        int totalQuantity = 0;
+        BigDecimal baseTotal = BigDecimal.ZERO;
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        BigDecimal discountAmount = BigDecimal.ZERO;
+        for (CalculatePriceRequest item : request.getItems()) {
+            PriceCalculationResponse line = calculateLine(products.get(item.getProductId()), item, snapshot, now);
+            lines.add(line);
+            totalQuantity += line.getQuantity();
+            baseTotal = baseTotal.add(line.getBasePrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+            totalPrice = totalPrice.add(line.getTotalPrice());
+            discountAmount = discountAmount.add(line.getDiscountAmount());
+        }
         
-        for (PricingRule rule : activeRules) {
-            if (rule.getMinQuantity() != null && request.getQuantity() < rule.getMinQuantity()) {
-                continue;
-            }
-            if (rule.getMaxQuantity() != null && request.getQuantity() > rule.getMaxQuantity()) {
-                continue;
-            }
-            
-            if (rule.getDiscountPercentage() != null) {
-                ruleDiscount = unitPrice.multiply(rule.getDiscountPercentage())
-                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            } else if (rule.getDiscountFixed() != null) {
-                ruleDiscount = rule.getDiscountFixed();
-            }
-            
-            unitPrice = unitPrice.subtract(ruleDiscount);
-            appliedRules = rule.getRuleName();
-            break;
+        return BatchPriceCalculationResponse.builder()
+                .items(lines)
+                .totalQuantity(totalQuantity)
+                .baseTotal(baseTotal)
+                .totalPrice(totalPrice)
+                .discountAmount(discountAmount)
+                .build();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public EffectivePriceResponse getEffectivePrice(String productId, Integer quantity) {
+        if (quantity == null || quantity < 1) {
+            throw new PricingException("Quantity must be at least 1");
         }
+        return effectivePriceRepository.findBand(productId, quantity)
+                .map(this::mapToEffectiveResponse)
+                .orElseThrow(() -> new PricingException("No effective price for product: " + productId));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<EffectivePriceResponse> getEffectivePriceBands(String productId) {
+        List<EffectivePriceResponse> bands = effectivePriceRepository.findByProductIdOrderByMinQuantityAsc(productId)
+                .stream()
+                .map(this::mapToEffectiveResponse)
+                .collect(Collectors.toList());
+        if (bands.isEmpty()) {
+            throw new PricingException("No effective price for product: " + productId);
+        }
+        return bands;
+    }
+    
+    private PriceCalculationResponse calculateLine(ProductPrice product, CalculatePriceRequest request,
+                                                   PricingSnapshot snapshot, LocalDateTime now) {
+        BigDecimal basePrice = product.getBasePrice();
+        
+        PricingSnapshot.Quote quote = snapshot.quote(basePrice, request.getQuantity(), now);
+        BigDecimal unitPrice = quote.unitPrice();
         
         // Apply additional discount if provided
         if (request.getAdditionalDiscount() != null) {
@@ -170,8 +295,8 @@ public class PricingServiceImpl implements PricingService {
                 .totalPrice(totalPrice)
                 .discountAmount(totalDiscount)
                 .discountPercentage(discountPercentage)
-                .appliedRules(appliedRules)
-                .appliedTier(appliedTier)
+                .appliedRules(quote.appliedRule())
+                .appliedTier(quote.appliedTier())
                 .build();
     }
     
@@ -189,6 +314,7 @@ public class PricingServiceImpl implements PricingService {
                 .build();
         
         rule = pricingRuleRepository.save(rule);
+        pricingRuleEngine.refreshAfterCommit();
         log.info("Created pricing rule: {}", request.getRuleName());
         return mapToRuleResponse(rule);
     }
@@ -234,6 +360,7 @@ public class PricingServiceImpl implements PricingService {
         rule.setValidUntil(request.getValidUntil());
         
         rule = pricingRuleRepository.save(rule);
+        pricingRuleEngine.refreshAfterCommit();
         log.info("Updated pricing rule: {}", ruleId);
         return mapToRuleResponse(rule);
     }
@@ -244,6 +371,7 @@ public class PricingServiceImpl implements PricingService {
                 .orElseThrow(() -> new PricingException("Pricing rule not found: " + ruleId));
         rule.setIsActive(false);
         pricingRuleRepository.save(rule);
+        pricingRuleEngine.refreshAfterCommit();
         log.info("Deleted pricing rule: {}", ruleId);
     }
     
@@ -301,6 +429,30 @@ public class PricingServiceImpl implements PricingService {
                 .build();
     }
     
+    private PriceChangeResponse mapToChangeResponse(PriceHistory change) {
+        return PriceChangeResponse.builder()
+                .oldPrice(change.getOldPrice())
+                .newPrice(change.getNewPrice())
+                .changedBy(change.getChangedBy())
+                .changeReason(change.getChangeReason())
+                .changedAt(change.getChangedAt())
+                .build();
+    }
+    
+    private EffectivePriceResponse mapToEffectiveResponse(EffectivePrice price) {
+        return EffectivePriceResponse.builder()
+                .productId(price.getProductId())
+                .minQuantity(price.getMinQuantity())
+                .maxQuantity(price.getMaxQuantity())
+                .basePrice(price.getBasePrice())
+                .unitPrice(price.getUnitPrice())
+                .currency(price.getCurrency())
+                .appliedTier(price.getAppliedTier())
+                .appliedRule(price.getAppliedRule())
+                .computedAt(price.getComputedAt())
+                .build();
+    }
+    
     private PricingTierResponse mapToTierResponse(PricingTier tier) {
         return PricingTierResponse.builder()
                 .id(tier.getId())
@@ -0,0 +1,19 @@
+-- Materialized selling price per product and quantity band
+CREATE TABLE effective_prices (
+    id BIGSERIAL PRIMARY KEY,
+    product_id VARCHAR(255) NOT NULL,
+    min_quantity INTEGER NOT NULL CHECK (min_quantity >= 1),
+    max_quantity INTEGER,
+    base_price DECIMAL(10,2) NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    applied_tier VARCHAR(255) NOT NULL,
+    applied_rule VARCHAR(255) NOT NULL,
+    published_price DECIMAL(10,2),
+    publish_pending BOOLEAN NOT NULL DEFAULT false,
+    computed_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_effective_prices_band UNIQUE (product_id, min_quantity),
+    CONSTRAINT effective_band_check CHECK (max_quantity IS NULL OR min_quantity <= max_quantity)
+);
+
+CREATE INDEX idx_effective_prices_pending ON effective_prices(publish_pending);
@@ -0,0 +1,43 @@
+-- Rebuild price_history as a series range-partitioned by month on changed_at.
+-- Partitions for the coming months are created by the application (PriceHistoryPartitionManager);
+-- rows outside every monthly partition land in the default partition.
+ALTER TABLE price_history RENAME TO price_history_legacy;
+ALTER SEQUENCE price_history_id_seq OWNED BY NONE;
+DROP INDEX idx_price_history_product_id;
+
+CREATE TABLE price_history (
+    id BIGINT NOT NULL DEFAULT nextval('price_history_id_seq'),
+    product_id VARCHAR(255) NOT NULL,
+    old_price DECIMAL(10,2) NOT NULL,
+    new_price DECIMAL(10,2) NOT NULL,
+    changed_by VARCHAR(255),
+    change_reason VARCHAR(255),
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, changed_at)
+) PARTITION BY RANGE (changed_at);
+
+CREATE TABLE price_history_default PARTITION OF price_history DEFAULT;
+
+-- One monthly partition per month that already has history, through next month
+DO $$
+DECLARE
+    first_month DATE;
+    part_month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(changed_at), CURRENT_TIMESTAMP))::date INTO first_month FROM price_history_legacy;
+    part_month := first_month;
+    WHILE part_month <= (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '1 month')::date LOOP
+        EXECUTE format('CREATE TABLE price_history_%s PARTITION OF price_history FOR VALUES FROM (%L) TO (%L)',
+                       to_char(part_month, 'YYYYMM'), part_month, (part_month + INTERVAL '1 month')::date);
+        part_month := (part_month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- As-of lookups and range queries: per product, in time order, within each partition
+CREATE INDEX idx_price_history_product_time ON price_history(product_id, changed_at);
+
+INSERT INTO price_history (id, product_id, old_price, new_price, changed_by, change_reason, changed_at)
+SELECT id, product_id, old_price, new_price, changed_by, change_reason, changed_at FROM price_history_legacy;
+
+DROP TABLE price_history_legacy;
+ALTER SEQUENCE price_history_id_seq OWNED BY price_history.id;
@@ -0,0 +1,2 @@
+-- Claim on a pending list price while an instance sends it, so sends happen outside the row lock
+ALTER TABLE effective_prices ADD COLUMN publish_claimed_at TIMESTAMP;
@@ -0,0 +1,190 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.entity.EffectivePrice;
+import com.rudraksha.shopsphere.pricing.entity.PricingRule;
+import com.rudraksha.shopsphere.pricing.entity.PricingTier;
+import com.rudraksha.shopsphere.pricing.entity.ProductPrice;
+import com.rudraksha.shopsphere.pricing.repository.EffectivePriceRepository;
+import com.rudraksha.shopsphere.pricing.repository.ProductPriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EffectivePriceMaterializerTest {
+
+    @Mock
+    private ProductPriceRepository productPriceRepository;
+    @Mock
+    private EffectivePriceRepository effectivePriceRepository;
+    @Mock
+    private PricingRuleEngine pricingRuleEngine;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private EffectivePriceMaterializer materializer;
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private final List<PricingTier> tiers = List.of(
+            PricingTier.builder().id(1L).tierName("Tier 1").minQuantity(1).maxQuantity(10).discountPercentage(BigDecimal.ZERO).build(),
+            PricingTier.builder().id(2L).tierName("Tier 2").minQuantity(11).discountPercentage(BigDecimal.valueOf(5)).build());
+    private ProductPrice product;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(materializer, "batchSize", 2);
+        product = ProductPrice.builder().id(1L).productId("PROD-1").basePrice(new BigDecimal("100.00"))
+                .currency("USD").active(true).build();
+    }
+
+    @Test
+    void recompute_NewProduct_WritesBandsAndFlagsListPrice() {
+        when(effectivePriceRepository.findAllByProductIdIn(List.of("PROD-1"))).thenReturn(List.of());
+
+        int changed = materializer.recompute(List.of(product), PricingSnapshot.compile(List.of(), tiers, now), now);
+
+        assertEquals(1, changed);
+        verify(effectivePriceRepository).deleteByProductIdIn(List.of("PROD-1"));
+        List<EffectivePrice> rows = savedRows();
+        assertEquals(2, rows.size());
+        assertEquals(new BigDecimal("100.00"), rows.get(0).getUnitPrice());
+        assertEquals(10, rows.get(0).getMaxQuantity());
+        assertEquals(new BigDecimal("95.00"), rows.get(1).getUnitPrice());
+        assertNull(rows.get(1).getMaxQuantity());
+        assertTrue(rows.get(0).getPublishPending());
+        assertNull(rows.get(0).getPublishedPrice());
+        assertFalse(rows.get(1).getPublishPending());
+    }
+
+    @Test
+    void recompute_Unchanged_WritesNothing() {
+        PricingSnapshot snapshot = PricingSnapshot.compile(List.of(), tiers, now);
+        when(effectivePriceRepository.findAllByProductIdIn(List.of("PROD-1"))).thenReturn(List.of());
+        materializer.recompute(List.of(product), snapshot, now);
+        List<EffectivePrice> stored = savedRows();
+        clearInvocations(effectivePriceRepository);
+        when(effectivePriceRepository.findAllByProductIdIn(List.of("PROD-1"))).thenReturn(stored);
+
+        int changed = materializer.recompute(List.of(product), snapshot, now.plusMinutes(5));
+
+        assertEquals(0, changed);
+        verify(effectivePriceRepository, never()).deleteByProductIdIn(anyCollection());
+        verify(effectivePriceRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void recompute_RuleChange_KeepsLastPublishedListPrice() {
+        EffectivePrice published = EffectivePrice.builder().productId("PROD-1").minQuantity(1).maxQuantity(null)
+                .basePrice(new BigDecimal("100.00")).unitPrice(new BigDecimal("100.00")).currency("USD")
+                .appliedTier("No tier").appliedRule("None").publishedPrice(new BigDecimal("100.00"))
+                .publishPending(false).computedAt(now).build();
+        when(effectivePriceRepository.findAllByProductIdIn(List.of("PROD-1"))).thenReturn(List.of(published));
+        PricingRule sale = PricingRule.builder().id(1L).ruleName("Summer Sale").ruleType(PricingRule.RuleType.SEASONAL)
+                .discountPercentage(BigDecimal.TEN).isActive(true).build();
+
+        materializer.recompute(List.of(product), PricingSnapshot.compile(List.of(sale), List.of(), now), now);
+
+        EffectivePrice listPrice = savedRows().get(0);
+        assertEquals(new BigDecimal("90.00"), listPrice.getUnitPrice());
+        assertEquals(new BigDecimal("100.00"), listPrice.getPublishedPrice());
+        assertTrue(listPrice.getPublishPending());
+    }
+
+    @Test
+    void recompute_InactiveProduct_RemovesRows() {
+        product.setActive(false);
+        EffectivePrice stored = EffectivePrice.builder().productId("PROD-1").minQuantity(1)
+                .basePrice(new BigDecimal("100.00")).unitPrice(new BigDecimal("100.00")).currency("USD")
+                .appliedTier("No tier").appliedRule("None").computedAt(now).build();
+        when(effectivePriceRepository.findAllByProductIdIn(List.of("PROD-1"))).thenReturn(List.of(stored));
+
+        assertEquals(1, materializer.recompute(List.of(product), PricingSnapshot.EMPTY, now));
+
+        verify(effectivePriceRepository).deleteByProductIdIn(List.of("PROD-1"));
+        assertTrue(savedRows().isEmpty());
+    }
+
+    @Test
+    void recompute_PriceChangeWhileListPriceIsBeingSent_KeepsClaim() {
+        LocalDateTime claimedAt = now.minusSeconds(2);
+        EffectivePrice sending = EffectivePrice.builder().productId("PROD-1").minQuantity(1).maxQuantity(null)
+                .basePrice(new BigDecimal("100.00")).unitPrice(new BigDecimal("100.00")).currency("USD")
+                .appliedTier("No tier").appliedRule("None").publishedPrice(new BigDecimal("80.00"))
+                .publishPending(true).publishClaimedAt(claimedAt).computedAt(now).build();
+        when(effectivePriceRepository.findAllByProductIdIn(List.of("PROD-1"))).thenReturn(List.of(sending));
+        product.setBasePrice(new BigDecimal("120.00"));
+
+        materializer.recompute(List.of(product), PricingSnapshot.compile(List.of(), List.of(), now), now);
+
+        // Held back until the publisher releases the old price's claim, so the two cannot be reordered
+        EffectivePrice listPrice = savedRows().get(0);
+        assertEquals(new BigDecimal("120.00"), listPrice.getUnitPrice());
+        assertEquals(claimedAt, listPrice.getPublishClaimedAt());
+        assertTrue(listPrice.getPublishPending());
+    }
+
+    @Test
+    void reconcile_LockHeldByAnotherInstance_SkipsAndRetriesNextRun() {
+        when(pricingRuleEngine.current()).thenReturn(PricingSnapshot.compile(List.of(), tiers, now));
+        when(effectivePriceRepository.tryLockReconcile()).thenReturn(false, true);
+        when(productPriceRepository.findPageForUpdate(eq(0L), any(Pageable.class))).thenReturn(List.of(product));
+
+        materializer.reconcile();
+
+        verify(productPriceRepository, never()).findPageForUpdate(anyLong(), any(Pageable.class));
+
+        materializer.reconcile();
+
+        verify(productPriceRepository).findPageForUpdate(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void reconcile_RunsOnceUntilSnapshotChanges() {
+        ProductPrice second = ProductPrice.builder().id(2L).productId("PROD-2").basePrice(BigDecimal.TEN)
+                .currency("USD").active(true).build();
+        when(effectivePriceRepository.tryLockReconcile()).thenReturn(true);
+        when(pricingRuleEngine.current()).thenReturn(PricingSnapshot.compile(List.of(), tiers, now));
+        when(productPriceRepository.findPageForUpdate(eq(0L), any(Pageable.class))).thenReturn(List.of(product, second));
+        when(productPriceRepository.findPageForUpdate(eq(2L), any(Pageable.class))).thenReturn(List.of());
+
+        materializer.reconcile();
+        materializer.reconcile();
+
+        // Keyset paging: a full batch asks for the next page, and nothing runs again until a change
+        verify(productPriceRepository).findPageForUpdate(eq(0L), any(Pageable.class));
+        verify(productPriceRepository).findPageForUpdate(eq(2L), any(Pageable.class));
+
+        materializer.onSnapshotChanged(new PricingSnapshotChangedEvent(PricingSnapshot.EMPTY));
+        materializer.reconcile();
+
+        verify(productPriceRepository, times(2)).findPageForUpdate(eq(0L), any(Pageable.class));
+        verify(productPriceRepository, times(2)).findPageForUpdate(eq(2L), any(Pageable.class));
+        verify(productPriceRepository, times(4)).findPageForUpdate(anyLong(), any(Pageable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EffectivePrice> savedRows() {
+        ArgumentCaptor<List<EffectivePrice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(effectivePriceRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,104 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.entity.EffectivePrice;
+import com.rudraksha.shopsphere.pricing.event.PriceEventProducer;
+import com.rudraksha.shopsphere.pricing.repository.EffectivePriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EffectivePricePublisherTest {
+
+    @Mock
+    private EffectivePriceRepository effectivePriceRepository;
+    @Mock
+    private PriceEventProducer priceEventProducer;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private EffectivePricePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(publisher, "batchSize", 10);
+        ReflectionTestUtils.setField(publisher, "sendTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(publisher, "claimLease", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void publishBatch_CommitsClaimBeforeSending() {
+        EffectivePrice listPrice = listPrice(1L, "PROD-1");
+        when(effectivePriceRepository.findPendingPublication(any(), any(Pageable.class))).thenReturn(List.of(listPrice));
+        when(priceEventProducer.sendEffectivePriceEvent(listPrice)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(1, publisher.publishBatch());
+
+        // No row lock is held while the broker acknowledges
+        InOrder inOrder = inOrder(effectivePriceRepository, transactionManager, priceEventProducer);
+        inOrder.verify(effectivePriceRepository).claimPublication(eq(List.of(1L)), any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(priceEventProducer).sendEffectivePriceEvent(listPrice);
+        inOrder.verify(effectivePriceRepository).markPublished(List.of(1L));
+        inOrder.verify(effectivePriceRepository).releasePublication(List.of("PROD-1"));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void publishBatch_UnacknowledgedSend_ReleasesClaimWithoutMarking() {
+        EffectivePrice sent = listPrice(1L, "PROD-1");
+        EffectivePrice failed = listPrice(2L, "PROD-2");
+        when(effectivePriceRepository.findPendingPublication(any(), any(Pageable.class))).thenReturn(List.of(sent, failed));
+        when(priceEventProducer.sendEffectivePriceEvent(sent)).thenReturn(CompletableFuture.completedFuture(null));
+        when(priceEventProducer.sendEffectivePriceEvent(failed))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertEquals(1, publisher.publishBatch());
+
+        verify(effectivePriceRepository).markPublished(List.of(1L));
+        verify(effectivePriceRepository).releasePublication(List.of("PROD-1", "PROD-2"));
+    }
+
+    @Test
+    void publishBatch_SkipsClaimsYoungerThanLease() {
+        when(effectivePriceRepository.findPendingPublication(any(), any(Pageable.class))).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(0, publisher.publishBatch());
+
+        verify(effectivePriceRepository).findPendingPublication(
+                argThat(staleBefore -> !staleBefore.isBefore(before.minusMinutes(1))
+                        && staleBefore.isBefore(before.minusSeconds(59))),
+                any(Pageable.class));
+        verify(effectivePriceRepository, never()).claimPublication(anyCollection(), any());
+        verifyNoInteractions(priceEventProducer);
+    }
+
+    private EffectivePrice listPrice(Long id, String productId) {
+        return EffectivePrice.builder().id(id).productId(productId).minQuantity(1)
+                .basePrice(new BigDecimal("100.00")).unitPrice(new BigDecimal("90.00")).currency("USD")
+                .appliedTier("No tier").appliedRule("Summer Sale").publishedPrice(new BigDecimal("100.00"))
+                .publishPending(true).computedAt(LocalDateTime.now()).build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.repository.PriceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryPartitionManagerTest {
+
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PriceHistoryPartitionManager manager;
+
+    private final LocalDateTime now = LocalDateTime.of(2026, 3, 15, 3, 30);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(manager, "partitionsAhead", 2);
+        ReflectionTestUtils.setField(manager, "compactAfter", Duration.ofDays(90));
+        ReflectionTestUtils.setField(manager, "retention", Duration.ofDays(365));
+    }
+
+    @Test
+    void ensurePartitions_CreatesOnlyMissingMonths() {
+        when(priceHistoryRepository.isPartitioned()).thenReturn(true);
+        when(priceHistoryRepository.findMonthlyPartitions()).thenReturn(List.of(YearMonth.of(2026, 3)));
+
+        manager.ensurePartitions(now);
+
+        verify(priceHistoryRepository).createMonthlyPartition(YearMonth.of(2026, 4));
+        verify(priceHistoryRepository).createMonthlyPartition(YearMonth.of(2026, 5));
+        verify(priceHistoryRepository, never()).createMonthlyPartition(YearMonth.of(2026, 3));
+    }
+
+    @Test
+    void expire_DropsWholeMonthsPastRetentionThenDeletesRest() {
+        when(priceHistoryRepository.isPartitioned()).thenReturn(true);
+        when(priceHistoryRepository.findMonthlyPartitions()).thenReturn(List.of(
+                YearMonth.of(2025, 2), YearMonth.of(2025, 3), YearMonth.of(2025, 4)));
+        when(priceHistoryRepository.deleteBefore(any())).thenReturn(7);
+
+        assertEquals(7, manager.expire(now));
+
+        // Horizon is 2025-03-15: February is entirely past it, March is not
+        verify(priceHistoryRepository).dropMonthlyPartition(YearMonth.of(2025, 2));
+        verify(priceHistoryRepository, never()).dropMonthlyPartition(YearMonth.of(2025, 3));
+        verify(priceHistoryRepository).deleteBefore(now.minusDays(365));
+    }
+
+    @Test
+    void compact_WholeDaysOfTheMonthPastCompactionAge() {
+        when(priceHistoryRepository.compact(any(), any())).thenReturn(3);
+
+        assertEquals(3, manager.compact(now));
+
+        LocalDateTime to = LocalDateTime.of(2025, 12, 15, 0, 0);
+        verify(priceHistoryRepository).compact(to.minusMonths(1), to);
+    }
+
+    @Test
+    void unpartitioned_OnlyRowLevelExpiry() {
+        when(priceHistoryRepository.isPartitioned()).thenReturn(false);
+
+        manager.ensurePartitions(now);
+        manager.expire(now);
+
+        verify(priceHistoryRepository, never()).createMonthlyPartition(any());
+        verify(priceHistoryRepository, never()).dropMonthlyPartition(any());
+        verify(priceHistoryRepository).deleteBefore(now.minusDays(365));
+    }
+}
@@ -0,0 +1,149 @@
+package com.rudraksha.shopsphere.pricing.service;
+
+import com.rudraksha.shopsphere.pricing.entity.PricingRule;
+import com.rudraksha.shopsphere.pricing.entity.PricingTier;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingSnapshotTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void tierFor_UsesSeededTierRanges() {
+        PricingSnapshot snapshot = PricingSnapshot.compile(List.of(), List.of(
+                tier(1L, "Tier 1", 1, 10, 0), tier(2L, "Tier 2", 11, 50, 5),
+                tier(3L, "Tier 3", 51, 100, 10), tier(4L, "Tier 4", 101, null, 15)), now);
+
+        assertEquals("Tier 1", snapshot.tierFor(10).orElseThrow().name());
+        assertEquals("Tier 2", snapshot.tierFor(11).orElseThrow().name());
+        assertEquals("Tier 4", snapshot.tierFor(1_000_000).orElseThrow().name());
+        assertTrue(snapshot.tierFor(0).isEmpty());
+    }
+
+    @Test
+    void ruleFor_OldestValidRuleInRange() {
+        PricingRule summer = rule(5L, "Summer Sale", null, null, now.minusDays(1), now.plusDays(90));
+        PricingRule bulk = rule(2L, "Bulk 50+", 50, null, now.minusDays(1), now.plusDays(180));
+        PricingRule upcoming = rule(1L, "Upcoming", null, null, now.plusDays(1), null);
+        PricingRule expired = rule(0L, "Expired", null, null, null, now.minusSeconds(1));
+        PricingRule inactive = rule(3L, "Inactive", null, null, null, null);
+        inactive.setIsActive(false);
+        PricingSnapshot snapshot = PricingSnapshot.compile(List.of(summer, bulk, upcoming, expired, inactive), List.of(), now);
+
+        assertEquals(3, snapshot.ruleCount());
+        assertEquals("Summer Sale", snapshot.ruleFor(10, now).orElseThrow().name());
+        assertEquals("Bulk 50+", snapshot.ruleFor(50, now).orElseThrow().name());
+        // The window is precomputed, so the upcoming rule applies once it opens without a rebuild
+        assertEquals("Upcoming", snapshot.ruleFor(10, now.plusDays(1)).orElseThrow().name());
+        // Window bounds are inclusive
+        assertEquals("Summer Sale", snapshot.ruleFor(10, summer.getValidFrom()).orElseThrow().name());
+    }
+
+    @Test
+    void quote_AppliesTierThenRule() {
+        PricingRule fixed = rule(1L, "Five off", 2, 5, null, null);
+        fixed.setDiscountPercentage(null);
+        fixed.setDiscountFixed(new BigDecimal("5.00"));
+        PricingSnapshot snapshot = PricingSnapshot.compile(List.of(fixed), List.of(tier(1L, "Tier 1", 1, 10, 10)), now);
+
+        PricingSnapshot.Quote quote = snapshot.quote(new BigDecimal("99.99"), 3, now);
+
+        // 99.99 - 10.00 (tier) - 5.00 (rule)
+        assertEquals(new BigDecimal("84.99"), quote.unitPrice());
+        assertEquals("Tier 1", quote.appliedTier());
+        assertEquals("Five off", quote.appliedRule());
+        assertEquals("None", snapshot.quote(BigDecimal.TEN, 6, now).appliedRule());
+    }
+
+    @Test
+    void bands_MatchQuoteForEveryQuantity() {
+        PricingSnapshot snapshot = PricingSnapshot.compile(List.of(
+                rule(3L, "Summer Sale", null, null, now.minusDays(1), now.plusDays(90)),
+                rule(1L, "Bulk 50+", 50, null, now.minusDays(1), now.plusDays(180)),
+                rule(2L, "Bulk 100+", 100, null, now.minusDays(1), now.plusDays(180))), List.of(
+                tier(1L, "Tier 1", 1, 10, 0), tier(2L, "Tier 2", 11, 50, 5),
+                tier(3L, "Tier 3", 51, 100, 10), tier(4L, "Tier 4", 101, null, 15)), now);
+        BigDecimal basePrice = new BigDecimal("99.99");
+
+        List<PricingSnapshot.Band> bands = snapshot.bands(basePrice, now);
+
+        assertEquals(1, bands.get(0).minQuantity());
+        assertNull(bands.get(bands.size() - 1).maxQuantity());
+        for (int quantity = 1; quantity <= 250; quantity++) {
+            int q = quantity;
+            PricingSnapshot.Band band = bands.stream()
+                    .filter(b -> b.minQuantity() <= q && (b.maxQuantity() == null || q <= b.maxQuantity()))
+                    .findFirst()
+                    .orElseThrow();
+            PricingSnapshot.Quote quote = snapshot.quote(basePrice, quantity, now);
+            assertEquals(quote.unitPrice(), band.unitPrice(), "quantity " + quantity);
+            assertEquals(quote.appliedTier(), band.appliedTier(), "quantity " + quantity);
+            assertEquals(quote.appliedRule(), band.appliedRule(), "quantity " + quantity);
+        }
+        // Bulk 50+ splits tier 2; Bulk 100+ never wins over the older Bulk 50+, so its boundary merges away
+        assertEquals(5, bands.size());
+    }
+
+    @Test
+    void nextTransitionAfter_RuleWindowBounds() {
+        PricingRule upcoming = rule(1L, "Upcoming", null, null, now.plusDays(1), now.plusDays(2));
+        PricingRule open = rule(2L, "Open", null, null, null, null);
+        PricingSnapshot snapshot = PricingSnapshot.compile(List.of(upcoming, open), List.of(), now);
+
+        assertEquals(now.plusDays(1), snapshot.nextTransitionAfter(now).orElseThrow());
+        // Inclusive end: the rule stops applying just after validUntil
+        assertEquals(now.plusDays(2).plusNanos(1), snapshot.nextTransitionAfter(now.plusDays(1)).orElseThrow());
+        assertTrue(snapshot.nextTransitionAfter(now.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void sameDefinitionAs_IgnoresCompileTime() {
+        List<PricingRule> rules = List.of(rule(1L, "Summer Sale", null, null, null, null));
+        List<PricingTier> tiers = List.of(tier(1L, "Tier 1", 1, 10, 0));
+        PricingSnapshot first = PricingSnapshot.compile(rules, tiers, now);
+
+        assertTrue(first.sameDefinitionAs(PricingSnapshot.compile(rules, tiers, now.plusMinutes(1))));
+        assertFalse(first.sameDefinitionAs(PricingSnapshot.compile(rules, List.of(), now)));
+        assertFalse(first.sameDefinitionAs(PricingSnapshot.EMPTY));
+    }
+
+    @Test
+    void intervalTree_MatchesLinearScan() {
+        Random random = new Random(42);
+        List<IntervalTree.Interval<Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int low = random.nextInt(1_000);
+            intervals.add(new IntervalTree.Interval<>(low, low + random.nextInt(200), i));
+        }
+        IntervalTree<Integer> tree = IntervalTree.of(intervals);
+
+        for (int point = -5; point < 1_250; point++) {
+            int p = point;
+            List<Integer> expected = intervals.stream()
+                    .filter(interval -> interval.low() <= p && p <= interval.high())
+                    .map(IntervalTree.Interval::value)
+                    .sorted()
+                    .toList();
+            assertEquals(expected, tree.containing(point).stream().sorted().toList());
+        }
+    }
+
+    private static PricingTier tier(Long id, String name, int min, Integer max, int percentage) {
+        return PricingTier.builder().id(id).tierName(name).minQuantity(min).maxQuantity(max)
+                .discountPercentage(BigDecimal.valueOf(percentage)).build();
+    }
+
+    private static PricingRule rule(Long id, String name, Integer min, Integer max, LocalDateTime from, LocalDateTime until) {
+        return PricingRule.builder().id(id).ruleName(name).ruleType(PricingRule.RuleType.SEASONAL)
+                .discountPercentage(BigDecimal.TEN).minQuantity(min).maxQuantity(max)
+                .validFrom(from).validUntil(until).isActive(true).build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.rudraksha.shopsphere.pricing.service.impl;
+
+import com.rudraksha.shopsphere.pricing.dto.request.BatchCalculatePriceRequest;
+import com.rudraksha.shopsphere.pricing.dto.request.CalculatePriceRequest;
+import com.rudraksha.shopsphere.pricing.dto.response.BatchPriceCalculationResponse;
+import com.rudraksha.shopsphere.pricing.entity.PricingRule;
+import com.rudraksha.shopsphere.pricing.entity.PricingTier;
+import com.rudraksha.shopsphere.pricing.entity.ProductPrice;
+import com.rudraksha.shopsphere.pricing.repository.PriceHistoryRepository;
+import com.rudraksha.shopsphere.pricing.repository.PricingRuleRepository;
+import com.rudraksha.shopsphere.pricing.repository.PricingTierRepository;
+import com.rudraksha.shopsphere.pricing.repository.ProductPriceRepository;
+import com.rudraksha.shopsphere.pricing.service.PricingRuleEngine;
+import com.rudraksha.shopsphere.pricing.service.PricingSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Database round trips and evaluation cost of pricing a whole cart in one call. Pricing the same carts
+ * line by line through calculatePrice took one product query per line.
+ */
+@ExtendWith(MockitoExtension.class)
+@Slf4j
+class BatchPriceCalculationBenchmarkTest {
+
+    private static final int ROUNDS = 200;
+
+    @Mock
+    private ProductPriceRepository productPriceRepository;
+    @Mock
+    private PricingRuleRepository pricingRuleRepository;
+    @Mock
+    private PricingTierRepository pricingTierRepository;
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private PricingRuleEngine pricingRuleEngine;
+
+    @InjectMocks
+    private PricingServiceImpl pricingService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30, 300})
+    void batchCalculation_OneProductQueryPerCart(int lines) {
+        List<ProductPrice> products = new ArrayList<>();
+        List<CalculatePriceRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            String productId = "PROD" + i;
+            products.add(ProductPrice.builder().id((long) i).productId(productId)
+                    .basePrice(new BigDecimal("19.99").add(BigDecimal.valueOf(i))).currency("USD").active(true).build());
+            items.add(CalculatePriceRequest.builder().productId(productId).quantity(1 + i % 120).build());
+        }
+        when(productPriceRepository.findAllByProductIdInAndActiveTrue(anyCollection())).thenReturn(products);
+        when(pricingRuleEngine.current()).thenReturn(snapshot());
+        BatchCalculatePriceRequest request = new BatchCalculatePriceRequest(items);
+
+        BatchPriceCalculationResponse response = pricingService.calculatePrices(request);
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            pricingService.calculatePrices(request);
+        }
+        long nanosPerLine = (System.nanoTime() - start) / ((long) ROUNDS * lines);
+        log.debug("{} lines: 1 product query per cart, {} ns/line", lines, nanosPerLine);
+
+        assertEquals(lines, response.getItems().size());
+        assertEquals(0, response.getTotalPrice().compareTo(response.getItems().stream()
+                .map(line -> line.getTotalPrice()).reduce(BigDecimal.ZERO, BigDecimal::add)));
+        verify(productPriceRepository, times(ROUNDS + 1)).findAllByProductIdInAndActiveTrue(anyCollection());
+        verify(productPriceRepository, never()).findByProductIdAndActiveTrue(any());
+        verifyNoInteractions(pricingRuleRepository, pricingTierRepository);
+    }
+
+    private static PricingSnapshot snapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        return PricingSnapshot.compile(
+                List.of(PricingRule.builder().id(1L).ruleName("Summer Sale").ruleType(PricingRule.RuleType.SEASONAL)
+                                .discountPercentage(BigDecimal.valueOf(20)).validFrom(now.minusDays(1)).validUntil(now.plusDays(90)).isActive(true).build(),
+                        PricingRule.builder().id(2L).ruleName("Bulk Purchase 50+").ruleType(PricingRule.RuleType.BULK_DISCOUNT)
+                                .discountPercentage(BigDecimal.valueOf(15)).minQuantity(50).isActive(true).build()),
+                List.of(PricingTier.builder().id(1L).tierName("Tier 1").minQuantity(1).maxQuantity(10).discountPercentage(BigDecimal.ZERO).build(),
+                        PricingTier.builder().id(2L).tierName("Tier 2").minQuantity(11).maxQuantity(50).discountPercentage(BigDecimal.valueOf(5)).build(),
+                        PricingTier.builder().id(3L).tierName("Tier 3").minQuantity(51).discountPercentage(BigDecimal.valueOf(10)).build()),
+                now);
+    }
+}
@@ -1,28 +1,45 @@
 package com.rudraksha.shopsphere.pricing.service.impl;
 
+import com.rudraksha.shopsphere.pricing.dto.request.BatchCalculatePriceRequest;
 import com.rudraksha.shopsphere.pricing.dto.request.CalculatePriceRequest;
 import com.rudraksha.shopsphere.pricing.dto.request.CreateProductPriceRequest;
+import com.rudraksha.shopsphere.pricing.dto.request.PriceHistoryQueryRequest;
+import com.rudraksha.shopsphere.pricing.dto.response.EffectivePriceResponse;
+import com.rudraksha.shopsphere.pricing.dto.response.PriceAsOfResponse;
 import com.rudraksha.shopsphere.pricing.dto.response.PriceCalculationResponse;
+import com.rudraksha.shopsphere.pricing.dto.response.PriceHistorySeriesResponse;
 import com.rudraksha.shopsphere.pricing.dto.response.ProductPriceResponse;
+import com.rudraksha.shopsphere.pricing.entity.EffectivePrice;
+import com.rudraksha.shopsphere.pricing.entity.PriceHistory;
+import com.rudraksha.shopsphere.pricing.entity.PricingRule;
+import com.rudraksha.shopsphere.pricing.entity.PricingTier;
 import com.rudraksha.shopsphere.pricing.entity.ProductPrice;
 import com.rudraksha.shopsphere.pricing.exception.PricingException;
+import com.rudraksha.shopsphere.pricing.repository.EffectivePriceRepository;
 import com.rudraksha.shopsphere.pricing.repository.PriceHistoryRepository;
 import com.rudraksha.shopsphere.pricing.repository.PricingRuleRepository;
 import com.rudraksha.shopsphere.pricing.repository.PricingTierRepository;
 import com.rudraksha.shopsphere.pricing.repository.ProductPriceRepository;
+import com.rudraksha.shopsphere.pricing.service.EffectivePriceMaterializer;
+import com.rudraksha.shopsphere.pricing.service.PricingRuleEngine;
+import com.rudraksha.shopsphere.pricing.service.PricingSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
-import java.util.Collections;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +53,12 @@ class PricingServiceImplTest {
     private PricingTierRepository pricingTierRepository;
     @Mock
     private PriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private PricingRuleEngine pricingRuleEngine;
+    @Mock
+    private EffectivePriceRepository effectivePriceRepository;
+    @Mock
+    private EffectivePriceMaterializer effectivePriceMaterializer;
 
     @InjectMocks
     private PricingServiceImpl pricingService;
@@ -98,8 +121,7 @@ class PricingServiceImplTest {
         request.setQuantity(1);
 
         when(productPriceRepository.findByProductIdAndActiveTrue(productId)).thenReturn(Optional.of(productPrice));
-        when(pricingTierRepository.findTierByQuantity(1)).thenReturn(Optional.empty());
-        when(pricingRuleRepository.findAllActiveRules(any())).thenReturn(Collections.emptyList());
+        when(pricingRuleEngine.current()).thenReturn(PricingSnapshot.EMPTY);
 
         PriceCalculationResponse response = pricingService.calculatePrice(request);
 
@@ -107,4 +129,144 @@ class PricingServiceImplTest {
         assertTrue(BigDecimal.valueOf(100.0).compareTo(response.getUnitPrice()) == 0);
         assertTrue(BigDecimal.valueOf(100.0).compareTo(response.getTotalPrice()) == 0);
     }
+
+    @Test
+    void calculatePrice_UsesSnapshotWithoutRuleOrTierQueries() {
+        CalculatePriceRequest request = new CalculatePriceRequest();
+        request.setProductId(productId);
+        request.setQuantity(20);
+        PricingTier tier = PricingTier.builder().id(2L).tierName("Tier 2").minQuantity(11).maxQuantity(50)
+                .discountPercentage(BigDecimal.valueOf(5)).build();
+        PricingRule rule = PricingRule.builder().id(1L).ruleName("Summer Sale").ruleType(PricingRule.RuleType.SEASONAL)
+                .discountPercentage(BigDecimal.valueOf(10)).isActive(true).build();
+
+        when(productPriceRepository.findByProductIdAndActiveTrue(productId)).thenReturn(Optional.of(productPrice));
+        when(pricingRuleEngine.current()).thenReturn(PricingSnapshot.compile(List.of(rule), List.of(tier), LocalDateTime.now()));
+
+        PriceCalculationResponse response = pricingService.calculatePrice(request);
+
+        // 100 - 5% = 95, then - 10% = 85.50
+        assertEquals(0, new BigDecimal("85.50").compareTo(response.getUnitPrice()));
+        assertEquals("Tier 2", response.getAppliedTier());
+        assertEquals("Summer Sale", response.getAppliedRules());
+        verifyNoInteractions(pricingRuleRepository, pricingTierRepository);
+    }
+
+    @Test
+    void calculatePrices_MissingProduct_ListsAllMissing() {
+        BatchCalculatePriceRequest request = new BatchCalculatePriceRequest(List.of(
+                CalculatePriceRequest.builder().productId(productId).quantity(1).build(),
+                CalculatePriceRequest.builder().productId("PROD-X").quantity(1).build(),
+                CalculatePriceRequest.builder().productId("PROD-Y").quantity(2).build()));
+        when(productPriceRepository.findAllByProductIdInAndActiveTrue(any())).thenReturn(List.of(productPrice));
+
+        PricingException thrown = assertThrows(PricingException.class, () -> pricingService.calculatePrices(request));
+
+        assertEquals("Products not found: [PROD-X, PROD-Y]", thrown.getMessage());
+        verifyNoInteractions(pricingRuleEngine);
+    }
+
+    @Test
+    void updateProductPrice_RecomputesEffectivePrice() {
+        CreateProductPriceRequest request = new CreateProductPriceRequest();
+        request.setProductId(productId);
+        request.setBasePrice(BigDecimal.valueOf(80.00));
+        request.setCurrency("USD");
+        when(productPriceRepository.findByProductId(productId)).thenReturn(Optional.of(productPrice));
+        when(productPriceRepository.save(any(ProductPrice.class))).thenReturn(productPrice);
+
+        pricingService.updateProductPrice(productId, request);
+
+        verify(effectivePriceMaterializer).recompute(List.of(productId));
+    }
+
+    @Test
+    void getEffectivePrice_ReadsMaterializedBand() {
+        EffectivePrice band = EffectivePrice.builder().productId(productId).minQuantity(11).maxQuantity(50)
+                .basePrice(BigDecimal.valueOf(100.00)).unitPrice(new BigDecimal("85.50")).currency("USD")
+                .appliedTier("Tier 2").appliedRule("Summer Sale").computedAt(LocalDateTime.now()).build();
+        when(effectivePriceRepository.findBand(productId, 20)).thenReturn(Optional.of(band));
+
+        EffectivePriceResponse response = pricingService.getEffectivePrice(productId, 20);
+
+        assertEquals(new BigDecimal("85.50"), response.getUnitPrice());
+        assertEquals("Tier 2", response.getAppliedTier());
+        verifyNoInteractions(pricingRuleEngine, pricingRuleRepository, pricingTierRepository);
+    }
+
+    @Test
+    void getPriceAsOf_LatestChangeAtOrBefore() {
+        LocalDateTime at = LocalDateTime.of(2024, 6, 1, 12, 0);
+        PriceHistory change = PriceHistory.builder().productId(productId).oldPrice(BigDecimal.valueOf(120.00))
+                .newPrice(BigDecimal.valueOf(100.00)).changedAt(at.minusDays(3)).build();
+        when(productPriceRepository.findByProductId(productId)).thenReturn(Optional.of(productPrice));
+        when(priceHistoryRepository.findFirstByProductIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(productId, at))
+                .thenReturn(Optional.of(change));
+
+        PriceAsOfResponse response = pricingService.getPriceAsOf(productId, at);
+
+        assertEquals(BigDecimal.valueOf(100.00), response.getBasePrice());
+        assertEquals(at.minusDays(3), response.getEffectiveFrom());
+        verify(priceHistoryRepository, never()).findFirstByProductIdAndChangedAtAfterOrderByChangedAtAscIdAsc(any(), any());
+    }
+
+    @Test
+    void getPriceAsOf_BeforeRetainedHistory_UsesNextChangesOldPrice() {
+        LocalDateTime at = LocalDateTime.of(2022, 1, 1, 0, 0);
+        PriceHistory next = PriceHistory.builder().productId(productId).oldPrice(BigDecimal.valueOf(90.00))
+                .newPrice(BigDecimal.valueOf(100.00)).changedAt(at.plusMonths(1)).build();
+        when(productPriceRepository.findByProductId(productId)).thenReturn(Optional.of(productPrice));
+        when(priceHistoryRepository.findFirstByProductIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(productId, at))
+                .thenReturn(Optional.empty());
+        when(priceHistoryRepository.findFirstByProductIdAndChangedAtAfterOrderByChangedAtAscIdAsc(productId, at))
+                .thenReturn(Optional.of(next));
+
+        PriceAsOfResponse response = pricingService.getPriceAsOf(productId, at);
+
+        assertEquals(BigDecimal.valueOf(90.00), response.getBasePrice());
+        assertNull(response.getEffectiveFrom());
+    }
+
+    @Test
+    void getPriceAsOf_BeforeProductExisted_Throws() {
+        productPrice.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(productPriceRepository.findByProductId(productId)).thenReturn(Optional.of(productPrice));
+
+        assertThrows(PricingException.class,
+                () -> pricingService.getPriceAsOf(productId, LocalDateTime.of(2023, 12, 31, 23, 59)));
+        verifyNoInteractions(priceHistoryRepository);
+    }
+
+    @Test
+    void getPriceHistory_GroupsOneQueryByProduct() {
+        ReflectionTestUtils.setField(pricingService, "maxHistoryRows", 100);
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = from.plusMonths(3);
+        PriceHistory first = PriceHistory.builder().productId("PROD-A").oldPrice(BigDecimal.TEN)
+                .newPrice(BigDecimal.ONE).changedAt(from.plusDays(1)).build();
+        PriceHistory second = PriceHistory.builder().productId("PROD-A").oldPrice(BigDecimal.ONE)
+                .newPrice(BigDecimal.TEN).changedAt(from.plusDays(2)).build();
+        when(priceHistoryRepository.findChanges(any(), eq(from), eq(to), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+
+        PriceHistorySeriesResponse response = pricingService.getPriceHistory(new PriceHistoryQueryRequest(
+                List.of("PROD-A", "PROD-B"), from, to));
+
+        assertEquals(2, response.getSeries().get("PROD-A").size());
+        assertEquals(from.plusDays(2), response.getSeries().get("PROD-A").get(1).getChangedAt());
+        assertTrue(response.getSeries().get("PROD-B").isEmpty());
+        verify(priceHistoryRepository, times(1)).findChanges(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void getPriceHistory_TooManyRows_Throws() {
+        ReflectionTestUtils.setField(pricingService, "maxHistoryRows", 1);
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        PriceHistory change = PriceHistory.builder().productId(productId).oldPrice(BigDecimal.TEN)
+                .newPrice(BigDecimal.ONE).changedAt(from).build();
+        when(priceHistoryRepository.findChanges(any(), any(), any(), any(Pageable.class))).thenReturn(List.of(change, change));
+
+        assertThrows(PricingException.class, () -> pricingService.getPriceHistory(
+                new PriceHistoryQueryRequest(List.of(productId), from, from.plusDays(1))));
+    }
 }
@@ -0,0 +1,20 @@
+package com.rudraksha.shopsphere.shared.kafka;
+
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers {@link IdempotentConsumer} and its {@link ProcessedEventRepository}. The service needs a
+ * JdbcTemplate, a processed_events table and scheduling enabled for the TTL cleanup.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import({ProcessedEventRepository.class, IdempotentConsumer.class})
+public @interface EnableIdempotentConsumer {
+}
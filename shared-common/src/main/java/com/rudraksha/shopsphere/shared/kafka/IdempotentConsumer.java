@@ -0,0 +1,190 @@
+package com.rudraksha.shopsphere.shared.kafka;
+
+import com.rudraksha.shopsphere.shared.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drops Kafka records whose event was already processed, so a rebalance, restart or relay retry
+ * replaying a record does not run its side effects twice.
+ * The event ID comes from the {@value #EVENT_ID_HEADER} header stamped by the outbox relay, or
+ * from the record's topic, partition and offset for producers that do not set it.
+ * Processed IDs are recorded in the service's processed_events table, shared by all instances, and
+ * deleted after the TTL. An ID is claimed in the table before the handler runs, marked processed
+ * when it returns and released if it throws, so the redelivery is processed. A claim left behind by
+ * a consumer that died is taken over once it is older than the lease, which must therefore exceed
+ * the longest handler run.
+ * A Bloom filter of the IDs processed on this instance sits in front of the table: a first delivery
+ * it has never seen skips the existence check and goes straight to the claim. The filter is kept in
+ * two generations retired after half the TTL or once full, so it stays bounded.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotentConsumer {
+    public static final String EVENT_ID_HEADER = "eventId";
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.dedupe.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${kafka.dedupe.lease:PT1M}")
+    private Duration lease;
+
+    @Value("${kafka.dedupe.claim-poll-interval:PT0.2S}")
+    private Duration claimPollInterval;
+
+    @Value("${kafka.dedupe.max-entries:200000}")
+    private int maxEntries;
+
+    @Value("${kafka.dedupe.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+    private Counter filterMisses;
+    private Counter duplicates;
+    private Counter falsePositives;
+
+    private record Generation(BloomFilter filter, AtomicInteger size, long startedAtMs) {}
+
+    @PostConstruct
+    void init() {
+        current = newGeneration(System.currentTimeMillis());
+        filterMisses = Counter.builder("kafka.consumer.dedupe")
+                .tag("result", "miss")
+                .description("Events the Bloom filter proved new without a store lookup")
+                .register(meterRegistry);
+        duplicates = Counter.builder("kafka.consumer.dedupe")
+                .tag("result", "hit")
+                .description("Events dropped as duplicates")
+                .register(meterRegistry);
+        falsePositives = Counter.builder("kafka.consumer.dedupe")
+                .tag("result", "false_positive")
+                .description("Bloom filter hits the processed-event store did not confirm")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the handler unless the record's event was already processed. If another consumer holds an
+     * unfinished claim on it, waits until that claim is processed, released or stale.
+     * @return false if the record was dropped as a duplicate
+     */
+    public boolean process(ConsumerRecord<String, String> record, Runnable handler) {
+        String eventId = eventId(record);
+        if (mightHaveProcessed(eventId)) {
+            if (processedEventRepository.existsByIdempotencyKey(eventId)) {
+                return dropDuplicate(eventId, record);
+            }
+            falsePositives.increment();
+        } else {
+            filterMisses.increment();
+        }
+
+        while (!claim(eventId)) {
+            if (processedEventRepository.existsByIdempotencyKey(eventId)) {
+                return dropDuplicate(eventId, record);
+            }
+            awaitClaim(eventId);
+        }
+
+        try {
+            handler.run();
+        } catch (RuntimeException e) {
+            processedEventRepository.release(eventId);
+            throw e;
+        }
+        processedEventRepository.markProcessed(eventId, LocalDateTime.now());
+        remember(eventId);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.dedupe.cleanup-interval:PT10M}")
+    public void deleteExpired() {
+        try {
+            int deleted = processedEventRepository.deleteClaimedBefore(LocalDateTime.now().minus(ttl));
+            if (deleted > 0) {
+                log.debug("Deleted {} expired processed event IDs", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete expired processed event IDs", e);
+        }
+    }
+
+    static String eventId(ConsumerRecord<String, String> record) {
+        Header header = record.headers().lastHeader(EVENT_ID_HEADER);
+        if (header != null && header.value() != null) {
+            return new String(header.value(), StandardCharsets.UTF_8);
+        }
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    private boolean claim(String eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        return processedEventRepository.claim(eventId, now, now.minus(lease));
+    }
+
+    private boolean dropDuplicate(String eventId, ConsumerRecord<String, String> record) {
+        duplicates.increment();
+        log.info("Dropping duplicate event {} from {}", eventId, record.topic());
+        return false;
+    }
+
+    // Another consumer is running this event, e.g. the previous owner of a rebalanced partition
+    private void awaitClaim(String eventId) {
+        log.debug("Event {} is claimed by another consumer, waiting", eventId);
+        try {
+            Thread.sleep(claimPollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the claim on event " + eventId, e);
+        }
+    }
+
+    private boolean mightHaveProcessed(String eventId) {
+        rotateIfDue(System.currentTimeMillis());
+        Generation prev = previous;
+        return current.filter().mightContain(eventId) || (prev != null && prev.filter().mightContain(eventId));
+    }
+
+    private void remember(String eventId) {
+        Generation cur = current;
+        cur.filter().put(eventId);
+        cur.size().incrementAndGet();
+    }
+
+    private void rotateIfDue(long nowMs) {
+        Generation cur = current;
+        if (nowMs - cur.startedAtMs() < ttl.toMillis() / 2 && cur.size().get() < generationCapacity()) {
+            return;
+        }
+        synchronized (this) {
+            if (current != cur) {
+                return;
+            }
+            previous = cur;
+            current = newGeneration(nowMs);
+        }
+    }
+
+    private Generation newGeneration(long startedAtMs) {
+        return new Generation(new BloomFilter(generationCapacity(), falsePositiveRate), new AtomicInteger(), startedAtMs);
+    }
+
+    private int generationCapacity() {
+        return Math.max(1, maxEntries / 2);
+    }
+}
@@ -0,0 +1,54 @@
+package com.rudraksha.shopsphere.shared.kafka;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Event IDs claimed or processed by a service's Kafka consumers, in the service's processed_events
+ * table. Shared by every instance, so a record replayed after a rebalance or restart is recognised
+ * wherever it lands. Each statement runs on its own, outside any handler transaction.
+ */
+@RequiredArgsConstructor
+public class ProcessedEventRepository {
+    private static final String CLAIM_SQL =
+        "INSERT INTO processed_events (idempotency_key, claimed_at) VALUES (?, ?) " +
+        "ON CONFLICT (idempotency_key) DO UPDATE SET claimed_at = EXCLUDED.claimed_at " +
+        "WHERE processed_events.processed_at IS NULL AND processed_events.claimed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean existsByIdempotencyKey(String idempotencyKey) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM processed_events WHERE idempotency_key = ? AND processed_at IS NOT NULL)",
+                Boolean.class, idempotencyKey);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Claim an event for processing. Succeeds if nobody has claimed it, or if an unfinished claim was
+     * taken before {@code staleBefore} by a consumer that has presumably died.
+     */
+    public boolean claim(String idempotencyKey, LocalDateTime now, LocalDateTime staleBefore) {
+        return jdbcTemplate.update(CLAIM_SQL, idempotencyKey, Timestamp.valueOf(now), Timestamp.valueOf(staleBefore)) == 1;
+    }
+
+    public void markProcessed(String idempotencyKey, LocalDateTime now) {
+        jdbcTemplate.update("UPDATE processed_events SET processed_at = ? WHERE idempotency_key = ?",
+                Timestamp.valueOf(now), idempotencyKey);
+    }
+
+    /**
+     * Drop an unfinished claim so the event is processed on redelivery.
+     */
+    public void release(String idempotencyKey) {
+        jdbcTemplate.update("DELETE FROM processed_events WHERE idempotency_key = ? AND processed_at IS NULL",
+                idempotencyKey);
+    }
+
+    public int deleteClaimedBefore(LocalDateTime threshold) {
+        return jdbcTemplate.update("DELETE FROM processed_events WHERE claimed_at < ?", Timestamp.valueOf(threshold));
+    }
+}
@@ -0,0 +1,24 @@
+package com.rudraksha.shopsphere.shared.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of a service's outbox_events table, as seen by {@link OutboxRelay}.
+ */
+public interface OutboxRecord {
+    Long getId();
+
+    String getTopic();
+
+    String getKey();
+
+    String getPayload();
+
+    LocalDateTime getCreatedAt();
+
+    int getRetryCount();
+
+    void setRetryCount(int retryCount);
+
+    void setLastError(String lastError);
+}
@@ -0,0 +1,272 @@
+package com.rudraksha.shopsphere.shared.outbox;
+
+import com.rudraksha.shopsphere.shared.kafka.IdempotentConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Relays a service's outbox rows to Kafka.
+ * Rows are split into partitions by key hash. Each partition is claimed by one worker thread on one
+ * instance at a time (transaction-scoped advisory lock), its batch is sent without waiting between
+ * keys, and the acknowledgements are collected afterwards. Ordering is only guaranteed per key: a
+ * key's next event is sent once the previous one is acknowledged, and not at all in this batch if
+ * the previous send failed, so it is retried after the failed one.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay<E extends OutboxRecord> {
+
+    private final OutboxRepository<E> outboxRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbox.scheduler.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.scheduler.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${outbox.scheduler.cleanup-days:7}")
+    private int cleanupDays;
+
+    @Value("${outbox.relay.partitions:8}")
+    private int partitions;
+
+    @Value("${outbox.relay.workers:4}")
+    private int workers;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    private ExecutorService workerPool;
+    // Sends chained behind an earlier send for the same key; kept off the producer's I/O thread
+    private ExecutorService sendPool;
+    private Timer publishLag;
+    private Counter publishedCounter;
+    private Counter failedCounter;
+
+    /**
+     * Completes a send that was not attempted because an earlier event for its key failed or the
+     * batch ran out of time.
+     */
+    private static class NotSentException extends RuntimeException {
+        NotSentException() {
+            super(null, null, false, false);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        workerPool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("outbox-relay-"));
+        sendPool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("outbox-send-"));
+        publishLag = Timer.builder("outbox.publish.lag")
+                .description("Time from outbox insert to broker acknowledgement")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("outbox.events.published")
+                .description("Outbox events acknowledged by the broker")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("outbox.events.failed")
+                .description("Outbox event send attempts that failed")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workerPool.shutdown();
+        sendPool.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.scheduler.interval-ms:1000}")
+    public void publishEvents() {
+        List<Future<Integer>> results = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            int claimed = partition;
+            results.add(workerPool.submit(() -> publishPartition(claimed)));
+        }
+
+        int published = 0;
+        for (Future<Integer> result : results) {
+            try {
+                published += result.get();
+            } catch (ExecutionException e) {
+                log.error("Outbox relay worker for {} failed", applicationName, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (published > 0) {
+            log.debug("Published {} {} outbox events", published, applicationName);
+        }
+    }
+
+    /**
+     * Publish one batch from a partition.
+     * @return number of events marked processed
+     */
+    int publishPartition(int partition) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        Integer published = template.execute(status -> {
+            // Another instance is relaying this partition; skipping keeps per-key order across instances
+            if (!outboxRepository.tryLockPartition(partition)) {
+                return 0;
+            }
+            List<E> events = outboxRepository.findUnprocessedForPartition(batchSize, maxRetries, partitions, partition);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            Set<Long> attempted = ConcurrentHashMap.newKeySet();
+            AtomicBoolean expired = new AtomicBoolean();
+            Map<String, CompletableFuture<SendResult<String, String>>> lastSendByKey = new HashMap<>();
+            List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(events.size());
+            for (E event : events) {
+                CompletableFuture<SendResult<String, String>> previous = lastSendByKey.get(event.getKey());
+                CompletableFuture<SendResult<String, String>> sent;
+                if (previous == null) {
+                    sent = send(event, attempted);
+                } else {
+                    sent = previous.handleAsync((result, error) -> {
+                        if (error != null || expired.get()) {
+                            throw new NotSentException();
+                        }
+                        return send(event, attempted);
+                    }, sendPool).thenCompose(Function.identity());
+                }
+                lastSendByKey.put(event.getKey(), sent);
+                sends.add(sent);
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+            List<Long> processedIds = new ArrayList<>(events.size());
+            List<E> failedEvents = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                E event = events.get(i);
+                try {
+                    sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    processedIds.add(event.getId());
+                    if (event.getCreatedAt() != null) {
+                        publishLag.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof NotSentException) {
+                        // Held back behind a failed event for its key; left for the next batch as is
+                        continue;
+                    }
+                    recordFailure(event, e.getCause());
+                    failedEvents.add(event);
+                } catch (TimeoutException | InterruptedException e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    // Stops the remaining chained sends; an event still waiting for its turn is not a failure
+                    expired.set(true);
+                    if (attempted.contains(event.getId())) {
+                        recordFailure(event, e);
+                        failedEvents.add(event);
+                    }
+                }
+            }
+
+            if (!processedIds.isEmpty()) {
+                outboxRepository.markProcessed(processedIds);
+            }
+            if (!failedEvents.isEmpty()) {
+                outboxRepository.saveAll(failedEvents);
+            }
+            publishedCounter.increment(processedIds.size());
+            return processedIds.size();
+        });
+        return published != null ? published : 0;
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(E event, Set<Long> attempted) {
+        attempted.add(event.getId());
+        ProducerRecord<String, String> record = new ProducerRecord<>(event.getTopic(), event.getKey(), event.getPayload());
+        record.headers().add(IdempotentConsumer.EVENT_ID_HEADER, eventId(event).getBytes(StandardCharsets.UTF_8));
+        try {
+            return kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void recordFailure(E event, Throwable e) {
+        failedCounter.increment();
+        int currentRetry = event.getRetryCount() + 1;
+        event.setRetryCount(currentRetry);
+
+        String errorMsg = e.getMessage();
+        if (errorMsg != null && errorMsg.length() > 500) {
+            errorMsg = errorMsg.substring(0, 500); // Truncate long error messages
+        }
+        event.setLastError(errorMsg);
+
+        if (currentRetry >= maxRetries) {
+            log.error("{} outbox event {} exceeded max retries ({}) and is now marked as FAILED.",
+                    applicationName, event.getId(), maxRetries, e);
+        } else {
+            log.warn("Failed to publish {} outbox event {} (Retry {}/{}): {}",
+                    applicationName, event.getId(), currentRetry, maxRetries, e.getMessage());
+        }
+    }
+
+    /**
+     * Stable per outbox row, so a row re-sent after a lost acknowledgement carries the same ID and
+     * consumers drop the copy.
+     */
+    private String eventId(E event) {
+        String name = applicationName + ":" + event.getId();
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    @Scheduled(cron = "${outbox.scheduler.cleanup-cron:0 0 2 * * *}") // Run daily at 2:00 AM
+    public void cleanupProcessedEvents() {
+        LocalDateTime threshold = LocalDateTime.now().minusDays(cleanupDays);
+        log.info("Starting cleanup of processed {} outbox events older than {}", applicationName, threshold);
+        try {
+            int deletedCount = outboxRepository.deleteProcessedBefore(threshold);
+            log.info("Successfully deleted {} processed {} outbox events", deletedCount, applicationName);
+        } catch (Exception e) {
+            log.error("Failed to clean up processed {} outbox events", applicationName, e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.rudraksha.shopsphere.shared.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Queries {@link OutboxRelay} runs against an outbox_events table. A service's outbox repository
+ * extends this with its own entity.
+ */
+@NoRepositoryBean
+public interface OutboxRepository<E extends OutboxRecord> extends JpaRepository<E, Long> {
+
+    /**
+     * Claim a batch from one key-hash partition. Rows for a given key always land in the same partition.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE processed = false AND retry_count < :maxRetries " +
+                   "AND (hashtext(key) & 2147483647) % :partitions = :partition " +
+                   "ORDER BY id ASC LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<E> findUnprocessedForPartition(@Param("limit") int limit, @Param("maxRetries") int maxRetries,
+                                        @Param("partitions") int partitions, @Param("partition") int partition);
+
+    /**
+     * Transaction-scoped advisory lock so only one relay worker across all instances owns a partition.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('outbox_events'), :partition)", nativeQuery = true)
+    boolean tryLockPartition(@Param("partition") int partition);
+
+    @Modifying
+    @Query("UPDATE #{#entityName} e SET e.processed = true WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM #{#entityName} e WHERE e.processed = true AND e.createdAt < :threshold")
+    int deleteProcessedBefore(@Param("threshold") LocalDateTime threshold);
+}
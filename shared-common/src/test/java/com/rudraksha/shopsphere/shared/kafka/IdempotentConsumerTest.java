@@ -0,0 +1,161 @@
+package com.rudraksha.shopsphere.shared.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentConsumerTest {
+
+    @Mock
+    private ProcessedEventRepository processedEventRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotentConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = consumer();
+    }
+
+    @Test
+    void process_SameEventIdOnDifferentOffsets_RunsHandlerOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        when(processedEventRepository.claim(eq("evt-1"), any(), any())).thenReturn(true);
+        when(processedEventRepository.existsByIdempotencyKey("evt-1")).thenReturn(true);
+
+        assertTrue(consumer.process(record(10, "evt-1"), runs::incrementAndGet));
+        // The relay re-sent the row after a lost ack: new offset, same event ID
+        assertFalse(consumer.process(record(11, "evt-1"), runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+        verify(processedEventRepository).markProcessed(eq("evt-1"), any());
+        verify(processedEventRepository, times(1)).claim(eq("evt-1"), any(), any());
+        assertEquals(1.0, meterRegistry.counter("kafka.consumer.dedupe", "result", "miss").count());
+        assertEquals(1.0, meterRegistry.counter("kafka.consumer.dedupe", "result", "hit").count());
+    }
+
+    @Test
+    void process_EventProcessedOnAnotherInstance_IsDropped() {
+        // Nothing in this instance's filter: the shared store rejects the claim
+        when(processedEventRepository.claim(eq("evt-3"), any(), any())).thenReturn(false);
+        when(processedEventRepository.existsByIdempotencyKey("evt-3")).thenReturn(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertFalse(consumer.process(record(3, "evt-3"), runs::incrementAndGet));
+
+        assertEquals(0, runs.get());
+        verify(processedEventRepository, never()).markProcessed(any(), any());
+    }
+
+    @Test
+    void process_WithoutHeader_DedupesByOffset() {
+        when(processedEventRepository.claim(any(), any(), any())).thenReturn(true);
+
+        consumer.process(record(5, null), () -> {});
+
+        verify(processedEventRepository).claim(eq("order.placed-0@5"), any(), any());
+    }
+
+    @Test
+    void process_FailedHandler_ReleasesClaim() {
+        AtomicInteger runs = new AtomicInteger();
+        when(processedEventRepository.claim(eq("evt-2"), any(), any())).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> consumer.process(record(1, "evt-2"), () -> {
+            throw new IllegalStateException("boom");
+        }));
+        verify(processedEventRepository).release("evt-2");
+        verify(processedEventRepository, never()).markProcessed(any(), any());
+
+        assertTrue(consumer.process(record(1, "evt-2"), runs::incrementAndGet));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void process_ClaimedElsewhere_WaitsForClaimToClear() {
+        // The previous owner of the partition released its claim after our first attempt
+        when(processedEventRepository.claim(eq("evt-4"), any(), any())).thenReturn(false, true);
+        when(processedEventRepository.existsByIdempotencyKey("evt-4")).thenReturn(false);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertTrue(consumer.process(record(4, "evt-4"), runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+        verify(processedEventRepository, times(2)).claim(eq("evt-4"), any(), any());
+    }
+
+    @Test
+    void process_ClaimTakesOverClaimsOlderThanLease() {
+        when(processedEventRepository.claim(any(), any(), any())).thenReturn(true);
+
+        consumer.process(record(6, "evt-6"), () -> {});
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> staleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(processedEventRepository).claim(eq("evt-6"), now.capture(), staleBefore.capture());
+        assertEquals(Duration.ofMinutes(1), Duration.between(staleBefore.getValue(), now.getValue()));
+    }
+
+    @Test
+    void process_RetiresFilterGenerations() {
+        ReflectionTestUtils.setField(consumer, "maxEntries", 10);
+        when(processedEventRepository.claim(any(), any(), any())).thenReturn(true);
+
+        for (int i = 0; i < 100; i++) {
+            consumer.process(record(i, "evt-" + i), () -> {});
+        }
+
+        // The oldest IDs have left the filter and are confirmed against the store instead
+        consumer.process(record(200, "evt-0"), () -> {});
+        verify(processedEventRepository, never()).existsByIdempotencyKey("evt-0");
+    }
+
+    @Test
+    void deleteExpired_DeletesClaimsOlderThanTtl() {
+        LocalDateTime before = LocalDateTime.now().minusHours(24);
+
+        consumer.deleteExpired();
+
+        ArgumentCaptor<LocalDateTime> threshold = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(processedEventRepository).deleteClaimedBefore(threshold.capture());
+        assertFalse(threshold.getValue().isBefore(before));
+        assertTrue(threshold.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+    }
+
+    private IdempotentConsumer consumer() {
+        IdempotentConsumer created = new IdempotentConsumer(processedEventRepository, meterRegistry);
+        ReflectionTestUtils.setField(created, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(created, "lease", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(created, "claimPollInterval", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(created, "maxEntries", 1000);
+        ReflectionTestUtils.setField(created, "falsePositiveRate", 0.01);
+        created.init();
+        return created;
+    }
+
+    private ConsumerRecord<String, String> record(long offset, String eventId) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("order.placed", 0, offset, "ORD-1", "{}");
+        if (eventId != null) {
+            record.headers().add(IdempotentConsumer.EVENT_ID_HEADER, eventId.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
@@ -0,0 +1,195 @@
+package com.rudraksha.shopsphere.shared.outbox;
+
+import com.rudraksha.shopsphere.shared.kafka.IdempotentConsumer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository<TestOutboxEvent> outboxRepository;
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay<TestOutboxEvent> relay;
+
+    @Getter
+    @Setter
+    @Builder
+    static class TestOutboxEvent implements OutboxRecord {
+        private Long id;
+        private String topic;
+        private String key;
+        private String payload;
+        private LocalDateTime createdAt;
+        private int retryCount;
+        private String lastError;
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay<>(outboxRepository, kafkaTemplate, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "maxRetries", 5);
+        ReflectionTestUtils.setField(relay, "partitions", 8);
+        ReflectionTestUtils.setField(relay, "workers", 1);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "applicationName", "inventory-service");
+        relay.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void publishPartition_SendsWholeBatchAndMarksProcessedInBulk() {
+        TestOutboxEvent first = event(1L, "SKU-1");
+        TestOutboxEvent second = event(2L, "SKU-2");
+        when(outboxRepository.tryLockPartition(3)).thenReturn(true);
+        when(outboxRepository.findUnprocessedForPartition(100, 5, 8, 3)).thenReturn(List.of(first, second));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(sent());
+
+        assertEquals(2, relay.publishPartition(3));
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        verify(outboxRepository).markProcessed(List.of(1L, 2L));
+        assertEquals(2.0, meterRegistry.counter("outbox.events.published").count());
+        assertEquals(2, meterRegistry.timer("outbox.publish.lag").count());
+    }
+
+    @Test
+    void publishPartition_SendsLaterEventForKeyAfterEarlierOneIsAcknowledged() {
+        TestOutboxEvent first = event(1L, "SKU-1");
+        TestOutboxEvent second = event(2L, "SKU-1");
+        when(outboxRepository.tryLockPartition(0)).thenReturn(true);
+        when(outboxRepository.findUnprocessedForPartition(100, 5, 8, 0)).thenReturn(List.of(first, second));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(sent());
+
+        assertEquals(2, relay.publishPartition(0));
+
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send(withPayload("payload-1"));
+        inOrder.verify(kafkaTemplate).send(withPayload("payload-2"));
+        verify(outboxRepository).markProcessed(List.of(1L, 2L));
+    }
+
+    @Test
+    void publishPartition_FailedEventStopsLaterEventsForSameKeyBeingSent() {
+        TestOutboxEvent failed = event(1L, "SKU-1");
+        TestOutboxEvent sameKey = event(2L, "SKU-1");
+        TestOutboxEvent otherKey = event(3L, "SKU-2");
+        when(outboxRepository.tryLockPartition(0)).thenReturn(true);
+        when(outboxRepository.findUnprocessedForPartition(100, 5, 8, 0)).thenReturn(List.of(failed, sameKey, otherKey));
+        when(kafkaTemplate.send(withPayload("payload-1")))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaTemplate.send(withPayload("payload-3"))).thenReturn(sent());
+
+        assertEquals(1, relay.publishPartition(0));
+
+        // Sending it would put it on the topic ahead of the failed event's retry
+        verify(kafkaTemplate, never()).send(withPayload("payload-2"));
+        verify(outboxRepository).markProcessed(List.of(3L));
+        verify(outboxRepository).saveAll(List.of(failed));
+        assertEquals(1, failed.getRetryCount());
+        assertEquals(0, sameKey.getRetryCount());
+        assertEquals(1.0, meterRegistry.counter("outbox.events.failed").count());
+    }
+
+    @Test
+    void publishPartition_UnacknowledgedSendHoldsBackSameKeyPastDeadline() {
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 50L);
+        TestOutboxEvent slow = event(1L, "SKU-1");
+        TestOutboxEvent sameKey = event(2L, "SKU-1");
+        CompletableFuture<SendResult<String, String>> pending = new CompletableFuture<>();
+        when(outboxRepository.tryLockPartition(0)).thenReturn(true);
+        when(outboxRepository.findUnprocessedForPartition(100, 5, 8, 0)).thenReturn(List.of(slow, sameKey));
+        when(kafkaTemplate.send(withPayload("payload-1"))).thenReturn(pending);
+
+        assertEquals(0, relay.publishPartition(0));
+        pending.complete(null);
+
+        verify(kafkaTemplate, after(100).never()).send(withPayload("payload-2"));
+        verify(outboxRepository, never()).markProcessed(any());
+        verify(outboxRepository).saveAll(List.of(slow));
+        assertEquals(1, slow.getRetryCount());
+        assertEquals(0, sameKey.getRetryCount());
+    }
+
+    @Test
+    void publishPartition_SkipsPartitionOwnedByAnotherInstance() {
+        when(outboxRepository.tryLockPartition(anyInt())).thenReturn(false);
+
+        assertEquals(0, relay.publishPartition(5));
+
+        verify(outboxRepository, never()).findUnprocessedForPartition(anyInt(), anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishPartition_StampsStableEventIdHeader() {
+        TestOutboxEvent event = event(7L, "SKU-7");
+        when(outboxRepository.tryLockPartition(1)).thenReturn(true);
+        when(outboxRepository.findUnprocessedForPartition(100, 5, 8, 1)).thenReturn(List.of(event));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(sent());
+
+        relay.publishPartition(1);
+        relay.publishPartition(1);
+
+        ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(captor.capture());
+        byte[] first = captor.getAllValues().get(0).headers().lastHeader(IdempotentConsumer.EVENT_ID_HEADER).value();
+        byte[] second = captor.getAllValues().get(1).headers().lastHeader(IdempotentConsumer.EVENT_ID_HEADER).value();
+        assertArrayEquals(first, second);
+    }
+
+    private ProducerRecord<String, String> withPayload(String payload) {
+        return argThat(record -> record != null && payload.equals(record.value()));
+    }
+
+    private TestOutboxEvent event(Long id, String key) {
+        return TestOutboxEvent.builder()
+                .id(id)
+                .topic("inventory.reserved")
+                .key(key)
+                .payload("payload-" + id)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private CompletableFuture<SendResult<String, String>> sent() {
+        return CompletableFuture.completedFuture(null);
+    }
+}